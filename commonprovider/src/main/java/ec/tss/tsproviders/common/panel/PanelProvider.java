@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.panel;
+
+import ec.tss.ITsProvider;
+import ec.tss.TsAsyncMode;
+import ec.tss.TsCollectionInformation;
+import ec.tss.TsInformation;
+import ec.tss.TsInformationType;
+import ec.tss.tsproviders.DataSet;
+import ec.tss.tsproviders.DataSource;
+import ec.tss.tsproviders.utils.AbstractFileLoader;
+import ec.tss.tsproviders.utils.IParam;
+import ec.tss.tsproviders.utils.Params;
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import nbbrd.service.ServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provider of the series stored in panel files (see PanelStore). The files
+ * are memory-mapped: the observations are only copied on the heap when the
+ * data of a series are actually requested.
+ */
+@ServiceProvider(ITsProvider.class)
+public class PanelProvider extends AbstractFileLoader<PanelStore, PanelBean> {
+
+    public static final String SOURCE = "Panel";
+    public static final String VERSION = "20261017";
+    public static final String EXTENSION = "tspanel";
+    static final IParam<DataSet, Integer> Z_SERIESINDEX = Params.onInteger(-1, "seriesIndex");
+    private static final Logger LOGGER = LoggerFactory.getLogger(PanelProvider.class);
+
+    public PanelProvider() {
+        super(LOGGER, SOURCE, TsAsyncMode.Once);
+    }
+
+    @Override
+    protected PanelStore loadFromBean(PanelBean bean) throws Exception {
+        return PanelStore.open(getRealFile(bean.getFile()));
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Panel files";
+    }
+
+    @Override
+    public String getDisplayName(DataSource dataSource) {
+        return decodeBean(dataSource).getFile().getPath();
+    }
+
+    @Override
+    public String getDisplayName(DataSet dataSet) {
+        support.check(dataSet);
+        Integer index = Z_SERIESINDEX.get(dataSet);
+        PanelStore tmp = cache.getIfPresent(dataSet.getDataSource());
+        if (tmp == null || index < 0 || index >= tmp.size()) {
+            return "Series " + index;
+        }
+        return tmp.getName(index);
+    }
+
+    @Override
+    public String getDisplayNodeName(DataSet dataSet) throws IllegalArgumentException {
+        return getDisplayName(dataSet);
+    }
+
+    @Override
+    public List<DataSet> children(DataSource dataSource) throws IOException {
+        support.check(dataSource);
+        int n = getSource(dataSource).size();
+        // the data sets are created lazily (large panels)
+        return new AbstractList<DataSet>() {
+            @Override
+            public DataSet get(int index) {
+                if (index < 0 || index >= n) {
+                    throw new IndexOutOfBoundsException(Integer.toString(index));
+                }
+                return DataSet.builder(dataSource, DataSet.Kind.SERIES).put(Z_SERIESINDEX, index).build();
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+        };
+    }
+
+    @Override
+    public List<DataSet> children(DataSet parent) throws IllegalArgumentException, IOException {
+        Objects.requireNonNull(parent);
+        throw new IllegalArgumentException("Not supported yet.");
+    }
+
+    @Override
+    protected void fillCollection(TsCollectionInformation info, DataSource dataSource) throws IOException {
+        PanelStore store = getSource(dataSource);
+        TsInformationType type = info.type.needsData() ? TsInformationType.All : TsInformationType.BaseInformation;
+        DataSet.Builder builder = DataSet.builder(dataSource, DataSet.Kind.SERIES);
+        for (int i = 0; i < store.size(); ++i) {
+            TsInformation item = newTsInformation(builder.put(Z_SERIESINDEX, i).build(), type);
+            fill(item, store, i);
+            info.items.add(item);
+        }
+        info.type = type;
+    }
+
+    @Override
+    protected void fillCollection(TsCollectionInformation info, DataSet dataSet) throws IOException {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    protected void fillSeries(TsInformation info, DataSet dataSet) throws IOException {
+        PanelStore store = getSource(dataSet.getDataSource());
+        int index = Z_SERIESINDEX.get(dataSet);
+        if (index < 0 || index >= store.size()) {
+            throw new IOException("Invalid series index: " + index);
+        }
+        info.type = info.type.needsData() ? TsInformationType.All : TsInformationType.BaseInformation;
+        fill(info, store, index);
+    }
+
+    private static void fill(TsInformation info, PanelStore store, int index) {
+        info.name = store.getName(index);
+        if (info.type.needsData()) {
+            info.data = store.toTsData(index);
+            info.invalidDataCause = null;
+        }
+    }
+
+    public PanelStore getSource(DataSource dataSource) throws IOException {
+        return support.getValue(cache, dataSource);
+    }
+
+    @Override
+    public PanelBean newBean() {
+        return new PanelBean();
+    }
+
+    @Override
+    public DataSource encodeBean(Object bean) throws IllegalArgumentException {
+        try {
+            return ((PanelBean) bean).toDataSource(SOURCE, VERSION);
+        } catch (ClassCastException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    @Override
+    public PanelBean decodeBean(DataSource dataSource) {
+        return new PanelBean(support.check(dataSource));
+    }
+
+    @Override
+    public boolean accept(File pathname) {
+        return pathname.getName().toLowerCase(Locale.ENGLISH).endsWith("." + EXTENSION);
+    }
+
+    @Override
+    public String getFileDescription() {
+        return "Panel file (." + EXTENSION + ")";
+    }
+}
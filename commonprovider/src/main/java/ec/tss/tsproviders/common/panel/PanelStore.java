@@ -0,0 +1,424 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.panel;
+
+import ec.tstoolkit.data.IReadDataBlock;
+import ec.tstoolkit.data.ReadDataBuffer;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Columnar store of a (large) panel of time series, kept outside of the Java
+ * heap. The file is memory-mapped; the heap only contains the store itself.
+ * The observations are accessed through zero-copy views (getData) and TsData
+ * objects are only created on demand (toTsData).
+ * <br>
+ * File layout (little endian):
+ * <ul>
+ * <li>header (32 bytes): magic number "TSPANEL1", number of series (int),
+ * version (int), position of the names (long), position of the index
+ * (long)</li>
+ * <li>data: the observations of all the series (doubles, NaN for the missing
+ * values). A series never crosses a segment of SEGMENT_SIZE bytes, so that
+ * each segment can be mapped separately</li>
+ * <li>names: for each series, the length (unsigned short) and the UTF-8 bytes
+ * of its name</li>
+ * <li>index: for each series (24 bytes): position of the data (long), number
+ * of observations (int), frequency (int, Undefined is not supported), start
+ * period (int, number of periods since 1970), position of the name in the
+ * names section (int)</li>
+ * </ul>
+ * The store is immutable and can be shared between threads. New files are
+ * created by means of a Writer.
+ */
+public final class PanelStore implements Closeable {
+
+    public static final int VERSION = 1;
+    public static final long SEGMENT_SIZE = 1L << 30;
+    static final int HEADER_SIZE = 32, ENTRY_SIZE = 24, MAX_NAME = 0xFFFF;
+    static final byte[] MAGIC = "TSPANEL1".getBytes(StandardCharsets.US_ASCII);
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Opens a panel file
+     *
+     * @param file
+     * @return
+     * @throws IOException The file doesn't exist or it is not a valid panel
+     * file
+     */
+    public static PanelStore open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Invalid panel file: " + file.getPath());
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ORDER);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            int count = header.getInt(8), version = header.getInt(12);
+            long namesPos = header.getLong(16), indexPos = header.getLong(24);
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION || count < 0
+                    || namesPos < HEADER_SIZE || indexPos < namesPos
+                    || indexPos + (long) count * ENTRY_SIZE != size) {
+                throw new IOException("Invalid panel file: " + file.getPath());
+            }
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexPos, (long) count * ENTRY_SIZE).order(ORDER);
+            ByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, namesPos, indexPos - namesPos).order(ORDER);
+            long dataSize = namesPos - HEADER_SIZE;
+            for (int i = 0; i < count; ++i) {
+                if (!isValid(index, i * ENTRY_SIZE, dataSize, names)) {
+                    throw new IOException("Invalid panel file: " + file.getPath() + " (series " + i + ")");
+                }
+            }
+            DoubleBuffer[] segments = new DoubleBuffer[(int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; ++i) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                        Math.min(SEGMENT_SIZE, dataSize - start)).order(ORDER).asDoubleBuffer();
+            }
+            // the mappings remain valid after the closing of the channel
+            return new PanelStore(file, count, index, names, segments);
+        }
+    }
+
+    private static boolean isDefined(int freq) {
+        return freq > 0 && TsFrequency.valueOf(freq) != null;
+    }
+
+    /**
+     * Checks that an entry of the index only refers to its own sections of
+     * the file: the observations inside the data (in a single segment) and
+     * the name inside the names.
+     */
+    private static boolean isValid(ByteBuffer index, int e, long dataSize, ByteBuffer names) {
+        long pos = index.getLong(e) - HEADER_SIZE;
+        int n = index.getInt(e + 8), npos = index.getInt(e + 20);
+        // the start periods are decoded with the frequency
+        if (!isDefined(index.getInt(e + 12)) || n < 0 || pos < 0 || (pos & 7) != 0
+                || pos > dataSize - ((long) n << 3) || pos % SEGMENT_SIZE + ((long) n << 3) > SEGMENT_SIZE) {
+            return false;
+        }
+        return npos >= 0 && npos <= names.limit() - 2
+                && npos + 2 + (names.getShort(npos) & 0xFFFF) <= names.limit();
+    }
+
+    private final File file;
+    private final int count;
+    private final ByteBuffer index, names;
+    private final DoubleBuffer[] segments;
+    private volatile int[] lookup;
+
+    private PanelStore(File file, int count, ByteBuffer index, ByteBuffer names, DoubleBuffer[] segments) {
+        this.file = file;
+        this.count = count;
+        this.index = index;
+        this.names = names;
+        this.segments = segments;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return The number of series
+     */
+    public int size() {
+        return count;
+    }
+
+    private int entry(int series) {
+        if (series < 0 || series >= count) {
+            throw new IndexOutOfBoundsException(Integer.toString(series));
+        }
+        return series * ENTRY_SIZE;
+    }
+
+    public String getName(int series) {
+        int pos = index.getInt(entry(series) + 20);
+        int len = names.getShort(pos) & 0xFFFF;
+        byte[] bytes = new byte[len];
+        ByteBuffer tmp = names.duplicate();
+        tmp.position(pos + 2);
+        tmp.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getLength(int series) {
+        return index.getInt(entry(series) + 8);
+    }
+
+    public TsFrequency getFrequency(int series) {
+        return TsFrequency.valueOf(index.getInt(entry(series) + 12));
+    }
+
+    public TsPeriod getStart(int series) {
+        int e = entry(series);
+        int freq = index.getInt(e + 12), id = index.getInt(e + 16);
+        return new TsPeriod(TsFrequency.valueOf(freq), 1970 + Math.floorDiv(id, freq), Math.floorMod(id, freq));
+    }
+
+    public TsDomain getDomain(int series) {
+        return new TsDomain(getStart(series), getLength(series));
+    }
+
+    /**
+     * Gets the observations of a series. The data are not copied
+     *
+     * @param series The index of the series
+     * @return A read-only view on the mapped file
+     */
+    public IReadDataBlock getData(int series) {
+        int e = entry(series);
+        long pos = index.getLong(e) - HEADER_SIZE;
+        return new ReadDataBuffer(segments[(int) (pos / SEGMENT_SIZE)], (int) ((pos % SEGMENT_SIZE) >> 3), index.getInt(e + 8));
+    }
+
+    /**
+     * Creates a new time series (the observations are copied on the heap)
+     *
+     * @param series The index of the series
+     * @return
+     */
+    public TsData toTsData(int series) {
+        return new TsData(getStart(series), getData(series));
+    }
+
+    /**
+     * Searches a series by its name. The first call builds a compact hash
+     * table of the names (one int by series).
+     *
+     * @param name
+     * @return The index of the first series with the given name, or -1
+     */
+    public int indexOf(String name) {
+        int[] table = lookup;
+        if (table == null) {
+            table = buildLookup();
+        }
+        int mask = table.length - 1;
+        for (int h = name.hashCode() & mask;; h = (h + 1) & mask) {
+            int cur = table[h];
+            if (cur == 0) {
+                return -1;
+            } else if (name.equals(getName(cur - 1))) {
+                return cur - 1;
+            }
+        }
+    }
+
+    private synchronized int[] buildLookup() {
+        if (lookup != null) {
+            return lookup;
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < count; ++i) {
+            String name = getName(i);
+            int h = name.hashCode() & mask;
+            while (table[h] != 0 && !name.equals(getName(table[h] - 1))) {
+                h = (h + 1) & mask;
+            }
+            // keeps the first series of each name
+            if (table[h] == 0) {
+                table[h] = i + 1;
+            }
+        }
+        lookup = table;
+        return table;
+    }
+
+    /**
+     * The mappings are released by the garbage collector, when the store is
+     * no longer referenced.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Sequential writer of a panel file. The observations are written as they
+     * are added; only the index and the names are kept in memory until the
+     * writer is closed.
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ORDER);
+        private ByteBuffer index = ByteBuffer.allocate(ENTRY_SIZE * 1024).order(ORDER);
+        private ByteBuffer names = ByteBuffer.allocate(1 << 16).order(ORDER);
+        private long pos = HEADER_SIZE;
+        private int count;
+        private boolean closed;
+
+        public Writer(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Adds a series
+         *
+         * @param name The name of the series
+         * @param data The series
+         * @return The index of the series in the store
+         * @throws IOException
+         */
+        public int add(String name, TsData data) throws IOException {
+            return add(name, data.getStart(), data);
+        }
+
+        /**
+         * Adds a series
+         *
+         * @param name The name of the series
+         * @param start The first period
+         * @param data The observations (NaN for missing values)
+         * @return The index of the series in the store
+         * @throws IOException
+         */
+        public int add(String name, TsPeriod start, IReadDataBlock data) throws IOException {
+            if (closed) {
+                throw new IOException("Closed writer");
+            }
+            if (!isDefined(start.getFrequency().intValue())) {
+                throw new IllegalArgumentException("Undefined frequency");
+            }
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME) {
+                throw new IllegalArgumentException("Name too long");
+            }
+            int n = data.getLength();
+            long size = (long) n << 3;
+            if (size > SEGMENT_SIZE) {
+                throw new IllegalArgumentException("Series too long");
+            }
+            // a series never crosses a segment
+            long rel = pos - HEADER_SIZE, offset = rel % SEGMENT_SIZE;
+            if (offset != 0 && offset + size > SEGMENT_SIZE) {
+                for (long i = offset; i < SEGMENT_SIZE; i += 8) {
+                    putDouble(0);
+                }
+            }
+            long dpos = pos;
+            for (int i = 0; i < n; ++i) {
+                putDouble(data.get(i));
+            }
+            // name
+            names = ensure(names, bytes.length + 2);
+            int npos = names.position();
+            names.putShort((short) bytes.length);
+            names.put(bytes);
+            // index
+            index = ensure(index, ENTRY_SIZE);
+            index.putLong(dpos);
+            index.putInt(n);
+            index.putInt(start.getFrequency().intValue());
+            index.putInt(start.id());
+            index.putInt(npos);
+            return count++;
+        }
+
+        /**
+         * @return The number of series added so far
+         */
+        public int size() {
+            return count;
+        }
+
+        private void putDouble(double value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putDouble(value);
+            pos += 8;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static ByteBuffer ensure(ByteBuffer buffer, int n) {
+            if (buffer.remaining() >= n) {
+                return buffer;
+            }
+            int capacity = Math.max(buffer.capacity() + n, buffer.capacity() * 2);
+            ByteBuffer nbuffer = ByteBuffer.allocate(capacity).order(ORDER);
+            buffer.flip();
+            nbuffer.put(buffer);
+            return nbuffer;
+        }
+
+        /**
+         * Writes the names, the index and the header and closes the file
+         *
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush();
+                long namesPos = pos;
+                names.flip();
+                while (names.hasRemaining()) {
+                    channel.write(names);
+                }
+                long indexPos = namesPos + names.limit();
+                index.flip();
+                while (index.hasRemaining()) {
+                    channel.write(index);
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+                header.put(MAGIC);
+                header.putInt(count);
+                header.putInt(VERSION);
+                header.putLong(namesPos);
+                header.putLong(indexPos);
+                header.flip();
+                channel.position(0);
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
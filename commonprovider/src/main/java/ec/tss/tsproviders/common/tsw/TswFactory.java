@@ -92,7 +92,7 @@ abstract class TswFactory {
         abstract protected List<TswSeries> loadFile(String fileName, CheckedIterator<String, IOException> iterator) throws IOException;
     }
 
-    private enum TswFilters implements DirectoryStream.Filter<Path> {
+    enum TswFilters implements DirectoryStream.Filter<Path> {
 
         ANY_FILE {
             @Override
@@ -191,12 +191,12 @@ abstract class TswFactory {
         return new TswSeries(fileName, name, OptionalTsData.present(result));
     }
 
-    private static final Charset TSW_CHARSET = StandardCharsets.US_ASCII;
-    private static final int TSW_NAN = -99999;
+    static final Charset TSW_CHARSET = StandardCharsets.US_ASCII;
+    static final int TSW_NAN = -99999;
 
-    private final static class NameParser implements IParser<String> {
+    final static class NameParser implements IParser<String> {
 
-        private static final NameParser INSTANCE = new NameParser();
+        static final NameParser INSTANCE = new NameParser();
 
         @Override
         public String parse(CharSequence input) throws NullPointerException {
@@ -205,9 +205,9 @@ abstract class TswFactory {
         }
     }
 
-    private final static class DomainParser implements IParser<TsDomain> {
+    final static class DomainParser implements IParser<TsDomain> {
 
-        private static final DomainParser INSTANCE = new DomainParser();
+        static final DomainParser INSTANCE = new DomainParser();
 
         @Override
         public TsDomain parse(CharSequence input) throws NullPointerException {
@@ -253,7 +253,7 @@ abstract class TswFactory {
         }
     }
 
-    private final static class ValueParser extends Parsers.FailSafeParser<Number> {
+    final static class ValueParser extends Parsers.FailSafeParser<Number> {
 
         private final NumberFormat numberFormat = NumberFormat.getInstance(Locale.ROOT);
 
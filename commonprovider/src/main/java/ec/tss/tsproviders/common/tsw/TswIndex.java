@@ -0,0 +1,369 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.tsw;
+
+import com.google.common.collect.Lists;
+import ec.tss.tsproviders.utils.IParser;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import ec.tstoolkit.utilities.Tokenizer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Index of the series of a TSW repository. Each file is scanned once, with
+ * positional reads (the files are not kept open), to locate its series; the
+ * values of a series are only parsed when the series is requested. The files
+ * are checked (size and modification time) on each load: unchanged files are
+ * not read again and only the new part of a file that has grown (with the
+ * same checksum for the first and the last block of the part already
+ * scanned) is scanned.
+ * <br>
+ * The results are identical to the ones of the default TswFactory.
+ */
+final class TswIndex {
+
+    // size of the blocks used to check that a file has only been appended
+    private static final int CHECK_SIZE = 65536;
+
+    private final Path repository;
+    private Map<String, FileIndex> files;
+
+    TswIndex(@NonNull Path repository) {
+        this.repository = repository;
+        this.files = new HashMap<>();
+    }
+
+    @NonNull
+    public synchronized TswSource load() throws IOException {
+        Map<String, FileIndex> current = new HashMap<>();
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(repository, TswFactory.TswFilters.ANY_FILE)) {
+            for (Path file : ds) {
+                String fileName = file.getFileName().toString();
+                FileIndex index = files.get(fileName);
+                if (index == null) {
+                    index = new FileIndex(file, fileName);
+                }
+                index.refresh();
+                current.put(fileName, index);
+                entries.addAll(index.entries);
+            }
+        }
+        files = current;
+        return new TswSource(repository.toFile(), new LazySeriesList(entries),
+                Lists.transform(entries, o -> o.fileName), Lists.transform(entries, o -> o.name));
+    }
+
+    /**
+     * Position of a series in a file. The values are parsed on demand.
+     */
+    private static final class Entry {
+
+        final Path file;
+        final String fileName;
+        final String name;
+        final TsPeriod start;
+        final int count;
+        final long position, end;
+        final OptionalTsData failure;
+
+        Entry(Path file, String fileName, String name, TsPeriod start, int count, long position, long end, OptionalTsData failure) {
+            this.file = file;
+            this.fileName = fileName;
+            this.name = name;
+            this.start = start;
+            this.count = count;
+            this.position = position;
+            this.end = end;
+            this.failure = failure;
+        }
+
+        TswSeries load() {
+            if (failure != null) {
+                return new TswSeries(fileName, name, failure);
+            }
+            String text;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = read(channel, position, (int) (end - position));
+                text = new String(buffer.array(), 0, buffer.limit(), TswFactory.TSW_CHARSET);
+            } catch (IOException ex) {
+                return new TswSeries(fileName, name, OptionalTsData.absent("Cannot read file: " + ex.getMessage()));
+            }
+            double[] values = new double[count];
+            IParser<Number> valueParser = new TswFactory.ValueParser();
+            Tokenizer tokenizer = new Tokenizer(text);
+            for (int i = 0; i < count; ++i) {
+                Number value = tokenizer.hasNextToken() ? valueParser.parse(tokenizer.nextToken()) : null;
+                if (value == null) {
+                    // the file has been modified since its scan
+                    return new TswSeries(fileName, name, OptionalTsData.absent("Cannot parse value at line " + (i + 2)));
+                }
+                double tmp = value.doubleValue();
+                values[i] = tmp == TswFactory.TSW_NAN ? Double.NaN : tmp;
+            }
+            return new TswSeries(fileName, name, OptionalTsData.present(new TsData(start, values, false)));
+        }
+    }
+
+    /**
+     * List of series that are created (and kept) when they are first accessed.
+     */
+    private static final class LazySeriesList extends AbstractList<TswSeries> {
+
+        private final List<Entry> entries;
+        private final AtomicReferenceArray<TswSeries> series;
+
+        LazySeriesList(List<Entry> entries) {
+            this.entries = entries;
+            this.series = new AtomicReferenceArray<>(entries.size());
+        }
+
+        @Override
+        public TswSeries get(int index) {
+            TswSeries result = series.get(index);
+            if (result == null) {
+                result = entries.get(index).load();
+                if (!series.compareAndSet(index, null, result)) {
+                    result = series.get(index);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class FileIndex {
+
+        private final Path file;
+        private final String fileName;
+        private long size, lastModified;
+        // entries and checksum of the first "resume" bytes, which don't need to be scanned again
+        private long resume, checksum;
+        private int complete;
+        private List<Entry> entries;
+
+        FileIndex(Path file, String fileName) {
+            this.file = file;
+            this.fileName = fileName;
+            this.size = -1;
+            this.entries = Collections.emptyList();
+        }
+
+        void refresh() throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long newModified = attributes.lastModifiedTime().toMillis();
+            if (attributes.size() == size && newModified == lastModified) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long newSize = channel.size();
+                if (resume == 0 || newSize < resume || checksum(channel, resume) != checksum) {
+                    resume = 0;
+                    complete = 0;
+                }
+                scan(channel, newSize);
+                size = newSize;
+                lastModified = newModified;
+            }
+        }
+
+        private void scan(FileChannel channel, long newSize) throws IOException {
+            long base = resume;
+            if (newSize - base > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+            ByteBuffer buffer = read(channel, base, (int) (newSize - base));
+            for (int i = 0; i < buffer.limit(); ++i) {
+                if (buffer.get(i) < 0) {
+                    // not an ASCII file
+                    entries = Collections.emptyList();
+                    resume = 0;
+                    complete = 0;
+                    return;
+                }
+            }
+            List<Entry> result = new ArrayList<>(entries.subList(0, complete));
+            int limit = buffer.limit(), pos = 0;
+            while (pos < limit) {
+                // Read first line (name)
+                int eol = endOfLine(buffer, pos);
+                String name = TswFactory.NameParser.INSTANCE.parse(text(buffer, pos, eol));
+                pos = nextLine(buffer, eol);
+                if (name == null) {
+                    if (isTerminated(buffer, eol)) {
+                        commit(base + pos, result.size());
+                    }
+                    continue;
+                }
+                if (pos == limit) {
+                    break;
+                }
+
+                // Read second line (domain)
+                eol = endOfLine(buffer, pos);
+                TsDomain domain = TswFactory.DomainParser.INSTANCE.parse(text(buffer, pos, eol));
+                pos = nextLine(buffer, eol);
+                boolean terminated = isTerminated(buffer, eol);
+                if (domain == null) {
+                    if (terminated) {
+                        commit(base + pos, result.size());
+                    }
+                    continue;
+                }
+
+                // Count the values, which are checked but not stored
+                long position = base + pos;
+                int length = domain.getLength(), count = 0;
+                OptionalTsData failure = null;
+                while (pos < limit && count < length && failure == null) {
+                    eol = endOfLine(buffer, pos);
+                    int cur = pos;
+                    while (cur < eol) {
+                        while (cur < eol && isWhitespace(buffer.get(cur))) {
+                            ++cur;
+                        }
+                        if (cur == eol) {
+                            break;
+                        }
+                        int tokenStart = cur;
+                        while (cur < eol && !isWhitespace(buffer.get(cur))) {
+                            ++cur;
+                        }
+                        if (count < length) {
+                            if (!isValue(buffer, tokenStart, cur)) {
+                                failure = OptionalTsData.absent("Cannot parse value at line " + (count + 2));
+                                break;
+                            }
+                            ++count;
+                        }
+                    }
+                    pos = nextLine(buffer, eol);
+                    terminated = isTerminated(buffer, eol);
+                }
+                result.add(new Entry(file, fileName, name, domain.getStart(), count, position, base + pos, failure));
+                if ((failure != null || count == length) && terminated) {
+                    commit(base + pos, result.size());
+                }
+            }
+            entries = result;
+            if (resume > base) {
+                checksum = checksum(channel, resume);
+            }
+        }
+
+        private void commit(long position, int count) {
+            resume = position;
+            complete = count;
+        }
+
+        private boolean isValue(ByteBuffer buffer, int start, int end) {
+            // fast path for the usual numbers; the other tokens are checked by the parser
+            int i = start;
+            if (buffer.get(i) == '+') {
+                ++i;
+            }
+            if (i < end && buffer.get(i) == '-') {
+                ++i;
+            }
+            if (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                return true;
+            }
+            return new TswFactory.ValueParser().parse(text(buffer, start, end)) != null;
+        }
+    }
+
+    private static int endOfLine(ByteBuffer buffer, int pos) {
+        int limit = buffer.limit();
+        while (pos < limit) {
+            byte c = buffer.get(pos);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            ++pos;
+        }
+        return pos;
+    }
+
+    private static int nextLine(ByteBuffer buffer, int eol) {
+        int limit = buffer.limit();
+        if (eol == limit) {
+            return limit;
+        }
+        return buffer.get(eol) == '\r' && eol + 1 < limit && buffer.get(eol + 1) == '\n' ? eol + 2 : eol + 1;
+    }
+
+    private static boolean isTerminated(ByteBuffer buffer, int eol) {
+        // a final '\r' could be followed by an appended '\n'
+        int limit = buffer.limit();
+        return eol < limit && !(eol + 1 == limit && buffer.get(eol) == '\r');
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return Character.isWhitespace((char) c);
+    }
+
+    private static String text(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, TswFactory.TSW_CHARSET);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(length);
+        while (result.hasRemaining()) {
+            if (channel.read(result, position + result.position()) < 0) {
+                break;
+            }
+        }
+        result.flip();
+        return result;
+    }
+
+    // checksum of the first "length" bytes of the file, limited to their first and last blocks
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        long head = Math.min(length, CHECK_SIZE), tail = Math.max(head, length - CHECK_SIZE);
+        ByteBuffer first = read(channel, 0, (int) head), last = read(channel, tail, (int) (length - tail));
+        crc.update(first.array(), 0, first.limit());
+        crc.update(last.array(), 0, last.limit());
+        return crc.getValue();
+    }
+}
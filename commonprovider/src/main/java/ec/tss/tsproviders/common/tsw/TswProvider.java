@@ -31,7 +31,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import nbbrd.service.ServiceProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,8 +52,12 @@ public class TswProvider extends AbstractFileLoader<TswSource, TswBean> {
     static final IParam<DataSet, String> Z_NAME = Params.onString("", "name");
     private static final Logger LOGGER = LoggerFactory.getLogger(TswProvider.class);
 
+    // the indexes survive the cache so that a reload only scans the modified files
+    private final ConcurrentMap<DataSource, TswIndex> indexes;
+
     public TswProvider() {
         super(LOGGER, SOURCE, TsAsyncMode.Once);
+        this.indexes = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -95,7 +102,20 @@ public class TswProvider extends AbstractFileLoader<TswSource, TswBean> {
 
     @Override
     protected TswSource loadFromBean(TswBean bean) throws Exception {
-        return TswFactory.getDefault().load(getRealFile(bean.getFile()).toPath());
+        File repository = getRealFile(bean.getFile());
+        return indexes.computeIfAbsent(encodeBean(bean), o -> new TswIndex(repository.toPath())).load();
+    }
+
+    @Override
+    public boolean close(DataSource dataSource) {
+        indexes.remove(dataSource);
+        return super.close(dataSource);
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        indexes.clear();
     }
 
     @Override
@@ -125,10 +145,11 @@ public class TswProvider extends AbstractFileLoader<TswSource, TswBean> {
     public List<DataSet> children(DataSource dataSource) throws IllegalArgumentException, IOException {
         support.check(dataSource);
         DataSet.Builder builder = DataSet.builder(dataSource, DataSet.Kind.SERIES);
-        return getSource(dataSource).items.stream()
-                .map(o -> builder
-                        .put(Z_FILENAME, o.fileName)
-                        .put(Z_NAME, o.name)
+        TswSource source = getSource(dataSource);
+        return IntStream.range(0, source.items.size())
+                .mapToObj(i -> builder
+                        .put(Z_FILENAME, source.fileNames.get(i))
+                        .put(Z_NAME, source.names.get(i))
                         .build())
                 .collect(Collectors.toList());
     }
@@ -137,7 +158,8 @@ public class TswProvider extends AbstractFileLoader<TswSource, TswBean> {
     public String getDisplayName(DataSet dataSet) {
         support.check(dataSet);
         try {
-            return getSeries(dataSet).name;
+            TswSource source = getSource(dataSet.getDataSource());
+            return source.names.get(indexOf(source, dataSet));
         } catch (IOException ex) {
             return Z_FILENAME.get(dataSet);
         }
@@ -154,22 +176,17 @@ public class TswProvider extends AbstractFileLoader<TswSource, TswBean> {
 
     public TswSeries getSeries(DataSet dataSet) throws IOException {
         support.check(dataSet);
+        TswSource source = getSource(dataSet.getDataSource());
+        return source.items.get(indexOf(source, dataSet));
+    }
+
+    private static int indexOf(TswSource source, DataSet dataSet) throws FileNotFoundException {
         String fileName = Z_FILENAME.get(dataSet);
         String name = Z_NAME.get(dataSet);
-        List<TswSeries> items = getSource(dataSet.getDataSource()).items;
-        if (!name.isEmpty()) {
-            // NewFactory
-            for (TswSeries s : items) {
-                if (s.fileName.equals(fileName) && s.name.equals(name)) {
-                    return s;
-                }
-            }
-        } else {
-            // OldFactory
-            for (TswSeries s : items) {
-                if (s.fileName.equals(fileName)) {
-                    return s;
-                }
+        for (int i = 0; i < source.fileNames.size(); i++) {
+            // the name is empty with the OldFactory
+            if (source.fileNames.get(i).equals(fileName) && (name.isEmpty() || source.names.get(i).equals(name))) {
+                return i;
             }
         }
         throw new FileNotFoundException(fileName);
@@ -16,6 +16,7 @@
  */
 package ec.tss.tsproviders.common.tsw;
 
+import com.google.common.collect.Lists;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
@@ -28,10 +29,19 @@ public final class TswSource {
 
     final File repository;
     final List<TswSeries> items;
+    // file names and names of the items, available without loading them
+    final List<String> fileNames;
+    final List<String> names;
 
     public TswSource(File repository, List<TswSeries> items) {
+        this(repository, items, Lists.transform(items, o -> o.fileName), Lists.transform(items, o -> o.name));
+    }
+
+    TswSource(File repository, List<TswSeries> items, List<String> fileNames, List<String> names) {
         this.repository = repository;
         this.items = items;
+        this.fileNames = fileNames;
+        this.names = names;
     }
 
     @Deprecated
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.txt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Incremental loader of a text file. The file is read by blocks (positional
+ * reads, so that it is not kept locked) and the parsed rows are softly kept
+ * between two loads; when the file has only been appended (same checksum of
+ * the first and of the last block of the previously parsed part), only the
+ * new lines are parsed. The whole file is parsed again when the rows have
+ * been reclaimed. The series themselves are created on demand.
+ * <br>
+ * The incremental reading is only used with charsets in which a new line is
+ * a single byte that can't be part of another character (UTF-8 and the single
+ * byte charsets); the whole file is parsed again in the other cases.
+ */
+final class TxtIndex {
+
+    // size of the blocks read from the file
+    private static final int BLOCK_SIZE = 65536;
+
+    private final File file;
+    private final TxtBean bean;
+    private final boolean appendable;
+    private long size, lastModified;
+    // rows of the first "offset" bytes, which don't need to be parsed again,
+    // with the checksum of the bounds of that part and its number of rows
+    private SoftReference<TxtLoader.Table> table;
+    private long offset, checksum;
+    private int rows;
+    private SoftReference<TxtSource> last;
+
+    TxtIndex(@NonNull File file, @NonNull TxtBean bean) {
+        this.file = file;
+        this.bean = bean;
+        this.appendable = isAppendable(bean.charset);
+        this.size = -1;
+        this.table = new SoftReference<>(null);
+        this.last = new SoftReference<>(null);
+    }
+
+    @NonNull
+    public synchronized TxtSource load() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        long newModified = attributes.lastModifiedTime().toMillis();
+        if (attributes.size() == size && newModified == lastModified) {
+            TxtSource result = last.get();
+            if (result != null) {
+                return result;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long newSize = channel.size();
+            TxtLoader.Table base = table.get();
+            if (base == null || base.getRowCount() != rows || newSize < offset || checksum(channel, offset) != checksum) {
+                base = null;
+                offset = 0;
+            }
+            TxtLoader.Table result = read(channel, base, newSize);
+            size = newSize;
+            lastModified = newModified;
+            TxtSource source = result.toSource(TxtLoader.getGathering(bean));
+            last = new SoftReference<>(source);
+            return source;
+        } catch (IOException | RuntimeException ex) {
+            table = new SoftReference<>(null);
+            offset = 0;
+            size = -1;
+            throw ex;
+        }
+    }
+
+    private TxtLoader.Table read(FileChannel channel, TxtLoader.Table table, long newSize) throws IOException {
+        long from = offset;
+        int skipLines = from == 0 ? bean.skipLines : 0;
+        long cut = appendable ? getCompleteLength(channel, from, newSize, skipLines) : 0;
+        TxtLoader.Table base = table != null ? table : new TxtLoader.Table(bean.isHeaders());
+        if (cut > 0) {
+            read(base, channel, from, from + cut, skipLines);
+        }
+        TxtLoader.Table result = base;
+        if (from + cut < newSize) {
+            // the last lines can still be completed: they are parsed in a copy
+            boolean kept = cut > 0 || table != null;
+            result = kept ? base.copy() : base;
+            read(result, channel, from + cut, newSize, cut == 0 ? skipLines : 0);
+        }
+        if (cut > 0) {
+            offset = from + cut;
+            checksum = checksum(channel, offset);
+            rows = base.getRowCount();
+            this.table = new SoftReference<>(base);
+        }
+        return result;
+    }
+
+    private void read(TxtLoader.Table target, FileChannel channel, long start, long end, int skipLines) throws IOException {
+        Reader reader = new InputStreamReader(new ChannelInputStream(channel, start, end), bean.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT));
+        TxtLoader.read(target, reader, bean, skipLines);
+    }
+
+    /**
+     * Computes the length of the part of the file (from a given position) that
+     * contains complete rows, that is the rows followed by a new line outside
+     * of a quoted text (after the skipped lines).
+     */
+    private long getCompleteLength(FileChannel channel, long from, long to, int skipLines) throws IOException {
+        byte quote = (byte) TxtLoader.toChar(bean.textQualifier);
+        long result = 0, lines = 0;
+        // escaped: the previous byte is a backslash in a quoted text
+        boolean quoted = false, escaped = false;
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        for (long position = from; position < to;) {
+            int n = read(channel, block, position, to);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; ++i) {
+                byte c = block.get(i);
+                if (escaped) {
+                    escaped = false;
+                    if (c == quote || c == '\\') {
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    if (++lines > skipLines && !quoted) {
+                        result = position + i + 1 - from;
+                    }
+                } else if (lines >= skipLines) {
+                    if (c == quote) {
+                        quoted = !quoted;
+                    } else if (quoted && c == '\\') {
+                        escaped = true;
+                    }
+                }
+            }
+            position += n;
+        }
+        return result;
+    }
+
+    private static boolean isAppendable(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || (charset.newEncoder().maxBytesPerChar() == 1 && "\n\"'".equals(new String("\n\"'".getBytes(charset), StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Reads the block that starts at a given position (and ends before "to",
+     * if possible). Returns the number of bytes read, which are at the
+     * beginning of the block.
+     */
+    private static int read(FileChannel channel, ByteBuffer block, long position, long to) throws IOException {
+        block.clear();
+        if (to - position < block.capacity()) {
+            block.limit((int) (to - position));
+        }
+        while (block.hasRemaining() && channel.read(block, position + block.position()) >= 0) {
+        }
+        return block.position();
+    }
+
+    /**
+     * Checksum of the first "length" bytes of the file, limited to their
+     * first and last blocks (so that the cost of a check doesn't depend on the
+     * size of the file).
+     */
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        long head = Math.min(length, BLOCK_SIZE), tail = Math.max(head, length - BLOCK_SIZE);
+        update(crc, block, channel, 0, head);
+        update(crc, block, channel, tail, length);
+        return crc.getValue();
+    }
+
+    private static void update(CRC32 crc, ByteBuffer block, FileChannel channel, long from, long to) throws IOException {
+        for (long position = from; position < to;) {
+            int n = read(channel, block, position, to);
+            if (n == 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            crc.update(block.array(), 0, n);
+            position += n;
+        }
+    }
+
+    private static final class ChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        ChannelInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+    }
+}
@@ -34,6 +34,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -60,45 +62,120 @@ final class TxtLoader {
     }
 
     private static TxtSource load(Reader reader, TxtBean bean) throws IOException {
-        try (CSVReader csvReader = new CSVReader(reader, toChar(bean.delimiter), toChar(bean.textQualifier), bean.skipLines)) {
-            ObsGathering gathering = bean.cleanMissing
-                    ? ObsGathering.excludingMissingValues(bean.frequency, bean.aggregationType)
-                    : ObsGathering.includingMissingValues(bean.frequency, bean.aggregationType);
-            return load(csvReader, bean.getDataFormat(), gathering, bean.isHeaders());
-        }
+        Table table = new Table(bean.isHeaders());
+        read(table, reader, bean, bean.skipLines);
+        return table.toSource(getGathering(bean));
     }
 
     static TxtSource load(CSVReader reader, DataFormat obsFormat, ObsGathering obsGathering, boolean header) throws IOException {
-        return load(asCheckedIterator(reader), obsFormat, obsGathering, header);
+        Table table = new Table(header);
+        table.addAll(asCheckedIterator(reader), obsFormat);
+        return table.toSource(obsGathering);
+    }
+
+    /**
+     * Reads the rows of a text and adds them to a table.
+     *
+     * @param table
+     * @param reader
+     * @param bean
+     * @param skipLines The number of lines to skip at the beginning of the
+     * text (bean.skipLines for a whole file)
+     * @throws IOException
+     */
+    static void read(Table table, Reader reader, TxtBean bean, int skipLines) throws IOException {
+        try (CSVReader csvReader = new CSVReader(reader, toChar(bean.delimiter), toChar(bean.textQualifier), skipLines)) {
+            table.addAll(asCheckedIterator(csvReader), bean.getDataFormat());
+        }
+    }
+
+    static ObsGathering getGathering(TxtBean bean) {
+        return bean.cleanMissing
+                ? ObsGathering.excludingMissingValues(bean.frequency, bean.aggregationType)
+                : ObsGathering.includingMissingValues(bean.frequency, bean.aggregationType);
     }
 
-    private static TxtSource load(CheckedIterator<String[], IOException> iterator, DataFormat obsFormat, ObsGathering obsGathering, boolean header) throws IOException {
-        int nbrRows = 0;
-        int nbrUselessRows = 0;
-        String[] titles = new String[0];
-        IParser<Date> dateParser = obsFormat.dateParser().orElse(FALLBACK_PARSER.get());
-        Parsers.Parser<Number> numberParser = obsFormat.numberParser();
-        GregorianCalendar cal = new GregorianCalendar();
-        List<OptionalTsData.Builder2<Date>> dataCollectors = new ArrayList<>();
-
-        while (iterator.hasNext()) {
-            String[] line = iterator.next();
-            if (line == null) {
-                throw new RuntimeException("Not possible");
+    /**
+     * Rows of a text file. The dates and the numbers are parsed when the rows
+     * are added but the series are only created when they are requested. New
+     * rows can be added after the creation of a source; the existing sources
+     * are not modified.
+     */
+    static final class Table {
+
+        private final boolean header;
+        private int nbrRows, nbrUselessRows;
+        private String[] titles;
+        // valid rows: period (in millis), number of cells and values (row by row)
+        private int size;
+        private long[] periods;
+        private int[] widths;
+        private double[] values;
+        private final BitSet missing;
+
+        Table(boolean header) {
+            this.header = header;
+            this.titles = new String[0];
+            this.periods = new long[16];
+            this.widths = new int[16];
+            this.values = new double[0];
+            this.missing = new BitSet();
+        }
+
+        private Table(Table table) {
+            this.header = table.header;
+            this.nbrRows = table.nbrRows;
+            this.nbrUselessRows = table.nbrUselessRows;
+            this.titles = table.titles;
+            this.size = table.size;
+            this.periods = table.periods.clone();
+            this.widths = table.widths.clone();
+            this.values = table.values.clone();
+            this.missing = (BitSet) table.missing.clone();
+        }
+
+        Table copy() {
+            return new Table(this);
+        }
+
+        int getRowCount() {
+            return nbrRows;
+        }
+
+        void addAll(CheckedIterator<String[], IOException> iterator, DataFormat obsFormat) throws IOException {
+            IParser<Date> dateParser = obsFormat.dateParser().orElse(FALLBACK_PARSER.get());
+            Parsers.Parser<Number> numberParser = obsFormat.numberParser();
+            while (iterator.hasNext()) {
+                String[] line = iterator.next();
+                if (line == null) {
+                    throw new RuntimeException("Not possible");
+                }
+                add(line, dateParser, numberParser);
             }
+        }
+
+        private void add(String[] line, IParser<Date> dateParser, Parsers.Parser<Number> numberParser) {
             if (nbrRows == 0) {
                 titles = header ? line : generateTitles(line.length);
-                for (int i = 1; i < titles.length; i++) {
-                    dataCollectors.add(OptionalTsData.builderByDate(cal, obsGathering));
-                }
             }
             if (!(nbrRows == 0 && header)) {
                 Date period = line.length > 0 ? dateParser.parse(line[0]) : null;
                 if (period != null) {
+                    int ncols = getColumnCount();
+                    ensureCapacity(size + 1, ncols);
                     int max = Math.min(titles.length, line.length);
+                    periods[size] = period.getTime();
+                    widths[size] = max;
                     for (int i = 1; i < max; i++) {
-                        dataCollectors.get(i - 1).add(period, numberParser.parse(line[i]));
+                        Number value = numberParser.parse(line[i]);
+                        int pos = size * ncols + i - 1;
+                        if (value != null) {
+                            values[pos] = value.doubleValue();
+                        } else {
+                            missing.set(pos);
+                        }
                     }
+                    size++;
                 } else {
                     nbrUselessRows++;
                 }
@@ -106,11 +183,71 @@ final class TxtLoader {
             nbrRows++;
         }
 
-        TxtSeries[] data = new TxtSeries[titles.length - 1];
-        for (int i = 0; i < data.length; ++i) {
-            data[i] = new TxtSeries(i, titles[i + 1], dataCollectors.get(i).build());
+        private int getColumnCount() {
+            return Math.max(titles.length - 1, 0);
+        }
+
+        private void ensureCapacity(int n, int ncols) {
+            if (n > periods.length) {
+                int capacity = Math.max(n, periods.length + (periods.length >> 1));
+                periods = Arrays.copyOf(periods, capacity);
+                widths = Arrays.copyOf(widths, capacity);
+            }
+            if ((long) n * ncols > values.length) {
+                values = Arrays.copyOf(values, periods.length * ncols);
+            }
+        }
+
+        TxtSource toSource(ObsGathering obsGathering) {
+            // the arrays are only modified beyond the current rows
+            String[] names = Arrays.copyOfRange(titles, Math.min(titles.length, 1), titles.length);
+            int n = size, ncols = names.length;
+            long[] p = periods;
+            int[] w = widths;
+            double[] v = values;
+            BitSet m = (BitSet) missing.clone();
+            List<TxtSeries> items = new LazyList<>(ncols, col -> {
+                OptionalTsData.Builder2<Date> builder = OptionalTsData.builderByDate(new GregorianCalendar(), obsGathering);
+                for (int i = 0, pos = col; i < n; ++i, pos += ncols) {
+                    if (w[i] > col + 1) {
+                        builder.add(new Date(p[i]), m.get(pos) ? null : v[pos]);
+                    }
+                }
+                return new TxtSeries(col, names[col], builder.build());
+            });
+            return new TxtSource(nbrRows, nbrUselessRows, Arrays.asList(names), items);
+        }
+    }
+
+    /**
+     * List of items that are created (and kept) when they are first accessed.
+     */
+    private static final class LazyList<T> extends AbstractList<T> {
+
+        private final IntFunction<T> factory;
+        private final AtomicReferenceArray<T> items;
+
+        LazyList(int size, IntFunction<T> factory) {
+            this.factory = factory;
+            this.items = new AtomicReferenceArray<>(size);
+        }
+
+        @Override
+        public T get(int index) {
+            T result = items.get(index);
+            if (result == null) {
+                result = factory.apply(index);
+                if (!items.compareAndSet(index, null, result)) {
+                    result = items.get(index);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return items.length();
         }
-        return new TxtSource(nbrRows, nbrUselessRows, Arrays.asList(data));
     }
 
     static String[] generateTitles(int size) {
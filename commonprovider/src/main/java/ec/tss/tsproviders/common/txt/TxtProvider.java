@@ -36,6 +36,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import nbbrd.service.ServiceProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,12 +53,16 @@ public class TxtProvider extends AbstractFileLoader<TxtSource, TxtBean> {
     private final TxtFileFilter fileFilter;
     protected final Parsers.Parser<DataSource> legacyDataSourceParser;
     protected final Parsers.Parser<DataSet> legacyDataSetParser;
+    // the indexes survive the cache so that a reload only parses the appended lines
+    // (they only keep soft references to the parsed rows)
+    private final ConcurrentMap<DataSource, TxtIndex> indexes;
 
     public TxtProvider() {
         super(LOGGER, SOURCE, TsAsyncMode.Once);
         this.fileFilter = new TxtFileFilter();
         this.legacyDataSourceParser = TxtLegacy.dataSourceParser();
         this.legacyDataSetParser = TxtLegacy.dataSetParser();
+        this.indexes = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -84,7 +90,19 @@ public class TxtProvider extends AbstractFileLoader<TxtSource, TxtBean> {
     @Override
     protected TxtSource loadFromBean(TxtBean bean) throws Exception {
         File realFile = getRealFile(bean.getFile());
-        return TxtLoader.load(realFile, bean);
+        return indexes.computeIfAbsent(encodeBean(bean), o -> new TxtIndex(realFile, new TxtBean(o))).load();
+    }
+
+    @Override
+    public boolean close(DataSource dataSource) {
+        indexes.remove(dataSource);
+        return super.close(dataSource);
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        indexes.clear();
     }
 
     @Override
@@ -108,7 +126,7 @@ public class TxtProvider extends AbstractFileLoader<TxtSource, TxtBean> {
         if (tmp == null) {
             return "Column " + index;
         }
-        return tmp.items.get(index).name;
+        return tmp.names.get(index);
     }
 
     @Override
@@ -17,6 +17,7 @@
 
 package ec.tss.tsproviders.common.txt;
 
+import com.google.common.collect.Lists;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,10 +30,17 @@ public class TxtSource {
     final int readLines;
     final int invalidLines;
     final List<TxtSeries> items;
+    // names of the items, available without loading them
+    final List<String> names;
 
     public TxtSource(int readLines, int invalidLines, List<TxtSeries> items) {
+        this(readLines, invalidLines, Lists.transform(items, o -> o.name), items);
+    }
+
+    TxtSource(int readLines, int invalidLines, List<String> names, List<TxtSeries> items) {
         this.readLines = readLines;
         this.invalidLines = invalidLines;
+        this.names = Collections.unmodifiableList(names);
         this.items = Collections.unmodifiableList(items);
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.panel;
+
+import ec.tss.TsInformation;
+import ec.tss.TsInformationType;
+import ec.tss.tsproviders.DataSet;
+import ec.tss.tsproviders.DataSource;
+import ec.tstoolkit.data.IReadDataBlock;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PanelStoreTest {
+
+    public PanelStoreTest() {
+    }
+
+    private static TsData series(TsFrequency freq, int year, int len, int seed) {
+        TsData s = new TsData(freq, year, 0, len);
+        for (int i = 0; i < len; ++i) {
+            s.set(i, seed * 1000 + i);
+        }
+        return s;
+    }
+
+    private static File create(int n) throws IOException {
+        File file = File.createTempFile("test", "." + PanelProvider.EXTENSION);
+        file.deleteOnExit();
+        try (PanelStore.Writer writer = new PanelStore.Writer(file)) {
+            for (int i = 0; i < n; ++i) {
+                TsData s = series(i % 2 == 0 ? TsFrequency.Monthly : TsFrequency.Quarterly, 1950 + i % 60, 10 + i % 50, i);
+                if (i % 7 == 0) {
+                    s.set(2, Double.NaN);
+                }
+                assertEquals(i, writer.add("s" + i, s));
+            }
+            // duplicated name
+            writer.add("s1", series(TsFrequency.Yearly, 1960, 5, 0));
+            // before 1970 (negative id)
+            writer.add("old", new TsPeriod(TsFrequency.Monthly, 1969, 11), new TsData(TsFrequency.Monthly, 1969, 11, 3).getValues());
+        }
+        return file;
+    }
+
+    @Test
+    public void testStore() throws IOException {
+        int n = 1000;
+        try (PanelStore store = PanelStore.open(create(n))) {
+            assertEquals(n + 2, store.size());
+            for (int i = 0; i < n; ++i) {
+                TsData s = series(i % 2 == 0 ? TsFrequency.Monthly : TsFrequency.Quarterly, 1950 + i % 60, 10 + i % 50, i);
+                assertEquals("s" + i, store.getName(i));
+                assertEquals(s.getDomain(), store.getDomain(i));
+                IReadDataBlock data = store.getData(i);
+                assertEquals(s.getLength(), data.getLength());
+                assertEquals(s.get(3), data.get(3), 0);
+                assertEquals(i % 7 == 0, Double.isNaN(data.get(2)));
+                assertEquals(s.get(5), data.rextract(4, 3).get(1), 0);
+                TsData t = store.toTsData(i);
+                assertEquals(s.getStart(), t.getStart());
+                assertEquals(s.get(s.getLength() - 1), t.get(t.getLength() - 1), 0);
+            }
+            assertEquals(new TsPeriod(TsFrequency.Monthly, 1969, 11), store.getStart(n + 1));
+            assertEquals(0, store.indexOf("s0"));
+            assertEquals(1, store.indexOf("s1"));
+            assertEquals(n - 1, store.indexOf("s" + (n - 1)));
+            assertEquals(n + 1, store.indexOf("old"));
+            assertEquals(-1, store.indexOf("s" + n));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidFile() throws IOException {
+        File file = File.createTempFile("test", "." + PanelProvider.EXTENSION);
+        file.deleteOnExit();
+        PanelStore.open(file);
+    }
+
+    @Test
+    public void testUndefinedFrequency() throws IOException {
+        File file = create(3);
+        File other = File.createTempFile("test", "." + PanelProvider.EXTENSION);
+        other.deleteOnExit();
+        try (PanelStore.Writer writer = new PanelStore.Writer(other)) {
+            writer.add("u", new TsPeriod(TsFrequency.Undefined), new TsData(TsFrequency.Yearly, 2000, 0, 3).getValues());
+            fail();
+        } catch (IllegalArgumentException ex) {
+        }
+        // frequency of the first series set to 0 (Undefined) in the index
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - (long) 5 * PanelStore.ENTRY_SIZE + 12);
+            raf.writeInt(0);
+        }
+        try {
+            PanelStore.open(file).close();
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+
+    @Test
+    public void testInvalidEntries() throws IOException {
+        // offsets of the position of the data, of the length and of the
+        // position of the name in an entry
+        long[][] corruptions = {{0, Long.MAX_VALUE}, {0, 3}, {8, -1}, {8, Integer.MAX_VALUE}, {20, -1}, {20, 1 << 20}};
+        for (long[] corruption : corruptions) {
+            File file = create(3);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(raf.length() - (long) 5 * PanelStore.ENTRY_SIZE + corruption[0]);
+                // little endian
+                for (int i = 0, n = corruption[0] == 0 ? 8 : 4; i < n; ++i) {
+                    raf.write((int) (corruption[1] >>> (8 * i)));
+                }
+            }
+            try {
+                PanelStore.open(file).close();
+                fail();
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    @Test
+    public void testProvider() throws IOException {
+        File file = create(100);
+        try (PanelProvider provider = new PanelProvider()) {
+            assertTrue(provider.accept(file));
+            PanelBean bean = provider.newBean();
+            bean.setFile(file);
+            DataSource source = provider.encodeBean(bean);
+            assertEquals(file, provider.decodeBean(source).getFile());
+            List<DataSet> children = provider.children(source);
+            assertEquals(102, children.size());
+            DataSet child = children.get(10);
+            assertEquals("s10", provider.getDisplayName(child));
+
+            TsInformation info = new TsInformation("", provider.toMoniker(child), TsInformationType.Definition);
+            assertTrue(provider.get(info));
+            assertEquals("s10", info.name);
+            assertNull(info.data);
+
+            info = new TsInformation("", provider.toMoniker(child), TsInformationType.All);
+            assertTrue(provider.get(info));
+            assertEquals(series(TsFrequency.Monthly, 1960, 20, 10), info.data);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.tsw;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class TswIndexTest {
+
+    private static final String[] RESOURCES = {"EmptyFile", "EmptyLines", "MultiObsPerLine", "MultiTs", "NanObs", "SingleTs", "blog_16x16.png"};
+
+    private static Path createRepository() throws IOException {
+        Path result = Files.createTempDirectory("tsw");
+        for (String name : RESOURCES) {
+            try (InputStream stream = TswIndexTest.class.getResourceAsStream(name)) {
+                Files.copy(stream, result.resolve(name));
+            }
+        }
+        return result;
+    }
+
+    private static void append(Path file, String text, long time) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(time));
+    }
+
+    private static void assertSameSource(TswSource expected, TswSource found) {
+        assertEquals(expected.items.size(), found.items.size());
+        for (int i = 0; i < expected.items.size(); ++i) {
+            TswSeries e = expected.items.get(i);
+            assertEquals(e.fileName, found.fileNames.get(i));
+            assertEquals(e.name, found.names.get(i));
+            TswSeries f = found.items.get(i);
+            assertEquals(e.fileName, f.fileName);
+            assertEquals(e.name, f.name);
+            assertEquals(e.data, f.data);
+        }
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        Path repository = createRepository();
+        TswIndex index = new TswIndex(repository);
+        TswSource source = index.load();
+        assertSameSource(TswFactory.getDefault().load(repository), source);
+        assertEquals(16 + 4, source.items.size());
+        // unchanged files
+        assertSameSource(source, index.load());
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        Path repository = Files.createTempDirectory("tsw");
+        Path file = repository.resolve("Appended");
+        TswIndex index = new TswIndex(repository);
+        append(file, "s1\n3 2000 1 4\n1 2\n", 1000);
+        assertSameSource(TswFactory.getDefault().load(repository), index.load());
+        // completes the values and the last line
+        append(file, "3\ns2\n2 2000 2 12\n-99999 +4", 2000);
+        assertSameSource(TswFactory.getDefault().load(repository), index.load());
+        append(file, "5\r", 3000);
+        assertSameSource(TswFactory.getDefault().load(repository), index.load());
+        append(file, "\ns3\n2 2001 1 1\n7 x\ns4\n1 2001 1 4\n8\n", 4000);
+        TswSource source = index.load();
+        assertSameSource(TswFactory.getDefault().load(repository), source);
+        assertEquals(4, source.items.size());
+        assertEquals(45, source.items.get(1).data.get().get(1), 0);
+        assertFalse(source.items.get(2).data.isPresent());
+        // new file
+        append(repository.resolve("New"), "s5\n1 2001 1 1\n9\n", 5000);
+        assertSameSource(TswFactory.getDefault().load(repository), index.load());
+    }
+
+    @Test
+    public void testRewrite() throws IOException {
+        Path repository = Files.createTempDirectory("tsw");
+        Path file = repository.resolve("Rewritten");
+        TswIndex index = new TswIndex(repository);
+        append(file, "s1\n3 2000 1 4\n1 2 3\n", 1000);
+        index.load();
+        Files.write(file, "s2\n4 2000 1 12\n4 5 6 7\n".getBytes(StandardCharsets.US_ASCII));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2000));
+        TswSource source = index.load();
+        assertSameSource(TswFactory.getDefault().load(repository), source);
+        assertEquals("s2", source.names.get(0));
+        // not an ASCII file anymore
+        Files.write(file, new byte[]{'s', (byte) 0xE9, '\n'}, StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(3000));
+        assertTrue(index.load().items.isEmpty());
+    }
+
+    @Test
+    public void testChange() throws IOException {
+        Path repository = Files.createTempDirectory("tsw");
+        Path file = repository.resolve("Changed");
+        TswIndex index = new TswIndex(repository);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; ++i) {
+            text.append("s").append(i).append("\n4 2000 1 4\n1 2 3 ").append(i % 10).append("\n");
+        }
+        append(file, text.toString(), 1000);
+        assertSameSource(TswFactory.getDefault().load(repository), index.load());
+        // a value changed in the first block of the scanned part, with the same size
+        byte[] bytes = Files.readAllBytes(file);
+        int pos = text.indexOf("s2500\n") + 17;
+        assertEquals('1', bytes[pos]);
+        bytes[pos] = 'x';
+        Files.write(file, bytes);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2000));
+        TswSource source = index.load();
+        assertSameSource(TswFactory.getDefault().load(repository), source);
+        assertFalse(source.items.get(2500).data.isPresent());
+    }
+}
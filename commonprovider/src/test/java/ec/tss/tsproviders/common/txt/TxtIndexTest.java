@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.common.txt;
+
+import ec.tss.tsproviders.utils.DataFormat;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class TxtIndexTest {
+
+    private static File createFile() throws IOException {
+        File result = File.createTempFile("test", ".csv");
+        result.deleteOnExit();
+        return result;
+    }
+
+    private static void append(File file, String text, Charset charset, long time) throws IOException {
+        Files.write(file.toPath(), text.getBytes(charset), StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(time));
+    }
+
+    private static TxtBean newBean(Charset charset) {
+        TxtBean result = new TxtBean();
+        result.setCharset(charset);
+        result.setDataFormat(DataFormat.of(Locale.ROOT, "yyyy-MM-dd", null));
+        result.setDelimiter(TxtBean.Delimiter.SEMICOLON);
+        result.setTextQualifier(TxtBean.TextQualifier.DOUBLE_QUOTE);
+        result.setSkipLines(1);
+        return result;
+    }
+
+    private static void assertSameSource(TxtSource expected, TxtSource found) {
+        assertEquals(expected.readLines, found.readLines);
+        assertEquals(expected.invalidLines, found.invalidLines);
+        assertEquals(expected.items.size(), found.items.size());
+        for (int i = 0; i < expected.items.size(); ++i) {
+            assertEquals(expected.items.get(i).name, found.names.get(i));
+            TxtSeries e = expected.items.get(i), f = found.items.get(i);
+            assertEquals(e.index, f.index);
+            assertEquals(e.name, f.name);
+            assertEquals(e.data, f.data);
+        }
+    }
+
+    @Test
+    public void testResource() throws IOException {
+        File file = createFile();
+        try (InputStream stream = TxtIndexTest.class.getResourceAsStream("/Insee1.txt")) {
+            Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        TxtBean bean = new TxtBean();
+        bean.setFrequency(TsFrequency.Monthly);
+        TxtIndex index = new TxtIndex(file, bean);
+        TxtSource source = index.load();
+        assertSameSource(TxtLoader.load(file, bean), source);
+        assertSame(source, index.load());
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE}) {
+            File file = createFile();
+            TxtBean bean = newBean(charset);
+            TxtIndex index = new TxtIndex(file, bean);
+            append(file, "comment\n", charset, 1000);
+            assertSameSource(TxtLoader.load(file, bean), index.load());
+            append(file, "date;s1;\"s;2\"\n2010-01-01;1;2\n2010-02-01;3", charset, 2000);
+            assertSameSource(TxtLoader.load(file, bean), index.load());
+            // completes the last line
+            append(file, "4;\"5\"\nx;6\n2010-03-01;\"7\n", charset, 3000);
+            assertSameSource(TxtLoader.load(file, bean), index.load());
+            // completes the quoted text
+            append(file, "\";8\r\n2010-04-01;;9\n2010-05-01\n", charset, 4000);
+            TxtSource source = index.load();
+            assertSameSource(TxtLoader.load(file, bean), source);
+            assertEquals(7, source.readLines);
+            assertEquals(1, source.invalidLines);
+            assertEquals("s;2", source.names.get(1));
+            assertEquals(34, source.items.get(0).data.get().get(1), 0);
+            // rewritten file
+            Files.write(file.toPath(), "x\ndate;s3\n2011-01-01;10\n2011-02-01;11\n2011-03-01;12\n".getBytes(charset));
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(5000));
+            source = index.load();
+            assertSameSource(TxtLoader.load(file, bean), source);
+            assertEquals("s3", source.names.get(0));
+        }
+    }
+
+    @Test
+    public void testChange() throws IOException {
+        File file = createFile();
+        TxtBean bean = newBean(StandardCharsets.UTF_8);
+        TxtIndex index = new TxtIndex(file, bean);
+        // several blocks, with quoted texts (and escaped quotes) on the block boundaries
+        StringBuilder text = new StringBuilder("comment\ndate;s1;s2\n");
+        for (int i = 0; i < 5000; ++i) {
+            text.append(String.format(Locale.ROOT, "%04d-01-01;%d;\"\\\"%d\"\n", 1000 + i, i % 10, i % 7));
+        }
+        append(file, text.toString(), StandardCharsets.UTF_8, 1000);
+        TxtSource source = index.load();
+        assertSameSource(TxtLoader.load(file, bean), source);
+        assertEquals(5001, source.readLines);
+        // a digit changed in the last block of the parsed part, with the same size
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int pos = text.indexOf("5000-01-01;") + 11;
+        bytes[pos] = (byte) (bytes[pos] == '9' ? '8' : '9');
+        Files.write(file.toPath(), bytes);
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(2000));
+        source = index.load();
+        assertSameSource(TxtLoader.load(file, bean), source);
+        // and appended
+        bytes[pos] = (byte) (bytes[pos] == '9' ? '8' : '9');
+        Files.write(file.toPath(), bytes);
+        append(file, "6000-01-01;1;2\n", StandardCharsets.UTF_8, 3000);
+        source = index.load();
+        assertSameSource(TxtLoader.load(file, bean), source);
+        assertEquals(5002, source.readLines);
+    }
+}
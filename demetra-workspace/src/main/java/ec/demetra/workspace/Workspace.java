@@ -19,6 +19,7 @@ package ec.demetra.workspace;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -86,6 +87,21 @@ public interface Workspace extends Closeable {
      */
     void store(@NonNull WorkspaceItem item, @NonNull Object value) throws IOException;
 
+    /**
+     * Stores the metadata and data of several workspace items. Items are
+     * replaced if they already exist in the workspace. Implementations may
+     * make the data visible only once they have all been written and update
+     * the index only once.
+     *
+     * @param items a non-null map of items and their data
+     * @throws IOException if the operation failed
+     */
+    default void storeAll(@NonNull Map<WorkspaceItem, Object> items) throws IOException {
+        for (Map.Entry<WorkspaceItem, Object> o : items.entrySet()) {
+            store(o.getKey(), o.getValue());
+        }
+    }
+
     /**
      * Removes a workspace item if it exists, do nothing otherwise.
      *
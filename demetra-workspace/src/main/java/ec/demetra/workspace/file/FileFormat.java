@@ -31,6 +31,13 @@ public enum FileFormat {
     /**
      * Represents the format of Demetra+
      */
-    LEGACY;
+    LEGACY,
+    /**
+     * Represents the default format of JDemetra+ with the items stored in a
+     * compact binary form
+     *
+     * @since 2.2.5
+     */
+    BINARY;
 
 }
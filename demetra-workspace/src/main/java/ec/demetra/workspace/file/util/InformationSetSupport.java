@@ -16,16 +16,21 @@
  */
 package ec.demetra.workspace.file.util;
 
+import ec.tss.xml.information.BinaryInformationSet;
 import ec.tss.xml.information.XmlInformationSet;
 import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.information.InformationSetSerializable;
+import internal.io.JaxbUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.function.Supplier;
 import nbbrd.io.xml.Xml;
-import nbbrd.io.xml.bind.Jaxb;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -37,61 +42,105 @@ public final class InformationSetSupport implements FileSupport {
 
     @NonNull
     public static FileSupport of(@NonNull Supplier<? extends InformationSetSerializable> factory, @NonNull String repository) {
-        return new InformationSetSupport(factory, repository);
+        return new InformationSetSupport(factory, repository, false);
+    }
+
+    /**
+     * Creates a support that stores the information sets in the compact
+     * binary form (see {@link BinaryInformationSet}) instead of xml.
+     *
+     * @param factory
+     * @param repository
+     * @return
+     * @since 2.2.5
+     */
+    @NonNull
+    public static FileSupport ofBinary(@NonNull Supplier<? extends InformationSetSerializable> factory, @NonNull String repository) {
+        return new InformationSetSupport(factory, repository, true);
     }
 
     private final String repository;
     private final Supplier<? extends InformationSetSerializable> factory;
     private final Class<? extends InformationSetSerializable> type;
+    private final boolean binary;
 
-    private InformationSetSupport(Supplier<? extends InformationSetSerializable> factory, String repository) {
+    private InformationSetSupport(Supplier<? extends InformationSetSerializable> factory, String repository, boolean binary) {
         this.repository = Objects.requireNonNull(repository);
         this.factory = Objects.requireNonNull(factory);
         this.type = factory.get().getClass();
+        this.binary = binary;
     }
 
     @Override
     public Path resolveFile(Path root, String fileName) {
-        return root.resolve(repository).resolve(xmlFileName(fileName));
+        return root.resolve(repository).resolve(binary ? binFileName(fileName) : xmlFileName(fileName));
     }
 
     @Override
     public Object read(Path root, String fileName) throws IOException {
-        return readItem(resolveFile(root, fileName), factory);
+        Path file = resolveFile(root, fileName);
+        return binary ? readBinaryItem(file, factory) : readItem(file, factory);
     }
 
     @Override
     public void write(Path root, String fileName, Object value) throws IOException {
-        writeItem(resolveFile(root, fileName), type, value);
+        Path file = resolveFile(root, fileName);
+        if (binary) {
+            writeBinaryItem(file, type, value);
+        } else {
+            writeItem(file, type, value);
+        }
     }
 
     static Object readItem(Path file, Supplier<? extends InformationSetSerializable> factory) throws IOException {
-        return xmlToItem(factory, unmarshalItem(file));
+        return infoToItem(factory, unmarshalItem(file).create());
     }
 
     static void writeItem(Path file, Class<? extends InformationSetSerializable> type, Object value) throws IOException {
         marshalItem(file, itemToXml(type.cast(value)));
     }
 
+    static Object readBinaryItem(Path file, Supplier<? extends InformationSetSerializable> factory) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+            return infoToItem(factory, BinaryInformationSet.read(stream, Files.size(file)));
+        }
+    }
+
+    static void writeBinaryItem(Path file, Class<? extends InformationSetSerializable> type, Object value) throws IOException {
+        InformationSet info = itemToInfo(type.cast(value));
+        Files.createDirectories(file.getParent());
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            BinaryInformationSet.write(info, stream);
+        }
+    }
+
     private static String xmlFileName(String fileName) {
         return ec.tstoolkit.utilities.Paths.changeExtension(fileName, "xml");
     }
 
-    private static InformationSetSerializable xmlToItem(Supplier<? extends InformationSetSerializable> factory, XmlInformationSet xml) throws IOException {
+    private static String binFileName(String fileName) {
+        return ec.tstoolkit.utilities.Paths.changeExtension(fileName, "bin");
+    }
+
+    private static InformationSetSerializable infoToItem(Supplier<? extends InformationSetSerializable> factory, InformationSet info) throws IOException {
         InformationSetSerializable result = factory.get();
-        if (!result.read(xml.create())) {
+        if (!result.read(info)) {
             throw new IOException("Cannot read information set");
         }
         return result;
     }
 
-    private static XmlInformationSet itemToXml(InformationSetSerializable value) throws IOException {
+    private static InformationSet itemToInfo(InformationSetSerializable value) throws IOException {
         InformationSet info = value.write(false);
         if (info == null) {
             throw new IOException("Cannot write information set");
         }
+        return info;
+    }
+
+    private static XmlInformationSet itemToXml(InformationSetSerializable value) throws IOException {
         XmlInformationSet result = new XmlInformationSet();
-        result.copy(info);
+        result.copy(itemToInfo(value));
         return result;
     }
 
@@ -99,8 +148,8 @@ public final class InformationSetSupport implements FileSupport {
     private static final Xml.Formatter<XmlInformationSet> FORMATTER;
 
     static {
-        PARSER = Jaxb.Parser.of(XmlInformationSet.class);
-        FORMATTER = Jaxb.Formatter.of(XmlInformationSet.class).withFormatted(true);
+        PARSER = JaxbUtil.parser(XmlInformationSet.class);
+        FORMATTER = JaxbUtil.formatter(XmlInformationSet.class).withFormatted(true);
     }
 
     private static XmlInformationSet unmarshalItem(Path file) throws IOException {
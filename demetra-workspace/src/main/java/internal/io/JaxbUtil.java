@@ -16,8 +16,12 @@
  */
 package internal.io;
 
+import ec.tss.xml.JaxbContexts;
 import java.util.Objects;
 import java.util.function.Consumer;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import nbbrd.io.xml.bind.Jaxb;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -44,4 +48,36 @@ public class JaxbUtil {
             }
         }
     }
+
+    /**
+     * Creates a parser that uses the shared context of a type (see
+     * {@link JaxbContexts}).
+     *
+     * @param <T>
+     * @param type
+     * @return
+     */
+    public <T> Jaxb.@NonNull Parser<T> parser(@NonNull Class<T> type) {
+        return Jaxb.Parser.of(context(type));
+    }
+
+    /**
+     * Creates a formatter that uses the shared context of a type (see
+     * {@link JaxbContexts}).
+     *
+     * @param <T>
+     * @param type
+     * @return
+     */
+    public <T> Jaxb.@NonNull Formatter<T> formatter(@NonNull Class<T> type) {
+        return Jaxb.Formatter.of(context(type));
+    }
+
+    private JAXBContext context(Class<?> type) {
+        try {
+            return JaxbContexts.getDefault().getContext(type);
+        } catch (JAXBException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ * 
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved 
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * http://ec.europa.eu/idabc/eupl
+ * 
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and 
+ * limitations under the Licence.
+ */
+package internal.workspace.file;
+
+import ec.demetra.workspace.WorkspaceFamily;
+import static ec.demetra.workspace.WorkspaceFamily.MOD_DOC_REGARIMA;
+import static ec.demetra.workspace.WorkspaceFamily.MOD_DOC_TRAMO;
+import static ec.demetra.workspace.WorkspaceFamily.MOD_SPEC_REGARIMA;
+import static ec.demetra.workspace.WorkspaceFamily.MOD_SPEC_TRAMO;
+import static ec.demetra.workspace.WorkspaceFamily.SA_DOC_TRAMOSEATS;
+import static ec.demetra.workspace.WorkspaceFamily.SA_DOC_X13;
+import static ec.demetra.workspace.WorkspaceFamily.SA_MULTI;
+import static ec.demetra.workspace.WorkspaceFamily.SA_SPEC_TRAMOSEATS;
+import static ec.demetra.workspace.WorkspaceFamily.SA_SPEC_X13;
+import static ec.demetra.workspace.WorkspaceFamily.UTIL_CAL;
+import static ec.demetra.workspace.WorkspaceFamily.UTIL_VAR;
+import ec.demetra.workspace.file.util.XmlConverterSupport;
+import ec.demetra.workspace.file.util.InformationSetSupport;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.modelling.documents.TramoDocument;
+import ec.tss.sa.SaProcessing;
+import ec.tss.sa.documents.X13Document;
+import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
+import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
+import nbbrd.service.ServiceProvider;
+import ec.demetra.workspace.file.FileFormat;
+import ec.demetra.workspace.file.spi.FamilyHandler;
+import ec.tss.modelling.documents.RegArimaDocument;
+import ec.tss.sa.documents.TramoSeatsDocument;
+import ec.tss.xml.IXmlConverter;
+import ec.tstoolkit.information.InformationSetSerializable;
+import java.util.function.Supplier;
+
+/**
+ * Handlers of the binary format: same repositories as the generic format, with
+ * the information sets stored in a compact binary form. The calendars and the
+ * variables are kept in xml.
+ */
+public final class BinaryHandlers {
+
+    private BinaryHandlers() {
+        // static class
+    }
+
+    private static FamilyHandler informationSet(WorkspaceFamily family, Supplier<? extends InformationSetSerializable> factory, String repository) {
+        return InformationSetSupport.ofBinary(factory, repository).asHandler(family, FileFormat.BINARY);
+    }
+
+    private static FamilyHandler xmlConverter(WorkspaceFamily family, Supplier<? extends IXmlConverter> factory, String repository) {
+        return XmlConverterSupport.of(factory, repository).asHandler(family, FileFormat.BINARY);
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class SaMulti implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(SA_MULTI, SaProcessing::new, "SAProcessing");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class SaDocX13 implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(SA_DOC_X13, X13Document::new, "X13Doc");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class SaDocTramoSeats implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(SA_DOC_TRAMOSEATS, TramoSeatsDocument::new, "TramoSeatsDoc");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class SaSpecX13 implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(SA_SPEC_X13, X13Specification::new, "X13Spec");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class SaSpecTramoseats implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(SA_SPEC_TRAMOSEATS, TramoSeatsSpecification::new, "TramoSeatsSpec");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class ModDocRegarima implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(MOD_DOC_REGARIMA, RegArimaDocument::new, "RegArimaDoc");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class ModDocTramo implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(MOD_DOC_TRAMO, TramoDocument::new, "TramoDoc");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class ModSpecRegarima implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(MOD_SPEC_REGARIMA, RegArimaSpecification::new, "RegArimaSpec");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class ModSpecTramo implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = informationSet(MOD_SPEC_TRAMO, TramoSpecification::new, "TramoSpec");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class UtilCal implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = xmlConverter(UTIL_CAL, ec.tss.xml.calendar.XmlCalendars::new, "Calendars");
+    }
+
+    @ServiceProvider(FamilyHandler.class)
+    public static final class UtilVar implements FamilyHandler {
+
+        @lombok.experimental.Delegate
+        private final FamilyHandler delegate = xmlConverter(UTIL_VAR, ec.tss.xml.regression.XmlTsVariables::new, "Variables");
+    }
+}
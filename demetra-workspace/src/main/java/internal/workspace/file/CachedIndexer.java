@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.workspace.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import nbbrd.io.Resource;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * In-memory index of a workspace. Items are updated in place and the index
+ * file is only written on flush (or close). The cached content is reloaded
+ * when the index file has been modified by someone else and there are no
+ * pending changes.
+ */
+final class CachedIndexer implements Indexer {
+
+    private final Indexer delegate;
+    private final Path file;
+    private final Map<Index.Key, Index.Value> items;
+    private String name;
+    private Index latest;
+    private FileTime lastModified;
+    private boolean loaded;
+    private boolean storeRequired;
+
+    CachedIndexer(@NonNull Indexer delegate, @NonNull Path file) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.file = Objects.requireNonNull(file, "file");
+        this.items = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void checkId(Index.Key id) throws IOException {
+        delegate.checkId(id);
+    }
+
+    @Override
+    public synchronized Index loadIndex() throws IOException {
+        ensureLoaded();
+        if (latest == null) {
+            latest = Index.builder().name(name).items(items).build();
+        }
+        return latest;
+    }
+
+    @Override
+    public synchronized void storeIndex(Index index) throws IOException {
+        Objects.requireNonNull(index, "index");
+        items.clear();
+        items.putAll(index.getItems());
+        name = index.getName();
+        latest = index;
+        loaded = true;
+        storeRequired = true;
+    }
+
+    public synchronized void putItem(Index.@NonNull Key key, Index.@NonNull Value value) throws IOException {
+        ensureLoaded();
+        items.put(key, value);
+        latest = null;
+        storeRequired = true;
+    }
+
+    public synchronized void putItems(@NonNull Map<Index.Key, Index.Value> values) throws IOException {
+        ensureLoaded();
+        items.putAll(values);
+        latest = null;
+        storeRequired = true;
+    }
+
+    public synchronized void removeItem(Index.@NonNull Key key) throws IOException {
+        ensureLoaded();
+        if (items.remove(key) != null) {
+            latest = null;
+            storeRequired = true;
+        }
+    }
+
+    public synchronized void setName(@NonNull String name) throws IOException {
+        Objects.requireNonNull(name, "name");
+        ensureLoaded();
+        this.name = name;
+        latest = null;
+        storeRequired = true;
+    }
+
+    public synchronized void flush() throws IOException {
+        if (storeRequired) {
+            delegate.storeIndex(loadIndex());
+            lastModified = getLastModifiedTime();
+            storeRequired = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Resource.closeBoth(this::flush, delegate::close);
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (!loaded) {
+            reload();
+        } else if (!storeRequired && !Objects.equals(lastModified, getLastModifiedTime())) {
+            reload();
+        }
+    }
+
+    private void reload() throws IOException {
+        FileTime time = getLastModifiedTime();
+        Index index = delegate.loadIndex();
+        items.clear();
+        items.putAll(index.getItems());
+        name = index.getName();
+        latest = index;
+        lastModified = time;
+        loaded = true;
+        storeRequired = false;
+    }
+
+    private FileTime getLastModifiedTime() throws IOException {
+        return Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+    }
+}
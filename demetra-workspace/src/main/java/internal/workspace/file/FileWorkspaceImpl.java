@@ -31,6 +31,8 @@ import ec.demetra.workspace.file.spi.FamilyHandler;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import nbbrd.io.Resource;
@@ -45,8 +47,9 @@ public final class FileWorkspaceImpl implements FileWorkspace {
 
     @NonNull
     public static Optional<FileFormat> probeFormat(@NonNull Path file) throws IOException {
-        if (GenericIndexer.isValid(file)) {
-            return Optional.of(FileFormat.GENERIC);
+        Optional<FileFormat> generic = GenericIndexer.probeFormat(file);
+        if (generic.isPresent()) {
+            return generic;
         }
         if (LegacyIndexer.isValid(file)) {
             return Optional.of(FileFormat.LEGACY);
@@ -76,7 +79,7 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         }
 
         Path rootFolder = getRootFolder(file);
-        Indexer indexer = getIndexer(format, file, rootFolder).memoize();
+        CachedIndexer indexer = new CachedIndexer(getIndexer(format, file, rootFolder), file);
         indexer.storeIndex(Index.builder().name("").build());
 
         return of(file, format, rootFolder, indexer, logger, handlers);
@@ -88,13 +91,13 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         }
 
         Path rootFolder = getRootFolder(file);
-        Indexer indexer = getIndexer(format, file, rootFolder).memoize();
+        CachedIndexer indexer = new CachedIndexer(getIndexer(format, file, rootFolder), file);
         indexer.loadIndex();
 
         return of(file, format, rootFolder, indexer, logger, handlers);
     }
 
-    private static FileWorkspaceImpl of(Path indexFile, FileFormat format, Path rootFolder, Indexer indexer, Logger logger, Supplier<Iterable<FamilyHandler>> handlers) throws IOException {
+    private static FileWorkspaceImpl of(Path indexFile, FileFormat format, Path rootFolder, CachedIndexer indexer, Logger logger, Supplier<Iterable<FamilyHandler>> handlers) throws IOException {
         try {
             return new FileWorkspaceImpl(indexFile, format, rootFolder, indexer, SafeHandler.create(logger, handlers, format));
         } catch (IOException ex) {
@@ -106,10 +109,11 @@ public final class FileWorkspaceImpl implements FileWorkspace {
     private final Path indexFile;
     private final FileFormat fileFormat;
     private final Path rootFolder;
-    private final Indexer indexer;
+    private final CachedIndexer indexer;
     private final SafeHandler handlers;
+    private Path staging;
 
-    private FileWorkspaceImpl(Path indexFile, FileFormat fileFormat, Path rootFolder, Indexer indexer, SafeHandler handlers) {
+    private FileWorkspaceImpl(Path indexFile, FileFormat fileFormat, Path rootFolder, CachedIndexer indexer, SafeHandler handlers) {
         this.indexFile = indexFile;
         this.fileFormat = fileFormat;
         this.rootFolder = rootFolder;
@@ -124,7 +128,7 @@ public final class FileWorkspaceImpl implements FileWorkspace {
 
     @Override
     public void setName(String name) throws IOException {
-        indexer.storeIndex(indexer.loadIndex().withName(name));
+        indexer.setName(name);
     }
 
     @Override
@@ -154,8 +158,47 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         Index.Key key = toKey(item);
         indexer.checkId(key);
 
-        handlers.storeValue(key.getFamily(), rootFolder, key.getId(), value);
-        indexer.storeIndex(indexer.loadIndex().withItem(key, toValue(item)));
+        Path staging = getStagingFolder();
+        try {
+            handlers.storeValue(key.getFamily(), staging, key.getId(), value);
+            commitValue(staging, key);
+        } catch (IOException | RuntimeException ex) {
+            clearStagingFolder(ex);
+            throw ex;
+        }
+        indexer.putItem(key, toValue(item));
+    }
+
+    @Override
+    public void storeAll(Map<WorkspaceItem, Object> items) throws IOException {
+        Map<Index.Key, Index.Value> entries = new LinkedHashMap<>();
+        Map<Index.Key, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<WorkspaceItem, Object> o : items.entrySet()) {
+            Index.Key key = toKey(o.getKey());
+            indexer.checkId(key);
+            entries.put(key, toValue(o.getKey()));
+            values.put(key, Objects.requireNonNull(o.getValue(), "value"));
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // all the payloads are written (sequentially: the handlers are not
+        // required to be thread-safe) before anything becomes visible
+        Path staging = getStagingFolder();
+        try {
+            for (Map.Entry<Index.Key, Object> o : values.entrySet()) {
+                handlers.storeValue(o.getKey().getFamily(), staging, o.getKey().getId(), o.getValue());
+            }
+            for (Index.Key key : entries.keySet()) {
+                commitValue(staging, key);
+            }
+        } catch (IOException | RuntimeException ex) {
+            clearStagingFolder(ex);
+            throw ex;
+        }
+        indexer.putItems(entries);
+        indexer.flush();
     }
 
     @Override
@@ -163,12 +206,19 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         Index.Key key = toKey(item);
 
         handlers.deleteValue(key.getFamily(), rootFolder, key.getId());
-        indexer.storeIndex(indexer.loadIndex().withoutItem(key));
+        indexer.removeItem(key);
     }
 
     @Override
     public void close() throws IOException {
-        indexer.close();
+        try {
+            if (staging != null) {
+                AtomicFiles.deleteTree(staging);
+                staging = null;
+            }
+        } finally {
+            indexer.close();
+        }
     }
 
     @Override
@@ -193,6 +243,30 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         return handlers.resolveFile(key.getFamily(), rootFolder, key.getId());
     }
 
+    // the staging folder is created on the first store and kept until the workspace is closed
+    private Path getStagingFolder() throws IOException {
+        if (staging == null) {
+            staging = Files.createTempDirectory(rootFolder.getParent(), "." + rootFolder.getFileName() + "-");
+        }
+        return staging;
+    }
+
+    // removes the payloads of a failed store
+    private void clearStagingFolder(Exception cause) {
+        try {
+            AtomicFiles.deleteTree(staging);
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+        }
+        staging = null;
+    }
+
+    private void commitValue(Path staging, Index.Key key) throws IOException {
+        AtomicFiles.move(
+                handlers.resolveFile(key.getFamily(), staging, key.getId()),
+                handlers.resolveFile(key.getFamily(), rootFolder, key.getId()));
+    }
+
     static WorkspaceItem toItem(WorkspaceItem.Builder b, Index.Key k, Index.Value v) {
         return b
                 .family(k.getFamily())
@@ -223,6 +297,8 @@ public final class FileWorkspaceImpl implements FileWorkspace {
         switch (format) {
             case GENERIC:
                 return new GenericIndexer(file, rootFolder);
+            case BINARY:
+                return new GenericIndexer(file, rootFolder, FileFormat.BINARY);
             case LEGACY:
                 return new LegacyIndexer(file);
             default:
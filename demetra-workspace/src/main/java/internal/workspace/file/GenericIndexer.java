@@ -17,6 +17,7 @@
 package internal.workspace.file;
 
 import ec.demetra.workspace.WorkspaceFamily;
+import ec.demetra.workspace.file.FileFormat;
 import internal.workspace.file.xml.XmlGenericWorkspace;
 import internal.workspace.file.xml.XmlGenericWorkspaceItem;
 import internal.io.JaxbUtil;
@@ -25,8 +26,8 @@ import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.Optional;
 import nbbrd.io.xml.Xml;
-import nbbrd.io.xml.bind.Jaxb;
 
 /**
  *
@@ -34,23 +35,28 @@ import nbbrd.io.xml.bind.Jaxb;
  */
 final class GenericIndexer implements Indexer {
 
-    static boolean isValid(Path file) throws IOException {
+    static Optional<FileFormat> probeFormat(Path file) throws IOException {
         try {
-            unmarshalIndex(file);
-            return true;
+            return Optional.ofNullable(parseFormat(unmarshalIndex(file).format));
         } catch (FileSystemException ex) {
             throw ex;
         } catch (IOException ex) {
-            return false;
+            return Optional.empty();
         }
     }
 
     private final Path file;
     private final Path rootFolder;
+    private final FileFormat format;
 
     GenericIndexer(Path file, Path rootFolder) {
+        this(file, rootFolder, FileFormat.GENERIC);
+    }
+
+    GenericIndexer(Path file, Path rootFolder, FileFormat format) {
         this.file = file;
         this.rootFolder = rootFolder;
+        this.format = format;
     }
 
     @Override
@@ -64,12 +70,16 @@ final class GenericIndexer implements Indexer {
 
     @Override
     public Index loadIndex() throws IOException {
-        return xmlToIndex(unmarshalIndex(file), rootFolder);
+        XmlGenericWorkspace xml = unmarshalIndex(file);
+        if (parseFormat(xml.format) != format) {
+            throw new IOException("Invalid workspace format: expected " + format + " in '" + file + "'");
+        }
+        return xmlToIndex(xml, rootFolder, format);
     }
 
     @Override
     public void storeIndex(Index index) throws IOException {
-        marshalIndex(file, indexToXml(index, rootFolder));
+        marshalIndex(file, indexToXml(index, rootFolder, format));
     }
 
     @Override
@@ -77,7 +87,19 @@ final class GenericIndexer implements Indexer {
         // do nothing
     }
 
-    private static Index xmlToIndex(XmlGenericWorkspace xml, Path rootFolder) {
+    // the generic format has no attribute, for compatibility with the previous versions
+    private static FileFormat parseFormat(String format) {
+        if (format == null) {
+            return FileFormat.GENERIC;
+        }
+        return BINARY_FORMAT.equals(format) ? FileFormat.BINARY : null;
+    }
+
+    private static String formatToXml(FileFormat format) {
+        return format == FileFormat.BINARY ? BINARY_FORMAT : null;
+    }
+
+    private static Index xmlToIndex(XmlGenericWorkspace xml, Path rootFolder, FileFormat format) {
         Index.Builder result = Index.builder().name(xml.name);
         JaxbUtil.forEach(xml.items, o -> result.item(getIndexKey(o), getIndexValue(o)));
         pushCalendar(rootFolder, result);
@@ -92,9 +114,10 @@ final class GenericIndexer implements Indexer {
         return new Index.Value(xml.name, xml.readOnly, xml.comments);
     }
 
-    private static XmlGenericWorkspace indexToXml(Index index, Path rootFolder) {
+    private static XmlGenericWorkspace indexToXml(Index index, Path rootFolder, FileFormat format) {
         XmlGenericWorkspace result = new XmlGenericWorkspace();
         result.name = index.getName();
+        result.format = formatToXml(format);
         result.items = indexEntriesToXml(pullCalendar(rootFolder, index).getItems());
         return result;
     }
@@ -117,8 +140,8 @@ final class GenericIndexer implements Indexer {
     private static final Xml.Formatter<XmlGenericWorkspace> FORMATTER;
 
     static {
-        PARSER = Jaxb.Parser.of(XmlGenericWorkspace.class);
-        FORMATTER = Jaxb.Formatter.of(XmlGenericWorkspace.class).withFormatted(true);
+        PARSER = JaxbUtil.parser(XmlGenericWorkspace.class);
+        FORMATTER = JaxbUtil.formatter(XmlGenericWorkspace.class).withFormatted(true);
     }
 
     private static XmlGenericWorkspace unmarshalIndex(Path file) throws IOException {
@@ -126,10 +149,11 @@ final class GenericIndexer implements Indexer {
     }
 
     private static void marshalIndex(Path file, XmlGenericWorkspace jaxbElement) throws IOException {
-        FORMATTER.formatPath(jaxbElement, file);
+        AtomicFiles.write(file, o -> FORMATTER.formatPath(jaxbElement, o));
     }
 
     private static void pushCalendar(Path rootFolder, Index.Builder index) {
+        // calendars are always stored in xml
         Path calFile = rootFolder.resolve("Calendars").resolve("Calendars.xml");
         if (Files.exists(calFile) && !Files.isDirectory(calFile)) {
             index.item(SINGLE_CAL_GENERIC_KEY, SINGLE_CAL_GENERIC_VALUE);
@@ -140,6 +164,8 @@ final class GenericIndexer implements Indexer {
         return index.withoutItem(SINGLE_CAL_GENERIC_KEY);
     }
 
+    private static final String BINARY_FORMAT = "binary";
+
     private static final Index.Key SINGLE_CAL_GENERIC_KEY = new Index.Key(WorkspaceFamily.UTIL_CAL, "Calendars");
     private static final Index.Value SINGLE_CAL_GENERIC_VALUE = new Index.Value("Calendars", false, null);
 }
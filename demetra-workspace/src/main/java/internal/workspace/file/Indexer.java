@@ -18,7 +18,6 @@ package internal.workspace.file;
 
 import java.io.Closeable;
 import java.io.IOException;
-import nbbrd.io.Resource;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -33,44 +32,4 @@ interface Indexer extends Closeable {
     Index loadIndex() throws IOException;
 
     void storeIndex(@NonNull Index index) throws IOException;
-
-    @NonNull
-    default Indexer memoize() {
-        Indexer delegate = this;
-        return new Indexer() {
-            private Index latest;
-            private boolean storeRequired;
-
-            @Override
-            public void checkId(Index.Key id) throws IOException {
-                delegate.checkId(id);
-            }
-
-            @Override
-            public Index loadIndex() throws IOException {
-                if (latest == null) {
-                    latest = delegate.loadIndex();
-                    storeRequired = false;
-                }
-                return latest;
-            }
-
-            @Override
-            public void storeIndex(Index index) throws IOException {
-                latest = index;
-                storeRequired = true;
-            }
-
-            @Override
-            public void close() throws IOException {
-                Resource.closeBoth(this::flushIndex, delegate::close);
-            }
-
-            private void flushIndex() throws IOException {
-                if (latest != null && storeRequired) {
-                    delegate.storeIndex(latest);
-                }
-            }
-        };
-    }
 }
@@ -36,6 +36,12 @@ public final class XmlGenericWorkspace {
     @XmlAttribute
     public String name;
 
+    /**
+     * Format of the items; absent for the xml (generic) format
+     */
+    @XmlAttribute
+    public String format;
+
     @XmlElementWrapper()
     @XmlElement(name = "item")
     public XmlGenericWorkspaceItem[] items;
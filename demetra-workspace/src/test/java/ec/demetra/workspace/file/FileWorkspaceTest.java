@@ -155,4 +155,54 @@ public class FileWorkspaceTest {
             assertThat(ws.load(GENERIC_UTIL_VAR)).isInstanceOf(TsVariables.class);
         }
     }
+
+    @Test
+    public void testCopyToBinary(@TempDir Path temp) throws IOException {
+        Path binFile = temp.resolve("binary.xml");
+        try (Workspace source = FileWorkspace.open(GENERIC_INDEX); Workspace target = FileWorkspace.create(binFile, FileFormat.BINARY)) {
+            source.copyTo(target);
+        }
+        assertThat(FileWorkspace.probeFormat(binFile)).hasValue(FileFormat.BINARY);
+        assertThatThrownBy(() -> FileWorkspace.open(binFile, FileFormat.GENERIC)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> FileWorkspace.open(GENERIC_INDEX, FileFormat.BINARY)).isInstanceOf(IOException.class);
+
+        try (FileWorkspace source = FileWorkspace.open(GENERIC_INDEX); FileWorkspace ws = FileWorkspace.open(binFile)) {
+            assertThat(ws.getName()).isEqualTo("my_workspace");
+            assertThat(ws.getFileFormat()).isEqualTo(FileFormat.BINARY);
+            assertThat(ws.getSupportedFamilies()).isNotEmpty();
+
+            assertThat(ws.getItems()).containsExactlyInAnyOrder(GENERIC_ITEMS.toArray(new WorkspaceItem[0]));
+
+            for (WorkspaceItem item : ws.getItems()) {
+                assertThat(ws.getFile(item)).exists();
+            }
+            assertThat(ws.getFile(GENERIC_SA_SPEC_X13).toString()).endsWith(".bin");
+            assertThat(ws.getFile(GENERIC_UTIL_CAL).toString()).endsWith(".xml");
+
+            assertThat(ws.load(GENERIC_SA_MULTI)).isInstanceOf(SaProcessing.class);
+            assertThat(ws.load(GENERIC_SA_DOC_X13)).isInstanceOf(X13Document.class);
+            assertThat(ws.load(GENERIC_SA_DOC_TRAMOSEATS)).isInstanceOf(TramoSeatsDocument.class);
+            assertThat(ws.load(GENERIC_MOD_DOC_REGARIMA)).isInstanceOf(RegArimaDocument.class);
+            assertThat(ws.load(GENERIC_MOD_DOC_TRAMO)).isInstanceOf(TramoDocument.class);
+            assertThat(ws.load(GENERIC_UTIL_CAL)).isInstanceOf(GregorianCalendarManager.class);
+            assertThat(ws.load(GENERIC_UTIL_VAR)).isInstanceOf(TsVariables.class);
+
+            assertThat(ws.load(GENERIC_SA_SPEC_X13)).isEqualTo(source.load(GENERIC_SA_SPEC_X13));
+            assertThat(ws.load(GENERIC_SA_SPEC_TRAMOSEATS)).isEqualTo(source.load(GENERIC_SA_SPEC_TRAMOSEATS));
+            assertThat(ws.load(GENERIC_MOD_SPEC_REGARIMA)).isEqualTo(source.load(GENERIC_MOD_SPEC_REGARIMA));
+            assertThat(ws.load(GENERIC_MOD_SPEC_TRAMO)).isEqualTo(source.load(GENERIC_MOD_SPEC_TRAMO));
+        }
+
+        // and back to xml
+        Path xmlFile = temp.resolve("generic.xml");
+        try (Workspace source = FileWorkspace.open(binFile); Workspace target = FileWorkspace.create(xmlFile, FileFormat.GENERIC)) {
+            source.copyTo(target);
+        }
+        try (FileWorkspace source = FileWorkspace.open(GENERIC_INDEX); FileWorkspace ws = FileWorkspace.open(xmlFile)) {
+            assertThat(ws.getFileFormat()).isEqualTo(FileFormat.GENERIC);
+            assertThat(ws.getItems()).containsExactlyInAnyOrder(GENERIC_ITEMS.toArray(new WorkspaceItem[0]));
+            assertThat(ws.load(GENERIC_SA_SPEC_X13)).isEqualTo(source.load(GENERIC_SA_SPEC_X13));
+            assertThat(ws.load(GENERIC_SA_SPEC_TRAMOSEATS)).isEqualTo(source.load(GENERIC_SA_SPEC_TRAMOSEATS));
+        }
+    }
 }
@@ -39,7 +39,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static internal.test.TestResources.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -207,6 +211,68 @@ public class FileWorkspaceImplTest {
         }
     }
 
+    @Test
+    public void testStoreAll(@TempDir Path temp) throws IOException {
+        Path copyOfGeneric = newGenericSample(temp);
+
+        WorkspaceItem first = GENERIC_SA_MULTI.toBuilder().id("first").build();
+        WorkspaceItem second = GENERIC_SA_MULTI.toBuilder().id("second").build();
+        try (FileWorkspace ws = openGenericUsingServiceLoader(copyOfGeneric)) {
+            Object value = ws.load(GENERIC_SA_MULTI);
+
+            Map<WorkspaceItem, Object> invalid = new LinkedHashMap<>();
+            invalid.put(first, value);
+            invalid.put(second, "hello");
+            assertThatThrownBy(() -> ws.storeAll(invalid)).isInstanceOf(IOException.class);
+            assertThat(ws.getFile(first)).doesNotExist();
+            assertThat(ws.getItems()).doesNotContain(first, second);
+
+            Map<WorkspaceItem, Object> valid = new LinkedHashMap<>();
+            valid.put(first, value);
+            valid.put(second, value);
+            ws.storeAll(valid);
+            assertThat(ws.getFile(first)).exists();
+            assertThat(ws.getFile(second)).exists();
+            assertThat(ws.getItems()).contains(first, second);
+        }
+        assertThat(temp).isDirectoryNotContaining(o -> o.getFileName().toString().startsWith("."));
+        try (FileWorkspace ws = openGenericUsingServiceLoader(copyOfGeneric)) {
+            assertThat(ws.getItems()).contains(GENERIC_SA_MULTI, first, second);
+            assertThat(ws.load(second)).isInstanceOf(SaProcessing.class);
+        }
+    }
+
+    @Test
+    public void testStagingFolder(@TempDir Path temp) throws IOException {
+        Path copyOfGeneric = newGenericSample(temp);
+
+        try (FileWorkspace ws = openGenericUsingServiceLoader(copyOfGeneric)) {
+            Object value = ws.load(GENERIC_SA_MULTI);
+            for (int i = 0; i < 3; ++i) {
+                ws.store(GENERIC_SA_MULTI.toBuilder().id("item" + i).build(), value);
+            }
+            // a single staging folder, re-used by the successive stores
+            try (Stream<Path> files = Files.list(temp)) {
+                assertThat(files.filter(o -> o.getFileName().toString().startsWith("."))).hasSize(1);
+            }
+        }
+        assertThat(temp).isDirectoryNotContaining(o -> o.getFileName().toString().startsWith("."));
+    }
+
+    @Test
+    public void testExternalChange(@TempDir Path temp) throws IOException {
+        Path copyOfGeneric = newGenericSample(temp);
+
+        try (FileWorkspace ws = openGenericUsingServiceLoader(copyOfGeneric)) {
+            assertThat(ws.getItems()).contains(GENERIC_SA_MULTI);
+            try (Indexer indexer = new GenericIndexer(copyOfGeneric, FileWorkspaceImpl.getRootFolder(copyOfGeneric))) {
+                indexer.storeIndex(indexer.loadIndex().withName("other"));
+            }
+            Files.setLastModifiedTime(copyOfGeneric, FileTime.fromMillis(0));
+            assertThat(ws.getName()).isEqualTo("other");
+        }
+    }
+
     @Test
     public void testItemWithoutFile(@TempDir Path temp) throws IOException {
         Path copyOfGeneric = newGenericSample(temp);
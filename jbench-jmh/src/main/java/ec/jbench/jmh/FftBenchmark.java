@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.Periodogram;
+import ec.tstoolkit.maths.Complex;
+import ec.tstoolkit.maths.FftEngine;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the legacy Complex-based fft with FftEngine.
+ * The lengths are powers of two, the only ones supported by the legacy
+ * implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FftBenchmark {
+
+    @Param({"64", "512", "4096"})
+    public int length;
+
+    private double[] re, im, wre, wim;
+    private Complex[] data, wdata;
+    private FftEngine engine;
+    private LegacyFft legacy;
+    private DataBlock series;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(0);
+        re = new double[length];
+        im = new double[length];
+        data = new Complex[length];
+        for (int i = 0; i < length; ++i) {
+            re[i] = rnd.nextGaussian();
+            im[i] = rnd.nextGaussian();
+            data[i] = Complex.cart(re[i], im[i]);
+        }
+        wre = new double[length];
+        wim = new double[length];
+        wdata = new Complex[length];
+        engine = new FftEngine(length);
+        legacy = new LegacyFft();
+        series = new DataBlock(re);
+    }
+
+    @Benchmark
+    public Complex[] legacy() {
+        System.arraycopy(data, 0, wdata, 0, length);
+        legacy.transform(wdata);
+        return wdata;
+    }
+
+    @Benchmark
+    public double[] engine() {
+        System.arraycopy(re, 0, wre, 0, length);
+        System.arraycopy(im, 0, wim, 0, length);
+        engine.transform(wre, wim);
+        return wre;
+    }
+
+    @Benchmark
+    public double[] engineReal() {
+        engine.transformReal(re, wre, wim);
+        return wre;
+    }
+
+    @Benchmark
+    public double[] periodogram() {
+        return new Periodogram(series).getP();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.tstoolkit.arima.estimation.RegArimaEstimation;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.modelling.arima.ModelDescription;
+import ec.tstoolkit.modelling.arima.PreadjustmentType;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.estimation.GlsSarimaMonitor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exact maximum likelihood estimation of a (log) airline model with
+ * GlsSarimaMonitor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GlsSarimaBenchmark {
+
+    @Param({BenchmarkData.REFERENCE, BenchmarkData.AIRLINE})
+    public String dataset;
+
+    private RegArimaModel<SarimaModel> regarima;
+
+    @Setup
+    public void setup() {
+        ModelDescription model = new ModelDescription(BenchmarkData.get(dataset), null);
+        model.setTransformation(DefaultTransformationType.Log, PreadjustmentType.None);
+        model.setAirline(true);
+        regarima = model.buildRegArima();
+    }
+
+    @Benchmark
+    public RegArimaEstimation<SarimaModel> process() {
+        GlsSarimaMonitor monitor = new GlsSarimaMonitor();
+        return monitor.process(regarima);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.xml.JaxbContexts;
+import ec.tss.xml.information.XmlInformationSet;
+import ec.tstoolkit.information.InformationSet;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of specifications in InformationSets (write and read) and of
+ * the InformationSets in xml (encode and decode, through the shared JAXB
+ * contexts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InformationSetBenchmark {
+
+    private InformationSet x13, tramoseats;
+    private String x13Xml, tramoseatsXml;
+    private JaxbContexts.Pool pool;
+
+    @Setup
+    public void setup() throws JAXBException {
+        x13 = X13Specification.RSA5.write(true);
+        tramoseats = TramoSeatsSpecification.RSAfull.write(true);
+        pool = JaxbContexts.getDefault().getPool(XmlInformationSet.class);
+        x13Xml = encode(x13);
+        tramoseatsXml = encode(tramoseats);
+    }
+
+    private String encode(InformationSet info) throws JAXBException {
+        XmlInformationSet xml = new XmlInformationSet();
+        xml.copy(info);
+        StringWriter writer = new StringWriter();
+        pool.marshal(xml, writer, false);
+        return writer.toString();
+    }
+
+    private InformationSet decode(String xml) throws JAXBException {
+        return ((XmlInformationSet) pool.unmarshal(new StringReader(xml))).create();
+    }
+
+    @Benchmark
+    public InformationSet writeX13() {
+        return X13Specification.RSA5.write(true);
+    }
+
+    @Benchmark
+    public X13Specification readX13() {
+        X13Specification spec = new X13Specification();
+        spec.read(x13);
+        return spec;
+    }
+
+    @Benchmark
+    public InformationSet writeTramoSeats() {
+        return TramoSeatsSpecification.RSAfull.write(true);
+    }
+
+    @Benchmark
+    public TramoSeatsSpecification readTramoSeats() {
+        TramoSeatsSpecification spec = new TramoSeatsSpecification();
+        spec.read(tramoseats);
+        return spec;
+    }
+
+    @Benchmark
+    public String encodeXmlX13() throws JAXBException {
+        return encode(x13);
+    }
+
+    @Benchmark
+    public InformationSet decodeXmlX13() throws JAXBException {
+        return decode(x13Xml);
+    }
+
+    @Benchmark
+    public String encodeXmlTramoSeats() throws JAXBException {
+        return encode(tramoseats);
+    }
+
+    @Benchmark
+    public InformationSet decodeXmlTramoSeats() throws JAXBException {
+        return decode(tramoseatsXml);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.tstoolkit.arima.estimation.KalmanFilter;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.SarmaSpecification;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Kalman filter of a stationary ARMA model (KalmanFilter.filter).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalmanFilterBenchmark {
+
+    @Param({"120", "360", "1200"})
+    public int length;
+
+    private SarimaModel arma;
+    private DataBlock y, e;
+
+    @Setup
+    public void setup() {
+        SarmaSpecification spec = new SarmaSpecification(12);
+        spec.setP(3);
+        spec.setBP(1);
+        spec.setQ(1);
+        spec.setBQ(1);
+        arma = new SarimaModel(spec);
+        y = new DataBlock(length);
+        y.randomize(0);
+        e = new DataBlock(length);
+    }
+
+    @Benchmark
+    public double filter() {
+        KalmanFilter filter = new KalmanFilter();
+        filter.initialize(arma, length);
+        filter.filter(y, e);
+        return filter.getLogDeterminant();
+    }
+}
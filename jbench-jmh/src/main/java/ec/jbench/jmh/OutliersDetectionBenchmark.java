@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.arima.estimation.AnsleyFilter;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.modelling.IRobustStandardDeviationComputer;
+import ec.tstoolkit.modelling.arima.ExactSingleOutlierDetector;
+import ec.tstoolkit.modelling.arima.IResidualsComputer;
+import ec.tstoolkit.modelling.arima.ModelDescription;
+import ec.tstoolkit.modelling.arima.PreadjustmentType;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.estimation.GlsSarimaMonitor;
+import ec.tstoolkit.timeseries.regression.AdditiveOutlierFactory;
+import ec.tstoolkit.timeseries.regression.LevelShiftFactory;
+import ec.tstoolkit.timeseries.regression.SeasonalOutlierFactory;
+import ec.tstoolkit.timeseries.regression.TransitoryChangeFactory;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exact single outlier detection (AO, LS, TC, SO), as done in the X13
+ * outliers detection module. The scan is executed sequentially or in
+ * parallel (shared execution context). processTwice corresponds to two
+ * iterations of the outliers loop with the same ARIMA model, where the
+ * second pass may re-use the filtered outliers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OutliersDetectionBenchmark {
+
+    @Param({BenchmarkData.REFERENCE, BenchmarkData.AIRLINE, BenchmarkData.LONG})
+    public String dataset;
+
+    @Param({"sequential", "shared"})
+    public String execution;
+
+    @Param({"false", "true"})
+    public boolean caching;
+
+    private RegArimaModel<SarimaModel> regarima;
+    private TsDomain domain;
+
+    @Setup
+    public void setup() {
+        ModelDescription model = new ModelDescription(BenchmarkData.get(dataset), null);
+        model.setTransformation(DefaultTransformationType.Log, PreadjustmentType.None);
+        model.setAirline(true);
+        regarima = new GlsSarimaMonitor().process(model.buildRegArima()).model;
+        domain = model.getEstimationDomain();
+    }
+
+    private ExactSingleOutlierDetector<SarimaModel> detector() {
+        ExactSingleOutlierDetector<SarimaModel> sod = new ExactSingleOutlierDetector<>(IRobustStandardDeviationComputer.mad(false),
+                IResidualsComputer.mlComputer(), new AnsleyFilter());
+        sod.setExecutionContext("shared".equals(execution) ? ExecutionContext.shared() : ExecutionContext.sequential());
+        sod.setCaching(caching);
+        sod.addOutlierFactory(new AdditiveOutlierFactory());
+        LevelShiftFactory lfac = new LevelShiftFactory();
+        lfac.setZeroEnded(true);
+        sod.addOutlierFactory(lfac);
+        TransitoryChangeFactory tfac = new TransitoryChangeFactory();
+        tfac.setMonthlyCoefficient(true);
+        sod.addOutlierFactory(tfac);
+        SeasonalOutlierFactory sfac = new SeasonalOutlierFactory();
+        sfac.setZeroEnded(true);
+        sod.addOutlierFactory(sfac);
+        sod.prepare(domain, null);
+        return sod;
+    }
+
+    @Benchmark
+    public double process() {
+        ExactSingleOutlierDetector<SarimaModel> sod = detector();
+        sod.process(regarima);
+        return sod.getMaxTStat();
+    }
+
+    @Benchmark
+    public double processTwice() {
+        ExactSingleOutlierDetector<SarimaModel> sod = detector();
+        sod.process(regarima);
+        sod.exclude(sod.getMaxPosition());
+        sod.process(regarima);
+        return sod.getMaxTStat();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.demetra.workspace.WorkspaceFamily;
+import ec.demetra.workspace.WorkspaceItem;
+import ec.demetra.workspace.file.FileFormat;
+import ec.demetra.workspace.file.FileWorkspace;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.TsFactory;
+import ec.tss.sa.ISaProcessingFactoryLoader;
+import ec.tss.sa.SaItem;
+import ec.tss.sa.SaManager;
+import ec.tss.sa.SaProcessing;
+import ec.tss.xml.information.BinaryInformationSet;
+import ec.tstoolkit.information.InformationSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Open and save times of file workspaces, in the xml (generic) and in the
+ * binary formats. The workspace contains a multi-processing of "series" airline
+ * series and a few specifications.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkspaceBenchmark {
+
+    static {
+        // the document handlers need the sa processing factories
+        new ISaProcessingFactoryLoader().get().forEach(SaManager.instance::add);
+    }
+
+    @Param({"GENERIC", "BINARY"})
+    public FileFormat format;
+
+    @Param({"100", "1000"})
+    public int series;
+
+    private Path folder, file;
+    private Map<WorkspaceItem, Object> items;
+    private InformationSet info;
+    private byte[] bytes;
+    private int saved;
+
+    @Setup
+    public void setup() throws IOException {
+        SaProcessing processing = new SaProcessing();
+        for (int i = 0; i < series; ++i) {
+            processing.add(new SaItem(TramoSeatsSpecification.RSAfull,
+                    TsFactory.instance.createTs("s" + i, null, BenchmarkData.airline(240, i))));
+        }
+        items = new LinkedHashMap<>();
+        items.put(item(WorkspaceFamily.SA_MULTI, "SAProcessing-1"), processing);
+        items.put(item(WorkspaceFamily.SA_SPEC_X13, "X13Spec-1"), X13Specification.RSA5.clone());
+        items.put(item(WorkspaceFamily.SA_SPEC_TRAMOSEATS, "TramoSeatsSpec-1"), TramoSeatsSpecification.RSAfull.clone());
+
+        folder = Files.createTempDirectory("jbench-ws");
+        file = folder.resolve("ws.xml");
+        try (FileWorkspace ws = FileWorkspace.create(file, format)) {
+            ws.storeAll(items);
+        }
+        info = processing.write(false);
+        bytes = BinaryInformationSet.toBytes(info);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        deleteTree(folder);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        for (int i = 0; i < saved; ++i) {
+            Files.deleteIfExists(folder.resolve("saved" + i + ".xml"));
+            deleteTree(folder.resolve("saved" + i));
+        }
+        saved = 0;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        List<Path> all = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(all::add);
+        }
+        for (Path cur : all) {
+            Files.deleteIfExists(cur);
+        }
+    }
+
+    private static WorkspaceItem item(WorkspaceFamily family, String id) {
+        return WorkspaceItem.builder().family(family).id(id).label(id).build();
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        int n = 0;
+        try (FileWorkspace ws = FileWorkspace.open(file, format)) {
+            for (WorkspaceItem item : ws.getItems()) {
+                if (ws.load(item) != null) {
+                    ++n;
+                }
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public Path save() throws IOException {
+        Path target = folder.resolve("saved" + (saved++) + ".xml");
+        try (FileWorkspace ws = FileWorkspace.create(target, format)) {
+            ws.storeAll(items);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() throws IOException {
+        return BinaryInformationSet.toBytes(info);
+    }
+
+    @Benchmark
+    public InformationSet decodeBinary() throws IOException {
+        return BinaryInformationSet.fromBytes(bytes);
+    }
+}
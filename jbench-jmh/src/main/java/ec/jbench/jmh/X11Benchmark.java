@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.jbench.jmh;
+
+import ec.satoolkit.DecompositionMode;
+import ec.satoolkit.x11.X11Kernel;
+import ec.satoolkit.x11.X11Results;
+import ec.satoolkit.x11.X11Specification;
+import ec.satoolkit.x11.X11Toolkit;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * X11 filtering (X11Kernel.process), without forecasts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class X11Benchmark {
+
+    @Param({BenchmarkData.REFERENCE, BenchmarkData.AIRLINE})
+    public String dataset;
+
+    @Param({"Multiplicative", "Additive"})
+    public DecompositionMode mode;
+
+    private TsData series;
+    private X11Kernel kernel;
+
+    @Setup
+    public void setup() {
+        series = BenchmarkData.get(dataset);
+        X11Specification spec = new X11Specification();
+        spec.setMode(mode);
+        spec.setForecastHorizon(0);
+        kernel = new X11Kernel();
+        kernel.setToolkit(X11Toolkit.create(spec));
+    }
+
+    @Benchmark
+    public X11Results process() {
+        return kernel.process(series);
+    }
+}
@@ -39,13 +39,38 @@ import org.slf4j.Logger;
  */
 public class JdbcAccessor<BEAN extends JdbcBean> extends DbAccessor.Commander<BEAN> {
 
+    /**
+     * Number of rows fetched per round-trip when the driver supports it.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     protected final Logger logger;
     protected final ConnectionSupplier supplier;
+    private int fetchSize;
 
     public JdbcAccessor(@NonNull Logger logger, @NonNull BEAN dbBean, @NonNull ConnectionSupplier supplier) {
         super(dbBean);
         this.logger = logger;
         this.supplier = supplier;
+        this.fetchSize = DEFAULT_FETCH_SIZE;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of rows that the driver should fetch per round-trip.
+     * Large subtrees are then streamed instead of being loaded in one piece.
+     *
+     * @param fetchSize a positive number of rows or zero to use the driver
+     * default
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -336,7 +361,10 @@ public class JdbcAccessor<BEAN extends JdbcBean> extends DbAccessor.Commander<BE
                 try (Connection conn = supplier.getConnection(dbBean)) {
                     String queryString = getQueryString(conn.getMetaData());
                     logger.debug(queryString);
-                    try (PreparedStatement cmd = conn.prepareStatement(queryString)) {
+                    try (PreparedStatement cmd = conn.prepareStatement(queryString, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        if (fetchSize > 0) {
+                            cmd.setFetchSize(fetchSize);
+                        }
                         setParameters(cmd);
                         try (ResultSet rs = cmd.executeQuery()) {
                             return process(rs);
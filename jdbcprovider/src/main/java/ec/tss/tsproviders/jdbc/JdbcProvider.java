@@ -34,6 +34,7 @@ public abstract class JdbcProvider<BEAN extends JdbcBean> extends DbProvider<BEA
     protected final String version;
     protected final Parsers.Parser<DataSource> legacyDataSourceParser;
     protected final Parsers.Parser<DataSet> legacyDataSetParser;
+    private int fetchSize;
 
     protected JdbcProvider(@NonNull String source, @NonNull String version, @NonNull Logger logger, @NonNull TsAsyncMode asyncMode) {
         this(source, version, logger, asyncMode, JdbcLegacy.dbParser(source, version));
@@ -49,6 +50,33 @@ public abstract class JdbcProvider<BEAN extends JdbcBean> extends DbProvider<BEA
         this.version = version;
         this.legacyDataSourceParser = legacyDataSourceParser;
         this.legacyDataSetParser = legacyDataSetParser;
+        this.fetchSize = JdbcAccessor.DEFAULT_FETCH_SIZE;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of rows fetched per round-trip by the accessors created
+     * after this call.
+     *
+     * @param fetchSize a positive number of rows or zero to use the driver
+     * default
+     * @see JdbcAccessor#setFetchSize(int)
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    @NonNull
+    protected JdbcAccessor<BEAN> newAccessor(@NonNull BEAN bean, @NonNull ConnectionSupplier supplier) {
+        JdbcAccessor<BEAN> result = new JdbcAccessor<>(logger, bean, supplier);
+        result.setFetchSize(fetchSize);
+        return result;
     }
 
     @Override
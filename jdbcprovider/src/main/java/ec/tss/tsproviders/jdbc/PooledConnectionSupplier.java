@@ -0,0 +1,338 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.jdbc;
+
+import ec.util.jdbc.ForwardingConnection;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A connection supplier that keeps the connections of another supplier open
+ * after use in order to reuse them. Connections are pooled by database name
+ * and each of them keeps a small cache of prepared statements.
+ * <p>
+ * Closing a supplied connection (or one of its prepared statements) returns
+ * it to the pool instead of releasing it.
+ */
+public final class PooledConnectionSupplier implements ConnectionSupplier, Closeable {
+
+    public static final int DEFAULT_MAX_IDLE = 4;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    private static final int VALIDATION_TIMEOUT_IN_SECONDS = 2;
+
+    private final ConnectionSupplier delegate;
+    private final int maxIdle;
+    private final int statementCacheSize;
+    private final Map<String, Deque<PhysicalConnection>> idle;
+    private boolean closed;
+
+    public PooledConnectionSupplier(@NonNull ConnectionSupplier delegate) {
+        this(delegate, DEFAULT_MAX_IDLE, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public PooledConnectionSupplier(@NonNull ConnectionSupplier delegate, int maxIdle, int statementCacheSize) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Invalid max idle: " + maxIdle);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.maxIdle = maxIdle;
+        this.statementCacheSize = statementCacheSize;
+        this.idle = new HashMap<>();
+        this.closed = false;
+    }
+
+    @Override
+    public Connection getConnection(JdbcBean bean) throws SQLException {
+        String key = bean.getDbName();
+        PhysicalConnection result;
+        while ((result = poll(key)) != null) {
+            if (result.isValid()) {
+                return new PooledConnection(key, result);
+            }
+            result.closeQuietly();
+        }
+        return new PooledConnection(key, new PhysicalConnection(delegate.getConnection(bean), statementCacheSize));
+    }
+
+    /**
+     * Gets the number of connections that are currently waiting to be reused.
+     *
+     * @return a non-negative number
+     */
+    public synchronized int getIdleCount() {
+        int result = 0;
+        for (Deque<PhysicalConnection> o : idle.values()) {
+            result += o.size();
+        }
+        return result;
+    }
+
+    /**
+     * Closes the idle connections. Connections in use are released as usual.
+     */
+    public void clear() {
+        List<PhysicalConnection> items = new ArrayList<>();
+        synchronized (this) {
+            idle.values().forEach(items::addAll);
+            idle.clear();
+        }
+        items.forEach(PhysicalConnection::closeQuietly);
+    }
+
+    /**
+     * Closes the idle connections and stops pooling. Connections in use are
+     * closed when they are released.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        clear();
+    }
+
+    private synchronized PhysicalConnection poll(String key) {
+        Deque<PhysicalConnection> items = idle.get(key);
+        return items != null ? items.pollFirst() : null;
+    }
+
+    private void release(String key, PhysicalConnection conn) {
+        if (conn.reset()) {
+            synchronized (this) {
+                if (!closed) {
+                    Deque<PhysicalConnection> items = idle.computeIfAbsent(key, o -> new ArrayDeque<>());
+                    if (items.size() < maxIdle) {
+                        items.addFirst(conn);
+                        return;
+                    }
+                }
+            }
+        }
+        conn.closeQuietly();
+    }
+
+    private static final class PhysicalConnection {
+
+        private final Connection connection;
+        private final boolean autoCommit;
+        private final Map<String, PreparedStatement> statements;
+        private final Set<PreparedStatement> inUse;
+
+        PhysicalConnection(Connection connection, int statementCacheSize) throws SQLException {
+            this.connection = connection;
+            this.autoCommit = connection.getAutoCommit();
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        if (!inUse.contains(eldest.getValue())) {
+                            closeQuietly(eldest.getValue());
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            this.inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+
+        PreparedStatement prepareStatement(Connection owner, String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            String key = resultSetType + ":" + resultSetConcurrency + ":" + sql;
+            PreparedStatement result = statements.get(key);
+            if (result != null && inUse.contains(result)) {
+                // same query opened twice; the second one is not cached
+                return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+            }
+            if (result == null || result.isClosed()) {
+                result = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+                statements.put(key, result);
+            }
+            inUse.add(result);
+            return cached(owner, result);
+        }
+
+        private PreparedStatement cached(Connection owner, PreparedStatement statement) {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean released = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!released) {
+                                released = true;
+                                releaseStatement(statement);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released || statement.isClosed();
+                        case "getConnection":
+                            return owner;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                    }
+                    if (released) {
+                        throw new SQLException("Statement closed");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        private void releaseStatement(PreparedStatement statement) throws SQLException {
+            inUse.remove(statement);
+            if (statements.values().stream().noneMatch(o -> o == statement)) {
+                statement.close();
+                return;
+            }
+            try {
+                statement.clearParameters();
+            } catch (SQLException ex) {
+                statements.values().removeIf(o -> o == statement);
+                closeQuietly(statement);
+                throw ex;
+            }
+        }
+
+        boolean isValid() {
+            try {
+                return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_IN_SECONDS);
+            } catch (SQLException | AbstractMethodError ex) {
+                // old drivers don't implement isValid
+                return false;
+            }
+        }
+
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (connection.getAutoCommit() != autoCommit) {
+                    if (!connection.getAutoCommit()) {
+                        connection.rollback();
+                    }
+                    connection.setAutoCommit(autoCommit);
+                }
+                for (PreparedStatement o : inUse) {
+                    closeQuietly(o);
+                }
+                statements.values().removeIf(inUse::contains);
+                inUse.clear();
+                return true;
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            for (Iterator<PreparedStatement> iter = statements.values().iterator(); iter.hasNext();) {
+                closeQuietly(iter.next());
+                iter.remove();
+            }
+            inUse.clear();
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                // do nothing
+            }
+        }
+
+        private static void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                // do nothing
+            }
+        }
+    }
+
+    private final class PooledConnection extends ForwardingConnection {
+
+        private final String key;
+        private final PhysicalConnection physical;
+        private boolean released;
+
+        PooledConnection(String key, PhysicalConnection physical) {
+            this.key = key;
+            this.physical = physical;
+            this.released = false;
+        }
+
+        @Override
+        protected Connection getConnection() {
+            if (released) {
+                throw new IllegalStateException("Connection closed");
+            }
+            return physical.connection;
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            getConnection();
+            return physical.prepareStatement(this, sql, resultSetType, resultSetConcurrency);
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return released || physical.connection.isClosed();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!released) {
+                released = true;
+                release(key, physical);
+            }
+        }
+    }
+}
@@ -21,7 +21,6 @@ import ec.tss.TsAsyncMode;
 import ec.tss.tsproviders.DataSource;
 import ec.tss.tsproviders.db.DbAccessor;
 import ec.tss.tsproviders.jdbc.ConnectionSupplier;
-import ec.tss.tsproviders.jdbc.JdbcAccessor;
 import ec.tss.tsproviders.jdbc.JdbcBean;
 import ec.tss.tsproviders.jdbc.JdbcProvider;
 import java.sql.Connection;
@@ -63,7 +62,7 @@ public class JndiJdbcProvider extends JdbcProvider<JdbcBean> {
 
     @Override
     protected DbAccessor<JdbcBean> loadFromBean(JdbcBean bean) throws Exception {
-        return new JdbcAccessor(logger, bean, connectionSupplier).memoize();
+        return newAccessor(bean, connectionSupplier).memoize();
     }
 
     @Override
@@ -22,9 +22,9 @@ import ec.tss.tsproviders.DataSource;
 import ec.tss.tsproviders.db.DbAccessor;
 import ec.tss.tsproviders.jdbc.ConnectionSupplier;
 import ec.tss.tsproviders.jdbc.ConnectionSupplier.DriverBasedSupplier;
-import ec.tss.tsproviders.jdbc.JdbcAccessor;
 import ec.tss.tsproviders.jdbc.JdbcBean;
 import ec.tss.tsproviders.jdbc.JdbcProvider;
+import ec.tss.tsproviders.jdbc.PooledConnectionSupplier;
 import ec.tss.tsproviders.jdbc.dsm.datasource.DataSourceManager;
 import ec.tss.tsproviders.jdbc.dsm.datasource.DataSourceType;
 import ec.tss.tsproviders.jdbc.dsm.datasource.interfaces.IManagedDataSource;
@@ -47,10 +47,12 @@ public class OracleProvider extends JdbcProvider<JdbcBean> {
     static final String VERSION = "20111201";
     // PROPERTIES
     private final DriverBasedSupplier connectionSupplier;
+    private final PooledConnectionSupplier connectionPool;
 
     public OracleProvider() {
         super(SOURCE, VERSION, LOGGER, TsAsyncMode.Once);
         this.connectionSupplier = new OracleSupplier();
+        this.connectionPool = new PooledConnectionSupplier(connectionSupplier);
     }
 
     @Override
@@ -65,7 +67,13 @@ public class OracleProvider extends JdbcProvider<JdbcBean> {
 
     @Override
     protected DbAccessor<JdbcBean> loadFromBean(JdbcBean bean) throws Exception {
-        return new JdbcAccessor(logger, bean, connectionSupplier).memoize();
+        return newAccessor(bean, connectionPool).memoize();
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        connectionPool.close();
     }
 
     @Override
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.jdbc;
+
+import static ec.tss.tsproviders.jdbc.JdbcSamples.mydbConnectionSupplier;
+import static ec.tss.tsproviders.jdbc.JdbcSamples.mydbTwoDimsBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import static org.slf4j.helpers.NOPLogger.NOP_LOGGER;
+
+public class PooledConnectionSupplierTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        try (PooledConnectionSupplier pool = new PooledConnectionSupplier(mydbConnectionSupplier())) {
+            Connection first;
+            try (Connection conn = pool.getConnection(mydbTwoDimsBean())) {
+                first = conn.unwrap(Connection.class);
+                try (PreparedStatement cmd = conn.prepareStatement("SELECT COUNT(*) FROM Table2")) {
+                    try (ResultSet rs = cmd.executeQuery()) {
+                        assertTrue(rs.next());
+                    }
+                }
+            }
+            assertEquals(1, pool.getIdleCount());
+            try (Connection conn = pool.getConnection(mydbTwoDimsBean())) {
+                assertEquals(0, pool.getIdleCount());
+                assertSame(first, conn.unwrap(Connection.class));
+                PreparedStatement cmd = conn.prepareStatement("SELECT COUNT(*) FROM Table2");
+                assertSame(conn, cmd.getConnection());
+                cmd.close();
+                assertTrue(cmd.isClosed());
+                cmd.close();
+            }
+            assertEquals(1, pool.getIdleCount());
+            pool.clear();
+            assertEquals(0, pool.getIdleCount());
+            assertTrue(first.isClosed());
+        }
+    }
+
+    @Test
+    public void testAccessor() throws Exception {
+        try (PooledConnectionSupplier pool = new PooledConnectionSupplier(mydbConnectionSupplier())) {
+            JdbcAccessor<JdbcBean> expected = new JdbcAccessor<>(NOP_LOGGER, mydbTwoDimsBean(), mydbConnectionSupplier());
+            JdbcAccessor<JdbcBean> found = new JdbcAccessor<>(NOP_LOGGER, mydbTwoDimsBean(), pool);
+            found.setFetchSize(1);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected.getAllSeriesWithData(), found.getAllSeriesWithData());
+                assertEquals(expected.getAllSeriesWithData("Industry"), found.getAllSeriesWithData("Industry"));
+            }
+            assertEquals(1, pool.getIdleCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFetchSize() {
+        new JdbcAccessor<>(NOP_LOGGER, mydbTwoDimsBean(), mydbConnectionSupplier()).setFetchSize(-1);
+    }
+}
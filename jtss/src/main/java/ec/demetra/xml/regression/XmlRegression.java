@@ -16,6 +16,7 @@
  */
 package ec.demetra.xml.regression;
 
+import ec.tss.xml.JaxbContexts;
 import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.JAXBContext;
@@ -95,11 +96,18 @@ public class XmlRegression {
         return xmlclvar;
     }
     
-    public static synchronized JAXBContext context() throws JAXBException{ 
+    /**
+     * Gets the context of the regression and of all the registered variables
+     * and modifiers. The context is shared (see JaxbContexts) as long as the
+     * registered adapters don't change.
+     *
+     * @return
+     * @throws JAXBException
+     */
+    public static JAXBContext context() throws JAXBException{ 
     
         List<Class> xmlClasses = xmlClasses();
         xmlClasses.add(XmlRegression.class);
-        JAXBContext jaxb = JAXBContext.newInstance(xmlClasses.toArray(new Class[xmlClasses.size()]));
-        return jaxb;
+        return JaxbContexts.getDefault().getContext(xmlClasses.toArray(new Class[xmlClasses.size()]));
     }
 }
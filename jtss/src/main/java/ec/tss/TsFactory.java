@@ -28,10 +28,13 @@ import ec.tstoolkit.design.Internal;
 import ec.tstoolkit.design.NewObject;
 import ec.tstoolkit.design.Singleton;
 import ec.tstoolkit.timeseries.simplets.TsData;
-import java.lang.ref.WeakReference;
+import java.lang.ref.ReferenceQueue;
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -49,7 +52,12 @@ public class TsFactory {
     class NotificationsQueue extends Observable implements Runnable {
 
         final Thread notificationThread;
-        private final ArrayDeque<TsEvent> m_events = new ArrayDeque<>();
+        // multiple producers (the loading threads), single consumer (the notification thread)
+        private final ConcurrentLinkedQueue<TsEvent> m_events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger m_depth = new AtomicInteger(), m_maxDepth = new AtomicInteger();
+        private final AtomicLong m_dispatched = new AtomicLong(), m_contention = new AtomicLong();
+        // the observers are notified by one thread at a time
+        private final ReentrantLock m_dispatchLock = new ReentrantLock();
 
         NotificationsQueue() {
             notificationThread = new Thread(this);
@@ -57,42 +65,33 @@ public class TsFactory {
         }
 
         void add(TsEvent event) {
-            synchronized (m_events) {
-                boolean empty = m_events.isEmpty();
-                // push add at the beginning. should be added at the end!!!
-                // in the dispatching routine, this event may be removed and never dispatched
-                m_events.add(event);
-//                m_events.push(event);
-                if (empty) {
-                    LockSupport.unpark(notificationThread);
-                }
+            m_events.offer(event);
+            int depth = m_depth.incrementAndGet();
+            int max = m_maxDepth.get();
+            while (depth > max && !m_maxDepth.compareAndSet(max, depth)) {
+                max = m_maxDepth.get();
             }
+            // cheap if the notification thread is not parked
+            LockSupport.unpark(notificationThread);
         }
 
         void dispatch(TsEvent event) {
-            synchronized (m_events) {
-                setChanged();
-                try {
-                    this.notifyObservers(event);
-                } catch (RuntimeException ex) {
-                }
+            if (!m_dispatchLock.tryLock()) {
+                m_contention.incrementAndGet();
+                m_dispatchLock.lock();
             }
-        }
-
-        private TsEvent nextEvent() {
-            synchronized (m_events) {
-                if (m_events.isEmpty()) {
-                    return null;
-                } else {
-                    return m_events.peek();
-                }
+            try {
+                setChanged();
+                this.notifyObservers(event);
+            } catch (RuntimeException ex) {
+            } finally {
+                m_dispatchLock.unlock();
+                m_dispatched.incrementAndGet();
             }
         }
 
-        private void popEvent() {
-            synchronized (m_events) {
-                m_events.pop();
-            }
+        int getDepth() {
+            return Math.max(0, m_depth.get());
         }
 
         @Override
@@ -101,12 +100,12 @@ public class TsFactory {
                 if (isClosing()) {
                     return;
                 }
-                TsEvent nev = nextEvent();
+                TsEvent nev = m_events.poll();
                 if (nev == null) {
-                    LockSupport.park();
+                    LockSupport.park(this);
                 } else {
+                    m_depth.decrementAndGet();
                     this.dispatch(nev);
-                    this.popEvent();
                 }
             }
         }
@@ -116,6 +115,10 @@ public class TsFactory {
         }
     }
 
+    /**
+     * Removes the entries of the collected series and collections, as soon as
+     * their references are enqueued by the garbage collector.
+     */
     class TsFactoryCleaner extends Thread {
 
         public TsFactoryCleaner() {
@@ -128,12 +131,108 @@ public class TsFactory {
                 if (isClosing()) {
                     return;
                 }
-                cleanTS();
-                cleanTSCollection();
-                LockSupport.parkNanos(10000000000l);
+                try {
+                    TsRegistry.expunge(m_queue.remove());
+                } catch (InterruptedException ex) {
+                    return;
+                }
             }
         }
     }
+
+    /**
+     * Snapshot of the state of the factory (registries and notifications)
+     */
+    public static final class Statistics {
+
+        private final int tsCount, collectionsCount, queueDepth, maxQueueDepth;
+        private final long dispatchedEvents, dispatchContention, registrationContention, expunged;
+
+        private Statistics(TsFactory factory) {
+            tsCount = factory.m_ts.size();
+            collectionsCount = factory.m_collections.size();
+            queueDepth = factory.notifications.getDepth();
+            maxQueueDepth = factory.notifications.m_maxDepth.get();
+            dispatchedEvents = factory.notifications.m_dispatched.get();
+            dispatchContention = factory.notifications.m_contention.get();
+            registrationContention = factory.m_ts.getContentionCount() + factory.m_collections.getContentionCount();
+            expunged = factory.m_ts.getExpungedCount() + factory.m_collections.getExpungedCount();
+        }
+
+        /**
+         * @return The number of registered series (including the collected
+         * series that are not yet removed)
+         */
+        public int getTsCount() {
+            return tsCount;
+        }
+
+        /**
+         * @return The number of registered collections (including the
+         * collected collections that are not yet removed)
+         */
+        public int getTsCollectionCount() {
+            return collectionsCount;
+        }
+
+        /**
+         * @return The number of events waiting for an asynchronous dispatch
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return The largest number of events waiting for an asynchronous
+         * dispatch
+         */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /**
+         * @return The number of dispatched events (synchronous and
+         * asynchronous)
+         */
+        public long getDispatchedEventCount() {
+            return dispatchedEvents;
+        }
+
+        /**
+         * @return The number of dispatches that had to wait for another
+         * dispatch
+         */
+        public long getDispatchContentionCount() {
+            return dispatchContention;
+        }
+
+        /**
+         * @return The number of registrations of series or collections that
+         * have been pre-empted by another thread
+         */
+        public long getRegistrationContentionCount() {
+            return registrationContention;
+        }
+
+        /**
+         * @return The number of entries removed after the collection of their
+         * series or collections
+         */
+        public long getExpungedCount() {
+            return expunged;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(tsCount).append(" series, ").append(collectionsCount).append(" collections, ")
+                    .append(expunged).append(" expunged, ").append(registrationContention).append(" registration conflict(s); ")
+                    .append(dispatchedEvents).append(" event(s) dispatched, queue=").append(queueDepth)
+                    .append(" (max=").append(maxQueueDepth).append("), ")
+                    .append(dispatchContention).append(" dispatch conflict(s)");
+            return builder.toString();
+        }
+    }
     /**
      *
      */
@@ -146,9 +245,10 @@ public class TsFactory {
     }
 
     private final HashMap<String, ITsProvider> m_providers = new HashMap<>();
-    private final HashMap<TsMoniker, WeakReference<TsCollection>> m_collections = new HashMap<>();
-    private final HashMap<TsMoniker, WeakReference<Ts.Master>> m_ts = new HashMap<>();
-    private boolean m_close;
+    private final ReferenceQueue<Object> m_queue = new ReferenceQueue<>();
+    private final TsRegistry<TsCollection> m_collections = new TsRegistry<>(m_queue);
+    private final TsRegistry<Ts.Master> m_ts = new TsRegistry<>(m_queue);
+    private volatile boolean m_close;
     private final long m_threadID;
     private boolean m_useSynchronousNotifications = true;
     NotificationsQueue notifications = new NotificationsQueue();
@@ -204,32 +304,11 @@ public class TsFactory {
     }
 
     private void cleanTS() {
-        synchronized (m_ts) {
-            HashMap<TsMoniker, WeakReference<Ts.Master>> tmp = new HashMap<>();
-            int n = 0;
-            for (Entry<TsMoniker, WeakReference<Ts.Master>> r : m_ts.entrySet()) {
-                if (r.getValue().get() != null) {
-                    tmp.put(r.getKey(), r.getValue());
-                } else {
-                    ++n;
-                }
-            }
-            m_ts.clear();
-            m_ts.putAll(tmp);
-        }
+        m_ts.clean();
     }
 
     private void cleanTSCollection() {
-        synchronized (m_collections) {
-            HashMap<TsMoniker, WeakReference<TsCollection>> tmp = new HashMap<>();
-            m_collections.forEach((k, v) -> {
-                if (v.get() != null) {
-                    tmp.put(k, v);
-                }
-            });
-            m_collections.clear();
-            m_collections.putAll(tmp);
-        }
+        m_collections.clean();
     }
 
     /**
@@ -269,27 +348,18 @@ public class TsFactory {
     @NonNull
     @NewObject
     public Ts createTs(@Nullable String name) {
-        synchronized (m_ts) {
-            Ts.Master ts = new Ts.Master(tsCallback, name);
-            m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-            return ts;
-        }
+        Ts.Master ts = new Ts.Master(tsCallback, name);
+        m_ts.put(ts.getMoniker(), ts);
+        return ts;
     }
 
     Ts createTs(TsInformation info) {
-        synchronized (m_ts) {
-            Ts.Master ts = null;
-            WeakReference<Ts.Master> wref = m_ts.get(info.moniker);
-            if (wref != null) {
-                ts = wref.get();
-            }
-            if (ts == null) {
-                ts = new Ts.Master(tsCallback, info.name, info.moniker);
-            }
-            ts.update(info);
-            m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-            return ts;
+        Ts.Master ts = m_ts.get(info.moniker);
+        if (ts == null) {
+            ts = m_ts.putIfAbsent(info.moniker, new Ts.Master(tsCallback, info.name, info.moniker));
         }
+        ts.update(info);
+        return ts;
     }
 
     /**
@@ -318,29 +388,18 @@ public class TsFactory {
      */
     @NonNull
     public Ts createTs(@Nullable String name, @Nullable TsMoniker moniker, @Nullable MetaData md, @Nullable TsData d) {
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = null;
-            if (moniker != null) {
-                wref = m_ts.get(moniker);
-            }
-            if (wref != null) {
-                Ts.Master ts = wref.get();
-                if (ts != null) {
-                    return ts.rename(name);
-                } else {
-                    ts = new Ts.Master(tsCallback, name, moniker, md, d);
-                    m_ts.put(moniker, new WeakReference<>(ts));
-                    return ts;
-                }
-            } else {
-                if (moniker == null) {
-                    moniker = new TsMoniker();
-                }
-                Ts.Master ts = new Ts.Master(tsCallback, name, moniker, md, d);
-                m_ts.put(ts.getMoniker(), new WeakReference<>(ts));
-                return ts;
-            }
+        if (moniker == null) {
+            Ts.Master ts = new Ts.Master(tsCallback, name, new TsMoniker(), md, d);
+            m_ts.put(ts.getMoniker(), ts);
+            return ts;
+        }
+        Ts.Master ts = m_ts.get(moniker);
+        if (ts != null) {
+            return ts.rename(name);
         }
+        Ts.Master nts = new Ts.Master(tsCallback, name, moniker, md, d);
+        ts = m_ts.putIfAbsent(moniker, nts);
+        return ts == nts ? ts : ts.rename(name);
     }
 
     /**
@@ -354,23 +413,26 @@ public class TsFactory {
      */
     @NonNull
     public Ts createTs(@Nullable String name, @NonNull TsMoniker moniker, @NonNull TsInformationType type) {
-        synchronized (m_ts) {
-            Ts.Master result = (Ts.Master) getTs(moniker);
-            if (result == null) {
-                if (type != TsInformationType.None) {
-                    TsInformation info = new TsInformation(name, moniker, type);
-                    fill(info);
-                    result = new Ts.Master(tsCallback, name != null ? name : info.name, moniker);
-                    result.update(info);
-                } else {
-                    result = new Ts.Master(tsCallback, name, moniker);
-                }
-                m_ts.put(moniker, new WeakReference<>(result));
+        Ts.Master result = m_ts.get(moniker);
+        if (result == null) {
+            // the provider is called outside of any lock
+            Ts.Master nts;
+            if (type != TsInformationType.None) {
+                TsInformation info = new TsInformation(name, moniker, type);
+                fill(info);
+                nts = new Ts.Master(tsCallback, name != null ? name : info.name, moniker);
+                nts.update(info);
             } else {
+                nts = new Ts.Master(tsCallback, name, moniker);
+            }
+            result = m_ts.putIfAbsent(moniker, nts);
+            if (result != nts) {
                 result.load(type);
             }
-            return result;
+        } else {
+            result.load(type);
         }
+        return result;
     }
 
     private boolean fill(TsInformation info) {
@@ -408,12 +470,9 @@ public class TsFactory {
     @NonNull
     @NewObject
     public TsCollection createTsCollection(@Nullable String name) {
-        synchronized (m_collections) {
-            TsCollection coll = new TsCollection(tsCollectionCallback, name);
-            m_collections.put(coll.getMoniker(),
-                    new WeakReference<>(coll));
-            return coll;
-        }
+        TsCollection coll = new TsCollection(tsCollectionCallback, name);
+        m_collections.put(coll.getMoniker(), coll);
+        return coll;
     }
 
     /**
@@ -429,29 +488,16 @@ public class TsFactory {
     @NonNull
     public TsCollection createTsCollection(@Nullable String name, @Nullable TsMoniker moniker, @Nullable MetaData md,
             @Nullable Iterable<Ts> ts) {
-        synchronized (m_collections) {
-            if (moniker == null) {
-                TsCollection c = new TsCollection(tsCollectionCallback, name, new TsMoniker(), md, ts);
-                m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                return c;
-            } else {
-                WeakReference<TsCollection> wref = m_collections.get(moniker);
-                if (wref != null) {
-                    TsCollection c = wref.get();
-                    if (c != null) {
-                        return c;
-                    } else {
-                        c = new TsCollection(tsCollectionCallback, name, moniker, md, ts);
-                        m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                        return c;
-                    }
-                } else {
-                    TsCollection c = new TsCollection(tsCollectionCallback, name, moniker, md, ts);
-                    m_collections.put(c.getMoniker(), new WeakReference<>(c));
-                    return c;
-                }
-            }
+        if (moniker == null) {
+            TsCollection c = new TsCollection(tsCollectionCallback, name, new TsMoniker(), md, ts);
+            m_collections.put(c.getMoniker(), c);
+            return c;
+        }
+        TsCollection c = m_collections.get(moniker);
+        if (c != null) {
+            return c;
         }
+        return m_collections.putIfAbsent(moniker, new TsCollection(tsCollectionCallback, name, moniker, md, ts));
     }
 
     /**
@@ -467,26 +513,28 @@ public class TsFactory {
     public TsCollection createTsCollection(@Nullable String name, @NonNull TsMoniker moniker,
             @NonNull TsInformationType type) {
         // Search collection
-        synchronized (m_collections) {
-            TsCollection result = getTsCollection(moniker);
-            if (result == null) {
-                result = new TsCollection(tsCollectionCallback, name, moniker);
-                if (type != TsInformationType.None) {
-                    TsCollectionInformation info = new TsCollectionInformation(moniker, type);
-                    fill(info);
-                    // set data
-                    List<Ts> updated = result.update(info);
-                    for (Ts s : updated) {
-                        notify(s, type, result);
-                    }
+        TsCollection result = m_collections.get(moniker);
+        if (result == null) {
+            // the provider is called outside of any lock
+            TsCollection ncoll = new TsCollection(tsCollectionCallback, name, moniker);
+            if (type != TsInformationType.None) {
+                TsCollectionInformation info = new TsCollectionInformation(moniker, type);
+                fill(info);
+                // set data
+                List<Ts> updated = ncoll.update(info);
+                for (Ts s : updated) {
+                    notify(s, type, ncoll);
                 }
-                // add collection
-                m_collections.put(moniker, new WeakReference<>(result));
-            } else {
+            }
+            // add collection
+            result = m_collections.putIfAbsent(moniker, ncoll);
+            if (result != ncoll) {
                 result.load(type);
             }
-            return result;
+        } else {
+            result.load(type);
         }
+        return result;
     }
 
     private boolean fill(TsCollectionInformation info) {
@@ -554,43 +602,18 @@ public class TsFactory {
      */
     @Nullable
     public Ts getTs(@Nullable TsMoniker moniker) {
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = m_ts.get(moniker);
-            if (wref != null) {
-                Ts ts = wref.get();
-                if (ts == null) {
-                    m_ts.remove(moniker);
-                }
-                // cleanTS();
-                return ts;
-            } else {
-                return null;
-            }
-        }
+        return m_ts.get(moniker);
     }
 
     /**
      * Gets a collection from its moniker.
      *
-     * @param moniker [FIXME: works if null-moniker but is it intended? => i
-     * have successfully created a collection with null-moniker]
+     * @param moniker [FIXME: returns null if null-moniker but is it intended?]
      * @return a collection if it already exists; null otherwise
      */
     @Nullable
     public TsCollection getTsCollection(@Nullable TsMoniker moniker) {
-        synchronized (m_collections) {
-            WeakReference<TsCollection> wref = m_collections.get(moniker);
-            if (wref != null) {
-                TsCollection collection = wref.get();
-                if (collection == null) {
-                    m_collections.remove(moniker);
-                }
-                // cleanTSCollection();
-                return collection;
-            } else {
-                return null;
-            }
-        }
+        return m_collections.get(moniker);
     }
 
     /**
@@ -611,13 +634,7 @@ public class TsFactory {
         if (m_close) {
             return false;
         }
-        synchronized (m_ts) {
-            WeakReference<Ts.Master> wref = m_ts.get(moniker);
-            if (wref == null) {
-                return false;
-            }
-            return wref.get() != null;
-        }
+        return m_ts.isAlive(moniker);
     }
 
     /**
@@ -630,13 +647,18 @@ public class TsFactory {
         if (m_close) {
             return false;
         }
-        synchronized (m_collections) {
-            WeakReference<TsCollection> wref = m_collections.get(moniker);
-            if (wref == null) {
-                return false;
-            }
-            return wref.get() != null;
-        }
+        return m_collections.isAlive(moniker);
+    }
+
+    /**
+     * Gets the current state of the registries and of the notifications
+     * queue.
+     *
+     * @return a new snapshot
+     */
+    @NonNull
+    public Statistics getStatistics() {
+        return new Statistics(this);
     }
 
     /**
@@ -652,8 +674,13 @@ public class TsFactory {
             return true;
         }
         TsInformation info = new TsInformation(ts.getName(), ts.getMoniker(), type);
-        boolean result = fill(info);
-        ts.update(info);
+        boolean result;
+        // the loadings of a series are serialized; the listeners are notified
+        // outside of the lock (they may load other series)
+        synchronized (m_ts.lock(ts.getMoniker())) {
+            result = fill(info);
+            ts.update(info);
+        }
         notify(ts, info.type, this);
         return result;
     }
@@ -663,8 +690,12 @@ public class TsFactory {
             return true;
         }
         TsCollectionInformation info = new TsCollectionInformation(c.getMoniker(), type);
-        boolean result = fill(info);
-        List<Ts> updated = c.update(info);
+        boolean result;
+        List<Ts> updated;
+        synchronized (m_collections.lock(c.getMoniker())) {
+            result = fill(info);
+            updated = c.update(info);
+        }
         notify(c, info.type, this);
         updated.forEach(s -> notify(s, info.type, c));
         return result;
@@ -777,11 +808,9 @@ public class TsFactory {
         if (provider == null) {
             return false;
         }
-        synchronized (m_ts) {
-            return provider.getAsyncMode() == TsAsyncMode.None
-                    ? doLoad(s.getMaster(), type)
-                    : provider.queryTs(s.getMoniker(), type);
-        }
+        return provider.getAsyncMode() == TsAsyncMode.None
+                ? doLoad(s.getMaster(), type)
+                : provider.queryTs(s.getMoniker(), type);
     }
 
     /**
@@ -807,11 +836,9 @@ public class TsFactory {
             }
             return true;
         }
-        synchronized (m_collections) {
-            return provider.getAsyncMode() == TsAsyncMode.None
-                    ? doLoad(c, type)
-                    : provider.queryTsCollection(c.getMoniker(), type);
-        }
+        return provider.getAsyncMode() == TsAsyncMode.None
+                ? doLoad(c, type)
+                : provider.queryTsCollection(c.getMoniker(), type);
     }
 
     /**
@@ -877,16 +904,14 @@ public class TsFactory {
      * @param info
      */
     public void update(@NonNull TsCollectionInformation info) {
-        synchronized (m_collections) {
-            TsCollection c = getTsCollection(info.moniker);
-            if (c != null) {
-                List<Ts> updated = c.update(info);
-                notify(c, info.type, null);
-                updated.forEach(s -> notify(s, info.type, c));
-            } else {
-                // the collection has been destroyed, but the series could be alive...
-                info.items.forEach(sinfo -> update(sinfo));
-            }
+        TsCollection c = m_collections.get(info.moniker);
+        if (c != null) {
+            List<Ts> updated = c.update(info);
+            notify(c, info.type, null);
+            updated.forEach(s -> notify(s, info.type, c));
+        } else {
+            // the collection has been destroyed, but the series could be alive...
+            info.items.forEach(sinfo -> update(sinfo));
         }
     }
 
@@ -896,15 +921,13 @@ public class TsFactory {
      * @param info
      */
     public void update(@NonNull TsInformation info) {
-        synchronized (m_ts) {
-            Ts.Master s = (Ts.Master) getTs(info.moniker);
-            if (s == null) // the series has been destroyed
-            {
-                return;
-            }
-            s.update(info);
-            notify(s, info.type, null);
+        Ts.Master s = m_ts.get(info.moniker);
+        if (s == null) // the series has been destroyed
+        {
+            return;
         }
+        s.update(info);
+        notify(s, info.type, null);
     }
 
     /**
@@ -944,23 +967,13 @@ public class TsFactory {
         }
 
         private TsCollection[] lookupTsCollection(IDataSourceProvider p, DataSource dataSource) {
-            synchronized (m_collections) {
-                return m_collections.entrySet().stream()
-                        .filter(o -> isRelatedTo(p, dataSource, o.getKey()))
-                        .map(o -> o.getValue().get())
-                        .filter(Objects::nonNull)
-                        .toArray(TsCollection[]::new);
-            }
+            return m_collections.lookup(o -> isRelatedTo(p, dataSource, o))
+                    .toArray(TsCollection[]::new);
         }
 
         private Ts.Master[] lookupTs(IDataSourceProvider p, DataSource dataSource) {
-            synchronized (m_collections) {
-                return m_ts.entrySet().stream()
-                        .filter(o -> isRelatedTo(p, dataSource, o.getKey()))
-                        .map(o -> o.getValue().get())
-                        .filter(Objects::nonNull)
-                        .toArray(Ts.Master[]::new);
-            }
+            return m_ts.lookup(o -> isRelatedTo(p, dataSource, o))
+                    .toArray(Ts.Master[]::new);
         }
 
         private boolean isRelatedTo(IDataSourceProvider p, DataSource dataSource, TsMoniker moniker) {
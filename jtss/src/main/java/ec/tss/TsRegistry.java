@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent registry of weakly referenced objects (series or collections),
+ * identified by their monikers. The lookups don't lock and the registrations
+ * only lock the bin of the underlying ConcurrentHashMap. The references are
+ * registered with a reference queue: the entries of the collected objects are
+ * removed when their references are dequeued (see expunge), so that the
+ * registry doesn't need to be scanned periodically. The registry also provides
+ * striped locks that serialize the loading of the objects with the same
+ * moniker.
+ *
+ * @param <T>
+ */
+final class TsRegistry<T> {
+
+    static final class Entry<T> extends WeakReference<T> {
+
+        final TsMoniker moniker;
+        final TsRegistry<T> registry;
+
+        Entry(TsRegistry<T> registry, TsMoniker moniker, T referent) {
+            super(referent, registry.queue);
+            this.registry = registry;
+            this.moniker = moniker;
+        }
+    }
+
+    /**
+     * Removes the entry corresponding to a dequeued reference
+     *
+     * @param ref A reference retrieved from the queue of a registry
+     * @return true if the entry has been removed; false otherwise (the
+     * reference doesn't come from a registry or the entry has been replaced)
+     */
+    static boolean expunge(Reference<?> ref) {
+        if (ref instanceof Entry) {
+            Entry<?> entry = (Entry<?>) ref;
+            return entry.registry.remove(entry);
+        } else {
+            return false;
+        }
+    }
+
+    // number of the locks of the loadings (power of 2)
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<TsMoniker, Entry<T>> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue;
+    private final AtomicLong contention = new AtomicLong(), expunged = new AtomicLong();
+    private final Object[] locks = new Object[STRIPES];
+
+    TsRegistry(ReferenceQueue<Object> queue) {
+        this.queue = queue;
+        for (int i = 0; i < STRIPES; ++i) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Gets the lock that guards the loading of an object. The same lock is
+     * always returned for a given moniker; different monikers may share the
+     * same lock.
+     *
+     * @param moniker
+     * @return
+     */
+    Object lock(TsMoniker moniker) {
+        int h = moniker.hashCode();
+        h ^= h >>> 16;
+        return locks[h & (STRIPES - 1)];
+    }
+
+    /**
+     * Gets a live object
+     *
+     * @param moniker The moniker of the object. May be null
+     * @return The object or null if it doesn't exist or if it has been
+     * collected
+     */
+    T get(TsMoniker moniker) {
+        if (moniker == null) {
+            return null;
+        }
+        Entry<T> entry = map.get(moniker);
+        return entry == null ? null : entry.get();
+    }
+
+    boolean isAlive(TsMoniker moniker) {
+        return get(moniker) != null;
+    }
+
+    /**
+     * Registers a new object. Any previous entry with the same moniker is
+     * replaced
+     *
+     * @param moniker
+     * @param obj
+     */
+    void put(TsMoniker moniker, T obj) {
+        map.put(moniker, new Entry<>(this, moniker, obj));
+    }
+
+    /**
+     * Registers an object, except if a live object with the same moniker has
+     * been registered in the meantime (by another thread).
+     *
+     * @param moniker
+     * @param obj
+     * @return The registered object (obj or the live object that was already
+     * registered)
+     */
+    T putIfAbsent(TsMoniker moniker, T obj) {
+        Entry<T> nentry = new Entry<>(this, moniker, obj);
+        while (true) {
+            Entry<T> cur = map.putIfAbsent(moniker, nentry);
+            if (cur == null) {
+                return obj;
+            }
+            T t = cur.get();
+            if (t != null) {
+                // another thread has created the object concurrently
+                contention.incrementAndGet();
+                return t;
+            }
+            // collected object, not yet expunged
+            if (map.replace(moniker, cur, nentry)) {
+                return obj;
+            }
+            contention.incrementAndGet();
+        }
+    }
+
+    private boolean remove(Entry<?> entry) {
+        if (map.remove(entry.moniker, entry)) {
+            expunged.incrementAndGet();
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Removes all the entries whose objects have been collected, without
+     * waiting for the reference queue
+     *
+     * @return The number of removed entries
+     */
+    int clean() {
+        int n = 0;
+        Iterator<Map.Entry<TsMoniker, Entry<T>>> iter = map.entrySet().iterator();
+        while (iter.hasNext()) {
+            Entry<T> entry = iter.next().getValue();
+            if (entry.get() == null && remove(entry)) {
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Live objects whose monikers satisfy a given condition. The stream is
+     * weakly consistent (see ConcurrentHashMap)
+     *
+     * @param pred
+     * @return
+     */
+    Stream<T> lookup(Predicate<TsMoniker> pred) {
+        return map.values().stream()
+                .filter(o -> pred.test(o.moniker))
+                .map(Entry::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * @return The number of entries (including the collected objects that are
+     * not yet expunged)
+     */
+    int size() {
+        return map.size();
+    }
+
+    /**
+     * @return The number of registrations that have been concurrently
+     * pre-empted by another thread
+     */
+    long getContentionCount() {
+        return contention.get();
+    }
+
+    /**
+     * @return The number of entries removed after the collection of their
+     * objects
+     */
+    long getExpungedCount() {
+        return expunged.get();
+    }
+}
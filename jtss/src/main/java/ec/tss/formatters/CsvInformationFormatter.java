@@ -31,9 +31,20 @@ import ec.tstoolkit.maths.Complex;
 import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.NamedObject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -372,6 +383,187 @@ public class CsvInformationFormatter {
 
     }
 
+    /**
+     * Matrix of results that doesn't keep the records in memory. Each record is
+     * formatted when it is added and stored in a temporary file, while the
+     * columns (which depend on all the records) are discovered. The matrix is
+     * written at the end, by reading back the temporary file.
+     * When the representation of an item is shorter in some records than in
+     * others, the missing cells of the shorter ones are left empty.
+     */
+    public class MatrixWriter implements Closeable {
+
+        private final List<String> names;
+        private final boolean shortname;
+        private final List<LinkedHashMap<String, Integer>> wnames = new ArrayList<>();
+        private final Path tmp;
+        private DataOutputStream out;
+        private int count;
+
+        /**
+         *
+         * @param names The requested items
+         * @param shortname
+         * @throws IOException
+         */
+        public MatrixWriter(List<String> names, boolean shortname) throws IOException {
+            this.names = new ArrayList<>(names);
+            this.shortname = shortname;
+            for (int i = 0; i < names.size(); ++i) {
+                wnames.add(new LinkedHashMap<>());
+            }
+            tmp = Files.createTempFile("matrix", ".tmp");
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(FileChannel.open(tmp, StandardOpenOption.WRITE))));
+            } catch (IOException ex) {
+                Files.deleteIfExists(tmp);
+                throw ex;
+            }
+        }
+
+        /**
+         * @return The number of records already added
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Adds a record (a line of the matrix)
+         *
+         * @param rowheader The header of the line. May be null
+         * @param record The results. May be null
+         * @throws IOException
+         */
+        public void add(String rowheader, IProcResults record) throws IOException {
+            out.writeBoolean(rowheader != null);
+            if (rowheader != null) {
+                writeString(out, rowheader);
+            }
+            for (int k = 0; k < names.size(); ++k) {
+                MatrixItem m = new MatrixItem();
+                m.fill(names.get(k), record, shortname);
+                // columns
+                LinkedHashMap<String, Integer> map = wnames.get(k);
+                LinkedHashMap<String, Object> cells = new LinkedHashMap<>();
+                for (int j = 0; j < m.items.length; ++j) {
+                    Integer l = map.get(m.items[j]);
+                    if (l == null || l < m.length) {
+                        map.put(m.items[j], m.length);
+                    }
+                    cells.putIfAbsent(m.items[j], m.results[j]);
+                }
+                cells.values().removeIf(obj -> obj == null);
+                // cells
+                int n = Math.max(m.length, 1);
+                out.writeInt(cells.size());
+                for (Entry<String, Object> cell : cells.entrySet()) {
+                    writeString(out, cell.getKey());
+                    out.writeInt(n);
+                    for (int j = 0; j <= n; ++j) {
+                        String txt = format(cell.getValue(), j);
+                        writeString(out, txt == null ? "" : txt);
+                    }
+                }
+            }
+            ++count;
+        }
+
+        /**
+         * Writes the matrix. The writer is not closed.
+         *
+         * @param writer
+         * @throws IOException
+         */
+        public void writeTo(Writer writer) throws IOException {
+            out.close();
+            writer.write(comma);
+            writeColumnsHeaders(writer, wnames, names.size());
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(FileChannel.open(tmp, StandardOpenOption.READ))))) {
+                for (int r = 0; r < count; ++r) {
+                    if (in.readBoolean()) {
+                        writeHeader(writer, readString(in));
+                    }
+                    writer.write(comma);
+                    writeLine(writer, in);
+                }
+            }
+        }
+
+        private void writeLine(Writer writer, DataInputStream in) throws IOException {
+            HashMap<String, String[]> cells = new HashMap<>();
+            for (int k = 0; k < names.size();) {
+                cells.clear();
+                int ncells = in.readInt();
+                for (int i = 0; i < ncells; ++i) {
+                    String id = readString(in);
+                    String[] txt = new String[in.readInt() + 1];
+                    for (int j = 0; j < txt.length; ++j) {
+                        txt[j] = readString(in);
+                    }
+                    cells.put(id, txt);
+                }
+                LinkedHashMap<String, Integer> map = wnames.get(k);
+                int nmax = map.size();
+                int i = 0;
+                for (Entry<String, Integer> ccur : map.entrySet()) {
+                    int n = ccur.getValue();
+                    String[] txt = cells.get(ccur.getKey());
+                    if (txt != null) {
+                        if (n == 1) {
+                            write(writer, txt[0]);
+                        } else {
+                            for (int j = 1; j <= n; ++j) {
+                                if (j < txt.length) {
+                                    write(writer, txt[j]);
+                                }
+                                if (j < n) {
+                                    writer.write(comma);
+                                }
+                            }
+                        }
+                    } else {
+                        for (int j = 1; j < n; ++j) {
+                            writer.write(comma);
+                        }
+                    }
+                    if (++i < nmax) {
+                        writer.write(comma);
+                    }
+                }
+                if (++k < names.size()) {
+                    writer.write(comma);
+                } else {
+                    writer.write(NEWLINE);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    // writeUTF is limited to 65535 bytes
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
     public void formatResults(Writer writer, List<NamedObject<IProcResults>> records, List<String> names, boolean shortname) {
         // STEP 1: we retrieve all information for all records/names
         List<MatrixItem[]> items = new ArrayList<>();
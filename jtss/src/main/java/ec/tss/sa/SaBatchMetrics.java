@@ -0,0 +1,251 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of a batch processing (see SaBatchRunner). The metrics are updated
+ * concurrently by the workers and can be read at any time.
+ */
+public final class SaBatchMetrics {
+
+    /**
+     * Histogram of latencies. The buckets have exponential bounds: the first
+     * one contains the latencies lower than 1 ms, the bucket i (i &gt; 0)
+     * contains the latencies in [2^(i-1), 2^i[ ms. The last bucket is
+     * unbounded.
+     */
+    public static final class Histogram {
+
+        public static final int BUCKETS = 24;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong total = new AtomicLong(), max = new AtomicLong();
+
+        void add(long nanos) {
+            counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+            total.addAndGet(nanos);
+            long cur = max.get();
+            while (nanos > cur && !max.compareAndSet(cur, nanos)) {
+                cur = max.get();
+            }
+        }
+
+        private static int bucket(long ms) {
+            int b = 64 - Long.numberOfLeadingZeros(ms);
+            return b < BUCKETS ? b : BUCKETS - 1;
+        }
+
+        /**
+         * Upper bound (exclusive) of a given bucket
+         *
+         * @param bucket
+         * @return The bound in ms (Long.MAX_VALUE for the last bucket)
+         */
+        public static long getUpperBound(int bucket) {
+            return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+        }
+
+        public long getCount(int bucket) {
+            return counts.get(bucket);
+        }
+
+        public long[] getCounts() {
+            long[] c = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; ++i) {
+                c[i] = counts.get(i);
+            }
+            return c;
+        }
+
+        public long getCount() {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                n += counts.get(i);
+            }
+            return n;
+        }
+
+        public long getTotalNanos() {
+            return total.get();
+        }
+
+        public long getMaxNanos() {
+            return max.get();
+        }
+
+        public double getAverageNanos() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) total.get() / n;
+        }
+
+        /**
+         * Approximate percentile, computed on the buckets
+         *
+         * @param p The percentile, in [0, 1]
+         * @return The upper bound (in ms) of the bucket that contains the
+         * percentile
+         */
+        public long getPercentile(double p) {
+            long[] c = getCounts();
+            long n = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                n += c[i];
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long k = (long) Math.ceil(p * n), cur = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                cur += c[i];
+                if (cur >= k && cur > 0) {
+                    return getUpperBound(i);
+                }
+            }
+            return getUpperBound(BUCKETS - 1);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(getCount()).append(" item(s), avg=")
+                    .append(Math.round(getAverageNanos() / 1000000)).append(" ms, max=")
+                    .append(TimeUnit.NANOSECONDS.toMillis(getMaxNanos())).append(" ms, p50<")
+                    .append(getPercentile(.5)).append(" ms, p95<").append(getPercentile(.95)).append(" ms");
+            return builder.toString();
+        }
+    }
+
+    public static final String UNKNOWN_METHOD = "?";
+
+    private final AtomicLong processed = new AtomicLong(), failed = new AtomicLong(), skipped = new AtomicLong();
+    private final ConcurrentHashMap<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private volatile boolean started;
+    private volatile long start, elapsed = -1;
+    private final int total;
+
+    SaBatchMetrics(int total) {
+        this.total = total;
+    }
+
+    void start() {
+        start = System.nanoTime();
+        started = true;
+    }
+
+    void stop() {
+        elapsed = System.nanoTime() - start;
+    }
+
+    void processed(String method, long nanos, boolean error) {
+        processed.incrementAndGet();
+        if (error) {
+            failed.incrementAndGet();
+        }
+        Histogram h = latencies.get(method);
+        if (h == null) {
+            Histogram nh = new Histogram();
+            h = latencies.putIfAbsent(method, nh);
+            if (h == null) {
+                h = nh;
+            }
+        }
+        h.add(nanos);
+    }
+
+    void skipped(long n) {
+        skipped.addAndGet(n);
+    }
+
+    /**
+     * @return The number of items of the batch
+     */
+    public int getTotalCount() {
+        return total;
+    }
+
+    /**
+     * @return The number of processed items (including the failures)
+     */
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    /**
+     * @return The number of processed items with an error status
+     */
+    public long getErrorCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return The number of items not processed because of a cancellation
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public double getErrorRate() {
+        long n = processed.get();
+        return n == 0 ? 0 : (double) failed.get() / n;
+    }
+
+    public long getElapsedNanos() {
+        if (!started) {
+            return 0;
+        }
+        long t = elapsed;
+        return t >= 0 ? t : System.nanoTime() - start;
+    }
+
+    /**
+     * @return The number of processed items by second
+     */
+    public double getThroughput() {
+        long t = getElapsedNanos();
+        return t == 0 ? 0 : processed.get() * 1e9 / t;
+    }
+
+    /**
+     * Latencies by estimation method (name of the algorithm descriptor)
+     *
+     * @return A sorted, unmodifiable view of the histograms
+     */
+    public Map<String, Histogram> getLatencies() {
+        return Collections.unmodifiableMap(new TreeMap<>(latencies));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(processed.get()).append('/').append(total).append(" processed, ")
+                .append(failed.get()).append(" error(s), ")
+                .append(skipped.get()).append(" skipped, ")
+                .append(String.format("%.1f", getThroughput())).append(" items/s");
+        for (Map.Entry<String, Histogram> entry : getLatencies().entrySet()) {
+            builder.append("\r\n").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return builder.toString();
+    }
+}
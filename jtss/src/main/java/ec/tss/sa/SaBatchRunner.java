@@ -0,0 +1,295 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa;
+
+import ec.tstoolkit.algorithm.AlgorithmDescriptor;
+import ec.tstoolkit.algorithm.ExecutionContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parallel processing of the items of a SaProcessing.
+ * The items are processed by a bounded number of workers, in decreasing
+ * order of priority (items with the same priority keep their order in the
+ * processing). The workers are run through an ExecutionContext, so that the
+ * parallel nodes of the estimation routines are executed inline and don't
+ * oversubscribe the cores.
+ *
+ * The listeners are notified from the worker threads: Processed after each
+ * item, Progress every getProgressStep() items and Completed at the end of
+ * the batch (also when it has been cancelled).
+ *
+ * A runner can be reused for several batches, but it doesn't support
+ * concurrent runs.
+ */
+public final class SaBatchRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaBatchRunner.class);
+
+    private static final Comparator<SaItem> PRIORITY = Comparator.comparingInt(SaItem::getPriority).reversed();
+
+    private final CopyOnWriteArrayList<SaEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile SaBatchMetrics metrics;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int progressStep;
+    private ExecutorService executor;
+
+    public void addSaEventListener(SaEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSaEventListener(SaEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of items processed concurrently
+     *
+     * @param value Should be strictly positive
+     */
+    public void setParallelism(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("parallelism");
+        }
+        parallelism = value;
+    }
+
+    public int getProgressStep() {
+        return progressStep;
+    }
+
+    /**
+     * Sets the number of processed items between two Progress events.
+     *
+     * @param value 0 for an automatic step (1% of the batch)
+     */
+    public void setProgressStep(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("progressStep");
+        }
+        progressStep = value;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used by the workers. When no executor is set (the
+     * default), a pool of getParallelism() daemon threads is created for each
+     * run and shut down at its end. A given executor is never shut down by
+     * the runner.
+     *
+     * @param executor
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Requests the cancellation of the current run. The items that are being
+     * processed are completed; the other ones are skipped (their status is
+     * unchanged).
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return The metrics of the current (or last) run. Null if the runner
+     * has never been used
+     */
+    public SaBatchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Processes all the items of a processing. The method blocks till the
+     * end of the batch.
+     *
+     * @param processing The processing. It should not be modified during the
+     * run
+     * @return The metrics of the run
+     */
+    public SaBatchMetrics run(SaProcessing processing) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Batch already running");
+        }
+        try {
+            cancelled = false;
+            SaItem[] items = processing.toArray(new SaItem[processing.size()]);
+            Arrays.sort(items, PRIORITY);
+            SaBatchMetrics cur = new SaBatchMetrics(items.length);
+            metrics = cur;
+            cur.start();
+            Batch batch = new Batch(processing, items, cur);
+            int nworkers = Math.min(parallelism, items.length);
+            ExecutorService exec = executor;
+            boolean owned = false;
+            if (exec == null && nworkers > 1) {
+                exec = Executors.newFixedThreadPool(nworkers, new WorkerThreadFactory());
+                owned = true;
+            }
+            try {
+                if (nworkers <= 1) {
+                    batch.call();
+                } else {
+                    List<Callable<Void>> workers = new ArrayList<>(nworkers);
+                    for (int i = 0; i < nworkers; ++i) {
+                        workers.add(batch);
+                    }
+                    ExecutionContext.of(exec).invokeAll(workers);
+                }
+            } catch (InterruptedException ex) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            } finally {
+                if (owned) {
+                    exec.shutdownNow();
+                }
+            }
+            cur.skipped(items.length - batch.done.get());
+            cur.stop();
+            SaProcessingEvent evt = new SaProcessingEvent(processing, batch.done.get(), items.length);
+            for (SaEventListener listener : listeners) {
+                try {
+                    listener.Completed(evt);
+                } catch (RuntimeException err) {
+                    LOGGER.warn("While notifying the end of the batch", err);
+                }
+            }
+            return cur;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static String method(SaItem item) {
+        try {
+            AlgorithmDescriptor desc = item.getEstimationMethod();
+            return desc == null ? SaBatchMetrics.UNKNOWN_METHOD : desc.name;
+        } catch (RuntimeException err) {
+            return SaBatchMetrics.UNKNOWN_METHOD;
+        }
+    }
+
+    /**
+     * Shared state of the workers. Each worker pulls the next item.
+     */
+    private final class Batch implements Callable<Void> {
+
+        final SaProcessing processing;
+        final SaItem[] items;
+        final SaBatchMetrics metrics;
+        final AtomicInteger next = new AtomicInteger(), done = new AtomicInteger();
+        final int step;
+
+        Batch(SaProcessing processing, SaItem[] items, SaBatchMetrics metrics) {
+            this.processing = processing;
+            this.items = items;
+            this.metrics = metrics;
+            this.step = progressStep > 0 ? progressStep : Math.max(1, items.length / 100);
+        }
+
+        @Override
+        public Void call() {
+            int i;
+            while (!cancelled && !Thread.currentThread().isInterrupted()
+                    && (i = next.getAndIncrement()) < items.length) {
+                process(items[i]);
+            }
+            return null;
+        }
+
+        private void process(SaItem item) {
+            String name = method(item);
+            long t0 = System.nanoTime();
+            boolean error;
+            try {
+                item.process();
+                error = item.getStatus().isError();
+            } catch (RuntimeException err) {
+                LOGGER.warn("While processing {}", item.getName(), err);
+                item.setStatus(SaItem.Status.Invalid);
+                error = true;
+            }
+            metrics.processed(name, System.nanoTime() - t0, error);
+            int n = done.incrementAndGet();
+            if (listeners.isEmpty()) {
+                return;
+            }
+            SaItemEvent ievt = new SaItemEvent(item);
+            for (SaEventListener listener : listeners) {
+                try {
+                    listener.Processed(ievt);
+                } catch (RuntimeException err) {
+                    LOGGER.warn("While notifying a processed item", err);
+                }
+            }
+            if (n % step == 0 && n < items.length) {
+                SaProcessingEvent pevt = new SaProcessingEvent(processing, n, items.length);
+                for (SaEventListener listener : listeners) {
+                    try {
+                        listener.Progress(pevt);
+                    } catch (RuntimeException err) {
+                        LOGGER.warn("While notifying the progress of the batch", err);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger poolNumber = new AtomicInteger(1);
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String namePrefix = "pool-" + SaBatchRunner.class.getSimpleName() + "-" + poolNumber.getAndIncrement() + "-thread-";
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }
+    }
+}
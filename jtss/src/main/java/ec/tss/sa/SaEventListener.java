@@ -27,4 +27,12 @@ import java.util.EventListener;
 public interface SaEventListener extends EventListener {
     void Processed(SaItemEvent evt);
     void Completed(SaProcessingEvent evt);
+
+    /**
+     * Called periodically during a batch processing
+     *
+     * @param evt The event, with progress information
+     */
+    default void Progress(SaProcessingEvent evt) {
+    }
 }
@@ -29,6 +29,7 @@ import ec.tss.sa.documents.SaDocument;
 import ec.tstoolkit.MetaData;
 import ec.tstoolkit.algorithm.AlgorithmDescriptor;
 import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.algorithm.ProcDiagnostic;
 import ec.tstoolkit.algorithm.ProcQuality;
 import ec.tstoolkit.information.InformationSet;
@@ -49,7 +50,7 @@ public class SaItem {
     public static final String DOMAIN_SPEC = "domainspec", ESTIMATION_SPEC = "estimationspec", POINT_SPEC = "pointspec",
             TS = "ts", QUALITY = "quality", PRIORITY = "priority", POLICY = "policy", METADATA = "metadata", NAME = "name", COMMENT = "comment";
     public static final String DIAGNOSTICS = "diagnostics";
-    private static final String DIAGNOSTICS_INTERNAL = "__diagnostics";
+    private static final String DIAGNOSTICS_INTERNAL = "__diagnostics", SNAPSHOT = "__snapshot";
 
     public static enum Status {
 
@@ -74,6 +75,10 @@ public class SaItem {
     private ISaSpecification pspec_, espec_, dspec_;
     private boolean cacheResults_ = true;
     private volatile CompositeResults rslts_;
+    private volatile SaResultStore store_;
+    // guarded by the store
+    SaResultStore.Snapshot snapshot_;
+    long stamp_;
     private EstimationPolicyType estimation_ = EstimationPolicyType.None;
     private Status status_ = Status.Unprocessed;
     private int priority_ = -1;
@@ -96,12 +101,16 @@ public class SaItem {
             n.priority_ = priority_;
             n.quality_ = quality_;
             n.rslts_ = rslts_;
+            n.store_ = store_;
             n.status_ = status_;
             n.ts_ = ts_;
             n.warnings_ = warnings_;
             n.cacheResults_ = cacheResults_;
             n.metaData_ = metaData_ == null ? null : metaData_.clone();
             n.name = name;
+            if (store_ != null) {
+                store_.copy(this, n);
+            }
             return n;
         }
     }
@@ -342,6 +351,72 @@ public class SaItem {
 
     public void compress() {
         rslts_ = null;
+        SaResultStore store = store_;
+        if (store != null) {
+            store.compress(this);
+        }
+    }
+
+    public SaResultStore getResultStore() {
+        return store_;
+    }
+
+    /**
+     * Sets the store that keeps the results of this item. The current results
+     * are moved into the new store.
+     *
+     * @param store The store. Null to keep the results in the item
+     */
+    public void setResultStore(SaResultStore store) {
+        synchronized (id_) {
+            SaResultStore old = store_;
+            if (old == store) {
+                return;
+            }
+            CompositeResults rslts = rslts_;
+            if (old != null) {
+                if (rslts == null) {
+                    rslts = old.get(this);
+                }
+                old.remove(this);
+            }
+            store_ = store;
+            rslts_ = null;
+            if (rslts != null) {
+                cache(rslts);
+            }
+        }
+    }
+
+    private void cache(CompositeResults rslts) {
+        if (!cacheResults_) {
+            rslts_ = null;
+        } else if (store_ != null) {
+            store_.put(this, rslts);
+            rslts_ = null;
+        } else {
+            rslts_ = rslts;
+        }
+    }
+
+    // called under lock
+    private CompositeResults cachedResults(boolean complete) {
+        CompositeResults rslts = rslts_;
+        if (rslts != null || store_ == null || !status_.isProcessed()) {
+            return rslts;
+        }
+        if (complete) {
+            return store_.get(this);
+        }
+        IProcResults cur = store_.getResults(this);
+        if (cur == null || cur instanceof CompositeResults) {
+            return (CompositeResults) cur;
+        }
+        // rehydrated snapshot
+        rslts = new CompositeResults();
+        rslts.put(SNAPSHOT, cur, null);
+        rslts.addInformation(cur.getProcessingInformation());
+        return rslts;
     }
 
     private void update() {
@@ -362,9 +437,23 @@ public class SaItem {
     }
 
     public CompositeResults process() {
+        return process(false);
+    }
+
+    /**
+     * Processes this item, if it has not been done yet.
+     *
+     * @param complete When a store is used and the complete results have
+     * been replaced by a snapshot of their outputs, the results are
+     * re-estimated if complete is true. Otherwise, the snapshot is returned
+     * (in a single node of the composite results, without the models)
+     * @return The results. Null if the processing failed
+     */
+    public CompositeResults process(boolean complete) {
         synchronized (id_) {
-            if (rslts_ != null || status_.isError()) {
-                return rslts_;
+            CompositeResults cur = cachedResults(complete);
+            if (cur != null || status_.isError()) {
+                return cur;
             }
             if (status_ == Status.Pending) {
                 return null;
@@ -390,12 +479,34 @@ public class SaItem {
         synchronized (id_) {
             rslts_ = rslts;
             update();
-            if (!cacheResults_) {
-                rslts_ = null;
-            }
+            cache(rslts);
             return rslts;
         }
     }
+
+    /**
+     * Gets the results of this item, if possible without re-estimation: when
+     * a store is used, the complete results may have been replaced by a
+     * snapshot of their outputs (see SaResultStore).
+     *
+     * @return The results. Null if the processing failed
+     */
+    public IProcResults getProcessingResult() {
+        synchronized (id_) {
+            CompositeResults rslts = rslts_;
+            if (rslts != null) {
+                return rslts;
+            }
+            SaResultStore store = store_;
+            if (store != null && status_.isProcessed()) {
+                IProcResults cur = store.getResults(this);
+                if (cur != null) {
+                    return cur;
+                }
+            }
+        }
+        return process();
+    }
 //
 
     public boolean isProcessed() {
@@ -431,14 +542,14 @@ public class SaItem {
         } else {
             doc.getMetaData().clear();
         }
-        return doc.unsafeFill(getTs(), getEstimationSpecification(), process());
+        return doc.unsafeFill(getTs(), getEstimationSpecification(), process(true));
     }
 
     public SaDocument<ISaSpecification> toDocument() {
         ISaSpecification xspec = getEstimationSpecification();
         ISaProcessingFactory processor = (ISaProcessingFactory) SaManager.instance.find(xspec);
         SaDocument<ISaSpecification> doc = processor.createDocument();
-        if (doc.unsafeFill(getTs(), xspec, process())) {
+        if (doc.unsafeFill(getTs(), xspec, process(true))) {
             if (!MetaData.isNullOrEmpty(metaData_)) {
                 doc.getMetaData().copy(metaData_);
             } else {
@@ -454,9 +565,7 @@ public class SaItem {
         synchronized (id_) {
             rslts_ = rslts;
             update();
-            if (!cacheResults_) {
-                rslts_ = null;
-            }
+            cache(rslts);
         }
     }
 
@@ -35,6 +35,7 @@ import ec.tstoolkit.utilities.NameManager;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +54,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
     private final List<SaItem> items_;
     private final MetaData metadata_;
     private boolean dirty_;
+    private SaResultStore store_;
 
     /// <summary>
     /// Create a new processing with an old one...
@@ -98,13 +100,14 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
     @Override
     public boolean add(SaItem item) {
         item.setKey(nextKey());
-        return dirty_ = items_.add(item);
+        return dirty_ = items_.add(attach(item));
     }
 
     @Override
     public boolean addAll(Collection<? extends SaItem> c) {
         for (SaItem item : c) {
             item.setKey(nextKey());
+            attach(item);
         }
         return dirty_ = items_.addAll(c);
     }
@@ -114,24 +117,41 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         if (!items_.isEmpty()) {
             dirty_ = true;
         }
+        if (store_ != null) {
+            items_.forEach(item -> detach(item));
+        }
         items_.clear();
     }
 
     @Override
     public SaItem remove(int idx) {
-        SaItem result = items_.remove(idx);
+        SaItem result = detach(items_.remove(idx));
         dirty_ = result != null;
         return result;
     }
 
     @Override
     public boolean remove(Object item) {
-        return dirty_ = items_.remove(item);
+        boolean removed = items_.remove(item);
+        if (removed) {
+            detach(item);
+        }
+        return dirty_ = removed;
     }
 
     @Override
     public boolean removeAll(Collection<?> collection) {
-        return dirty_ = items_.removeAll(collection);
+        // only the items actually removed are detached from the store
+        boolean removed = false;
+        for (Iterator<SaItem> iter = items_.iterator(); iter.hasNext();) {
+            SaItem item = iter.next();
+            if (collection.contains(item)) {
+                iter.remove();
+                detach(item);
+                removed = true;
+            }
+        }
+        return dirty_ = removed;
     }
 
     @Override
@@ -143,7 +163,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         if (!old.isLocked()) {
             dirty_ = true;
             value.setKey(old.getKey());
-            return items_.set(idx, value);
+            return detach(items_.set(idx, attach(value)));
         }
         return null;
     }
@@ -157,6 +177,41 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         return m_key.getAndIncrement();
     }
 
+    public SaResultStore getResultStore() {
+        return store_;
+    }
+
+    /**
+     * Sets the store of the results of the items. The store is used by all
+     * the current items and by the items added later in the processing.
+     *
+     * @param store The store. Null to keep the results in the items
+     */
+    public void setResultStore(SaResultStore store) {
+        if (store_ == store) {
+            return;
+        }
+        store_ = store;
+        for (SaItem item : items_) {
+            item.setResultStore(store);
+        }
+    }
+
+    private SaItem attach(SaItem item) {
+        if (store_ != null && item != null) {
+            item.setResultStore(store_);
+        }
+        return item;
+    }
+
+    private <T> T detach(T item) {
+        if (store_ != null && item instanceof SaItem) {
+            // the results are moved back into the item
+            ((SaItem) item).setResultStore(null);
+        }
+        return item;
+    }
+
     public String getDocumentId() {
         StringBuilder builder = new StringBuilder();
         builder.append("SaProcessing-").append(m_id);
@@ -192,7 +247,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
                 SaItem citem = item.newSpecification(s, nspec, policy);
                 citem.setKey(item.getKey());
                 nitems.add(citem);
-                items_.set(pos, citem);
+                detach(items_.set(pos, attach(citem)));
                 dirty_ = true;
             }
         }
@@ -220,7 +275,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
                 SaItem citem = item.newSpecification(s, nspec, EstimationPolicyType.LastOutliers);
                 nitems.add(citem);
                 citem.setKey(item.getKey());
-                items_.set(pos, citem);
+                detach(items_.set(pos, attach(citem)));
                 dirty_ = true;
             }
         }
@@ -252,7 +307,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
                 ISaSpecification nspec = SaManager.instance.createSpecification(item, newDomain, policy, nospan);
                 SaItem citem = item.newSpecification(s, nspec, policy);
                 citem.setKey(item.getKey());
-                items_.set(i, citem);
+                detach(items_.set(i, attach(citem)));
                 dirty_ = true;
             }
         }
@@ -277,7 +332,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
                 ISaSpecification nspec = SaManager.instance.createSpecification(item, prevDomain, EstimationPolicyType.LastOutliers, nospan);
                 SaItem citem = item.newSpecification(s, nspec, EstimationPolicyType.LastOutliers);
                 citem.setKey(item.getKey());
-                items_.set(i, citem);
+                detach(items_.set(i, attach(citem)));
                 dirty_ = true;
             }
         }
@@ -312,7 +367,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         for (Ts s : ts) {
             SaItem item = new SaItem(defspec, s);
             item.setKey(nextKey());
-            items_.add(item);
+            items_.add(attach(item));
         }
         dirty_ = true;
     }
@@ -320,7 +375,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
     public void removeRange(int start, int count) {
         int imax = Math.min(start + count, items_.size()) - 1;
         for (int i = imax; i >= start; --i) {
-            items_.remove(i);
+            detach(items_.remove(i));
         }
         dirty_ = true;
     }
@@ -333,7 +388,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
             if (items_.get(i) == olditem) {
                 newitem.setKey(olditem.getKey());
                 newitem.setPriority(olditem.getPriority());
-                items_.set(i, newitem);
+                detach(items_.set(i, attach(newitem)));
                 dirty_ = true;
                 return true;
             }
@@ -462,7 +517,7 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
             SaItem cur = new SaItem();
             if (sa.value != null && cur.read(sa.value, dic, equivalence)) {
                 cur.setKey(nextKey());
-                items_.add(cur);
+                items_.add(attach(cur));
             } else {
                 String msg = sa.name;
             }
@@ -493,7 +548,8 @@ public final class SaProcessing extends ForwardingList<SaItem> implements IDocum
         Map<Integer, Map<AlgorithmDescriptor, RegArimaReport>> reports = new HashMap<>();
         for (SaItem item : items_) {
             if (item.isProcessed()) {
-                CompositeResults rslt = item.process();
+                // the report needs the models
+                CompositeResults rslt = item.process(true);
                 if (rslt != null) {
                     int freq = item.getTs().getTsData().getFrequency().intValue();
                     Map<AlgorithmDescriptor, RegArimaReport> cur = reports.get(freq);
@@ -25,7 +25,42 @@ import java.util.EventObject;
  * @author Kristof Bayens
  */
 public class SaProcessingEvent extends EventObject {
+
+    private final int processed, total;
+
     public SaProcessingEvent(SaProcessing source) {
+        this(source, -1, -1);
+    }
+
+    /**
+     * Event carrying the progress of a batch processing
+     *
+     * @param source The processing
+     * @param processed The number of items already processed
+     * @param total The number of items to process
+     */
+    public SaProcessingEvent(SaProcessing source, int processed, int total) {
         super(source);
+        this.processed = processed;
+        this.total = total;
+    }
+
+    @Override
+    public SaProcessing getSource() {
+        return (SaProcessing) super.getSource();
+    }
+
+    /**
+     * @return The number of processed items or -1 if unknown
+     */
+    public int getProcessedCount() {
+        return processed;
+    }
+
+    /**
+     * @return The number of items to process or -1 if unknown
+     */
+    public int getTotalCount() {
+        return total;
     }
 }
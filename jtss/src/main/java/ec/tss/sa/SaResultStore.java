@@ -0,0 +1,901 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa;
+
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.algorithm.ProcessingInformation;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.RegressionItem;
+import ec.tstoolkit.information.StatisticalTest;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage of the results of SaItems with a bounded memory footprint.
+ *
+ * The store keeps the complete results (CompositeResults) of the most
+ * recently used items (LRU window of getMaxLiveResults() items). When a
+ * result leaves the window, its outputs (the items of its dictionary with a
+ * simple type: numbers, strings, arrays, periods, series, matrices,
+ * parameters, tests and regression items) and
+ * its processing information are serialized in a compact binary snapshot.
+ * The snapshots are kept in memory up to getMaxMemoryBytes(); beyond that
+ * budget, they are written in a memory-mapped spill file if a spill directory
+ * has been set, or dropped otherwise.
+ *
+ * SaItem.process() and SaItem.getProcessingResult() rehydrate the snapshots,
+ * which is sufficient for the outputs and the summaries. The snapshots don't
+ * contain the models: SaItem.process(true) re-estimates the items when the
+ * models are needed.
+ *
+ * The store is thread-safe.
+ */
+public final class SaResultStore implements Closeable {
+
+    public static final int DEFAULT_LIVE_RESULTS = 100;
+    public static final long DEFAULT_MEMORY_BYTES = 64L << 20;
+
+    /**
+     * Location of a serialized result. Either a byte array or a region of the
+     * spill file.
+     */
+    static final class Snapshot {
+
+        final byte[] data;
+        final long offset;
+        final int length;
+
+        Snapshot(byte[] data) {
+            this.data = data;
+            this.offset = -1;
+            this.length = data.length;
+        }
+
+        Snapshot(long offset, int length) {
+            this.data = null;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        boolean isSpilled() {
+            return data == null;
+        }
+    }
+
+    private final LinkedHashMap<SaItem, CompositeResults> live = new LinkedHashMap<>(16, .75f, true);
+    private final AtomicLong liveHits = new AtomicLong(), snapshotHits = new AtomicLong(), misses = new AtomicLong(),
+            evictions = new AtomicLong(), spills = new AtomicLong(), drops = new AtomicLong();
+    private int maxLive = DEFAULT_LIVE_RESULTS;
+    private long maxMemory = DEFAULT_MEMORY_BYTES;
+    private long stamp, memoryBytes, diskBytes;
+    private File spillDirectory, spillFile;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private boolean closed;
+
+    public synchronized int getMaxLiveResults() {
+        return maxLive;
+    }
+
+    /**
+     * Sets the size of the LRU window of complete results
+     *
+     * @param value The maximum number of live results (&ge; 0)
+     */
+    public void setMaxLiveResults(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("maxLiveResults");
+        }
+        List<Evicted> evicted;
+        synchronized (this) {
+            maxLive = value;
+            evicted = evict();
+        }
+        snapshot(evicted);
+    }
+
+    public synchronized long getMaxMemoryBytes() {
+        return maxMemory;
+    }
+
+    /**
+     * Sets the memory budget of the snapshots. Already stored snapshots are
+     * not moved.
+     *
+     * @param value The maximum number of bytes of the snapshots kept in
+     * memory
+     */
+    public synchronized void setMaxMemoryBytes(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes");
+        }
+        maxMemory = value;
+    }
+
+    public synchronized File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Sets the directory of the spill file. The file is created on the first
+     * spill and deleted when the store is closed.
+     *
+     * @param dir The directory or null to disable spilling
+     */
+    public synchronized void setSpillDirectory(File dir) {
+        if (channel != null) {
+            throw new IllegalStateException("Spill file already in use");
+        }
+        spillDirectory = dir;
+    }
+
+    /**
+     * Puts the complete results of an item. The previous results of the item
+     * (live or serialized) are discarded.
+     *
+     * @param item
+     * @param rslts
+     */
+    public void put(SaItem item, CompositeResults rslts) {
+        List<Evicted> evicted;
+        synchronized (this) {
+            release(item);
+            item.stamp_ = ++stamp;
+            live.put(item, rslts);
+            evicted = evict();
+        }
+        snapshot(evicted);
+    }
+
+    /**
+     * Gets the complete results of an item, if they are still in the LRU
+     * window
+     *
+     * @param item
+     * @return The results or null
+     */
+    public CompositeResults get(SaItem item) {
+        CompositeResults rslts;
+        synchronized (this) {
+            rslts = live.get(item);
+        }
+        if (rslts != null) {
+            liveHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return rslts;
+    }
+
+    /**
+     * Gets the results of an item: the complete results if they are still in
+     * the LRU window, the rehydrated snapshot otherwise.
+     *
+     * @param item
+     * @return The results or null if the item is unknown
+     */
+    public IProcResults getResults(SaItem item) {
+        Snapshot snapshot;
+        byte[] bytes = null;
+        synchronized (this) {
+            CompositeResults rslts = live.get(item);
+            if (rslts != null) {
+                liveHits.incrementAndGet();
+                return rslts;
+            }
+            snapshot = item.snapshot_;
+            if (snapshot != null && snapshot.isSpilled()) {
+                try {
+                    bytes = readSpilled(snapshot);
+                } catch (IOException ex) {
+                    release(item);
+                    snapshot = null;
+                }
+            }
+        }
+        if (snapshot == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        snapshotHits.incrementAndGet();
+        try {
+            return read(bytes != null ? bytes : snapshot.data);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies the results of an item (live or serialized) into another item.
+     * The previous results of the target are discarded.
+     *
+     * @param source
+     * @param target
+     */
+    public void copy(SaItem source, SaItem target) {
+        List<Evicted> evicted;
+        synchronized (this) {
+            release(target);
+            target.stamp_ = ++stamp;
+            CompositeResults rslts = live.get(source);
+            if (rslts == null) {
+                Snapshot snapshot = source.snapshot_;
+                if (snapshot == null || closed) {
+                    return;
+                }
+                if (snapshot.isSpilled()) {
+                    // the regions of the spill file are never overwritten
+                    target.snapshot_ = new Snapshot(snapshot.offset, snapshot.length);
+                } else {
+                    keep(target, snapshot.data.clone());
+                }
+                return;
+            }
+            live.put(target, rslts);
+            evicted = evict();
+        }
+        snapshot(evicted);
+    }
+
+    /**
+     * Replaces the complete results of an item by their snapshot
+     *
+     * @param item
+     */
+    public void compress(SaItem item) {
+        Evicted evicted;
+        synchronized (this) {
+            CompositeResults rslts = live.remove(item);
+            if (rslts == null) {
+                return;
+            }
+            evictions.incrementAndGet();
+            evicted = new Evicted(item, rslts, item.stamp_);
+        }
+        snapshot(Collections.singletonList(evicted));
+    }
+
+    /**
+     * Removes all the information on an item
+     *
+     * @param item
+     */
+    public synchronized void remove(SaItem item) {
+        live.remove(item);
+        release(item);
+        item.stamp_ = ++stamp;
+    }
+
+    /**
+     * Removes the live results. The snapshots are unchanged
+     */
+    public synchronized void clear() {
+        for (SaItem item : live.keySet()) {
+            item.stamp_ = ++stamp;
+        }
+        live.clear();
+    }
+
+    /**
+     * Closes the store. The spill file is deleted; the spilled snapshots are
+     * lost.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        live.clear();
+        mapped = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+                diskBytes = 0;
+                if (spillFile != null) {
+                    spillFile.delete();
+                    spillFile = null;
+                }
+            }
+        }
+    }
+
+    public synchronized int getLiveCount() {
+        return live.size();
+    }
+
+    /**
+     * @return The number of bytes of the snapshots kept in memory
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * @return The number of bytes written in the spill file
+     */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public long getLiveHits() {
+        return liveHits.get();
+    }
+
+    public long getSnapshotHits() {
+        return snapshotHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getSpillCount() {
+        return spills.get();
+    }
+
+    /**
+     * @return The number of evicted results that couldn't be stored (memory
+     * budget exceeded without spill file)
+     */
+    public long getDropCount() {
+        return drops.get();
+    }
+
+    public void resetCounters() {
+        liveHits.set(0);
+        snapshotHits.set(0);
+        misses.set(0);
+        evictions.set(0);
+        spills.set(0);
+        drops.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("live hits=").append(liveHits.get())
+                .append(", snapshot hits=").append(snapshotHits.get())
+                .append(", misses=").append(misses.get())
+                .append(", evictions=").append(evictions.get())
+                .append(", spills=").append(spills.get())
+                .append(", drops=").append(drops.get());
+        return builder.toString();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Storage">
+    private static final class Evicted {
+
+        final SaItem item;
+        final CompositeResults rslts;
+        final long stamp;
+
+        Evicted(SaItem item, CompositeResults rslts, long stamp) {
+            this.item = item;
+            this.rslts = rslts;
+            this.stamp = stamp;
+        }
+    }
+
+    // called under lock
+    private List<Evicted> evict() {
+        if (live.size() <= maxLive) {
+            return Collections.emptyList();
+        }
+        List<Evicted> evicted = new ArrayList<>();
+        Iterator<Map.Entry<SaItem, CompositeResults>> iter = live.entrySet().iterator();
+        while (live.size() > maxLive) {
+            Map.Entry<SaItem, CompositeResults> entry = iter.next();
+            evicted.add(new Evicted(entry.getKey(), entry.getValue(), entry.getKey().stamp_));
+            iter.remove();
+        }
+        evictions.addAndGet(evicted.size());
+        return evicted;
+    }
+
+    // called under lock
+    private void release(SaItem item) {
+        Snapshot snapshot = item.snapshot_;
+        if (snapshot != null) {
+            if (!snapshot.isSpilled()) {
+                memoryBytes -= snapshot.length;
+            }
+            // the space of the spill file is not reused
+            item.snapshot_ = null;
+        }
+    }
+
+    private void snapshot(List<Evicted> evicted) {
+        for (Evicted e : evicted) {
+            byte[] bytes;
+            try {
+                bytes = write(e.rslts);
+            } catch (IOException | RuntimeException ex) {
+                drops.incrementAndGet();
+                continue;
+            }
+            synchronized (this) {
+                if (!closed && e.item.stamp_ == e.stamp) {
+                    keep(e.item, bytes);
+                }
+            }
+        }
+    }
+
+    // called under lock
+    private void keep(SaItem item, byte[] bytes) {
+        if (memoryBytes + bytes.length <= maxMemory) {
+            item.snapshot_ = new Snapshot(bytes);
+            memoryBytes += bytes.length;
+        } else if (spillDirectory != null) {
+            try {
+                item.snapshot_ = spill(bytes);
+                spills.incrementAndGet();
+            } catch (IOException ex) {
+                drops.incrementAndGet();
+            }
+        } else {
+            drops.incrementAndGet();
+        }
+    }
+
+    // called under lock
+    private Snapshot spill(byte[] bytes) throws IOException {
+        if (channel == null) {
+            spillFile = File.createTempFile("saresults", ".bin", spillDirectory);
+            spillFile.deleteOnExit();
+            channel = new RandomAccessFile(spillFile, "rw").getChannel();
+            diskBytes = 0;
+        }
+        long pos = diskBytes;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, pos + buffer.position());
+        }
+        diskBytes += bytes.length;
+        return new Snapshot(pos, bytes.length);
+    }
+
+    // called under lock
+    private byte[] readSpilled(Snapshot snapshot) throws IOException {
+        if (channel == null) {
+            throw new IOException("Spill file closed");
+        }
+        byte[] bytes = new byte[snapshot.length];
+        if (diskBytes > Integer.MAX_VALUE) {
+            // a single mapping can't exceed 2GB
+            channel.map(FileChannel.MapMode.READ_ONLY, snapshot.offset, snapshot.length).get(bytes);
+            return bytes;
+        }
+        if (mapped == null || mapped.capacity() < snapshot.offset + snapshot.length) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, diskBytes);
+        }
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) snapshot.offset);
+        view.get(bytes);
+        return bytes;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Serialization">
+    private static final int VERSION = 1;
+    private static final byte DOUBLE = 1, INTEGER = 2, LONG = 3, BOOLEAN = 4, STRING = 5, DOUBLES = 6, INTEGERS = 7,
+            STRINGS = 8, TSDATA = 9, MATRIX = 10, PARAMETER = 11, PARAMETERS = 12, TSPERIOD = 13, TEST = 14,
+            REGRESSIONITEM = 15;
+
+    private static byte typeOf(Class c) {
+        if (c == Double.class) {
+            return DOUBLE;
+        } else if (c == Integer.class) {
+            return INTEGER;
+        } else if (c == Long.class) {
+            return LONG;
+        } else if (c == Boolean.class) {
+            return BOOLEAN;
+        } else if (c == String.class) {
+            return STRING;
+        } else if (c == double[].class) {
+            return DOUBLES;
+        } else if (c == int[].class) {
+            return INTEGERS;
+        } else if (c == String[].class) {
+            return STRINGS;
+        } else if (c == TsData.class) {
+            return TSDATA;
+        } else if (c == Matrix.class) {
+            return MATRIX;
+        } else if (c == Parameter.class) {
+            return PARAMETER;
+        } else if (c == Parameter[].class) {
+            return PARAMETERS;
+        } else if (c == TsPeriod.class) {
+            return TSPERIOD;
+        } else if (c == StatisticalTest.class) {
+            return TEST;
+        } else if (c == RegressionItem.class) {
+            return REGRESSIONITEM;
+        } else {
+            return 0;
+        }
+    }
+
+    static byte[] write(CompositeResults rslts) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Class> entry : rslts.getDictionary().entrySet()) {
+            String key = entry.getKey();
+            if (typeOf(entry.getValue()) == 0 || InformationSet.hasWildCards(key)) {
+                continue;
+            }
+            Object value;
+            try {
+                value = rslts.getData(key, entry.getValue());
+            } catch (RuntimeException err) {
+                value = null;
+            }
+            if (value != null) {
+                keys.add(key);
+                values.add(value);
+            }
+        }
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            writeString(out, keys.get(i));
+            writeValue(out, values.get(i));
+        }
+        List<ProcessingInformation> infos = rslts.getProcessingInformation();
+        out.writeInt(infos.size());
+        for (ProcessingInformation info : infos) {
+            out.writeByte(info.type.ordinal());
+            writeString(out, info.name);
+            writeString(out, info.origin);
+            writeString(out, info.msg);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static IProcResults read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != VERSION) {
+            throw new IOException("Invalid snapshot");
+        }
+        int n = in.readInt();
+        LinkedHashMap<String, Object> values = new LinkedHashMap<>(2 * n);
+        for (int i = 0; i < n; ++i) {
+            String key = readString(in);
+            values.put(key, readValue(in));
+        }
+        int ninfos = in.readInt();
+        List<ProcessingInformation> infos = new ArrayList<>(ninfos);
+        ProcessingInformation.InformationType[] types = ProcessingInformation.InformationType.values();
+        for (int i = 0; i < ninfos; ++i) {
+            ProcessingInformation.InformationType type = types[in.readByte()];
+            String name = readString(in), origin = readString(in), msg = readString(in);
+            switch (type) {
+                case Error:
+                    infos.add(ProcessingInformation.error(name, origin, msg));
+                    break;
+                case Warning:
+                    infos.add(ProcessingInformation.warning(name, origin, msg));
+                    break;
+                case Info:
+                    infos.add(ProcessingInformation.info(name, origin, msg));
+                    break;
+                default:
+                    infos.add(ProcessingInformation.log(name, origin, msg));
+                    break;
+            }
+        }
+        return new Results(values, infos);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        byte type = typeOf(value.getClass());
+        out.writeByte(type);
+        switch (type) {
+            case DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case INTEGER:
+                out.writeInt((Integer) value);
+                break;
+            case LONG:
+                out.writeLong((Long) value);
+                break;
+            case BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            case STRING:
+                writeString(out, (String) value);
+                break;
+            case DOUBLES:
+                writeDoubles(out, (double[]) value);
+                break;
+            case INTEGERS: {
+                int[] v = (int[]) value;
+                out.writeInt(v.length);
+                for (int i = 0; i < v.length; ++i) {
+                    out.writeInt(v[i]);
+                }
+                break;
+            }
+            case STRINGS: {
+                String[] v = (String[]) value;
+                out.writeInt(v.length);
+                for (int i = 0; i < v.length; ++i) {
+                    writeString(out, v[i]);
+                }
+                break;
+            }
+            case TSDATA: {
+                TsData s = (TsData) value;
+                out.writeInt(s.getFrequency().intValue());
+                out.writeInt(s.getStart().getYear());
+                out.writeInt(s.getStart().getPosition());
+                writeDoubles(out, s.internalStorage());
+                break;
+            }
+            case MATRIX: {
+                Matrix m = (Matrix) value;
+                out.writeInt(m.getRowsCount());
+                out.writeInt(m.getColumnsCount());
+                writeDoubles(out, m.internalStorage());
+                break;
+            }
+            case PARAMETER:
+                writeParameter(out, (Parameter) value);
+                break;
+            case PARAMETERS: {
+                Parameter[] v = (Parameter[]) value;
+                out.writeInt(v.length);
+                for (int i = 0; i < v.length; ++i) {
+                    writeParameter(out, v[i]);
+                }
+                break;
+            }
+            case TSPERIOD: {
+                TsPeriod period = (TsPeriod) value;
+                out.writeInt(period.getFrequency().intValue());
+                out.writeInt(period.getYear());
+                out.writeInt(period.getPosition());
+                break;
+            }
+            case TEST: {
+                StatisticalTest test = (StatisticalTest) value;
+                writeString(out, test.description);
+                out.writeDouble(test.value);
+                out.writeDouble(test.pvalue);
+                break;
+            }
+            case REGRESSIONITEM: {
+                RegressionItem reg = (RegressionItem) value;
+                writeString(out, reg.description);
+                out.writeDouble(reg.coefficient);
+                out.writeDouble(reg.stdError);
+                out.writeDouble(reg.pValue);
+                break;
+            }
+            default:
+                throw new IOException("Unsupported type");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case DOUBLE:
+                return in.readDouble();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case STRING:
+                return readString(in);
+            case DOUBLES:
+                return readDoubles(in);
+            case INTEGERS: {
+                int[] v = new int[in.readInt()];
+                for (int i = 0; i < v.length; ++i) {
+                    v[i] = in.readInt();
+                }
+                return v;
+            }
+            case STRINGS: {
+                String[] v = new String[in.readInt()];
+                for (int i = 0; i < v.length; ++i) {
+                    v[i] = readString(in);
+                }
+                return v;
+            }
+            case TSDATA: {
+                TsFrequency freq = TsFrequency.valueOf(in.readInt());
+                int year = in.readInt(), pos = in.readInt();
+                return new TsData(freq, year, pos, readDoubles(in), false);
+            }
+            case MATRIX: {
+                int nrows = in.readInt(), ncols = in.readInt();
+                return new Matrix(readDoubles(in), nrows, ncols);
+            }
+            case PARAMETER:
+                return readParameter(in);
+            case PARAMETERS: {
+                Parameter[] v = new Parameter[in.readInt()];
+                for (int i = 0; i < v.length; ++i) {
+                    v[i] = readParameter(in);
+                }
+                return v;
+            }
+            case TSPERIOD: {
+                TsFrequency freq = TsFrequency.valueOf(in.readInt());
+                int year = in.readInt(), pos = in.readInt();
+                return new TsPeriod(freq, year, pos);
+            }
+            case TEST: {
+                String desc = readString(in);
+                double val = in.readDouble(), pval = in.readDouble();
+                return new StatisticalTest(desc, val, pval);
+            }
+            case REGRESSIONITEM: {
+                String desc = readString(in);
+                double coeff = in.readDouble(), err = in.readDouble(), pval = in.readDouble();
+                return new RegressionItem(desc, coeff, err, pval);
+            }
+            default:
+                throw new IOException("Invalid snapshot");
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] v) throws IOException {
+        out.writeInt(v.length);
+        for (int i = 0; i < v.length; ++i) {
+            out.writeDouble(v[i]);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        double[] v = new double[in.readInt()];
+        for (int i = 0; i < v.length; ++i) {
+            v[i] = in.readDouble();
+        }
+        return v;
+    }
+
+    private static void writeParameter(DataOutputStream out, Parameter p) throws IOException {
+        out.writeBoolean(p != null);
+        if (p != null) {
+            out.writeDouble(p.getValue());
+            out.writeDouble(p.getStde());
+            out.writeByte(p.getType().ordinal());
+        }
+    }
+
+    private static Parameter readParameter(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        double val = in.readDouble(), stde = in.readDouble();
+        Parameter p = new Parameter(val, ParameterType.values()[in.readByte()]);
+        p.setStde(stde);
+        return p;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            return null;
+        }
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rehydrated snapshot
+     */
+    private static final class Results implements IProcResults {
+
+        private final LinkedHashMap<String, Object> values;
+        private final List<ProcessingInformation> infos;
+
+        Results(LinkedHashMap<String, Object> values, List<ProcessingInformation> infos) {
+            this.values = values;
+            this.infos = infos;
+        }
+
+        @Override
+        public boolean contains(String id) {
+            return values.containsKey(id) || getData(id, Object.class) != null;
+        }
+
+        @Override
+        public Map<String, Class> getDictionary() {
+            LinkedHashMap<String, Class> dic = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                dic.put(entry.getKey(), entry.getValue().getClass());
+            }
+            return dic;
+        }
+
+        @Override
+        public <T> T getData(String id, Class<T> tclass) {
+            Object value = values.get(id);
+            if (value == null) {
+                // same fallback as CompositeResults: the identifier may omit
+                // the prefix of the node
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    String key = entry.getKey();
+                    int pos = key.length() - id.length() - 1;
+                    if (pos > 0 && key.endsWith(id) && key.charAt(pos) == InformationSet.SEP
+                            && key.lastIndexOf(InformationSet.SEP, pos - 1) < 0) {
+                        value = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            return tclass.isInstance(value) ? tclass.cast(value) : null;
+        }
+
+        @Override
+        public List<ProcessingInformation> getProcessingInformation() {
+            return Collections.unmodifiableList(infos);
+        }
+    }
+    //</editor-fold>
+}
@@ -17,15 +17,24 @@
 
 package ec.tss.sa.documents;
 
+import ec.satoolkit.GenericSaResults;
 import ec.satoolkit.ISaSpecification;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
 import ec.tss.documents.TsDocument;
 import ec.tss.sa.EstimationPolicyType;
 import ec.tss.sa.ISaProcessingFactory;
 import ec.tss.sa.SaItem;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
 import ec.tstoolkit.algorithm.CompositeResults;
 import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.algorithm.IProcSpecification;
-import ec.tstoolkit.algorithm.IProcessing;
+import ec.tstoolkit.modelling.arima.DefaultArimaSpec;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
+import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
+import ec.tstoolkit.sarima.SarimaComponent;
 import ec.tstoolkit.timeseries.analysis.ITsProcessing;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
@@ -35,7 +44,8 @@ import ec.tstoolkit.timeseries.simplets.TsDomain;
  * @author Jean Palate
  */
 public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProcessing<CompositeResults> {
-    private final IProcessing<TsData, CompositeResults> processing_;
+    private final ISaProcessingFactory<S> factory_;
+    private final S spec_;
     private final TsData data_;
 
     public SaDocumentProcessing(SaDocument<S> doc, EstimationPolicyType policy) {
@@ -44,7 +54,8 @@ public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProc
         item.unsafeFill(doc.getResults());
         factory.updatePointSpecification(item);
         S spec = (S)factory.createSpecification(item, null, policy, true);
-        processing_=factory.generateProcessing(spec, null);
+        factory_ = factory;
+        spec_ = spec;
         data_ = doc.getInput().getTsData();
     }
 
@@ -53,7 +64,105 @@ public class SaDocumentProcessing<S extends ISaSpecification> implements ITsProc
         if (data_ == null) {
             return null;
         }
-        return processing_.process(data_.fittoDomain(domain));
+        // the processings are not thread-safe: each call uses its own processing
+        return factory_.generateProcessing((S) spec_.clone(), null).process(data_.fittoDomain(domain));
+    }
+
+    /**
+     * Each domain is processed by a new processing, so that several domains
+     * can be processed concurrently.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Processes a domain, starting the estimation of the ARIMA model from the
+     * parameters of the neighbour. The warm start is only used when the
+     * specification re-estimates the parameters of a given ARIMA model (no
+     * automatic model identification); otherwise, the neighbour is ignored.
+     *
+     * @param domain
+     * @param neighbour
+     * @return
+     */
+    @Override
+    public CompositeResults process(TsDomain domain, CompositeResults neighbour) {
+        if (data_ == null) {
+            return null;
+        }
+        S spec = initialSpecification(neighbour);
+        if (spec == null) {
+            return process(domain);
+        }
+        return factory_.generateProcessing(spec, null).process(data_.fittoDomain(domain));
+    }
+
+    private S initialSpecification(CompositeResults neighbour) {
+        PreprocessingModel model = neighbour == null ? null : GenericSaResults.getPreprocessingModel(neighbour);
+        if (model == null) {
+            return null;
+        }
+        S spec = (S) spec_.clone();
+        DefaultArimaSpec arima = arimaSpecification(spec);
+        SarimaComponent cmp = model.description.getArimaComponent();
+        // the initial values of the user keep their usual meaning
+        if (arima == null || hasInitial(arima.getPhi()) || hasInitial(arima.getBPhi())
+                || hasInitial(arima.getTheta()) || hasInitial(arima.getBTheta())) {
+            return null;
+        }
+        if (cmp.getP() != arima.getP() || cmp.getD() != arima.getD() || cmp.getQ() != arima.getQ()
+                || cmp.getBP() != arima.getBP() || cmp.getBD() != arima.getBD() || cmp.getBQ() != arima.getBQ()) {
+            return null;
+        }
+        boolean phi = initialize(arima.getPhi(), cmp.getPhi()), bphi = initialize(arima.getBPhi(), cmp.getBPhi()),
+                theta = initialize(arima.getTheta(), cmp.getTheta()), btheta = initialize(arima.getBTheta(), cmp.getBTheta());
+        if (!(phi || bphi || theta || btheta)) {
+            return null;
+        }
+        // the initial values set here are only a starting point
+        arima.setWarmStart(true);
+        return spec;
+    }
+
+    private static DefaultArimaSpec arimaSpecification(ISaSpecification spec) {
+        if (spec instanceof TramoSeatsSpecification) {
+            TramoSpecification tspec = ((TramoSeatsSpecification) spec).getTramoSpecification();
+            return tspec == null || tspec.isUsingAutoModel() ? null : tspec.getArima();
+        } else if (spec instanceof X13Specification) {
+            RegArimaSpecification rspec = ((X13Specification) spec).getRegArimaSpecification();
+            return rspec == null || rspec.isUsingAutoModel() ? null : rspec.getArima();
+        } else {
+            return null;
+        }
+    }
+
+    private static boolean hasInitial(Parameter[] p) {
+        if (p != null) {
+            for (Parameter cur : p) {
+                if (cur != null && cur.getType() == ParameterType.Initial) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // the undefined parameters get the values of the neighbour as initial values
+    private static boolean initialize(Parameter[] target, Parameter[] source) {
+        if (target == null || source == null || target.length != source.length) {
+            return false;
+        }
+        boolean changed = false;
+        for (int i = 0; i < target.length; ++i) {
+            if (Parameter.isDefault(target[i]) && Parameter.isDefined(source[i])) {
+                target[i] = new Parameter(source[i].getValue(), ParameterType.Initial);
+                changed = true;
+            }
+        }
+        return changed;
     }
-   
 }
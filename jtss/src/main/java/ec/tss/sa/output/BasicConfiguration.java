@@ -26,7 +26,16 @@ import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.utilities.Files2;
 import ec.tstoolkit.utilities.Id;
 import ec.tstoolkit.utilities.Paths;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -35,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  *
@@ -284,4 +294,36 @@ public class BasicConfiguration {
             return folder;
         }
     }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Opens a buffered writer on a (new) file
+     *
+     * @param file The file. It is replaced if it already exists
+     * @param charset
+     * @param compressed True if the output must be gzip-compressed
+     * @return
+     * @throws IOException
+     */
+    public static Writer newWriter(File file, Charset charset, boolean compressed) throws IOException {
+        OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)), BUFFER_SIZE);
+        if (compressed) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new OutputStreamWriter(stream, charset);
+    }
+
+    /**
+     * Name of a csv file
+     *
+     * @param file The name of the file (the extension is changed)
+     * @param compressed True for a gzip-compressed file
+     * @return
+     */
+    public static String csvFile(String file, boolean compressed) {
+        file = Paths.changeExtension(file, "csv");
+        return compressed ? file + ".gz" : file;
+    }
 }
@@ -24,8 +24,8 @@ import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.utilities.NamedObject;
 import ec.tstoolkit.utilities.Paths;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -38,6 +38,9 @@ public class CsvMatrixOutput implements IOutput<SaDocument<ISaSpecification>> {
 
     CsvMatrixOutputConfiguration config_;
     List<NamedObject<IProcResults>> infos_;
+    // streaming mode
+    private CsvInformationFormatter.MatrixWriter matrix_;
+    private boolean streaming_;
     private File folder_;
     private boolean fullName;
 
@@ -57,25 +60,69 @@ public class CsvMatrixOutput implements IOutput<SaDocument<ISaSpecification>> {
     }
 
     @Override
-    public void start(Object context) {
-        infos_ = new ArrayList<>();
+    public void start(Object context) throws Exception {
         folder_ = BasicConfiguration.folderFromContext(config_.getFolder(), context);
+        // temporary file of a previous run that has not been ended
+        discard();
+        streaming_ = config_.isStreaming();
+        if (streaming_) {
+            CsvInformationFormatter fmt = new CsvInformationFormatter();
+            fmt.setFullName(fullName);
+            matrix_ = fmt.new MatrixWriter(config_.getItems(), true);
+        } else {
+            infos_ = new ArrayList<>();
+        }
     }
 
     @Override
     public void end(Object context) throws Exception {
-        CsvInformationFormatter fmt = new CsvInformationFormatter();
-        fmt.setFullName(fullName);
+        if (streaming_ && matrix_ == null) {
+            throw new IOException("The output has been aborted");
+        }
         String file = Paths.concatenate(folder_.getAbsolutePath(), config_.getFileName());
-        file = Paths.changeExtension(file, "csv");
-        FileOutputStream matrix = new FileOutputStream(file);
-        OutputStreamWriter writer = new OutputStreamWriter(matrix, StandardCharsets.ISO_8859_1);
-        fmt.formatResults(writer, infos_, config_.getItems(), true);
-        infos_ = null;
+        file = BasicConfiguration.csvFile(file, config_.isCompressed());
+        try (Writer writer = BasicConfiguration.newWriter(new File(file), StandardCharsets.ISO_8859_1, config_.isCompressed())) {
+            if (matrix_ != null) {
+                matrix_.writeTo(writer);
+            } else {
+                CsvInformationFormatter fmt = new CsvInformationFormatter();
+                fmt.setFullName(fullName);
+                fmt.formatResults(writer, infos_, config_.getItems(), true);
+            }
+        } finally {
+            discard();
+            infos_ = null;
+        }
+    }
+
+    private void discard() throws IOException {
+        if (matrix_ != null) {
+            try {
+                matrix_.close();
+            } finally {
+                matrix_ = null;
+            }
+        }
     }
 
     @Override
-    public void process(SaDocument<ISaSpecification> document) {
-        infos_.add(new NamedObject<>(document.getInput().getRawName(), document.getResults()));
+    public void process(SaDocument<ISaSpecification> document) throws Exception {
+        if (streaming_) {
+            if (matrix_ == null) {
+                throw new IOException("The output has been aborted");
+            }
+            try {
+                matrix_.add(document.getInput().getRawName(), document.getResults());
+            } catch (IOException | RuntimeException ex) {
+                try {
+                    discard();
+                } catch (IOException err) {
+                    ex.addSuppressed(err);
+                }
+                throw ex;
+            }
+        } else {
+            infos_.add(new NamedObject<>(document.getInput().getRawName(), document.getResults()));
+        }
     }
 }
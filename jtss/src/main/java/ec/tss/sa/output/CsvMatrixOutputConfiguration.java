@@ -34,6 +34,7 @@ public class CsvMatrixOutputConfiguration extends BasicConfiguration implements
     private File folder_;
     private String name_ = NAME;
     private boolean fullName_;
+    private boolean streaming_, compressed_;
 
     public CsvMatrixOutputConfiguration() {
         List<String> details = allDetails(true, SaManager.instance.getProcessors(), SaManager.instance.getDiagnostics());
@@ -73,6 +74,32 @@ public class CsvMatrixOutputConfiguration extends BasicConfiguration implements
         this.fullName_ = fullName;
     }
 
+    /**
+     * In streaming mode, the results are stored in temporary files as the
+     * documents are processed, and they are not kept in memory. Disabled by
+     * default.
+     *
+     * @return
+     */
+    public boolean isStreaming() {
+        return streaming_;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming_ = streaming;
+    }
+
+    /**
+     * @return True if the files are gzip-compressed (.csv.gz)
+     */
+    public boolean isCompressed() {
+        return compressed_;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed_ = compressed;
+    }
+
     @Override
     public CsvMatrixOutputConfiguration clone() {
         try {
@@ -21,13 +21,26 @@ import ec.tss.formatters.StringFormatter;
 import ec.tss.sa.documents.SaDocument;
 import ec.tstoolkit.algorithm.IOutput;
 import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.Jdk6;
-import ec.tstoolkit.utilities.Paths;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,31 +54,245 @@ public class CsvOutput implements IOutput<SaDocument<ISaSpecification>> {
     CsvOutputConfiguration config_;
     DefaultCollectionSummary summary_;
     private File folder_;
+    // streaming mode: the names of the documents and the series of each item
+    // are stored in temporary files (one by item)
+    private boolean streaming_;
+    private Path spillFolder_;
+    private DataOutputStream names_;
+    private final LinkedHashMap<String, DataOutputStream> spills_ = new LinkedHashMap<>();
+    private int count_;
 
     public CsvOutput(CsvOutputConfiguration config) {
         config_ = (CsvOutputConfiguration) config.clone();
     }
 
     @Override
-    public void process(SaDocument<ISaSpecification> document) {
-        summary_.add(Jdk6.Collections.toArray(config_.getSeries(), String.class), document);
+    public void process(SaDocument<ISaSpecification> document) throws Exception {
+        String[] series = Jdk6.Collections.toArray(config_.getSeries(), String.class);
+        if (!streaming_) {
+            summary_.add(series, document);
+            return;
+        }
+        if (names_ == null) {
+            throw new IOException("The output has been aborted");
+        }
+        String name = document.getInput().getRawName();
+        if (name == null) {
+            name = "series" + Integer.toString(count_ + 1);
+        }
+        Map<String, TsData> all = new SeriesSummary(series, name, document).getAllSeries();
+        try {
+            writeString(names_, name);
+            for (String item : all.keySet()) {
+                if (!spills_.containsKey(item)) {
+                    // the item is missing in the previous documents
+                    DataOutputStream out = open(spillFolder_.resolve(spills_.size() + ".tmp"), StandardOpenOption.CREATE_NEW);
+                    spills_.put(item, out);
+                    for (int r = 0; r < count_; ++r) {
+                        write(out, null);
+                    }
+                }
+            }
+            for (Map.Entry<String, DataOutputStream> entry : spills_.entrySet()) {
+                write(entry.getValue(), all.get(entry.getKey()));
+            }
+            ++count_;
+        } catch (IOException | RuntimeException ex) {
+            discard();
+            throw ex;
+        }
     }
 
     @Override
-    public void start(Object context) {
-        summary_ = new DefaultCollectionSummary();
+    public void start(Object context) throws Exception {
         folder_ = BasicConfiguration.folderFromContext(config_.getFolder(), context);
+        // files of a previous run that has not been ended
+        discard();
+        streaming_ = config_.isStreaming();
+        if (streaming_) {
+            count_ = 0;
+            spillFolder_ = Files.createTempDirectory("csvspill");
+            try {
+                names_ = open(spillFolder_.resolve("names.tmp"), StandardOpenOption.CREATE_NEW);
+            } catch (IOException ex) {
+                discard();
+                throw ex;
+            }
+        } else {
+            summary_ = new DefaultCollectionSummary();
+        }
     }
 
     @Override
     public void end(Object context) throws Exception {
-        for (String item : summary_.getItems()) {
-            String nfile = config_.getFilePrefix();
-            nfile += "_" + StringFormatter.cleanup(item.replace('.', '_'));
-            nfile = Paths.changeExtension(nfile, "csv");
-            write(new File(BasicConfiguration.folder(folder_), nfile), summary_.getNames(), summary_.getSeries(item));
+        if (!streaming_) {
+            for (String item : summary_.getItems()) {
+                write(file(item), summary_.getNames(), summary_.getSeries(item));
+            }
+            summary_ = null;
+            return;
+        }
+        if (names_ == null) {
+            throw new IOException("The output has been aborted");
+        }
+        try {
+            names_.close();
+            for (DataOutputStream out : spills_.values()) {
+                out.close();
+            }
+            if (config_.getPresentation() == CsvLayout.List) {
+                endList();
+            } else {
+                endTables();
+            }
+        } finally {
+            discard();
+        }
+    }
+
+    // the lines of all the files are written in a single pass
+    private void endList() throws IOException {
+        List<String> items = new ArrayList<>(spills_.keySet());
+        Writer[] writers = new Writer[items.size()];
+        DataInputStream[] ins = new DataInputStream[items.size()];
+        try (DataInputStream names = openSpill("names")) {
+            for (int i = 0; i < writers.length; ++i) {
+                ins[i] = openSpill(Integer.toString(i));
+                writers[i] = BasicConfiguration.newWriter(file(items.get(i)), StandardCharsets.ISO_8859_1, config_.isCompressed());
+            }
+            TsCollectionCsvFormatter fmt = formatter();
+            for (int r = 0; r < count_; ++r) {
+                String name = readString(names);
+                for (int i = 0; i < writers.length; ++i) {
+                    fmt.writeListItem(name, read(ins[i]), writers[i]);
+                }
+            }
+        } finally {
+            for (int i = 0; i < writers.length; ++i) {
+                if (ins[i] != null) {
+                    ins[i].close();
+                }
+                if (writers[i] != null) {
+                    writers[i].close();
+                }
+            }
+        }
+    }
+
+    // the tables need all the series of an item: each file is read once
+    private void endTables() throws Exception {
+        List<String> names = new ArrayList<>(count_);
+        try (DataInputStream in = openSpill("names")) {
+            for (int r = 0; r < count_; ++r) {
+                names.add(readString(in));
+            }
+        }
+        int i = 0;
+        for (String item : spills_.keySet()) {
+            List<TsData> s = new ArrayList<>(count_);
+            try (DataInputStream in = openSpill(Integer.toString(i++))) {
+                for (int r = 0; r < count_; ++r) {
+                    s.add(read(in));
+                }
+            }
+            write(file(item), names, s);
+        }
+    }
+
+    /**
+     * Closes and deletes the temporary files, if any
+     */
+    private void discard() {
+        if (spillFolder_ == null) {
+            return;
+        }
+        List<DataOutputStream> all = new ArrayList<>(spills_.values());
+        all.add(names_);
+        for (DataOutputStream out : all) {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException ex) {
+                LOGGER.warn("While closing a temporary file", ex);
+            }
+        }
+        File[] files = spillFolder_.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        if (!spillFolder_.toFile().delete()) {
+            LOGGER.warn("While deleting the temporary folder {}", spillFolder_);
+        }
+        spillFolder_ = null;
+        names_ = null;
+        spills_.clear();
+    }
+
+    private static DataOutputStream open(Path file, StandardOpenOption option) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.WRITE, option))));
+    }
+
+    private DataInputStream openSpill(String name) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(spillFolder_.resolve(name + ".tmp"), StandardOpenOption.READ))));
+    }
+
+    private static void write(DataOutputStream out, TsData s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            TsPeriod start = s.getStart();
+            out.writeInt(start.getFrequency().intValue());
+            out.writeInt(start.getYear());
+            out.writeInt(start.getPosition());
+            out.writeInt(s.getLength());
+            for (int i = 0; i < s.getLength(); ++i) {
+                out.writeDouble(s.get(i));
+            }
         }
-        summary_ = null;
+    }
+
+    private static TsData read(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        TsFrequency freq = TsFrequency.valueOf(in.readInt());
+        int year = in.readInt(), pos = in.readInt();
+        double[] data = new double[in.readInt()];
+        for (int j = 0; j < data.length; ++j) {
+            data[j] = in.readDouble();
+        }
+        return new TsData(freq, year, pos, data, false);
+    }
+
+    // writeUTF is limited to 65535 bytes
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private File file(String item) {
+        String nfile = config_.getFilePrefix();
+        nfile += "_" + StringFormatter.cleanup(item.replace('.', '_'));
+        nfile = BasicConfiguration.csvFile(nfile, config_.isCompressed());
+        return new File(BasicConfiguration.folder(folder_), nfile);
+    }
+
+    private TsCollectionCsvFormatter formatter() {
+        TsCollectionCsvFormatter fmt = new TsCollectionCsvFormatter();
+        fmt.setFullName(config_.isFullName());
+        fmt.setPresentation(config_.getPresentation());
+        return fmt;
     }
 
     @Override
@@ -79,13 +306,8 @@ public class CsvOutput implements IOutput<SaDocument<ISaSpecification>> {
     }
 
     private void write(File file, List<String> names, List<TsData> s) throws Exception {
-        try (FileOutputStream matrix = new FileOutputStream(file)) {
-            try (OutputStreamWriter writer = new OutputStreamWriter(matrix, StandardCharsets.ISO_8859_1)) {
-                TsCollectionCsvFormatter fmt = new TsCollectionCsvFormatter();
-                fmt.setFullName(config_.isFullName());
-                fmt.setPresentation(config_.getPresentation());
-                fmt.write(s, names, writer);
-            }
+        try (Writer writer = BasicConfiguration.newWriter(file, StandardCharsets.ISO_8859_1, config_.isCompressed())) {
+            formatter().write(s, names, writer);
         }
     }
 }
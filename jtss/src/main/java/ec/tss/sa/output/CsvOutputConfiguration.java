@@ -36,6 +36,7 @@ public class CsvOutputConfiguration extends BasicConfiguration implements Clonea
     private String name_=NAME;
     private String[] series_;
     private boolean fullName_;
+    private boolean streaming_, compressed_;
 
     public CsvOutputConfiguration() {
         series_ = defOutput;
@@ -81,6 +82,32 @@ public class CsvOutputConfiguration extends BasicConfiguration implements Clonea
         this.fullName_ = fullName;
     }
 
+    /**
+     * In streaming mode, the results are stored in temporary files as the
+     * documents are processed, and they are not kept in memory. Disabled by
+     * default.
+     *
+     * @return
+     */
+    public boolean isStreaming() {
+        return streaming_;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming_ = streaming;
+    }
+
+    /**
+     * @return True if the files are gzip-compressed (.csv.gz)
+     */
+    public boolean isCompressed() {
+        return compressed_;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed_ = compressed;
+    }
+
     @Override
     public CsvOutputConfiguration clone() {
         try {
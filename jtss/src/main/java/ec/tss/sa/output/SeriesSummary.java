@@ -20,6 +20,7 @@ import ec.tss.sa.documents.SaDocument;
 import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -67,4 +68,8 @@ public class SeriesSummary {
     void fill(Set<String> set) {
         set.addAll(series_.keySet());
     }
+
+    Map<String, TsData> getAllSeries() {
+        return Collections.unmodifiableMap(series_);
+    }
 }
@@ -130,30 +130,43 @@ public class TsCollectionCsvFormatter {
     private boolean writeList(List<TsData> coll, List<String> names, Writer writer) throws IOException {
         int nseries = names.size();
         for (int j = 0; j < nseries; ++j) {
-            write(names.get(j), writer);
+            writeListItem(names.get(j), coll.get(j), writer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes a single line of the list layout. The lines of a collection can
+     * be written one by one, when the series are not available at the same
+     * time.
+     *
+     * @param name The name of the series
+     * @param cur The series. May be null
+     * @param writer
+     * @throws IOException
+     */
+    public void writeListItem(String name, TsData cur, Writer writer) throws IOException {
+        write(name, writer);
+        writer.write(comma);
+        if (cur != null) {
+            // header: freq, start, pos, length
+            TsPeriod start = cur.getStart();
+            writer.write(ifmt.format(start.getFrequency().intValue()));
             writer.write(comma);
-            TsData cur = coll.get(j);
-            if (cur != null) {
-                // header: freq, start, pos, length
-                TsPeriod start = cur.getStart();
-                writer.write(ifmt.format(start.getFrequency().intValue()));
-                writer.write(comma);
-                writer.write(ifmt.format(start.getYear()));
-                writer.write(comma);
-                writer.write(ifmt.format(start.getPosition() + 1));
+            writer.write(ifmt.format(start.getYear()));
+            writer.write(comma);
+            writer.write(ifmt.format(start.getPosition() + 1));
+            writer.write(comma);
+            writer.write(ifmt.format(cur.getLength()));
+            for (int i = 0; i < cur.getLength(); ++i) {
                 writer.write(comma);
-                writer.write(ifmt.format(cur.getLength()));
-                for (int i = 0; i < cur.getLength(); ++i) {
-                    writer.write(comma);
-                    double val = cur.get(i);
-                    if (!Double.isNaN(val)) {
-                        write(fmt.format(val), writer);
-                    }
+                double val = cur.get(i);
+                if (!Double.isNaN(val)) {
+                    write(fmt.format(val), writer);
                 }
             }
-            writer.write(newLine);
         }
-        return true;
+        writer.write(newLine);
     }
 
     private void write(String txt, Writer writer) throws IOException {
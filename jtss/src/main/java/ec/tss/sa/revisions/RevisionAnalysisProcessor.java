@@ -22,20 +22,27 @@ import ec.tss.Ts;
 import ec.tss.TsCollection;
 import ec.tstoolkit.algorithm.AlgorithmDescriptor;
 import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.algorithm.IProcSpecification;
 import ec.tstoolkit.algorithm.IProcessing;
 import ec.tstoolkit.algorithm.IProcessingFactory;
 import ec.tstoolkit.algorithm.IProcessingNode;
-import ec.tstoolkit.algorithm.ParallelProcessingNode;
 import ec.tstoolkit.algorithm.ProcessingContext;
+import ec.tstoolkit.algorithm.ProcessingInformation;
 import ec.tstoolkit.algorithm.SequentialProcessing;
 import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.information.ProxyResults;
 import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -43,6 +50,8 @@ import java.util.Map;
  */
 public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAnalysisSpec, TsCollection, CompositeResults> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevisionAnalysisProcessor.class);
+
     public static final String BATCH = "batch", SERIES = "series", SUMMARY = "summary";
 
     public static final String FAMILY = GenericSaProcessingFactory.FAMILY;
@@ -52,6 +61,26 @@ public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAna
 
     public static final RevisionAnalysisProcessor instance = new RevisionAnalysisProcessor();
 
+    /**
+     * Listener of the progress of a batch. It is called by the worker threads,
+     * each time a series has been processed. The exceptions thrown by the
+     * listener are logged and don't stop the batch.
+     */
+    @FunctionalInterface
+    public static interface IProgressListener {
+
+        /**
+         *
+         * @param pos The position of the series in the batch
+         * @param status The status of the processing of the series
+         * @param summary The summary of the series already processed. Partial
+         * statistics can be obtained through its current() method
+         */
+        void processed(int pos, IProcessing.Status status, RevisionStatistics.Collector summary);
+    }
+
+    private volatile int parallelism;
+
     public RevisionAnalysisProcessor() {
         setDefaultDictionary();
     }
@@ -63,6 +92,23 @@ public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAna
         }
     }
 
+    /**
+     * The maximum number of series processed concurrently. 0 (default)
+     * means the number of available processors.
+     *
+     * @return
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException();
+        }
+        parallelism = value;
+    }
+
     @Override
     public void dispose() {
     }
@@ -79,6 +125,23 @@ public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAna
 
     @Override
     public IProcessing<TsCollection, CompositeResults> generateProcessing(final RevisionAnalysisSpec spec, ProcessingContext context) {
+        return generateProcessing(spec, context, null);
+    }
+
+    /**
+     * Generates the processing of a batch. The series are processed
+     * concurrently (see setParallelism) in the execution context of the
+     * processing context; the results are always ordered like the input.
+     * A series that fails doesn't stop the batch.
+     *
+     * @param spec
+     * @param context The processing context. May be null
+     * @param listener The listener of the progress of the batch. May be null
+     * @return
+     */
+    public IProcessing<TsCollection, CompositeResults> generateProcessing(final RevisionAnalysisSpec spec, final ProcessingContext context,
+            final IProgressListener listener) {
+        final int nthreads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
         synchronized (dictionary) {
             final Map<String, Class> localdictionary = new HashMap<>();
             localdictionary.putAll(dictionary);
@@ -102,38 +165,65 @@ public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAna
                         return IProcessing.Status.Invalid;
                     }
 
-                    ParallelProcessingNode<TsCollection> cmps = new ParallelProcessingNode<>(BATCH, null);
-                    for (int i = 0; i < input.getCount(); ++i) {
-                        cmps.add(createNode(spec, i));
+                    long t0 = System.nanoTime();
+                    ExecutionContext ctx = (context != null ? context : ProcessingContext.getActiveContext()).getExecutionContext();
+                    final int n = input.getCount();
+                    final IProcResults[] srslts = new IProcResults[n];
+                    final String[] errors = new String[n];
+                    final RevisionStatistics.Collector summary = new RevisionStatistics.Collector(n, spec.isOutOfSample(), spec.isTargetFinal());
+                    // each task takes the next series, so that at most nthreads series are processed at the same time
+                    final AtomicInteger next = new AtomicInteger();
+                    List<Callable<Void>> tasks = new ArrayList<>();
+                    for (int i = 0; i < Math.min(n, nthreads); ++i) {
+                        tasks.add(() -> {
+                            int pos;
+                            while ((pos = next.getAndIncrement()) < n) {
+                                process(input, pos, srslts, errors, summary);
+                            }
+                            return null;
+                        });
                     }
-                    return cmps.process(input, results);
-                }
-
-                private IProcessingNode<TsCollection> createNode(final RevisionAnalysisSpec spec, final int pos) {
-                    return new IProcessingNode<TsCollection>() {
-                        @Override
-                        public String getName() {
-                            return SERIES + pos;
+                    try {
+                        ctx.invokeAll(tasks);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return IProcessing.Status.Invalid;
+                    }
+                    CompositeResults cresults = new CompositeResults();
+                    for (int i = 0; i < n; ++i) {
+                        cresults.put(SERIES + i, srslts[i], SERIES + i);
+                        if (errors[i] != null) {
+                            cresults.addInformation(ProcessingInformation.error(SERIES + i, errors[i]));
                         }
+                    }
+                    results.put(BATCH, cresults);
+                    results.put(SUMMARY, summary.current());
+                    ctx.record(BATCH, System.nanoTime() - t0);
+                    return IProcessing.Status.Valid;
+                }
 
-                        @Override
-                        public String getPrefix() {
-                            return getName();
+                private void process(TsCollection input, int pos, IProcResults[] srslts, String[] errors, RevisionStatistics.Collector summary) {
+                    IProcessing.Status status = IProcessing.Status.Invalid;
+                    InformationSet rinfo = null;
+                    try {
+                        Ts ts = input.get(pos);
+                        SingleRevisionAnalysisProcessor proc = new SingleRevisionAnalysisProcessor(spec, ts.getTsData());
+                        if (proc.process()) {
+                            rinfo = proc.search(localdictionary);
+                            srslts[pos] = new ProxyResults(rinfo, null);
+                            status = IProcessing.Status.Valid;
                         }
-
-                        @Override
-                        public IProcessing.Status process(TsCollection input, Map<String, IProcResults> results) {
-                            Ts ts = input.get(pos);
-                            SingleRevisionAnalysisProcessor proc = new SingleRevisionAnalysisProcessor(spec, ts.getTsData());
-                            if (!proc.process()) {
-                                return IProcessing.Status.Invalid;
-                            }
-                            InformationSet rinfo = proc.search(localdictionary);
-
-                            results.put(getName(), new ProxyResults(rinfo, null));
-                            return IProcessing.Status.Valid;
+                    } catch (Exception err) {
+                        errors[pos] = String.valueOf(err.getMessage());
+                    }
+                    summary.add(pos, rinfo);
+                    if (listener != null) {
+                        try {
+                            listener.processed(pos, status, summary);
+                        } catch (RuntimeException err) {
+                            LOGGER.warn("Progress listener failed on series " + pos, err);
                         }
-                    };
+                    }
                 }
             };
             all.add(saStep);
@@ -151,10 +241,8 @@ public class RevisionAnalysisProcessor implements IProcessingFactory<RevisionAna
 
                 @Override
                 public IProcessing.Status process(TsCollection input, Map<String, IProcResults> results) {
-                    IProcResults rslts = results.get(BATCH);
-                    if (rslts != null) {
-                        
-                        results.put(SUMMARY, new RevisionStatistics(input, rslts, spec.isOutOfSample(), spec.isTargetFinal()));
+                    // the summary is accumulated by the batch step, as the series are processed
+                    if (results.get(BATCH) != null && results.get(SUMMARY) != null) {
                         return IProcessing.Status.Valid;
                     } else {
                         return IProcessing.Status.Unprocessed;
@@ -16,6 +16,7 @@ import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.information.ProxyResults;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -97,34 +98,37 @@ public class RevisionStatistics implements IProcResults {
     private final boolean outofsample_, ftarget_;
 
     public RevisionStatistics(TsCollection input, IProcResults results, boolean outofsample, boolean ftarget) {
-        outofsample_ = outofsample;
-        ftarget_ = ftarget;
+        this(collect(input, results, outofsample, ftarget));
+    }
+
+    private static Collector collect(TsCollection input, IProcResults results, boolean outofsample, boolean ftarget) {
         // gets the differents revisions analysis
-        InformationSet[] all = new InformationSet[input.getCount()];
-        InformationSet[][] details = new InformationSet[input.getCount()][];
-        int[] nrevs = new int[all.length];
-        int revmax = 0;
-        for (int i = 0; i < nrevs.length; ++i) {
+        Collector collector = new Collector(input.getCount(), outofsample, ftarget);
+        for (int i = 0; i < input.getCount(); ++i) {
             String item = InformationSet.item(RevisionAnalysisProcessor.SERIES + i, ProxyResults.ALL);
-            all[i] = results.getData(item, InformationSet.class);
-            if (all[i] != null) {
-                List<Information<InformationSet>> ver = all[i].select(SingleRevisionAnalysisProcessor.VER + '*', InformationSet.class);
-                int n = ver.size();
-                nrevs[i] = n;
-                if ((outofsample_ && !ftarget_) || (!outofsample_ && ftarget_)) {
-                    --n;
-                }
-                if (nrevs[i] > revmax) {
-                    revmax = nrevs[i];
-                }
-                // we don't check the names...It should be ordered!
-                details[i] = new InformationSet[n];
-                for (int j = 0; j < n; ++j) {
-                    details[i][j] = ver.get(j).value;
+            collector.add(i, results.getData(item, InformationSet.class));
+        }
+        return collector;
+    }
+
+    private RevisionStatistics(Collector collector) {
+        outofsample_ = collector.outofsample;
+        ftarget_ = collector.ftarget;
+        List[] rsadata, rdsadata, rsdata, rcdata;
+        int revmax = 0;
+        synchronized (collector) {
+            for (Revisions revs : collector.series) {
+                if (revs != null && revs.nrevs > revmax) {
+                    revmax = revs.nrevs;
                 }
             }
+            // foreach vintage, we collect the information of the series (in their order)
+            rsadata = merge(collector.series, revs -> revs.sa, revmax);
+            rdsadata = merge(collector.series, revs -> revs.dsa, revmax);
+            rsdata = merge(collector.series, revs -> revs.s, revmax);
+            rcdata = merge(collector.series, revs -> revs.c, revmax);
         }
-        // foreach vintage, we collect the information and we compute the statistics...
+        // and we compute the statistics...
         san_ = new int[revmax];
         samin_ = new double[revmax];
         samax_ = new double[revmax];
@@ -149,105 +153,164 @@ public class RevisionStatistics implements IProcResults {
         dsaavg_ = new double[revmax];
         dsastdev_ = new double[revmax];
         dsarevs_ = new double[revmax][];
-        if (ftarget_) {
-            computeTowardsEnd(all, details, revmax);
-        } else {
-            computeTowardsStart(all, details, revmax);
-        }
+        computeStatistics(rsadata, rdsadata, rsdata, rcdata, revmax);
     }
 
-    private static boolean isConstant(TsData s) {
-        if (s == null) {
-            return true;
+    /**
+     * Incremental computation of the statistics of a batch. The revisions of
+     * the series can be added in any order, for instance as soon as they are
+     * computed by concurrent tasks. The statistics are always computed in the
+     * order of the series, so that they don't depend on the order of
+     * completion.
+     */
+    public static final class Collector {
+
+        private final boolean outofsample, ftarget;
+        private final Revisions[] series;
+        private int count;
+
+        /**
+         *
+         * @param n The number of series in the batch
+         * @param outofsample
+         * @param ftarget
+         */
+        public Collector(int n, boolean outofsample, boolean ftarget) {
+            this.series = new Revisions[n];
+            this.outofsample = outofsample;
+            this.ftarget = ftarget;
         }
-        double[] d = s.internalStorage();
-        for (int i = 1; i < s.getLength(); ++i) {
-            if (d[i] != d[0]) {
-                return false;
+
+        /**
+         * Adds the revision analysis of a series. A series that can't be
+         * analysed doesn't contribute to the statistics
+         *
+         * @param pos The position of the series in the batch
+         * @param info The results of the revision analysis of the series. Null
+         * if the series has not been processed successfully
+         */
+        public void add(int pos, InformationSet info) {
+            Revisions revs = null;
+            if (info != null) {
+                try {
+                    revs = new Revisions(info, outofsample, ftarget);
+                } catch (RuntimeException err) {
+                    revs = null;
+                }
+            }
+            synchronized (this) {
+                series[pos] = revs;
+                ++count;
             }
         }
-        return true;
-    }
 
-    private double[] toarray(List list) {
-        double[] x = new double[list.size()];
-        for (int i = 0; i < x.length; ++i) {
-            x[i] = (Double) list.get(i);
+        /**
+         * @return The number of series in the batch
+         */
+        public int getSize() {
+            return series.length;
+        }
+
+        /**
+         * @return The number of series already added
+         */
+        public synchronized int getCount() {
+            return count;
+        }
+
+        /**
+         * @return The statistics computed on the series already added
+         */
+        public RevisionStatistics current() {
+            return new RevisionStatistics(this);
         }
-        return x;
     }
 
-    private void computeTowardsStart(InformationSet[] all, InformationSet[][] details, int revmax) {
-        List[] rsadata = new List[revmax];
-        List[] rdsadata = new List[revmax];
-        List[] rsdata = new List[revmax];
-        List[] rcdata = new List[revmax];
-        for (int i = 0; i < revmax; ++i) {
-            rsadata[i] = new ArrayList<>();
-            rdsadata[i] = new ArrayList<>();
-            rsdata[i] = new ArrayList<>();
-            rcdata[i] = new ArrayList<>();
+    /**
+     * Revisions of a single series, by vintage
+     */
+    private static final class Revisions {
+
+        final int nrevs;
+        final List<List<Double>> sa = new ArrayList<>(), dsa = new ArrayList<>(), s = new ArrayList<>(), c = new ArrayList<>();
+
+        Revisions(InformationSet all, boolean outofsample, boolean ftarget) {
+            List<Information<InformationSet>> ver = all.select(SingleRevisionAnalysisProcessor.VER + '*', InformationSet.class);
+            int n = ver.size();
+            nrevs = n;
+            if ((outofsample && !ftarget) || (!outofsample && ftarget)) {
+                --n;
+            }
+            // we don't check the names...It should be ordered!
+            InformationSet[] details = new InformationSet[n];
+            for (int j = 0; j < n; ++j) {
+                details[j] = ver.get(j).value;
+            }
+            if (ftarget) {
+                computeTowardsEnd(all, details, outofsample);
+            } else {
+                computeTowardsStart(all, details, outofsample);
+            }
         }
-        String ref = SingleRevisionAnalysisProcessor.REF0;
-        String refs = InformationSet.item(ref, "s_lin");
-        String refsa = InformationSet.item(ref, "sa");
-        String refc = InformationSet.item(ref, "cal");
-        String refmode = InformationSet.item(ref, "mode");
-        String refser = InformationSet.item(ref, "residuals.ser");
-        for (int i = 0; i < all.length; ++i) {
-            DecompositionMode rmode = all[i].search(refmode, DecompositionMode.class);
-            double ser = all[i].search(refser, Double.class);
-            TsData rs = all[i].search(refs, TsData.class);
-            TsData rsa = all[i].search(refsa, TsData.class);
-            TsData rc = all[i].search(refc, TsData.class);
+
+        private static void add(List<List<Double>> data, int d, double value) {
+            while (data.size() <= d) {
+                data.add(new ArrayList<>());
+            }
+            data.get(d).add(value);
+        }
+
+        private void computeTowardsStart(InformationSet all, InformationSet[] details, boolean outofsample) {
+            String ref = SingleRevisionAnalysisProcessor.REF0;
+            String refs = InformationSet.item(ref, "s_lin");
+            String refsa = InformationSet.item(ref, "sa");
+            String refc = InformationSet.item(ref, "cal");
+            String refmode = InformationSet.item(ref, "mode");
+            String refser = InformationSet.item(ref, "residuals.ser");
+            DecompositionMode rmode = all.search(refmode, DecompositionMode.class);
+            double ser = all.search(refser, Double.class);
+            TsData rs = all.search(refs, TsData.class);
+            TsData rsa = all.search(refsa, TsData.class);
+            TsData rc = all.search(refc, TsData.class);
             if (rmode.isMultiplicative()) {
                 if (rs != null) {
                     rs = rs.log();
                 }
-//                if (rsa != null) {
-//                    rsa = rsa.log();
-//                }
                 if (rc != null) {
                     rc = rc.log();
                 }
             }
             boolean hass = !isConstant(rs);
             if (hass) {
-                for (int j = 0; j < revmax; ++j) {
-                    if (j < details[i].length && details[i][j] != null) {
-                        DecompositionMode jmode = details[i][j].get("mode", DecompositionMode.class);
+                for (int j = 0; j < details.length; ++j) {
+                    if (details[j] != null) {
+                        DecompositionMode jmode = details[j].get("mode", DecompositionMode.class);
                         if (rmode == jmode) {
-                            TsData saj = details[i][j].get("sa", TsData.class);
-//                            if (rmode.isMultiplicative()) {
-//                                saj = saj.log();
-//                            }
+                            TsData saj = details[j].get("sa", TsData.class);
                             int l = rsa.getLength() - 1;
                             int d;
-                            if (!outofsample_) {
+                            if (!outofsample) {
                                 d = j;
                             } else {
                                 d = saj.getLength() - rsa.getLength() - 1;
                             }
-                            rsadata[d].add((saj.get(l) / rsa.get(l)) - 1);
-                            rdsadata[d].add(saj.get(l) / saj.get(l - 1) - rsa.get(l) / rsa.get(l - 1));
-//                            rsadata[d].add((saj.get(l) - rsa.get(l)) / ser);
-//                            rdsadata[d].add((saj.get(l) - saj.get(l - 1) - rsa.get(l) + rsa.get(l - 1)) / ser);
-                            TsData slinj = details[i][j].get("s_lin", TsData.class);
-                            TsData cj = details[i][j].get("cal", TsData.class);
+                            add(sa, d, (saj.get(l) / rsa.get(l)) - 1);
+                            add(dsa, d, saj.get(l) / saj.get(l - 1) - rsa.get(l) / rsa.get(l - 1));
+                            TsData slinj = details[j].get("s_lin", TsData.class);
+                            TsData cj = details[j].get("cal", TsData.class);
                             boolean hasc = !isConstant(rc) && !isConstant(cj);
                             boolean hasslin = !isConstant(rs) && !isConstant(slinj);
                             if (hasslin) {
                                 if (rmode.isMultiplicative()) {
                                     slinj = slinj.log();
                                 }
-                                rsdata[d].add((slinj.get(l) - rs.get(l)) / ser);
-
+                                add(s, d, (slinj.get(l) - rs.get(l)) / ser);
                             }
                             if (hasc) {
                                 if (rmode.isMultiplicative()) {
                                     cj = cj.log();
                                 }
-                                rcdata[d].add((cj.get(l) - rc.get(l)) / ser);
+                                add(c, d, (cj.get(l) - rc.get(l)) / ser);
                             }
                         }
                     }
@@ -255,88 +318,101 @@ public class RevisionStatistics implements IProcResults {
             }
         }
 
-        computeStatistics(rsadata, rdsadata, rsdata, rcdata, revmax);
-    }
-
-    private void computeTowardsEnd(InformationSet[] all, InformationSet[][] details, int revmax) {
-        List[] rsadata = new List[revmax];
-        List[] rdsadata = new List[revmax];
-        List[] rsdata = new List[revmax];
-        List[] rcdata = new List[revmax];
-        for (int i = 0; i < revmax; ++i) {
-            rsadata[i] = new ArrayList<>();
-            rdsadata[i] = new ArrayList<>();
-            rsdata[i] = new ArrayList<>();
-            rcdata[i] = new ArrayList<>();
-        }
-        String ref = SingleRevisionAnalysisProcessor.REF1;
-        String refs = InformationSet.item(ref, "s_lin");
-        String refsa = InformationSet.item(ref, "sa");
-        String refc = InformationSet.item(ref, "cal");
-        String refmode = InformationSet.item(ref, "mode");
-        String refser = InformationSet.item(ref, "residuals.ser");
-        for (int i = 0; i < all.length; ++i) {
-            DecompositionMode rmode = all[i].search(refmode, DecompositionMode.class);
-            double ser = all[i].search(refser, Double.class);
-            TsData rs = all[i].search(refs, TsData.class);
-            TsData rsa = all[i].search(refsa, TsData.class);
-            TsData rc = all[i].search(refc, TsData.class);
+        private void computeTowardsEnd(InformationSet all, InformationSet[] details, boolean outofsample) {
+            String ref = SingleRevisionAnalysisProcessor.REF1;
+            String refs = InformationSet.item(ref, "s_lin");
+            String refsa = InformationSet.item(ref, "sa");
+            String refc = InformationSet.item(ref, "cal");
+            String refmode = InformationSet.item(ref, "mode");
+            String refser = InformationSet.item(ref, "residuals.ser");
+            DecompositionMode rmode = all.search(refmode, DecompositionMode.class);
+            double ser = all.search(refser, Double.class);
+            TsData rs = all.search(refs, TsData.class);
+            TsData rsa = all.search(refsa, TsData.class);
+            TsData rc = all.search(refc, TsData.class);
             if (rmode.isMultiplicative()) {
                 if (rs != null) {
                     rs = rs.log();
                 }
-//                if (rsa != null) {
-//                    rsa = rsa.log();
-//                }
                 if (rc != null) {
                     rc = rc.log();
                 }
             }
             boolean hass = !isConstant(rs);
             if (hass) {
-                for (int j = 0; j < revmax; ++j) {
-                    if (j < details[i].length && details[i][j] != null) {
-                        DecompositionMode jmode = details[i][j].get("mode", DecompositionMode.class);
+                for (int j = 0; j < details.length; ++j) {
+                    if (details[j] != null) {
+                        DecompositionMode jmode = details[j].get("mode", DecompositionMode.class);
                         if (rmode == jmode) {
-                            TsData saj = details[i][j].get("sa", TsData.class);
+                            TsData saj = details[j].get("sa", TsData.class);
                             int l = saj.getLength() - 1;
                             int d;
-                            if (outofsample_) {
+                            if (outofsample) {
                                 d = j;
                             } else {
                                 d = rsa.getLength() - saj.getLength() - 1;
                             }
-//                            if (rmode.isMultiplicative()) {
-//                                saj = saj.log();
-//                            }
-//                            rsadata[d].add((rsa.get(l) - saj.get(l)) / ser);
-//                            rdsadata[d].add((rsa.get(l) - rsa.get(l - 1) - saj.get(l) + saj.get(l - 1)) / ser);
-                            rsadata[d].add(rsa.get(l) / saj.get(l) - 1);
-                            rdsadata[d].add(rsa.get(l) / rsa.get(l - 1) - saj.get(l) / saj.get(l - 1));
-                            TsData slinj = details[i][j].get("s_lin", TsData.class);
-                            TsData cj = details[i][j].get("cal", TsData.class);
+                            add(sa, d, rsa.get(l) / saj.get(l) - 1);
+                            add(dsa, d, rsa.get(l) / rsa.get(l - 1) - saj.get(l) / saj.get(l - 1));
+                            TsData slinj = details[j].get("s_lin", TsData.class);
+                            TsData cj = details[j].get("cal", TsData.class);
                             boolean hasc = !isConstant(rc) && !isConstant(cj);
                             boolean hasslin = !isConstant(rs) && !isConstant(slinj);
                             if (hasslin) {
                                 if (rmode.isMultiplicative()) {
                                     slinj = slinj.log();
                                 }
-                                rsdata[d].add((rs.get(l) - slinj.get(l)) / ser);
+                                add(s, d, (rs.get(l) - slinj.get(l)) / ser);
                             }
                             if (hasc) {
                                 if (rmode.isMultiplicative()) {
                                     cj = cj.log();
                                 }
-                                rcdata[d].add((rc.get(l) - cj.get(l)) / ser);
+                                add(c, d, (rc.get(l) - cj.get(l)) / ser);
                             }
                         }
                     }
                 }
             }
         }
-        computeStatistics(rsadata, rdsadata, rsdata, rcdata, revmax);
     }
 
+    private static boolean isConstant(TsData s) {
+        if (s == null) {
+            return true;
+        }
+        double[] d = s.internalStorage();
+        for (int i = 1; i < s.getLength(); ++i) {
+            if (d[i] != d[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List[] merge(Revisions[] series, Function<Revisions, List<List<Double>>> fn, int revmax) {
+        List[] data = new List[revmax];
+        for (int i = 0; i < revmax; ++i) {
+            data[i] = new ArrayList<>();
+        }
+        for (Revisions revs : series) {
+            if (revs != null) {
+                List<List<Double>> cur = fn.apply(revs);
+                for (int d = 0; d < cur.size() && d < revmax; ++d) {
+                    data[d].addAll(cur.get(d));
+                }
+            }
+        }
+        return data;
+    }
+
+    private double[] toarray(List list) {
+        double[] x = new double[list.size()];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = (Double) list.get(i);
+        }
+        return x;
+    }
     private void computeStatistics(List[] rsadata, List[] rdsadata, List[] rsdata, List[] rcdata, int revmax) {
         for (int i = 0; i < revmax; ++i) {
             double[] data = toarray(rsadata[i]);
@@ -376,6 +452,6 @@ public class RevisionStatistics implements IProcResults {
 
     @Override
     public List<ProcessingInformation> getProcessingInformation() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return Collections.emptyList();
     }
 }
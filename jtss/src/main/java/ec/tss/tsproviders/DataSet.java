@@ -29,8 +29,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -190,7 +188,7 @@ public final class DataSet implements IConfig, Serializable {
      * @return a DataSet formatter
      */
     public static Formatters.@NonNull Formatter<DataSet> xmlFormatter(boolean formattedOutput) {
-        return formattedOutput ? XML.get().formattedOutputFormatter : XML.get().defaultFormatter;
+        return formattedOutput ? Xml.FORMATTED_OUTPUT_FORMATTER : Xml.DEFAULT_FORMATTER;
     }
 
     /**
@@ -203,7 +201,7 @@ public final class DataSet implements IConfig, Serializable {
      * @return a DataSet parser
      */
     public static Parsers.@NonNull Parser<DataSet> xmlParser() {
-        return XML.get().defaultParser;
+        return Xml.DEFAULT_PARSER;
     }
 
     /**
@@ -275,23 +273,12 @@ public final class DataSet implements IConfig, Serializable {
     }
 
     //<editor-fold defaultstate="collapsed" desc="Implementation details">
-    private static final ThreadLocal<Xml> XML = ThreadLocal.withInitial(Xml::new);
-
+    // the jaxb parsers and formatters are thread-safe (shared context, pooled unmarshallers/marshallers)
     private static final class Xml {
 
-        final static JAXBContext BEAN_CONTEXT;
-
-        static {
-            try {
-                BEAN_CONTEXT = JAXBContext.newInstance(DataSetBean.class);
-            } catch (JAXBException ex) {
-                throw new RuntimeException(ex);
-            }
-        }
-
-        final Parsers.Parser<DataSet> defaultParser = Parsers.wrap(Parsers.<DataSetBean>onJAXB(BEAN_CONTEXT).andThen(DataSetBean::toId));
-        final Formatters.Formatter<DataSet> defaultFormatter = Formatters.<DataSetBean>onJAXB(BEAN_CONTEXT, false).compose(DataSet::toBean);
-        final Formatters.Formatter<DataSet> formattedOutputFormatter = Formatters.<DataSetBean>onJAXB(BEAN_CONTEXT, true).compose(DataSet::toBean);
+        static final Parsers.Parser<DataSet> DEFAULT_PARSER = Parsers.wrap(Parsers.onJAXB(DataSetBean.class).andThen(DataSetBean::toId));
+        static final Formatters.Formatter<DataSet> DEFAULT_FORMATTER = Formatters.onJAXB(DataSetBean.class, false).compose(DataSet::toBean);
+        static final Formatters.Formatter<DataSet> FORMATTED_OUTPUT_FORMATTER = Formatters.onJAXB(DataSetBean.class, true).compose(DataSet::toBean);
     }
 
     private static final String SCHEME = "demetra";
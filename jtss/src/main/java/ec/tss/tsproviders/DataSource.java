@@ -34,8 +34,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -170,7 +168,7 @@ public final class DataSource implements IConfig, Serializable {
      * @return a DataSource formatter
      */
     public static Formatters.@NonNull Formatter<DataSource> xmlFormatter(boolean formattedOutput) {
-        return formattedOutput ? XML.get().formattedOutputFormatter : XML.get().defaultFormatter;
+        return formattedOutput ? Xml.FORMATTED_OUTPUT_FORMATTER : Xml.DEFAULT_FORMATTER;
     }
 
     /**
@@ -183,7 +181,7 @@ public final class DataSource implements IConfig, Serializable {
      * @return a DataSource parser
      */
     public static Parsers.@NonNull Parser<DataSource> xmlParser() {
-        return XML.get().defaultParser;
+        return Xml.DEFAULT_PARSER;
     }
 
     /**
@@ -255,23 +253,12 @@ public final class DataSource implements IConfig, Serializable {
     }
 
     //<editor-fold defaultstate="collapsed" desc="Implementation details">
-    private static final ThreadLocal<Xml> XML = ThreadLocal.withInitial(Xml::new);
-
+    // the jaxb parsers and formatters are thread-safe (shared context, pooled unmarshallers/marshallers)
     private static final class Xml {
 
-        final static JAXBContext BEAN_CONTEXT;
-
-        static {
-            try {
-                BEAN_CONTEXT = JAXBContext.newInstance(DataSourceBean.class);
-            } catch (JAXBException ex) {
-                throw new RuntimeException(ex);
-            }
-        }
-
-        final Parsers.Parser<DataSource> defaultParser = Parsers.wrap(Parsers.<DataSourceBean>onJAXB(BEAN_CONTEXT).andThen(DataSourceBean::toId));
-        final Formatters.Formatter<DataSource> defaultFormatter = Formatters.<DataSourceBean>onJAXB(BEAN_CONTEXT, false).compose(DataSource::toBean);
-        final Formatters.Formatter<DataSource> formattedOutputFormatter = Formatters.<DataSourceBean>onJAXB(BEAN_CONTEXT, true).compose(DataSource::toBean);
+        static final Parsers.Parser<DataSource> DEFAULT_PARSER = Parsers.wrap(Parsers.onJAXB(DataSourceBean.class).andThen(DataSourceBean::toId));
+        static final Formatters.Formatter<DataSource> DEFAULT_FORMATTER = Formatters.onJAXB(DataSourceBean.class, false).compose(DataSource::toBean);
+        static final Formatters.Formatter<DataSource> FORMATTED_OUTPUT_FORMATTER = Formatters.onJAXB(DataSourceBean.class, true).compose(DataSource::toBean);
     }
 
     private static final String SCHEME = "demetra";
@@ -19,6 +19,7 @@ package ec.tss.tsproviders.utils;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import ec.tss.xml.JaxbContexts;
 import ec.tstoolkit.design.UtilityClass;
 import java.io.File;
 import java.io.StringWriter;
@@ -81,6 +82,10 @@ public final class Formatters {
      * operation (<a
      * href="http://stackoverflow.com/a/7400735">http://stackoverflow.com/a/7400735</a>)".</i>
      *
+     * <p>
+     * The context is shared through {@link JaxbContexts} and the marshallers
+     * are pooled; the formatter is thread-safe.
+     *
      * @param <T>
      * @param classToBeFormatted
      * @param formattedOutput
@@ -89,21 +94,35 @@ public final class Formatters {
     @NonNull
     public static <T> Formatter<T> onJAXB(@NonNull Class<T> classToBeFormatted, boolean formattedOutput) {
         try {
-            return onJAXB(JAXBContext.newInstance(classToBeFormatted), formattedOutput);
+            return onJAXB(JaxbContexts.getDefault().getPool(classToBeFormatted), formattedOutput);
         } catch (JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    /**
+     * Creates a new (thread-safe) formatter that uses a pool of marshallers of
+     * the given context
+     *
+     * @param <T>
+     * @param context
+     * @param formattedOutput
+     * @return
+     */
     @NonNull
     public static <T> Formatter<T> onJAXB(@NonNull JAXBContext context, boolean formattedOutput) {
-        try {
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
-            return onJAXB(marshaller);
-        } catch (JAXBException ex) {
-            throw new RuntimeException(ex);
-        }
+        return onJAXB(JaxbContexts.getDefault().newPool(context), formattedOutput);
+    }
+
+    private static <T> Formatter<T> onJAXB(JaxbContexts.Pool pool, boolean formattedOutput) {
+        return new FailSafeFormatter<T>() {
+            @Override
+            protected CharSequence doFormat(T value) throws Exception {
+                StringWriter result = new StringWriter();
+                pool.marshal(value, result, formattedOutput);
+                return result.toString();
+            }
+        };
     }
 
     @NonNull
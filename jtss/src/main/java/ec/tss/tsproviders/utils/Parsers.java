@@ -19,7 +19,9 @@ package ec.tss.tsproviders.utils;
 import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import ec.tss.xml.JaxbContexts;
 import ec.tstoolkit.design.UtilityClass;
+import java.io.IOException;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
@@ -95,6 +97,9 @@ public final class Parsers {
      * thread-safe, but are lightweight to create and could be created per
      * operation (<a
      * href="http://stackoverflow.com/a/7400735">http://stackoverflow.com/a/7400735</a>)".</i>
+     * <p>
+     * The context is shared through {@link JaxbContexts} and the unmarshallers
+     * are pooled; the parser is thread-safe.
      *
      * @param <T>
      * @param classToBeParsed
@@ -103,19 +108,38 @@ public final class Parsers {
     @NonNull
     public static <T> Parser<T> onJAXB(@NonNull Class<T> classToBeParsed) {
         try {
-            return onJAXB(JAXBContext.newInstance(classToBeParsed));
+            return onJAXB(JaxbContexts.getDefault().getPool(classToBeParsed));
         } catch (JAXBException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    /**
+     * Creates a new (thread-safe) parser that uses a pool of unmarshallers of
+     * the given context
+     *
+     * @param <T>
+     * @param context
+     * @return
+     */
     @NonNull
     public static <T> Parser<T> onJAXB(@NonNull JAXBContext context) {
-        try {
-            return onJAXB(context.createUnmarshaller());
-        } catch (JAXBException ex) {
-            throw new RuntimeException(ex);
-        }
+        return onJAXB(JaxbContexts.getDefault().newPool(context));
+    }
+
+    private static <T> Parser<T> onJAXB(JaxbContexts.Pool pool) {
+        return new FailSafeParser<T>() {
+            @Override
+            protected T doParse(CharSequence input) throws Exception {
+                return pool.withUnmarshaller(o -> {
+                    try {
+                        return Jaxb.Parser.<T>builder().factory(() -> o).build().parseChars(input);
+                    } catch (IOException ex) {
+                        throw new JAXBException(ex);
+                    }
+                });
+            }
+        };
     }
 
     @NonNull
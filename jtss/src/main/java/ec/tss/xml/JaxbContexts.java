@@ -0,0 +1,434 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml;
+
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.design.Development;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Process-wide registry of JAXB contexts, with pools of marshallers and
+ * unmarshallers.
+ * <br>
+ * A JAXBContext is thread-safe but expensive to create (its metadata are
+ * computed by reflection): the registry creates it only once for each list of
+ * classes. Marshallers and unmarshallers are not thread-safe: they are
+ * borrowed from a bounded pool for the duration of one operation and reset
+ * (formatting, fragment, encoding, schema, listener and event handler) before
+ * being returned to the pool. Other properties changed by the callers must be
+ * restored by the callers.
+ * <br>
+ * Applications that know their xml types in advance can create the contexts
+ * in the background at startup (see warmUp).
+ * <br>
+ * The registry doesn't prevent the unloading of the classes (plugins): the
+ * contexts are attached to one of their classes, preferably one that is not
+ * loaded by the class loader of the registry, and they disappear with it.
+ */
+@Development(status = Development.Status.Alpha)
+public final class JaxbContexts {
+
+    /**
+     * Default maximum number of idle marshallers (and unmarshallers) kept for
+     * each context
+     */
+    public static final int DEFAULT_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final JaxbContexts instance = new JaxbContexts(DEFAULT_POOL_SIZE);
+
+    public static JaxbContexts getDefault() {
+        return instance;
+    }
+
+    /**
+     * Operation on a marshaller or on an unmarshaller
+     *
+     * @param <S> Marshaller or Unmarshaller
+     * @param <R> The result of the operation
+     */
+    @FunctionalInterface
+    public static interface JaxbFunction<S, R> {
+
+        R apply(S s) throws JAXBException;
+    }
+
+    private final int poolSize;
+    // contexts attached to their owner class (see owner)
+    private volatile ClassValue<ConcurrentMap<List<Class<?>>, FutureTask<Pool>>> pools = newRegistry();
+    private final AtomicInteger registered = new AtomicInteger();
+    private final AtomicLong contextCreations = new AtomicLong(), contextCreationTime = new AtomicLong(),
+            contextRequests = new AtomicLong(),
+            marshallerCreations = new AtomicLong(), marshallerRequests = new AtomicLong(),
+            unmarshallerCreations = new AtomicLong(), unmarshallerRequests = new AtomicLong();
+
+    /**
+     * Creates a new registry
+     *
+     * @param poolSize The maximum number of idle marshallers (and
+     * unmarshallers) kept for each context
+     */
+    public JaxbContexts(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Invalid pool size");
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Gets the (shared) context of the given classes
+     *
+     * @param classes The classes of the context (the order matters)
+     * @return
+     * @throws JAXBException
+     */
+    public JAXBContext getContext(Class<?>... classes) throws JAXBException {
+        return getPool(classes).getContext();
+    }
+
+    /**
+     * Gets the (shared) pool of the context of the given classes. The context
+     * is created if need be.
+     *
+     * @param classes The classes of the context (the order matters)
+     * @return
+     * @throws JAXBException
+     */
+    public Pool getPool(Class<?>... classes) throws JAXBException {
+        contextRequests.incrementAndGet();
+        List<Class<?>> key = Arrays.asList(classes.clone());
+        ConcurrentMap<List<Class<?>>, FutureTask<Pool>> pools = this.pools.get(owner(key));
+        FutureTask<Pool> task = pools.get(key);
+        if (task == null) {
+            FutureTask<Pool> ntask = new FutureTask<>(() -> new Pool(createContext(key)));
+            task = pools.putIfAbsent(key, ntask);
+            if (task == null) {
+                registered.incrementAndGet();
+                task = ntask;
+                task.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JAXBException(ex);
+        } catch (ExecutionException ex) {
+            // failures are not cached
+            if (pools.remove(key, task)) {
+                registered.decrementAndGet();
+            }
+            Throwable cause = ex.getCause();
+            if (cause instanceof JAXBException) {
+                throw (JAXBException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new JAXBException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Creates a pool for an existing context. The pool is not registered: it
+     * should be kept by the caller.
+     *
+     * @param context
+     * @return
+     */
+    public Pool newPool(JAXBContext context) {
+        return new Pool(context);
+    }
+
+    /**
+     * Creates in the background the context of the given classes
+     *
+     * @param classes The classes of the context (the order matters)
+     * @return The future pool of the context
+     */
+    public Future<Pool> warmUp(Class<?>... classes) {
+        Class<?>[] c = classes.clone();
+        return ExecutionContext.shared().submit(() -> getPool(c));
+    }
+
+    /**
+     * Creates in the background the contexts of the xml types that are the
+     * most frequently used (information sets, specifications, data sources).
+     *
+     * @return The future pools
+     */
+    public List<Future<Pool>> warmUp() {
+        List<Future<Pool>> result = new ArrayList<>();
+        result.add(warmUp(ec.tss.xml.information.XmlInformationSet.class));
+        result.add(warmUp(ec.tss.xml.tramoseats.XmlTramoSeatsSpecification.class));
+        result.add(warmUp(ec.tss.xml.x13.XmlX13Specification.class));
+        result.add(warmUp(ec.tss.tsproviders.DataSource.DataSourceBean.class));
+        result.add(warmUp(ec.tss.tsproviders.DataSet.DataSetBean.class));
+        return result;
+    }
+
+    /**
+     * Removes all the registered contexts (the pools already obtained remain
+     * valid)
+     */
+    public void clear() {
+        pools = newRegistry();
+        registered.set(0);
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(registered.get(), contextRequests.get(), contextCreations.get(), contextCreationTime.get(),
+                marshallerRequests.get(), marshallerCreations.get(),
+                unmarshallerRequests.get(), unmarshallerCreations.get());
+    }
+
+    private static ClassValue<ConcurrentMap<List<Class<?>>, FutureTask<Pool>>> newRegistry() {
+        return new ClassValue<ConcurrentMap<List<Class<?>>, FutureTask<Pool>>>() {
+            @Override
+            protected ConcurrentMap<List<Class<?>>, FutureTask<Pool>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    /**
+     * The class that keeps the context of a list of classes: the last class
+     * that is not loaded by the class loader of the registry (if any), so
+     * that the context doesn't pin the class loader of a plugin.
+     */
+    private static Class<?> owner(List<Class<?>> classes) {
+        if (classes.isEmpty()) {
+            return JaxbContexts.class;
+        }
+        ClassLoader loader = JaxbContexts.class.getClassLoader();
+        for (int i = classes.size() - 1; i >= 0; --i) {
+            if (classes.get(i).getClassLoader() != loader) {
+                return classes.get(i);
+            }
+        }
+        return classes.get(classes.size() - 1);
+    }
+
+    private JAXBContext createContext(List<Class<?>> classes) throws JAXBException {
+        long t0 = System.nanoTime();
+        JAXBContext context = JAXBContext.newInstance(classes.toArray(new Class<?>[classes.size()]));
+        contextCreationTime.addAndGet(System.nanoTime() - t0);
+        contextCreations.incrementAndGet();
+        return context;
+    }
+
+    /**
+     * A context with its pools of marshallers and unmarshallers
+     */
+    public final class Pool {
+
+        private final JAXBContext context;
+        private final BlockingQueue<Marshaller> marshallers;
+        private final BlockingQueue<Unmarshaller> unmarshallers;
+
+        private Pool(JAXBContext context) {
+            this.context = context;
+            this.marshallers = new ArrayBlockingQueue<>(poolSize);
+            this.unmarshallers = new ArrayBlockingQueue<>(poolSize);
+        }
+
+        public JAXBContext getContext() {
+            return context;
+        }
+
+        /**
+         * Executes an operation with a marshaller of the pool. The
+         * marshaller must not be used outside the operation.
+         *
+         * @param <R>
+         * @param fn
+         * @return
+         * @throws JAXBException
+         */
+        public <R> R withMarshaller(JaxbFunction<? super Marshaller, R> fn) throws JAXBException {
+            marshallerRequests.incrementAndGet();
+            Marshaller marshaller = marshallers.poll();
+            if (marshaller == null) {
+                marshaller = context.createMarshaller();
+                marshallerCreations.incrementAndGet();
+            }
+            try {
+                return fn.apply(marshaller);
+            } finally {
+                if (reset(marshaller)) {
+                    marshallers.offer(marshaller);
+                }
+            }
+        }
+
+        /**
+         * Executes an operation with an unmarshaller of the pool. The
+         * unmarshaller must not be used outside the operation.
+         *
+         * @param <R>
+         * @param fn
+         * @return
+         * @throws JAXBException
+         */
+        public <R> R withUnmarshaller(JaxbFunction<? super Unmarshaller, R> fn) throws JAXBException {
+            unmarshallerRequests.incrementAndGet();
+            Unmarshaller unmarshaller = unmarshallers.poll();
+            if (unmarshaller == null) {
+                unmarshaller = context.createUnmarshaller();
+                unmarshallerCreations.incrementAndGet();
+            }
+            try {
+                return fn.apply(unmarshaller);
+            } finally {
+                if (reset(unmarshaller)) {
+                    unmarshallers.offer(unmarshaller);
+                }
+            }
+        }
+
+        public void marshal(Object value, Writer writer, boolean formattedOutput) throws JAXBException {
+            withMarshaller(marshaller -> {
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
+                marshaller.marshal(value, writer);
+                return null;
+            });
+        }
+
+        public Object unmarshal(Reader reader) throws JAXBException {
+            return withUnmarshaller(unmarshaller -> unmarshaller.unmarshal(reader));
+        }
+    }
+
+    private static boolean reset(Marshaller marshaller) {
+        try {
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+            marshaller.setSchema(null);
+            marshaller.setListener(null);
+            marshaller.setEventHandler(null);
+            return true;
+        } catch (JAXBException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static boolean reset(Unmarshaller unmarshaller) {
+        try {
+            unmarshaller.setSchema(null);
+            unmarshaller.setListener(null);
+            unmarshaller.setEventHandler(null);
+            return true;
+        } catch (JAXBException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Snapshot of the usage of the registry
+     */
+    public static final class Metrics {
+
+        private final int contexts;
+        private final long contextRequests, contextCreations, contextCreationTime;
+        private final long marshallerRequests, marshallerCreations, unmarshallerRequests, unmarshallerCreations;
+
+        private Metrics(int contexts, long contextRequests, long contextCreations, long contextCreationTime,
+                long marshallerRequests, long marshallerCreations, long unmarshallerRequests, long unmarshallerCreations) {
+            this.contexts = contexts;
+            this.contextRequests = contextRequests;
+            this.contextCreations = contextCreations;
+            this.contextCreationTime = contextCreationTime;
+            this.marshallerRequests = marshallerRequests;
+            this.marshallerCreations = marshallerCreations;
+            this.unmarshallerRequests = unmarshallerRequests;
+            this.unmarshallerCreations = unmarshallerCreations;
+        }
+
+        /**
+         * Number of contexts registered since the last clear (the contexts of
+         * unloaded classes are not subtracted)
+         *
+         * @return
+         */
+        public int getContextCount() {
+            return contexts;
+        }
+
+        public long getContextRequests() {
+            return contextRequests;
+        }
+
+        public long getContextCreations() {
+            return contextCreations;
+        }
+
+        /**
+         * Total time spent in the creation of the contexts
+         *
+         * @return The time in nanoseconds
+         */
+        public long getContextCreationTime() {
+            return contextCreationTime;
+        }
+
+        public long getMarshallerRequests() {
+            return marshallerRequests;
+        }
+
+        public long getMarshallerCreations() {
+            return marshallerCreations;
+        }
+
+        public long getUnmarshallerRequests() {
+            return unmarshallerRequests;
+        }
+
+        public long getUnmarshallerCreations() {
+            return unmarshallerCreations;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("contexts: ").append(contexts)
+                    .append(" (requests: ").append(contextRequests)
+                    .append(", created: ").append(contextCreations)
+                    .append(" in ").append(contextCreationTime / 1000000).append(" ms)")
+                    .append("; marshallers: ").append(marshallerCreations).append('/').append(marshallerRequests)
+                    .append("; unmarshallers: ").append(unmarshallerCreations).append('/').append(unmarshallerRequests);
+            return builder.toString();
+        }
+    }
+}
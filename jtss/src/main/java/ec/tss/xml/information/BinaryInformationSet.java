@@ -0,0 +1,819 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml.information;
+
+import ec.tss.xml.JaxbContexts;
+import ec.tss.xml.XmlAlgorithm;
+import ec.tss.xml.XmlDoubles;
+import ec.tss.xml.XmlEmptyElement;
+import ec.tss.xml.XmlIntegers;
+import ec.tss.xml.XmlMatrix;
+import ec.tss.xml.XmlMetaData;
+import ec.tss.xml.XmlParameter;
+import ec.tss.xml.XmlParameters;
+import ec.tss.xml.XmlPeriodSelection;
+import ec.tss.xml.XmlPeriodSelectionBetween;
+import ec.tss.xml.XmlPeriodSelectionExcluding;
+import ec.tss.xml.XmlProperty;
+import ec.tss.xml.XmlRegItem;
+import ec.tss.xml.XmlStatisticalTest;
+import ec.tss.xml.XmlStrings;
+import ec.tss.xml.XmlTs;
+import ec.tss.xml.XmlTsData;
+import ec.tss.xml.XmlTsMoniker;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.information.Information;
+import ec.tstoolkit.information.InformationSet;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Binary encoding of information sets. The encoding follows the xml form
+ * (XmlInformationSet): the items are converted in the same way, so that an
+ * information set read from its binary form is identical to the one read from
+ * its xml form.
+ * <br>
+ * Layout: magic number, version, then the items of the set (recursively for
+ * the subsets), each of them as [name, tag, value] and an end marker. The
+ * names are interned in a dictionary: a name is written once, and then
+ * referenced by its index. The strings are length-prefixed (UTF-8) and the
+ * doubles (series, matrices...) are written as raw IEEE 754 values (big
+ * endian). The other items (collections of series) are stored as xml
+ * fragments.
+ */
+public final class BinaryInformationSet {
+
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'J', 'D', 'I', 'S'};
+
+    private static final int BOOLEAN = 1, INTEGER = 2, DOUBLE = 3, STRING = 4, BOOLEANS = 5,
+            INTEGERS = 6, DOUBLES = 7, STRINGS = 8, SUBSET = 9, TSDATA = 10, MATRIX = 11,
+            TS = 12, MONIKER = 13, PARAM = 14, PARAMS = 15, SPAN = 16, METHOD = 17, REGITEM = 18,
+            TEST = 19, XML = 20;
+
+    private static final Map<Class<?>, Integer> TAGS = new HashMap<>();
+
+    static {
+        TAGS.put(Boolean.class, BOOLEAN);
+        TAGS.put(Integer.class, INTEGER);
+        TAGS.put(Double.class, DOUBLE);
+        TAGS.put(String.class, STRING);
+        TAGS.put(boolean[].class, BOOLEANS);
+        TAGS.put(XmlIntegers.class, INTEGERS);
+        TAGS.put(XmlDoubles.class, DOUBLES);
+        TAGS.put(XmlStrings.class, STRINGS);
+        TAGS.put(XmlTsData.class, TSDATA);
+        TAGS.put(XmlMatrix.class, MATRIX);
+        TAGS.put(XmlTs.class, TS);
+        TAGS.put(XmlTsMoniker.class, MONIKER);
+        TAGS.put(XmlParameter.class, PARAM);
+        TAGS.put(XmlParameters.class, PARAMS);
+        TAGS.put(XmlPeriodSelection.class, SPAN);
+        TAGS.put(XmlAlgorithm.class, METHOD);
+        TAGS.put(XmlRegItem.class, REGITEM);
+        TAGS.put(XmlStatisticalTest.class, TEST);
+    }
+
+    private BinaryInformationSet() {
+        // static class
+    }
+
+    /**
+     * Checks that a header corresponds to the binary form of an information
+     * set
+     *
+     * @param header The first bytes of a stream
+     * @return
+     */
+    public static boolean isBinary(byte[] header) {
+        if (header.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes an information set. The stream is not closed.
+     *
+     * @param info The information set
+     * @param stream The output stream
+     * @throws IOException
+     */
+    public static void write(InformationSet info, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        new Writer(out).writeSet(info);
+        out.flush();
+    }
+
+    /**
+     * Reads an information set. The stream is not closed.
+     *
+     * @param stream The input stream
+     * @return The information set
+     * @throws IOException When the stream doesn't contain a (supported)
+     * binary information set
+     */
+    public static InformationSet read(InputStream stream) throws IOException {
+        return read(stream, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads an information set of a known size. The lengths found in the
+     * stream are checked against the size before any allocation, so that a
+     * corrupted stream can't exhaust the memory. The stream is not closed.
+     *
+     * @param stream The input stream
+     * @param size The number of bytes of the information set (for instance
+     * the size of its file)
+     * @return The information set
+     * @throws IOException When the stream doesn't contain a (supported)
+     * binary information set
+     */
+    public static InformationSet read(InputStream stream, long size) throws IOException {
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(stream, 1 << 16));
+        DataInputStream in = new DataInputStream(counter);
+        byte[] header = new byte[MAGIC.length];
+        in.readFully(header);
+        if (!isBinary(header)) {
+            throw new IOException("Not a binary information set");
+        }
+        int version = in.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("Unsupported binary information set (version " + version + ")");
+        }
+        return new Reader(in, counter, size).readSet();
+    }
+
+    public static byte[] toBytes(InformationSet info) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(info, out);
+        return out.toByteArray();
+    }
+
+    public static InformationSet fromBytes(byte[] bytes) throws IOException {
+        return read(new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final byte[] buffer = new byte[1024];
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeSet(InformationSet set) throws IOException {
+            if (set != null) {
+                for (Information<Object> info : set.select(Object.class)) {
+                    writeItem(info);
+                }
+            }
+            writeVarint(0);
+        }
+
+        private void writeItem(Information<Object> info) throws IOException {
+            if (info.value instanceof InformationSet) {
+                writeKey(info.name);
+                out.writeByte(SUBSET);
+                writeSet((InformationSet) info.value);
+                return;
+            }
+            XmlInformation xml;
+            try {
+                xml = XmlInformation.create(info);
+            } catch (Exception ex) {
+                // skipped, as in the xml form
+                return;
+            }
+            if (xml == null || xml.information == null) {
+                return;
+            }
+            Integer tag = TAGS.get(xml.information.getClass());
+            if (tag == null) {
+                byte[] fragment;
+                try {
+                    fragment = marshal(xml);
+                } catch (JAXBException ex) {
+                    return;
+                }
+                writeKey(info.name);
+                out.writeByte(XML);
+                writeBytes(fragment);
+            } else {
+                writeKey(info.name);
+                out.writeByte(tag);
+                writeValue(tag, xml.information);
+            }
+        }
+
+        private void writeValue(int tag, Object value) throws IOException {
+            switch (tag) {
+                case BOOLEAN:
+                    out.writeBoolean((Boolean) value);
+                    break;
+                case INTEGER:
+                    out.writeInt((Integer) value);
+                    break;
+                case DOUBLE:
+                    out.writeDouble((Double) value);
+                    break;
+                case STRING:
+                    writeString((String) value);
+                    break;
+                case BOOLEANS: {
+                    boolean[] b = (boolean[]) value;
+                    writeVarint(b.length);
+                    for (int i = 0; i < b.length; ++i) {
+                        out.writeBoolean(b[i]);
+                    }
+                    break;
+                }
+                case INTEGERS: {
+                    int[] items = ((XmlIntegers) value).items;
+                    if (items == null) {
+                        writeVarint(0);
+                    } else {
+                        writeVarint(items.length + 1);
+                        for (int i = 0; i < items.length; ++i) {
+                            out.writeInt(items[i]);
+                        }
+                    }
+                    break;
+                }
+                case DOUBLES:
+                    writeDoubles(((XmlDoubles) value).data);
+                    break;
+                case STRINGS:
+                    writeString(((XmlStrings) value).items);
+                    break;
+                case TSDATA: {
+                    XmlTsData x = (XmlTsData) value;
+                    out.writeInt(x.freq);
+                    out.writeInt(x.firstYear);
+                    writeInteger(x.firstPeriod);
+                    writeDoubles(x.data);
+                    writeString(x.name);
+                    break;
+                }
+                case MATRIX: {
+                    XmlMatrix x = (XmlMatrix) value;
+                    out.writeInt(x.nrows);
+                    out.writeInt(x.ncolumns);
+                    writeDoubles(x.data);
+                    break;
+                }
+                case TS: {
+                    XmlTs x = (XmlTs) value;
+                    writeInteger(x.freq);
+                    writeInteger(x.firstYear);
+                    writeInteger(x.firstPeriod);
+                    writeDoubles(x.data);
+                    XmlProperty[] properties = x.metaData == null ? null : x.metaData.properties;
+                    out.writeBoolean(x.metaData != null);
+                    if (x.metaData != null) {
+                        if (properties == null) {
+                            writeVarint(0);
+                        } else {
+                            writeVarint(properties.length + 1);
+                            for (XmlProperty p : properties) {
+                                writeKey(p.name);
+                                writeString(p.value);
+                            }
+                        }
+                    }
+                    writeString(x.name);
+                    writeString(x.source);
+                    writeString(x.identifier);
+                    break;
+                }
+                case MONIKER: {
+                    XmlTsMoniker x = (XmlTsMoniker) value;
+                    writeString(x.source);
+                    writeString(x.id);
+                    break;
+                }
+                case PARAM:
+                    writeParameter((XmlParameter) value);
+                    break;
+                case PARAMS: {
+                    XmlParameter[] p = ((XmlParameters) value).parameters;
+                    if (p == null) {
+                        writeVarint(0);
+                    } else {
+                        writeVarint(p.length + 1);
+                        for (int i = 0; i < p.length; ++i) {
+                            out.writeBoolean(p[i] != null);
+                            if (p[i] != null) {
+                                writeParameter(p[i]);
+                            }
+                        }
+                    }
+                    break;
+                }
+                case SPAN: {
+                    XmlPeriodSelection x = (XmlPeriodSelection) value;
+                    out.writeBoolean(x.all != null);
+                    out.writeBoolean(x.none != null);
+                    writeString(x.from);
+                    writeString(x.to);
+                    writeString(x.first);
+                    writeString(x.last);
+                    out.writeBoolean(x.excluding != null);
+                    if (x.excluding != null) {
+                        out.writeInt(x.excluding.nfirst);
+                        out.writeInt(x.excluding.nlast);
+                    }
+                    out.writeBoolean(x.between != null);
+                    if (x.between != null) {
+                        writeString(x.between.start);
+                        writeString(x.between.end);
+                    }
+                    break;
+                }
+                case METHOD: {
+                    XmlAlgorithm x = (XmlAlgorithm) value;
+                    writeKey(x.family);
+                    writeKey(x.name);
+                    writeKey(x.version);
+                    break;
+                }
+                case REGITEM: {
+                    XmlRegItem x = (XmlRegItem) value;
+                    writeString(x.description);
+                    out.writeDouble(x.coefficient);
+                    out.writeDouble(x.stderror);
+                    out.writeDouble(x.pvalue);
+                    break;
+                }
+                case TEST: {
+                    XmlStatisticalTest x = (XmlStatisticalTest) value;
+                    writeString(x.description);
+                    out.writeDouble(x.value);
+                    out.writeDouble(x.pvalue);
+                    break;
+                }
+            }
+        }
+
+        private void writeParameter(XmlParameter p) throws IOException {
+            writeString(p.name);
+            writeKey(p.type == null ? null : p.type.name());
+            writeDouble(p.value);
+            writeDouble(p.stde);
+            writeDouble(p.tstat);
+        }
+
+        private void writeKey(String key) throws IOException {
+            if (key == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer idx = keys.get(key);
+            if (idx != null) {
+                writeVarint(idx);
+            } else {
+                int nidx = keys.size() + 1;
+                keys.put(key, nidx);
+                writeVarint(nidx);
+                writeString(key);
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarint(0);
+            } else {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length + 1);
+                out.write(bytes);
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeInteger(Integer i) throws IOException {
+            out.writeBoolean(i != null);
+            if (i != null) {
+                out.writeInt(i);
+            }
+        }
+
+        private void writeDouble(Double d) throws IOException {
+            out.writeBoolean(d != null);
+            if (d != null) {
+                out.writeDouble(d);
+            }
+        }
+
+        private void writeDoubles(double[] data) throws IOException {
+            if (data == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(data.length + 1);
+            int chunk = buffer.length / 8;
+            for (int pos = 0; pos < data.length; pos += chunk) {
+                int n = Math.min(chunk, data.length - pos);
+                ByteBuffer.wrap(buffer).asDoubleBuffer().put(data, pos, n);
+                out.write(buffer, 0, n * 8);
+            }
+        }
+
+        private void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final CountingInputStream counter;
+        private final long size;
+        private final List<String> keys = new ArrayList<>();
+        private final byte[] buffer = new byte[1024];
+
+        Reader(DataInputStream in, CountingInputStream counter, long size) {
+            this.in = in;
+            this.counter = counter;
+            this.size = size;
+        }
+
+        InformationSet readSet() throws IOException {
+            InformationSet info = new InformationSet();
+            String name;
+            while ((name = readKey()) != null) {
+                int tag = in.readUnsignedByte();
+                Information<Object> si;
+                if (tag == SUBSET) {
+                    si = new Information<>(name, readSet());
+                } else {
+                    Object value = readValue(tag);
+                    try {
+                        si = new XmlInformation(name, value).toInformation();
+                    } catch (Exception ex) {
+                        continue;
+                    }
+                }
+                // see XmlInformationSet.create
+                try {
+                    if (si.name.indexOf(InformationSet.SEP) >= 0) {
+                        info.add(InformationSet.split(si.name), si.value);
+                    } else {
+                        info.add(si);
+                    }
+                } catch (Exception ex) {
+                }
+            }
+            return info;
+        }
+
+        private Object readValue(int tag) throws IOException {
+            switch (tag) {
+                case BOOLEAN:
+                    return in.readBoolean();
+                case INTEGER:
+                    return in.readInt();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                    return readString();
+                case BOOLEANS: {
+                    boolean[] b = new boolean[length(readVarint(), 1)];
+                    for (int i = 0; i < b.length; ++i) {
+                        b[i] = in.readBoolean();
+                    }
+                    return b;
+                }
+                case INTEGERS: {
+                    XmlIntegers x = new XmlIntegers();
+                    int n = readVarint();
+                    if (n > 0) {
+                        x.items = new int[length(n - 1, 4)];
+                        for (int i = 0; i < x.items.length; ++i) {
+                            x.items[i] = in.readInt();
+                        }
+                    }
+                    return x;
+                }
+                case DOUBLES: {
+                    XmlDoubles x = new XmlDoubles();
+                    x.data = readDoubles();
+                    return x;
+                }
+                case STRINGS: {
+                    XmlStrings x = new XmlStrings();
+                    x.items = readString();
+                    return x;
+                }
+                case TSDATA: {
+                    XmlTsData x = new XmlTsData();
+                    x.freq = in.readInt();
+                    x.firstYear = in.readInt();
+                    x.firstPeriod = readInteger();
+                    x.data = readDoubles();
+                    x.name = readString();
+                    return x;
+                }
+                case MATRIX: {
+                    XmlMatrix x = new XmlMatrix();
+                    x.nrows = in.readInt();
+                    x.ncolumns = in.readInt();
+                    x.data = readDoubles();
+                    return x;
+                }
+                case TS: {
+                    XmlTs x = new XmlTs();
+                    x.freq = readInteger();
+                    x.firstYear = readInteger();
+                    x.firstPeriod = readInteger();
+                    x.data = readDoubles();
+                    if (in.readBoolean()) {
+                        x.metaData = new XmlMetaData();
+                        int n = readVarint();
+                        if (n > 0) {
+                            // key and value take at least 1 byte each
+                            x.metaData.properties = new XmlProperty[length(n - 1, 2)];
+                            for (int i = 0; i < n - 1; ++i) {
+                                XmlProperty p = new XmlProperty();
+                                p.name = readKey();
+                                p.value = readString();
+                                x.metaData.properties[i] = p;
+                            }
+                        }
+                    }
+                    x.name = readString();
+                    x.source = readString();
+                    x.identifier = readString();
+                    return x;
+                }
+                case MONIKER: {
+                    XmlTsMoniker x = new XmlTsMoniker();
+                    x.source = readString();
+                    x.id = readString();
+                    return x;
+                }
+                case PARAM:
+                    return readParameter();
+                case PARAMS: {
+                    XmlParameters x = new XmlParameters();
+                    int n = readVarint();
+                    if (n > 0) {
+                        x.parameters = new XmlParameter[length(n - 1, 1)];
+                        for (int i = 0; i < n - 1; ++i) {
+                            if (in.readBoolean()) {
+                                x.parameters[i] = readParameter();
+                            }
+                        }
+                    }
+                    return x;
+                }
+                case SPAN: {
+                    XmlPeriodSelection x = new XmlPeriodSelection();
+                    if (in.readBoolean()) {
+                        x.all = new XmlEmptyElement();
+                    }
+                    if (in.readBoolean()) {
+                        x.none = new XmlEmptyElement();
+                    }
+                    x.from = readString();
+                    x.to = readString();
+                    x.first = readString();
+                    x.last = readString();
+                    if (in.readBoolean()) {
+                        x.excluding = new XmlPeriodSelectionExcluding();
+                        x.excluding.nfirst = in.readInt();
+                        x.excluding.nlast = in.readInt();
+                    }
+                    if (in.readBoolean()) {
+                        x.between = new XmlPeriodSelectionBetween();
+                        x.between.start = readString();
+                        x.between.end = readString();
+                    }
+                    return x;
+                }
+                case METHOD: {
+                    XmlAlgorithm x = new XmlAlgorithm();
+                    x.family = readKey();
+                    x.name = readKey();
+                    x.version = readKey();
+                    return x;
+                }
+                case REGITEM: {
+                    XmlRegItem x = new XmlRegItem();
+                    x.description = readString();
+                    x.coefficient = in.readDouble();
+                    x.stderror = in.readDouble();
+                    x.pvalue = in.readDouble();
+                    return x;
+                }
+                case TEST: {
+                    XmlStatisticalTest x = new XmlStatisticalTest();
+                    x.description = readString();
+                    x.value = in.readDouble();
+                    x.pvalue = in.readDouble();
+                    return x;
+                }
+                case XML: {
+                    byte[] fragment = new byte[length(readVarint(), 1)];
+                    in.readFully(fragment);
+                    try {
+                        return unmarshal(fragment).information;
+                    } catch (JAXBException ex) {
+                        // the item is skipped, as in the xml form
+                        return null;
+                    }
+                }
+                default:
+                    throw new IOException("Invalid binary information set (tag " + tag + ")");
+            }
+        }
+
+        private XmlParameter readParameter() throws IOException {
+            XmlParameter p = new XmlParameter();
+            p.name = readString();
+            String type = readKey();
+            p.type = type == null ? null : ParameterType.valueOf(type);
+            p.value = readDouble();
+            p.stde = readDouble();
+            p.tstat = readDouble();
+            return p;
+        }
+
+        private String readKey() throws IOException {
+            int idx = readVarint();
+            if (idx == 0) {
+                return null;
+            }
+            if (idx <= keys.size()) {
+                return keys.get(idx - 1);
+            }
+            if (idx != keys.size() + 1) {
+                throw new IOException("Invalid binary information set (key " + idx + ")");
+            }
+            String key = readString();
+            keys.add(key);
+            return key;
+        }
+
+        private String readString() throws IOException {
+            int n = readVarint();
+            if (n == 0) {
+                return null;
+            }
+            byte[] bytes = n - 1 <= buffer.length ? buffer : new byte[length(n - 1, 1)];
+            in.readFully(bytes, 0, n - 1);
+            return new String(bytes, 0, n - 1, StandardCharsets.UTF_8);
+        }
+
+        private Integer readInteger() throws IOException {
+            return in.readBoolean() ? in.readInt() : null;
+        }
+
+        private Double readDouble() throws IOException {
+            return in.readBoolean() ? in.readDouble() : null;
+        }
+
+        private double[] readDoubles() throws IOException {
+            int n = readVarint();
+            if (n == 0) {
+                return null;
+            }
+            double[] data = new double[length(n - 1, 8)];
+            int chunk = buffer.length / 8;
+            for (int pos = 0; pos < data.length; pos += chunk) {
+                int m = Math.min(chunk, data.length - pos);
+                in.readFully(buffer, 0, m * 8);
+                ByteBuffer.wrap(buffer, 0, m * 8).asDoubleBuffer().get(data, pos, m);
+            }
+            return data;
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("Invalid binary information set (length)");
+        }
+
+        /**
+         * Checks that n items of a given (minimal) size can be read from the
+         * rest of the information set
+         */
+        private int length(int n, int itemSize) throws IOException {
+            if (n < 0 || (long) n * itemSize > size - counter.count) {
+                throw new IOException("Invalid binary information set (length " + n + ")");
+            }
+            return n;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        // number of bytes read
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                ++count;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count += result;
+            return result;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    private static byte[] marshal(XmlInformation xml) throws JAXBException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JaxbContexts.getDefault().getPool(XmlInformation.class).withMarshaller(marshaller -> {
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+            marshaller.marshal(xml, out);
+            return null;
+        });
+        return out.toByteArray();
+    }
+
+    private static XmlInformation unmarshal(byte[] fragment) throws JAXBException {
+        return (XmlInformation) JaxbContexts.getDefault().getPool(XmlInformation.class)
+                .withUnmarshaller(unmarshaller -> unmarshaller.unmarshal(new ByteArrayInputStream(fragment)));
+    }
+}
@@ -20,10 +20,9 @@ package ec.tss.xml.sa;
 import ec.satoolkit.ISaSpecification;
 import ec.satoolkit.tramoseats.TramoSeatsSpecification;
 import ec.satoolkit.x13.X13Specification;
+import ec.tss.xml.JaxbContexts;
 import ec.tss.xml.tramoseats.XmlTramoSeatsSpecification;
 import java.io.Writer;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlAttribute;
 
 /**
@@ -53,9 +52,7 @@ public abstract class AbstractXmlSaSpecification {
 
     public void serialize(Writer writer) {
         try {
-            JAXBContext context = JAXBContext.newInstance(this.getClass());
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.marshal(this, writer);
+            JaxbContexts.getDefault().getPool(this.getClass()).marshal(this, writer, false);
         }
         catch (Exception ex) {}
     }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class TsRegistryTest {
+
+    public TsRegistryTest() {
+    }
+
+    @Test
+    public void testRegistration() {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        TsRegistry<Object> registry = new TsRegistry<>(queue);
+        TsMoniker m1 = new TsMoniker(), m2 = new TsMoniker();
+        Object o1 = new Object(), o2 = new Object();
+        registry.put(m1, o1);
+        registry.put(m2, o2);
+        assertSame(o1, registry.get(m1));
+        assertTrue(registry.isAlive(m2));
+        assertNull(registry.get(null));
+        assertEquals(2, registry.size());
+
+        assertEquals(1, registry.lookup(m -> m.equals(m1)).count());
+
+        Object o3 = new Object();
+        registry.put(m1, o3);
+        assertEquals(2, registry.size());
+        // live object: not replaced
+        assertSame(o3, registry.putIfAbsent(m1, new Object()));
+        assertEquals(1, registry.getContentionCount());
+
+        // a stale reference doesn't remove the current entry
+        TsRegistry.Entry<Object> entry = new TsRegistry.Entry<>(registry, m2, o2);
+        assertFalse(TsRegistry.expunge(entry));
+        assertTrue(registry.isAlive(m2));
+        assertEquals(0, registry.getExpungedCount());
+    }
+
+    @Test
+    public void testReferenceQueue() throws InterruptedException {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        TsRegistry<Object> registry = new TsRegistry<>(queue);
+        TsMoniker moniker = new TsMoniker();
+        registry.put(moniker, new Object());
+        // the object is only weakly referenced
+        Reference<?> ref = null;
+        for (int i = 0; i < 50 && ref == null; ++i) {
+            System.gc();
+            ref = queue.remove(100);
+        }
+        if (ref != null) {
+            assertNull(registry.get(moniker));
+            assertTrue(TsRegistry.expunge(ref));
+            assertEquals(0, registry.size());
+            assertEquals(1, registry.getExpungedCount());
+            assertFalse(TsRegistry.expunge(ref));
+        }
+        // collected objects are replaced
+        Object obj = new Object();
+        assertSame(obj, registry.putIfAbsent(moniker, obj));
+        assertSame(obj, registry.get(moniker));
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        TsMoniker moniker = new TsMoniker("test", "concurrent");
+        int n = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Ts>> futures = new ArrayList<>();
+            for (int i = 0; i < n; ++i) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return TsFactory.instance.createTs("s", moniker, TsInformationType.None);
+                }));
+            }
+            start.countDown();
+            Ts ts = futures.get(0).get();
+            for (Future<Ts> future : futures) {
+                assertSame(ts, future.get());
+            }
+            assertSame(ts, TsFactory.instance.getTs(moniker));
+            assertTrue(TsFactory.instance.isTsAlive(moniker));
+        } finally {
+            executor.shutdown();
+        }
+        TsFactory.Statistics stats = TsFactory.instance.getStatistics();
+        assertTrue(stats.getTsCount() >= 1);
+        assertTrue(stats.getQueueDepth() >= 0);
+    }
+
+    @Test
+    public void testConcurrentLoads() throws Exception {
+        AtomicInteger active = new AtomicInteger(), max = new AtomicInteger(), loads = new AtomicInteger();
+        ITsProvider provider = new ITsProvider() {
+            @Override
+            public boolean get(TsInformation info) {
+                int n = active.incrementAndGet();
+                max.accumulateAndGet(n, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                loads.incrementAndGet();
+                active.decrementAndGet();
+                return true;
+            }
+
+            @Override
+            public boolean get(TsCollectionInformation info) {
+                return false;
+            }
+
+            @Override
+            public void clearCache() {
+            }
+
+            @Override
+            public void dispose() {
+            }
+
+            @Override
+            public TsAsyncMode getAsyncMode() {
+                return TsAsyncMode.None;
+            }
+
+            @Override
+            public String getSource() {
+                return "guard";
+            }
+
+            @Override
+            public boolean queryTs(TsMoniker ts, TsInformationType type) {
+                return false;
+            }
+
+            @Override
+            public boolean queryTsCollection(TsMoniker collection, TsInformationType info) {
+                return false;
+            }
+        };
+        assertTrue(TsFactory.instance.add(provider));
+        int n = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        try {
+            Ts ts = TsFactory.instance.createTs("s", new TsMoniker("guard", "s"), TsInformationType.None);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < n; ++i) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return TsFactory.instance.load(ts, TsInformationType.Data);
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+            // the loadings of the same series are serialized
+            assertEquals(n, loads.get());
+            assertEquals(1, max.get());
+        } finally {
+            executor.shutdown();
+            TsFactory.instance.remove("guard");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa;
+
+import data.Data;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.TsFactory;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tss.sa.processors.X13Processor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SaBatchRunnerTest {
+
+    static {
+        SaManager.instance.add(new TramoSeatsProcessor());
+        SaManager.instance.add(new X13Processor());
+    }
+
+    public SaBatchRunnerTest() {
+    }
+
+    private static SaProcessing create(int n) {
+        SaProcessing processing = new SaProcessing();
+        for (int i = 0; i < n; ++i) {
+            SaItem item = new SaItem(i % 2 == 0 ? TramoSeatsSpecification.RSA0 : X13Specification.RSA0,
+                    TsFactory.instance.createTs("s" + i, null, Data.P.drop(i, 0)));
+            item.setPriority(i % 3);
+            processing.add(item);
+        }
+        return processing;
+    }
+
+    @Test
+    public void testRun() {
+        SaProcessing processing = create(20);
+        SaBatchRunner runner = new SaBatchRunner();
+        runner.setParallelism(4);
+        AtomicInteger processed = new AtomicInteger(), completed = new AtomicInteger();
+        runner.addSaEventListener(new SaEventListener() {
+            @Override
+            public void Processed(SaItemEvent evt) {
+                processed.incrementAndGet();
+            }
+
+            @Override
+            public void Completed(SaProcessingEvent evt) {
+                completed.incrementAndGet();
+                assertEquals(20, evt.getProcessedCount());
+            }
+        });
+        SaBatchMetrics metrics = runner.run(processing);
+        assertEquals(20, processed.get());
+        assertEquals(1, completed.get());
+        assertEquals(20, metrics.getProcessedCount());
+        assertEquals(0, metrics.getErrorCount());
+        assertEquals(0, metrics.getSkippedCount());
+        assertEquals(10, metrics.getLatencies().get(TramoSeatsProcessor.DESCRIPTOR.name).getCount());
+        assertEquals(10, metrics.getLatencies().get(X13Processor.DESCRIPTOR.name).getCount());
+        for (SaItem item : processing) {
+            assertEquals(SaItem.Status.Valid, item.getStatus());
+        }
+    }
+
+    @Test
+    public void testPriority() {
+        SaProcessing processing = create(9);
+        SaBatchRunner runner = new SaBatchRunner();
+        runner.setParallelism(1);
+        List<SaItem> order = Collections.synchronizedList(new ArrayList<>());
+        runner.addSaEventListener(new SaEventListener() {
+            @Override
+            public void Processed(SaItemEvent evt) {
+                order.add((SaItem) evt.getSource());
+            }
+
+            @Override
+            public void Completed(SaProcessingEvent evt) {
+            }
+        });
+        runner.run(processing);
+        assertEquals(9, order.size());
+        for (int i = 1; i < order.size(); ++i) {
+            assertTrue(order.get(i - 1).getPriority() >= order.get(i).getPriority());
+        }
+        assertSame(processing.get(2), order.get(0));
+    }
+
+    @Test
+    public void testCancel() {
+        SaProcessing processing = create(20);
+        SaBatchRunner runner = new SaBatchRunner();
+        runner.setParallelism(2);
+        runner.addSaEventListener(new SaEventListener() {
+            @Override
+            public void Processed(SaItemEvent evt) {
+                runner.cancel();
+            }
+
+            @Override
+            public void Completed(SaProcessingEvent evt) {
+            }
+        });
+        SaBatchMetrics metrics = runner.run(processing);
+        assertTrue(runner.isCancelled());
+        assertTrue(metrics.getProcessedCount() <= 2);
+        assertEquals(20, metrics.getProcessedCount() + metrics.getSkippedCount());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa;
+
+import data.Data;
+import ec.satoolkit.GenericSaProcessingFactory;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.tss.TsFactory;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.modelling.ModellingDictionary;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SaResultStoreTest {
+
+    static {
+        SaManager.instance.add(new TramoSeatsProcessor());
+    }
+
+    public SaResultStoreTest() {
+    }
+
+    private static SaProcessing create(int n, SaResultStore store) {
+        SaProcessing processing = new SaProcessing();
+        processing.setResultStore(store);
+        for (int i = 0; i < n; ++i) {
+            processing.add(new SaItem(TramoSeatsSpecification.RSA0,
+                    TsFactory.instance.createTs("s" + i, null, Data.P.drop(i, 0))));
+        }
+        return processing;
+    }
+
+    @Test
+    public void testLru() {
+        SaResultStore store = new SaResultStore();
+        store.setMaxLiveResults(2);
+        SaProcessing processing = create(4, store);
+        TsData[] sa = new TsData[4];
+        for (int i = 0; i < 4; ++i) {
+            CompositeResults rslts = processing.get(i).process();
+            sa[i] = rslts.getData(ModellingDictionary.SA, TsData.class);
+        }
+        assertEquals(2, store.getLiveCount());
+        assertEquals(2, store.getEvictions());
+        assertTrue(store.getMemoryBytes() > 0);
+        // live results
+        assertNotNull(store.get(processing.get(3)));
+        // snapshots
+        for (int i = 0; i < 2; ++i) {
+            IProcResults rslts = processing.get(i).getProcessingResult();
+            assertFalse(rslts instanceof CompositeResults);
+            assertEquals(sa[i], rslts.getData(ModellingDictionary.SA, TsData.class));
+        }
+        assertEquals(2, store.getSnapshotHits());
+        assertEquals(1, store.getLiveHits());
+        // process() rehydrates the snapshot; process(true) re-estimates
+        CompositeResults rslts = processing.get(0).process();
+        assertNull(rslts.get(GenericSaProcessingFactory.DECOMPOSITION));
+        assertEquals(sa[0], rslts.getData(ModellingDictionary.SA, TsData.class));
+        assertEquals(3, store.getSnapshotHits());
+        assertEquals(2, store.getLiveCount());
+        rslts = processing.get(0).process(true);
+        assertNotNull(rslts.get(GenericSaProcessingFactory.DECOMPOSITION));
+        assertEquals(sa[0], rslts.getData(ModellingDictionary.SA, TsData.class));
+        assertSame(rslts, store.get(processing.get(0)));
+    }
+
+    @Test
+    public void testCopy() {
+        SaResultStore store = new SaResultStore();
+        store.setMaxLiveResults(1);
+        SaProcessing processing = create(2, store);
+        TsData sa0 = processing.get(0).process().getData(ModellingDictionary.SA, TsData.class);
+        TsData sa1 = processing.get(1).process().getData(ModellingDictionary.SA, TsData.class);
+        long bytes = store.getMemoryBytes();
+        // snapshot
+        SaItem copy0 = processing.get(0).makeCopy();
+        assertSame(store, copy0.getResultStore());
+        assertEquals(2 * bytes, store.getMemoryBytes());
+        // live results
+        SaItem copy1 = processing.get(1).makeCopy();
+        assertNotNull(store.get(copy1));
+        // the copies keep their results when the originals are removed
+        processing.removeAll(Arrays.asList(processing.get(0), processing.get(1)));
+        store.resetCounters();
+        assertEquals(sa0, copy0.getProcessingResult().getData(ModellingDictionary.SA, TsData.class));
+        assertEquals(sa1, copy1.getProcessingResult().getData(ModellingDictionary.SA, TsData.class));
+        assertEquals(0, store.getMisses());
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        try (SaResultStore store = new SaResultStore()) {
+            store.setMaxLiveResults(0);
+            store.setMaxMemoryBytes(0);
+            store.setSpillDirectory(new File(System.getProperty("java.io.tmpdir")));
+            SaProcessing processing = create(3, store);
+            TsData[] sa = new TsData[3];
+            for (int i = 0; i < 3; ++i) {
+                sa[i] = processing.get(i).process().getData(ModellingDictionary.SA, TsData.class);
+            }
+            assertEquals(0, store.getLiveCount());
+            assertEquals(3, store.getSpillCount());
+            assertEquals(0, store.getMemoryBytes());
+            assertTrue(store.getDiskBytes() > 0);
+            for (int i = 2; i >= 0; --i) {
+                assertEquals(sa[i], processing.get(i).getProcessingResult().getData(ModellingDictionary.SA, TsData.class));
+            }
+        }
+    }
+
+    @Test
+    public void testDrop() {
+        SaResultStore store = new SaResultStore();
+        store.setMaxLiveResults(0);
+        store.setMaxMemoryBytes(0);
+        SaProcessing processing = create(1, store);
+        SaItem item = processing.get(0);
+        TsData sa = item.process().getData(ModellingDictionary.SA, TsData.class);
+        assertEquals(1, store.getDropCount());
+        assertNull(store.getResults(item));
+        // re-estimation
+        assertEquals(sa, item.getProcessingResult().getData(ModellingDictionary.SA, TsData.class));
+        assertEquals(SaItem.Status.Valid, item.getStatus());
+    }
+
+    @Test
+    public void testRemove() {
+        SaResultStore store = new SaResultStore();
+        SaProcessing processing = create(3, store);
+        SaItem removed = processing.get(0), other = processing.get(1);
+        TsData sa = removed.process().getData(ModellingDictionary.SA, TsData.class);
+        other.process();
+        assertTrue(processing.remove(removed));
+        // the results are moved back into the removed item
+        assertNull(removed.getResultStore());
+        assertNull(store.get(removed));
+        assertEquals(sa, removed.getProcessingResult().getData(ModellingDictionary.SA, TsData.class));
+        // only the items of the processing are detached
+        SaItem foreign = new SaItem(TramoSeatsSpecification.RSA0, TsFactory.instance.createTs("f", null, Data.P));
+        foreign.setResultStore(store);
+        assertTrue(processing.removeAll(Arrays.asList(other, foreign)));
+        assertNull(other.getResultStore());
+        assertSame(store, foreign.getResultStore());
+        assertEquals(1, processing.size());
+        assertSame(store, processing.get(0).getResultStore());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa.documents;
+
+import data.Data;
+import ec.satoolkit.GenericSaResults;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.TsFactory;
+import ec.tss.sa.EstimationPolicyType;
+import ec.tss.sa.SaManager;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tss.sa.processors.X13Processor;
+import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.timeseries.analysis.ITsProcessing;
+import ec.tstoolkit.timeseries.analysis.RevisionHistory;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SaDocumentProcessingTest {
+
+    public SaDocumentProcessingTest() {
+        SaManager.instance.add(new TramoSeatsProcessor());
+        SaManager.instance.add(new X13Processor());
+    }
+
+    private static PreprocessingModel model(CompositeResults rslts) {
+        return GenericSaResults.getPreprocessingModel(rslts);
+    }
+
+    private static SaDocumentProcessing<?> tramoseats(EstimationPolicyType policy) {
+        TramoSeatsDocument doc = new TramoSeatsDocument();
+        doc.setSpecification(TramoSeatsSpecification.RSA5);
+        doc.setInput(TsFactory.instance.createTs("x", null, Data.X));
+        return new SaDocumentProcessing<>(doc, policy);
+    }
+
+    private static SaDocumentProcessing<?> x13(EstimationPolicyType policy) {
+        X13Document doc = new X13Document();
+        doc.setSpecification(X13Specification.RSA5);
+        doc.setInput(TsFactory.instance.createTs("x", null, Data.X));
+        return new SaDocumentProcessing<>(doc, policy);
+    }
+
+    // the vintages are estimated from the parameters of the reference
+    private static void testWarmStart(SaDocumentProcessing<?> processing) {
+        TsDomain domain = Data.X.getDomain();
+        CompositeResults ref = processing.process(domain);
+        boolean used = false;
+        for (int i = 1; i <= 12; ++i) {
+            TsDomain cur = domain.drop(0, i);
+            PreprocessingModel cold = model(processing.process(cur)), warm = model(processing.process(cur, ref));
+            assertNotNull(warm);
+            assertEquals(cur, warm.description.getEstimationDomain());
+            // same optimum (or a better one)
+            assertTrue(warm.estimation.getLikelihood().getLogLikelihood()
+                    >= cold.estimation.getLikelihood().getLogLikelihood() - 1e-3);
+            if (!Arrays.equals(cold.description.getArimaComponent().getParameters(),
+                    warm.description.getArimaComponent().getParameters())) {
+                used = true;
+            }
+        }
+        assertTrue(used);
+    }
+
+    @Test
+    public void testTramoSeats() {
+        testWarmStart(tramoseats(EstimationPolicyType.FreeParameters));
+    }
+
+    @Test
+    public void testX13() {
+        testWarmStart(x13(EstimationPolicyType.FreeParameters));
+    }
+
+    @Test
+    public void testAutoModel() {
+        // the model is re-identified: the neighbour is ignored
+        SaDocumentProcessing<?> processing = tramoseats(EstimationPolicyType.Complete);
+        TsDomain domain = Data.X.getDomain(), cur = domain.drop(0, 6);
+        CompositeResults ref = processing.process(domain);
+        assertArrayEquals(model(processing.process(cur)).description.getArimaComponent().getParameters(),
+                model(processing.process(cur, ref)).description.getArimaComponent().getParameters(), 0);
+    }
+
+    @Test
+    public void testParallelRevisionHistory() throws Exception {
+        SaDocumentProcessing<?> processing = tramoseats(EstimationPolicyType.FreeParameters);
+        assertTrue(processing.isThreadSafe());
+        TsDomain domain = Data.X.getDomain();
+        assertFalse(new RevisionHistory<>(processing, domain).getExecutionContext().isSequential());
+
+        // records the threads used by the estimations
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ITsProcessing<CompositeResults> recorder = new ITsProcessing<CompositeResults>() {
+            @Override
+            public CompositeResults process(TsDomain domain) {
+                threads.add(Thread.currentThread().getName());
+                return processing.process(domain);
+            }
+
+            @Override
+            public CompositeResults process(TsDomain domain, CompositeResults neighbour) {
+                threads.add(Thread.currentThread().getName());
+                return processing.process(domain, neighbour);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        };
+        RevisionHistory<CompositeResults> parallel = new RevisionHistory<>(recorder, domain);
+        RevisionHistory<CompositeResults> sequential = new RevisionHistory<>(processing, domain);
+        sequential.setExecutionContext(ExecutionContext.sequential());
+
+        TsPeriod start = domain.getLast().minus(24), period = start.minus(1);
+        threads.clear();
+        TsData prev = parallel.tsRevision("sa", period, start), srev = sequential.tsRevision("sa", period, start);
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            assertTrue(threads.size() > 1);
+        }
+        assertEquals(srev.getLength(), prev.getLength());
+        for (int i = 0; i < srev.getLength(); ++i) {
+            assertFalse(Double.isNaN(prev.get(i)));
+            // the chains start from different neighbours
+            assertEquals(srev.get(i), prev.get(i), 1e-3 * Math.abs(srev.get(i)));
+        }
+
+        // several histories share the same processing (whatever the number of cores)
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TsData>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                futures.add(executor.submit(() -> {
+                    RevisionHistory<CompositeResults> history = new RevisionHistory<>(processing, domain);
+                    history.setExecutionContext(ExecutionContext.sequential());
+                    return history.tsRevision("sa", period, start);
+                }));
+            }
+            for (Future<TsData> future : futures) {
+                assertEquals(srev, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
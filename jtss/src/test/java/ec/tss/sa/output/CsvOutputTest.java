@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.sa.output;
+
+import data.Data;
+import ec.satoolkit.ISaSpecification;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.tss.TsFactory;
+import ec.tss.sa.SaManager;
+import ec.tss.sa.documents.SaDocument;
+import ec.tss.sa.documents.TramoSeatsDocument;
+import ec.tss.sa.processors.TramoSeatsProcessor;
+import ec.tstoolkit.algorithm.IOutput;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CsvOutputTest {
+
+    static {
+        SaManager.instance.add(new TramoSeatsProcessor());
+    }
+
+    public CsvOutputTest() {
+    }
+
+    private static List<SaDocument<ISaSpecification>> documents() {
+        List<SaDocument<ISaSpecification>> docs = new ArrayList<>();
+        TsData[] s = {Data.P, Data.X, Data.M1, Data.M2.drop(0, 40)};
+        for (int i = 0; i < s.length; ++i) {
+            TramoSeatsDocument doc = new TramoSeatsDocument();
+            doc.setSpecification(i == 1 ? TramoSeatsSpecification.RSA1 : TramoSeatsSpecification.RSA5);
+            doc.setInput(TsFactory.instance.createTs("s" + i, null, s[i]));
+            docs.add((SaDocument) doc);
+        }
+        return docs;
+    }
+
+    private static void run(IOutput<SaDocument<ISaSpecification>> output, List<SaDocument<ISaSpecification>> docs) throws Exception {
+        output.start(null);
+        for (SaDocument<ISaSpecification> doc : docs) {
+            output.process(doc);
+        }
+        output.end(null);
+    }
+
+    private static String read(Path file) throws IOException {
+        try (InputStream in = file.toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toString("ISO-8859-1");
+        }
+    }
+
+    @Test
+    public void testMatrix() throws Exception {
+        Path folder = Files.createTempDirectory("csvoutput");
+        try {
+            List<SaDocument<ISaSpecification>> docs = documents();
+            CsvMatrixOutputConfiguration config = new CsvMatrixOutputConfiguration();
+            config.setFolder(folder.toFile());
+            config.setItems(Arrays.asList("span.n", "arima", "regression.nlp", "likelihood.aic",
+                    "residuals.lb", "regression.td(*)", "regression.out(*)", "mode", "preprocessing.model.lp:3"));
+            config.setStreaming(false);
+            config.setFileName("m0");
+            run(new CsvMatrixOutput(config), docs);
+            config.setStreaming(true);
+            config.setFileName("m1");
+            run(new CsvMatrixOutput(config), docs);
+            config.setCompressed(true);
+            config.setFileName("m2");
+            run(new CsvMatrixOutput(config), docs);
+
+            String m0 = read(folder.resolve("m0.csv"));
+            String[] lines = m0.split(System.lineSeparator());
+            assertEquals(5, lines.length);
+            assertTrue(lines[0].contains("aic"));
+            assertTrue(lines[0].contains("td("));
+            assertEquals(m0, read(folder.resolve("m1.csv")));
+            assertEquals(m0, read(folder.resolve("m2.csv.gz")));
+        } finally {
+            clean(folder);
+        }
+    }
+
+    @Test
+    public void testSeries() throws Exception {
+        Path folder = Files.createTempDirectory("csvoutput");
+        try {
+            List<SaDocument<ISaSpecification>> docs = documents();
+            for (CsvLayout layout : CsvLayout.values()) {
+                CsvOutputConfiguration config = new CsvOutputConfiguration();
+                config.setFolder(folder.toFile());
+                config.setPresentation(layout);
+                config.setStreaming(false);
+                config.setFilePrefix("s0");
+                run(new CsvOutput(config), docs);
+                config.setStreaming(true);
+                config.setCompressed(true);
+                config.setFilePrefix("s1");
+                run(new CsvOutput(config), docs);
+                for (String item : CsvOutputConfiguration.defOutput) {
+                    String s0 = read(folder.resolve("s0_" + item + ".csv"));
+                    assertFalse(s0.isEmpty());
+                    assertEquals(s0, read(folder.resolve("s1_" + item + ".csv.gz")));
+                }
+            }
+        } finally {
+            clean(folder);
+        }
+    }
+
+    @Test
+    public void testTemporaryFiles() throws Exception {
+        Path folder = Files.createTempDirectory("csvoutput");
+        int ntmp = temporaryFiles();
+        try {
+            List<SaDocument<ISaSpecification>> docs = documents();
+            // name longer than the limit of writeUTF
+            char[] name = new char[70000];
+            Arrays.fill(name, 'x');
+            docs.get(0).setInput(TsFactory.instance.createTs(new String(name), null, Data.P));
+            for (CsvLayout layout : new CsvLayout[]{CsvLayout.List, CsvLayout.VTable}) {
+                CsvOutputConfiguration config = new CsvOutputConfiguration();
+                config.setFolder(folder.toFile());
+                config.setPresentation(layout);
+                config.setFilePrefix("s0");
+                run(new CsvOutput(config), docs);
+                config.setStreaming(true);
+                config.setFilePrefix("s1");
+                CsvOutput output = new CsvOutput(config);
+                // the files of an interrupted run are removed by the next one
+                output.start(null);
+                output.process(docs.get(1));
+                assertTrue(temporaryFiles() > ntmp);
+                run(output, docs);
+                assertEquals(ntmp, temporaryFiles());
+                for (String item : CsvOutputConfiguration.defOutput) {
+                    assertEquals(read(folder.resolve("s0_" + item + ".csv")), read(folder.resolve("s1_" + item + ".csv")));
+                }
+            }
+            CsvMatrixOutputConfiguration config = new CsvMatrixOutputConfiguration();
+            config.setFolder(folder.toFile());
+            config.setItems(Arrays.asList("span.n", "likelihood.aic"));
+            config.setFileName("m0");
+            run(new CsvMatrixOutput(config), docs);
+            config.setStreaming(true);
+            config.setFileName("m1");
+            run(new CsvMatrixOutput(config), docs);
+            assertEquals(ntmp, temporaryFiles());
+            assertEquals(read(folder.resolve("m0.csv")), read(folder.resolve("m1.csv")));
+        } finally {
+            clean(folder);
+        }
+    }
+
+    private static int temporaryFiles() {
+        String[] files = new File(System.getProperty("java.io.tmpdir"))
+                .list((dir, name) -> name.startsWith("csvspill") || name.startsWith("matrix"));
+        return files == null ? 0 : files.length;
+    }
+
+    private static void clean(Path folder) throws IOException {
+        for (File file : folder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(folder);
+    }
+}
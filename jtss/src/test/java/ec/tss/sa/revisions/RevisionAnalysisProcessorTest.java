@@ -12,10 +12,17 @@ import ec.tss.TsFactory;
 import ec.tss.sa.SaManager;
 import ec.tss.sa.processors.TramoSeatsProcessor;
 import ec.tstoolkit.algorithm.CompositeResults;
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.algorithm.IProcessing;
+import ec.tstoolkit.algorithm.ProcessingContext;
 import ec.tstoolkit.modelling.DefaultTransformationType;
 import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
 import org.junit.Test;
 
 /**
@@ -31,6 +38,82 @@ public class RevisionAnalysisProcessorTest {
     public RevisionAnalysisProcessorTest() {
     }
 
+    private static TsCollection input() {
+        TsCollection coll = TsFactory.instance.createTsCollection();
+        coll.quietAdd(TsFactory.instance.createTs("P", null, Data.P));
+        coll.quietAdd(TsFactory.instance.createTs("M1", null, Data.M1));
+        // without data: the series is not processed
+        coll.quietAdd(TsFactory.instance.createTs("S"));
+        coll.quietAdd(TsFactory.instance.createTs("M2", null, Data.M2));
+        return coll;
+    }
+
+    @Test
+    public void testParallelBatch() {
+        RevisionAnalysisSpec spec = new RevisionAnalysisSpec();
+        spec.setSaSpecification(TramoSeatsSpecification.RSA1);
+        TsCollection coll = input();
+
+        RevisionAnalysisProcessor proc = new RevisionAnalysisProcessor();
+        proc.setParallelism(1);
+        ProcessingContext seq = new ProcessingContext();
+        seq.setExecutionContext(ExecutionContext.sequential());
+        CompositeResults r0 = proc.generateProcessing(spec, seq).process(coll);
+
+        proc.setParallelism(0);
+        // the listener is called by the worker threads: the checks are done here
+        IProcessing.Status[] statuses = new IProcessing.Status[coll.getCount()];
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger count = new AtomicInteger();
+        CompositeResults r1 = proc.generateProcessing(spec, null, (pos, status, summary) -> {
+            try {
+                count.incrementAndGet();
+                synchronized (statuses) {
+                    statuses[pos] = status;
+                }
+                assertNotNull(summary.current());
+            } catch (Throwable err) {
+                failures.add(err);
+            }
+        }).process(coll);
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals(coll.getCount(), count.get());
+        synchronized (statuses) {
+            for (int i = 0; i < statuses.length; ++i) {
+                assertEquals(i == 2, statuses[i] != IProcessing.Status.Valid);
+            }
+        }
+
+        assertNotNull(r1.getData("batch.series3.vintage0.sa", TsData.class));
+        assertNull(r1.getData("batch.series2.vintage0.sa", TsData.class));
+        for (String item : new String[]{"summary.n", "summary.sn", "summary.cn"}) {
+            int[] n0 = r0.getData(item, int[].class), n1 = r1.getData(item, int[].class);
+            assertNotNull(n1);
+            assertArrayEquals(n0, n1);
+        }
+        for (String item : new String[]{"summary.samax", "summary.saaverage", "summary.sstdev", "summary.cmin"}) {
+            assertArrayEquals(r0.getData(item, double[].class), r1.getData(item, double[].class), 0);
+        }
+    }
+
+    @Test
+    public void testFailingListener() {
+        RevisionAnalysisSpec spec = new RevisionAnalysisSpec();
+        spec.setSaSpecification(TramoSeatsSpecification.RSA1);
+        TsCollection coll = input();
+
+        RevisionAnalysisProcessor proc = new RevisionAnalysisProcessor();
+        proc.setParallelism(1);
+        AtomicInteger count = new AtomicInteger();
+        CompositeResults rslts = proc.generateProcessing(spec, null, (pos, status, summary) -> {
+            count.incrementAndGet();
+            throw new IllegalStateException("listener");
+        }).process(coll);
+        // the single worker processed all the series
+        assertEquals(coll.getCount(), count.get());
+        assertNotNull(rslts.getData("batch.series3.vintage0.sa", TsData.class));
+    }
+
 //   @Test
     public void demo() {
         RevisionAnalysisProcessor proc = new RevisionAnalysisProcessor();
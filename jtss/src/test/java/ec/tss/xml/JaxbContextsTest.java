@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml;
+
+import ec.tss.tsproviders.DataSource;
+import ec.tss.tsproviders.DataSource.DataSourceBean;
+import ec.tss.tsproviders.utils.ParamBean;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class JaxbContextsTest {
+
+    public JaxbContextsTest() {
+    }
+
+    private static final DataSource SOURCE = DataSource.builder("provider", "1.0").put("file", "data.xml").put("sheet", "s1").build();
+
+    private static DataSourceBean bean() {
+        DataSourceBean bean = new DataSourceBean();
+        bean.providerName = "provider";
+        bean.version = "1.0";
+        bean.params = new ParamBean[2];
+        bean.params[0] = new ParamBean();
+        bean.params[0].key = "file";
+        bean.params[0].value = "data.xml";
+        bean.params[1] = new ParamBean();
+        bean.params[1].key = "sheet";
+        bean.params[1].value = "s1";
+        return bean;
+    }
+
+    private static String format(JaxbContexts.Pool pool, boolean formatted) throws Exception {
+        StringWriter writer = new StringWriter();
+        pool.marshal(bean(), writer, formatted);
+        return writer.toString();
+    }
+
+    @Test
+    public void testContexts() throws Exception {
+        JaxbContexts contexts = new JaxbContexts(2);
+        JAXBContext c1 = contexts.getContext(DataSourceBean.class);
+        assertSame(c1, contexts.getContext(DataSourceBean.class));
+        assertSame(c1, contexts.getPool(DataSourceBean.class).getContext());
+        JaxbContexts.Metrics metrics = contexts.getMetrics();
+        assertEquals(1, metrics.getContextCount());
+        assertEquals(1, metrics.getContextCreations());
+        assertEquals(3, metrics.getContextRequests());
+
+        assertSame(c1, contexts.warmUp(DataSourceBean.class).get().getContext());
+        assertEquals(1, contexts.getMetrics().getContextCreations());
+
+        contexts.clear();
+        assertNotSame(c1, contexts.getContext(DataSourceBean.class));
+        assertEquals(2, contexts.getMetrics().getContextCreations());
+    }
+
+    @Test
+    public void testPool() throws Exception {
+        JaxbContexts contexts = new JaxbContexts(2);
+        JaxbContexts.Pool pool = contexts.getPool(DataSourceBean.class);
+        String unformatted = format(pool, false);
+        for (int i = 0; i < 10; ++i) {
+            String formatted = format(pool, true);
+            // the properties are reset
+            assertEquals(unformatted, format(pool, false));
+            assertNotEquals(unformatted, formatted);
+            DataSourceBean bean = (DataSourceBean) pool.unmarshal(new StringReader(formatted));
+            assertEquals(SOURCE, bean.toId());
+        }
+        JaxbContexts.Metrics metrics = contexts.getMetrics();
+        assertEquals(21, metrics.getMarshallerRequests());
+        assertEquals(1, metrics.getMarshallerCreations());
+        assertEquals(10, metrics.getUnmarshallerRequests());
+        assertEquals(1, metrics.getUnmarshallerCreations());
+
+        pool.withMarshaller(marshaller -> {
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            return null;
+        });
+        assertEquals(unformatted, format(pool, false));
+    }
+
+    // class of a "plugin"
+    public static class Plugin {
+
+        public String name;
+    }
+
+    @Test
+    public void testUnloading() throws Exception {
+        JaxbContexts contexts = new JaxbContexts(2);
+        URL location = JaxbContextsTest.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[]{location}, null);
+        Class<?> plugin = loader.loadClass(Plugin.class.getName());
+        assertNotSame(Plugin.class, plugin);
+        assertSame(contexts.getContext(DataSourceBean.class, plugin), contexts.getContext(DataSourceBean.class, plugin));
+        // the registry doesn't keep the class loader of the plugin
+        WeakReference<ClassLoader> ref = new WeakReference<>(loader);
+        loader.close();
+        loader = null;
+        plugin = null;
+        for (int i = 0; i < 50 && ref.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        // the pool can keep a marshaller for each thread
+        JaxbContexts contexts = new JaxbContexts(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<DataSource>> tasks = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                tasks.add(() -> {
+                    JaxbContexts.Pool pool = contexts.getPool(DataSourceBean.class);
+                    return ((DataSourceBean) pool.unmarshal(new StringReader(format(pool, false)))).toId();
+                });
+            }
+            for (Future<DataSource> cur : executor.invokeAll(tasks)) {
+                assertEquals(SOURCE, cur.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        JaxbContexts.Metrics metrics = contexts.getMetrics();
+        assertEquals(1, metrics.getContextCreations());
+        assertEquals(100, metrics.getMarshallerRequests());
+        assertTrue(metrics.getMarshallerCreations() <= 4);
+        assertTrue(metrics.getUnmarshallerCreations() <= 4);
+    }
+}
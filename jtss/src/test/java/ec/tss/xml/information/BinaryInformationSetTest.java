@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.xml.information;
+
+import data.Data;
+import ec.satoolkit.tramoseats.TramoSeatsSpecification;
+import ec.satoolkit.x13.X13Specification;
+import ec.tss.TsInformation;
+import ec.tss.TsInformationType;
+import ec.tss.TsMoniker;
+import ec.tstoolkit.MetaData;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.algorithm.AlgorithmDescriptor;
+import ec.tstoolkit.information.Information;
+import ec.tstoolkit.information.InformationSet;
+import ec.tstoolkit.information.RegressionItem;
+import ec.tstoolkit.information.StatisticalTest;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.modelling.arima.tramo.TramoSpecification;
+import ec.tstoolkit.timeseries.Day;
+import ec.tstoolkit.timeseries.Month;
+import ec.tstoolkit.timeseries.TsPeriodSelector;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BinaryInformationSetTest {
+
+    public BinaryInformationSetTest() {
+    }
+
+    // the information set read from the xml form
+    private static InformationSet xml(InformationSet info) {
+        XmlInformationSet xmlinfo = new XmlInformationSet();
+        xmlinfo.copy(info);
+        return xmlinfo.create();
+    }
+
+    private static void assertSameSet(InformationSet expected, InformationSet found) {
+        List<Information<Object>> e = expected.select(Object.class), f = found.select(Object.class);
+        assertEquals(e.size(), f.size());
+        for (int i = 0; i < e.size(); ++i) {
+            assertEquals(e.get(i).name, f.get(i).name);
+            assertSameValue(e.get(i).value, f.get(i).value);
+        }
+    }
+
+    private static void assertSameValue(Object expected, Object found) {
+        if (expected instanceof InformationSet) {
+            assertTrue(found instanceof InformationSet);
+            assertSameSet((InformationSet) expected, (InformationSet) found);
+        } else if (expected instanceof TsInformation) {
+            TsInformation e = (TsInformation) expected, f = (TsInformation) found;
+            assertEquals(e.name, f.name);
+            assertEquals(e.moniker, f.moniker);
+            assertEquals(e.type, f.type);
+            assertEquals(e.data, f.data);
+            assertEquals(e.metaData, f.metaData);
+        } else if (expected instanceof RegressionItem || expected instanceof StatisticalTest) {
+            assertEquals(expected.toString(), found.toString());
+        } else {
+            assertTrue(Objects.deepEquals(expected, found));
+        }
+    }
+
+    private static InformationSet sample() {
+        InformationSet info = new InformationSet();
+        Matrix m = new Matrix(5, 4);
+        m.randomize();
+        info.add("m", m);
+        info.add("ts", Data.X);
+        TsData q = new TsData(TsFrequency.Quarterly, 1990, 2, new double[]{1, Double.NaN, -3.5e-300, Double.POSITIVE_INFINITY}, false);
+        info.add("q", q);
+        info.add("y", new TsData(TsFrequency.Yearly, 2000, 0, new double[]{1, 2, 3}, false));
+        info.add("b", true);
+        info.add("i", -17);
+        info.add("d", Math.PI);
+        info.add("s", "hello world - éè中");
+        info.add("e", Month.March);
+        info.add("booleans", new boolean[]{true, false, true});
+        info.add("integers", new int[]{1, -2, Integer.MAX_VALUE});
+        info.add("doubles", new double[]{0.1, -1e-20, Double.NaN});
+        info.add("strings", new String[]{"a", "b c", "d"});
+        info.add("nostrings", new String[0]);
+        info.add("param", new Parameter(0.3, ParameterType.Estimated));
+        Parameter est = new Parameter(-.6, ParameterType.Estimated);
+        est.setStde(.05);
+        info.add("params", new Parameter[]{est, new Parameter(.1, ParameterType.Fixed), new Parameter()});
+        TsPeriodSelector sel = new TsPeriodSelector();
+        sel.between(new Day(1995, Month.February, 0), new Day(2005, Month.November, 29));
+        info.add("span", sel);
+        TsPeriodSelector last = new TsPeriodSelector();
+        last.last(24);
+        info.add("last", last);
+        info.add("method", new AlgorithmDescriptor("Seasonal adjustment", "X13", "0.1.0.0"));
+        info.add("regitem", new RegressionItem("td", .2, .01, .003));
+        info.add("test", new StatisticalTest("lb", 12.5, .4));
+        info.add("moniker", TsMoniker.create("source", "id"));
+        TsInformation ts = new TsInformation("series", TsMoniker.create("provider", "series-1"), TsInformationType.UserDefined);
+        ts.data = Data.P;
+        ts.metaData = new MetaData();
+        ts.metaData.put("source", "provider");
+        ts.metaData.put("@timestamp", "2020-01-01");
+        info.add("series", ts);
+        InformationSet sub = info.subSet("sub");
+        sub.add("ts", Data.X);
+        sub.subSet("deeper").add("s", "x");
+        // not supported by the xml form
+        info.add("unsupported", new Object());
+        info.set(new String[]{"a.b", "c"}, 1.5);
+        return info;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        InformationSet info = sample();
+        InformationSet found = BinaryInformationSet.fromBytes(BinaryInformationSet.toBytes(info));
+        assertSameSet(xml(info), found);
+        // and back to the xml form
+        assertSameSet(xml(info), xml(found));
+        // second pass
+        assertSameSet(found, BinaryInformationSet.fromBytes(BinaryInformationSet.toBytes(found)));
+    }
+
+    @Test
+    public void testSpecifications() throws IOException {
+        for (InformationSet info : new InformationSet[]{X13Specification.RSA5.write(true),
+            TramoSeatsSpecification.RSAfull.write(true), TramoSpecification.TR5.write(false)}) {
+            InformationSet found = BinaryInformationSet.fromBytes(BinaryInformationSet.toBytes(info));
+            assertSameSet(xml(info), found);
+        }
+        TramoSeatsSpecification spec = new TramoSeatsSpecification();
+        assertTrue(spec.read(BinaryInformationSet.fromBytes(BinaryInformationSet.toBytes(TramoSeatsSpecification.RSAfull.write(true)))));
+        assertEquals(TramoSeatsSpecification.RSAfull, spec);
+    }
+
+    @Test
+    public void testDictionary() throws IOException {
+        InformationSet info = new InformationSet();
+        for (int i = 0; i < 200; ++i) {
+            InformationSet sub = info.subSet("item" + i);
+            sub.add("coefficient", (double) i);
+            sub.add("description", "same");
+        }
+        byte[] bytes = BinaryInformationSet.toBytes(info);
+        // the repeated names are only written once
+        assertTrue(bytes.length < 200 * 32);
+        InformationSet found = BinaryInformationSet.fromBytes(bytes);
+        assertSameSet(info, found);
+        assertSame(found.getSubSet("item0").items().get(0).name, found.getSubSet("item199").items().get(0).name);
+    }
+
+    @Test
+    public void testInvalid() {
+        assertFalse(BinaryInformationSet.isBinary("<?xml".getBytes()));
+        try {
+            BinaryInformationSet.fromBytes("<?xml version=\"1.0\"?>".getBytes());
+            fail();
+        } catch (IOException ex) {
+        }
+        try {
+            byte[] bytes = BinaryInformationSet.toBytes(sample());
+            BinaryInformationSet.fromBytes(java.util.Arrays.copyOf(bytes, bytes.length / 2));
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+
+    // header, then an item "x" with the given tag and (varint) length
+    private static byte[] corrupted(int tag, int... length) {
+        byte[] result = new byte[]{'J', 'D', 'I', 'S', BinaryInformationSet.VERSION, 1, 2, 'x', (byte) tag, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        for (int i = 0; i < length.length; ++i) {
+            result[9 + i] = (byte) length[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testCorrupted() {
+        // booleans, integers, doubles, string, xml with a huge length
+        int[] huge = {0xFF, 0xFF, 0xFF, 0xFF, 0x07};
+        for (int tag : new int[]{5, 6, 7, 4, 20}) {
+            try {
+                BinaryInformationSet.fromBytes(corrupted(tag, huge));
+                fail();
+            } catch (IOException ex) {
+            }
+        }
+        // negative length
+        try {
+            BinaryInformationSet.fromBytes(corrupted(7, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F));
+            fail();
+        } catch (IOException ex) {
+        }
+        // the lengths are checked against the declared size of the stream
+        try {
+            byte[] bytes = BinaryInformationSet.toBytes(sample());
+            BinaryInformationSet.read(new java.io.ByteArrayInputStream(bytes), bytes.length / 2);
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+}
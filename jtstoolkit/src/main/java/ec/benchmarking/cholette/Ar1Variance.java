@@ -71,4 +71,27 @@ public class Ar1Variance implements IVariance {
     public double var(int i, int j) {
         return rop(Math.abs(i - j));
     }
+
+    /**
+     * Computes V * x in O(n), using the recursions
+     * f(i) = x(i) + ro * f(i-1) and b(i) = x(i) + ro * b(i+1);
+     * (V x)(i) = f(i) + b(i) - x(i)
+     *
+     * @param x
+     * @param rslt
+     */
+    @Override
+    public void product(double[] x, double[] rslt) {
+        int n = x.length;
+        double f = 0;
+        for (int i = 0; i < n; ++i) {
+            f = x[i] + ro_ * f;
+            rslt[i] = f;
+        }
+        double b = 0;
+        for (int i = n - 1; i >= 0; --i) {
+            b = x[i] + ro_ * b;
+            rslt[i] += b - x[i];
+        }
+    }
 }
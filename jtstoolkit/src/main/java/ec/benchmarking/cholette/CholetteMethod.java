@@ -123,12 +123,10 @@ public class CholetteMethod {
             for (int i = 0; i < xtmp.length; ++i) {
                 xtmp[i] = sum_.Bx(i, tmp);
             }
+            double[] vs = new double[xtmp.length];
+            var_.product(xtmp, vs);
             for (int i = 0; i < xtmp.length; ++i) {
-                double vs = 0;
-                for (int j = 0; j < xtmp.length; ++j) {
-                    vs += xtmp[j] * var_.var(i, j);
-                }
-                x_[i] += vs;
+                x_[i] += vs[i];
             }
             return true;
         } catch (Exception ex) {
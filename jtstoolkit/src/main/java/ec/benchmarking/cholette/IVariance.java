@@ -32,4 +32,23 @@ public interface IVariance {
      * @return
      */
     double var(int i, int j);
+
+    /**
+     * Computes rslt = V * x, where V is the n x n covariance matrix (n is the
+     * length of x). The default implementation needs O(n^2) operations; it
+     * should be overridden when the structure of the variance allows a faster
+     * computation.
+     *
+     * @param x The vector
+     * @param rslt The result (same length as x)
+     */
+    default void product(double[] x, double[] rslt) {
+        for (int i = 0; i < x.length; ++i) {
+            double s = 0;
+            for (int j = 0; j < x.length; ++j) {
+                s += var(i, j) * x[j];
+            }
+            rslt[i] = s;
+        }
+    }
 }
@@ -38,4 +38,30 @@ public class RwVariance implements IVariance {
     public double var(int i, int j) {
         return Math.abs(i - j) + 1;
     }
+
+    /**
+     * Computes V * x in O(n). (V x)(i) = sum(x) + sum(|i-j| x(j)), where the
+     * second term is updated by means of the partial sums of x.
+     *
+     * @param x
+     * @param rslt
+     */
+    @Override
+    public void product(double[] x, double[] rslt) {
+        int n = x.length;
+        // sum((i-j) x(j), j < i)
+        double l = 0, p = 0;
+        for (int i = 0; i < n; ++i) {
+            l += p;
+            rslt[i] = l;
+            p += x[i];
+        }
+        // p = sum(x); sum((j-i) x(j), j > i)
+        double r = 0, q = 0;
+        for (int i = n - 1; i >= 0; --i) {
+            r += q;
+            rslt[i] += r + p;
+            q += x[i];
+        }
+    }
 }
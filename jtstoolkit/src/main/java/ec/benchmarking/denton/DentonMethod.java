@@ -16,14 +16,11 @@
  */
 package ec.benchmarking.denton;
 
+import ec.benchmarking.BenchmarkingException;
 import ec.tstoolkit.data.DataBlock;
-import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.design.Development;
-import ec.tstoolkit.maths.matrices.Householder;
-import ec.tstoolkit.maths.matrices.Matrix;
-import ec.tstoolkit.maths.matrices.SubMatrix;
-import ec.tstoolkit.maths.matrices.SymmetricMatrix;
+import ec.tstoolkit.maths.matrices.BandLuDecomposition;
 import ec.tstoolkit.maths.polynomials.Polynomial;
 import ec.tstoolkit.maths.polynomials.UnitRoots;
 import ec.tstoolkit.timeseries.TsAggregationType;
@@ -39,57 +36,115 @@ public class DentonMethod {
     public int diff_ = 1, conv_ = 12, offset_ = 0;
     public TsAggregationType type_ = TsAggregationType.Sum;
 
-    private void J(SubMatrix M) {
-        int j = offset_;
-        DataBlockIterator rows = M.rows();
-        DataBlock data = rows.getData();
-        do {
-            switch (type_) {
-                case Sum:
-                case Average:
-                    data.range(j, j + conv_).set(1);
-                    break;
-                case First:
-                    data.set(j, 1);
-                    break;
-                case Last:
-                    data.set(j + conv_ - 1, 1);
-                    break;
-            }
-            j += conv_;
-        } while (rows.next());
+    // position of the constraint of the k-th low-frequency period (the variable
+    // that precedes it in the interleaved system)
+    private int anchor(int k) {
+        int j = offset_ + k * conv_;
+        switch (type_) {
+            case Last:
+                return j + conv_ - 1;
+            case First:
+                return j;
+            default:
+                return j + (conv_ - 1) / 2;
+        }
+    }
+
+    private int first(int k) {
+        int j = offset_ + k * conv_;
+        return type_ == TsAggregationType.Last ? j + conv_ - 1 : j;
     }
 
-    private Matrix D(DataBlock x) {
+    private int last(int k) {
+        int j = offset_ + k * conv_;
+        return type_ == TsAggregationType.First ? j : j + conv_ - 1;
+    }
+
+    /**
+     * Solves the system
+     * [D'D J'] [q] = [D'D x]
+     * [J   0 ] [l]   [  y  ]
+     * The constraints are interleaved with the variables (each constraint
+     * follows the variable at the middle of the aggregated block), so that
+     * the matrix of the system is a band matrix whose bandwidth only depends
+     * on the conversion factor and on the differencing order. The solution is
+     * identical (up to rounding errors) to the one of the dense system, but
+     * it needs only O(n) operations and memory.
+     *
+     * @param x The (scaled) high-frequency series. All 0 (additive) or all 1
+     * (multiplicative) when there is no indicator
+     * @param y The constraints
+     * @param rhs True if D'D x must be computed, false if it is 0
+     * @return q
+     */
+    private double[] solve(DataBlock x, DataBlock y, boolean rhs) {
+        int n = x.getLength(), ny = y.getLength();
+        if (offset_ < 0 || (ny > 0 && last(ny - 1) >= n)) {
+            throw new BenchmarkingException("Incompatible series");
+        }
         Polynomial pd = UnitRoots.D(1, diff_);
         int d = pd.getDegree();
-        int n = x.getLength();
-        if (mul_) {
-            x = x.deepClone();
-            x.inv();
+        // positions in the interleaved system
+        int[] pos = new int[n + ny];
+        for (int i = 0, k = 0, cur = 0; i < n; ++i) {
+            pos[i] = cur++;
+            while (k < ny && anchor(k) == i) {
+                pos[n + k++] = cur++;
+            }
         }
-
-        if (mod_) {
-            Matrix D = new Matrix(n - d, n);
-            for (int i = 0; i <= d; ++i) {
+        int w = 0;
+        for (int i = 0; i < n; ++i) {
+            int jmax = Math.min(n - 1, i + d);
+            if (jmax > i) {
+                w = Math.max(w, pos[jmax] - pos[i]);
+            }
+        }
+        for (int k = 0; k < ny; ++k) {
+            w = Math.max(w, Math.max(pos[n + k] - pos[first(k)], pos[last(k)] - pos[n + k]));
+        }
+        BandLuDecomposition lu = new BandLuDecomposition(n + ny, w, w);
+        double[] b = new double[n + ny];
+
+        // D'D and D'D x. D is the (modified) difference operator, which is
+        // weighted by 1/x in the multiplicative case; row t of D corresponds
+        // to the differences (t, t-1, ... t-d)
+        double[] e = new double[d + 1];
+        for (int t = mod_ ? d : 0; t < n; ++t) {
+            int nc = Math.min(d, t) + 1;
+            double dx = 0;
+            for (int i = 0; i < nc; ++i) {
+                double c = pd.get(i);
                 if (mul_) {
-                    D.subDiagonal(i).setAY(pd.get(d - i), x.drop(i, d - i));
-                } else {
-                    D.subDiagonal(i).set(pd.get(d - i));
+                    c /= x.get(t - i);
                 }
+                e[i] = c;
+                dx += c * x.get(t - i);
             }
-            return D;
-        } else {
-            Matrix D = new Matrix(n, n);
-            for (int i = 0; i <= d; ++i) {
-                if (mul_) {
-                    D.subDiagonal(-i).setAY(pd.get(i), x.drop(0, i));
-                } else {
-                    D.subDiagonal(-i).set(pd.get(i));
+            for (int i = 0; i < nc; ++i) {
+                int pi = pos[t - i];
+                for (int j = 0; j < nc; ++j) {
+                    lu.add(pi, pos[t - j], e[i] * e[j]);
                 }
+                if (rhs) {
+                    b[pi] += e[i] * dx;
+                }
+            }
+        }
+        // J, J'
+        for (int k = 0; k < ny; ++k) {
+            int pk = pos[n + k];
+            for (int j = first(k), jmax = last(k); j <= jmax; ++j) {
+                lu.set(pk, pos[j], 1);
+                lu.set(pos[j], pk, 1);
             }
-            return D;
+            b[pk] = y.get(k);
         }
+        lu.solve(b);
+        double[] q = new double[n];
+        for (int i = 0; i < n; ++i) {
+            q[i] = b[pos[i]];
+        }
+        return q;
     }
 
     /**
@@ -112,32 +167,12 @@ public class DentonMethod {
         double xm = x.sum() / x.getLength();
         x.mul(1 / xm);
 
-        Matrix D = D(x);
-
-        Matrix A = new Matrix(n + ny, n + ny);
-
-        SymmetricMatrix.XtX(D.subMatrix(), A.subMatrix(0, n, 0, n));
-        J(A.subMatrix(n, n + ny, 0, n));
-        Matrix B = A.clone();
-        J(A.subMatrix(0, n, n, n + ny).transpose());
-        B.diagonal().drop(n, 0).set(1);
-
-        DataBlock q = new DataBlock(n + ny);
-        DataBlock q0 = q.range(0, n);
-        q0.copy(x);
-        DataBlock q1 = q.range(n, n + ny);
-        q1.product(A.subMatrix(n, n + ny, 0, n).rows(), q0);
-        q1.chs();
-        q1.addAY(1.0 / xm, y);
-
-        DataBlock z = new DataBlock(n + ny);
-        z.product(B.rows(), q);
-        Householder qr = new Householder(true);
-        qr.decompose(A);
-        qr.solve(z, q);
-        DataBlock rslt = q.range(0, n).deepClone();
-        rslt.mul(xm);
-        return rslt.getData();
+        y.mul(1 / xm);
+        double[] rslt = solve(x, y, true);
+        for (int i = 0; i < n; ++i) {
+            rslt[i] *= xm;
+        }
+        return rslt;
     }
 
     public double[] process(IReadDataBlock lowSeries) {
@@ -151,25 +186,7 @@ public class DentonMethod {
         if (mul_) {
             x.set(1);
         }
-        Matrix D = D(x);
-        Matrix A = new Matrix(n + ny, n + ny);
-
-        SymmetricMatrix.XtX(D.subMatrix(), A.subMatrix(0, n, 0, n));
-        J(A.subMatrix(n, n + ny, 0, n));
-        Matrix B = A.clone();
-        J(A.subMatrix(0, n, n, n + ny).transpose());
-        B.diagonal().drop(n, 0).set(1);
-
-        DataBlock q = new DataBlock(n + ny);
-        DataBlock q1 = q.range(n, n + ny);
-        q1.copy(y);
-        DataBlock z = new DataBlock(n + ny);
-        z.product(B.rows(), q);
-        Householder qr = new Householder(true);
-        qr.decompose(A);
-        qr.solve(z, q);
-        DataBlock rslt = q.range(0, n).deepClone();
-        return rslt.getData();
+        return solve(x, y, false);
     }
 
     public boolean isMultiplicative() {
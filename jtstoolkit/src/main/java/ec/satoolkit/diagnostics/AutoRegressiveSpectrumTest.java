@@ -253,8 +253,10 @@ public class AutoRegressiveSpectrumTest {
                 f[pos + 1] = tdf[i] + step();
             }
         }
+        // the regular grid is computed by fft
+        double[] grid = ar.values(NFREQ);
         for (int i = 0; i <= NFREQ; ++i) {
-            spectrum[i] = ar.value(f[i]);
+            spectrum[i] = f[i] == step() * i ? grid[i] : ar.value(f[i]);
         }
     }
 
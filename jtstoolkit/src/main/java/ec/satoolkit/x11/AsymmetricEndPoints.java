@@ -28,6 +28,7 @@ import ec.tstoolkit.maths.linearfilters.IFiniteFilter;
 public class AsymmetricEndPoints implements IEndPointsProcessor {
 
     private IFiniteFilter[] filters;
+    private final double[][] weights;
 
     /**
      *
@@ -35,6 +36,10 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
      */
     public AsymmetricEndPoints(IFiniteFilter[] filters) {
         this.filters = filters;
+        this.weights = new double[filters.length][];
+        for (int i = 0; i < filters.length; ++i) {
+            weights[i] = filters[i].getWeights();
+        }
     }
 
     @Override
@@ -70,7 +75,7 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
                 plen - rlen, plen);
         int icur = istart;
         while (icur > 0) {
-            DataBlock f = new DataBlock(filters[ifilter++].getWeights());
+            DataBlock f = new DataBlock(weights[ifilter++]);
             out.set(plen - icur, f.dot(end));
             end.bshrink();
             --icur;
@@ -87,4 +92,57 @@ public class AsymmetricEndPoints implements IEndPointsProcessor {
         return filters.length;
     }
 
+    /**
+     * Same as process(DataBlock, DataBlock), on the items in[istart + i*inc]
+     * and out[ostart + i*inc], i in [0, len[. Requires len &ge;
+     * getEndPointsCount().
+     *
+     * @param in
+     * @param istart
+     * @param out
+     * @param ostart
+     * @param inc
+     * @param len
+     */
+    void process(double[] in, int istart, double[] out, int ostart, int inc, int len) {
+        int n = weights.length;
+        int ifilter = 2 * n - len;
+        if (ifilter < 0) {
+            ifilter = 0;
+        }
+        int istartp = n - ifilter;
+        int len2 = (len + 1) / 2;
+        if (istartp > len2) {
+            istartp = len2;
+            ifilter = n - istartp;
+        }
+        int rlen = 2 * n - ifilter;
+        // first items of the reversed beginning and of the end
+        int ibeg = istart + (rlen - 1) * inc, iend = istart + (len - rlen) * inc;
+        int icur = istartp;
+        while (icur > 0) {
+            double[] f = weights[ifilter++];
+            double e = 0, b = 0;
+            for (int j = 0, k = 0; j < f.length; ++j, k += inc) {
+                e += f[j] * in[iend + k];
+                b += f[j] * in[ibeg - k];
+            }
+            out[ostart + (len - icur) * inc] = e;
+            iend += inc;
+            --icur;
+            out[ostart + icur * inc] = b;
+            ibeg -= inc;
+        }
+        if (istartp < n) {
+            double s = 0;
+            for (int j = 0, k = istart; j < len; ++j, k += inc) {
+                s += in[k];
+            }
+            double av = s / len;
+            for (int j = istartp, k = ostart + istartp * inc; j < len - istartp; ++j, k += inc) {
+                out[k] = av;
+            }
+        }
+    }
+
 }
@@ -30,6 +30,10 @@ import ec.tstoolkit.timeseries.simplets.TsDomain;
 class DefaultSeasonalComputer extends DefaultX11Algorithm implements
         ISeasonalComputer {
 
+    private static final SymmetricFilter MSR_FILTER = FilterFactory.makeSymmetricFilter(7);
+    private static final DefaultSeasonalFilteringStrategy MSR_FILTERING = new DefaultSeasonalFilteringStrategy(
+            MSR_FILTER, new FilteredMeanEndPoints(MSR_FILTER));
+
     private IFiltering initialFilter, finalFilter;
     private boolean useMsr;
     private DefaultSeasonalFilteringStrategy[] finalComplexSeasonalFilteringStrategy;
@@ -91,9 +95,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
     private IFiltering selectMsr(TsData s, InformationSet info) {
         // remove incomplete year
         TsDomain rdomain = s.getDomain().drop(context.getBackcastHorizon(), context.getForecastHorizon());
-        SymmetricFilter f7 = FilterFactory.makeSymmetricFilter(7);
-        DefaultSeasonalFilteringStrategy fseas = new DefaultSeasonalFilteringStrategy(
-                f7, new FilteredMeanEndPoints(f7));
+        DefaultSeasonalFilteringStrategy fseas = MSR_FILTERING;
         MsrTable rms = calculateMsr(fseas, rdomain, s);
         double grms = rms.getGlobalMsr();
         InformationSet dtables = info.subSet(X11Kernel.D);
@@ -228,9 +230,7 @@ class DefaultSeasonalComputer extends DefaultX11Algorithm implements
 
     private void generateMsr(TsData s, InformationSet info) {
         TsDomain rdomain = s.getDomain().drop(context.getBackcastHorizon(), context.getForecastHorizon());
-        SymmetricFilter f7 = FilterFactory.makeSymmetricFilter(7);
-        DefaultSeasonalFilteringStrategy fseas = new DefaultSeasonalFilteringStrategy(
-                f7, new FilteredMeanEndPoints(f7));
+        DefaultSeasonalFilteringStrategy fseas = MSR_FILTERING;
         MsrTable rms = calculateMsr(fseas, rdomain, s);
         InformationSet dtables = info.subSet(X11Kernel.D);
         dtables.set(X11Kernel.D9_RMS, rms);
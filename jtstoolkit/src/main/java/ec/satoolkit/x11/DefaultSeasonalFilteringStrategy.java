@@ -32,6 +32,7 @@ public class DefaultSeasonalFilteringStrategy implements IFiltering {
 
     SymmetricFilter filter;
     IEndPointsProcessor endPointsProcessor;
+    private final MovingAverageKernel kernel;
     private String description_;
 
     public void setDescription(String desc) {
@@ -52,6 +53,7 @@ public class DefaultSeasonalFilteringStrategy implements IFiltering {
                                             IEndPointsProcessor endPoints) {
         this.filter = filter;
         this.endPointsProcessor = endPoints;
+        this.kernel = MovingAverageKernel.of(filter, endPoints);
     }
 
     public DefaultSeasonalFilteringStrategy(SymmetricFilter filter,
@@ -59,9 +61,16 @@ public class DefaultSeasonalFilteringStrategy implements IFiltering {
         this.filter = filter;
         this.endPointsProcessor = endPoints;
         this.description_ = desc;
+        this.kernel = MovingAverageKernel.of(filter, endPoints);
     }
 
     private TsData compositeProcess(TsData s, TsDomain rdomain) {
+        if (kernel != null) {
+            TsData out = kernel.process(s, rdomain, true);
+            if (out != null) {
+                return out;
+            }
+        }
         TsData out = new TsData(rdomain);
         PeriodIterator pin = new PeriodIterator(s, rdomain);
         PeriodIterator pout = new PeriodIterator(out);
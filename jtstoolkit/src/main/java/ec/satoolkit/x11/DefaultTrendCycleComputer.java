@@ -31,6 +31,9 @@ class DefaultTrendCycleComputer extends DefaultX11Algorithm implements
         ITrendCycleComputer {
 
     private final SymmetricFilter hendersonFilter;
+    // filtering strategies (with their weights) for the current frequency
+    private IFiltering initialStrategy, finalStrategy;
+    private int strategyFrequency;
 
     /**
      *
@@ -48,12 +51,24 @@ class DefaultTrendCycleComputer extends DefaultX11Algorithm implements
      * @param info
      * @return
      */
+    private void prepareStrategies() {
+        int freq = context.getFrequency();
+        if (finalStrategy == null || strategyFrequency != freq) {
+            int flen = hendersonFilter.getLength();
+            finalStrategy = new DefaultTrendFilteringStrategy(
+                    hendersonFilter, new AsymmetricEndPoints(MusgraveFilterFactory.makeFiltersForHenderson(flen,
+                    freq)), flen + "-Henderson");
+            initialStrategy = new DefaultTrendFilteringStrategy(
+                    TrendCycleFilterFactory.makeTrendFilter(freq), null);
+            strategyFrequency = freq;
+        }
+    }
+
     @Override
     public TsData doFinalFiltering(X11Step step, TsData s, InformationSet info) {
+        prepareStrategies();
         int flen = hendersonFilter.getLength();
-        IFiltering strategy = new DefaultTrendFilteringStrategy(
-                hendersonFilter, new AsymmetricEndPoints(MusgraveFilterFactory.makeFiltersForHenderson(flen,
-                context.getFrequency())), flen + "-Henderson");
+        IFiltering strategy = finalStrategy;
         if (step == X11Step.D) {
             info.subSet(X11Kernel.D).set(X11Kernel.D12_FILTER, strategy.getDescription());
             info.subSet(X11Kernel.D).set(X11Kernel.D12_TLEN, flen);
@@ -63,9 +78,8 @@ class DefaultTrendCycleComputer extends DefaultX11Algorithm implements
 
     @Override
     public TsData doInitialFiltering(X11Step step, TsData s, InformationSet info) {
-        SymmetricFilter trendFilter = TrendCycleFilterFactory.makeTrendFilter(context.getFrequency());
-        return new DefaultTrendFilteringStrategy(trendFilter, null).process(s,
-                s.getDomain());
+        prepareStrategies();
+        return initialStrategy.process(s, s.getDomain());
     }
 
     /**
@@ -36,6 +36,7 @@ public class DefaultTrendFilteringStrategy implements IFiltering {
     SymmetricFilter filter;
 
     IEndPointsProcessor endPointsProcessor;
+    private final MovingAverageKernel kernel;
 
     private String description_;
 
@@ -56,6 +57,7 @@ public class DefaultTrendFilteringStrategy implements IFiltering {
 	    IEndPointsProcessor endPoints) {
 	this.filter = filter;
 	this.endPointsProcessor = endPoints;
+	this.kernel = MovingAverageKernel.of(filter, endPoints);
     }
 
    public DefaultTrendFilteringStrategy(SymmetricFilter filter,
@@ -63,9 +65,16 @@ public class DefaultTrendFilteringStrategy implements IFiltering {
 	this.filter = filter;
 	this.endPointsProcessor = endPoints;
         this.description_=desc;
+	this.kernel = MovingAverageKernel.of(filter, endPoints);
     }
 
    private TsData compositeProcess(TsData s, TsDomain rdomain) {
+	if (kernel != null) {
+	    TsData out = kernel.process(s, rdomain, false);
+	    if (out != null) {
+		return out;
+	    }
+	}
 	int len = rdomain.getLength();
 	DataBlock out = new DataBlock(len);
 	int nf = filter.getUpperBound();
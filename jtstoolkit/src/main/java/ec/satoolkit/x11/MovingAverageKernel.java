@@ -0,0 +1,112 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+*/
+package ec.satoolkit.x11;
+
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+
+/**
+ * Symmetric moving average completed by asymmetric end points, with all the
+ * weights computed once. The filter is applied directly on the storage of the
+ * series (with a stride for the seasonal filters), without intermediate
+ * blocks. The results are identical to the ones of the filtering strategies.
+ */
+@Development(status = Development.Status.Alpha)
+final class MovingAverageKernel {
+
+    /**
+     * Creates the kernel corresponding to a filtering strategy
+     *
+     * @param filter The central filter
+     * @param endPoints The end points processor
+     * @return null if the end points are not computed by asymmetric filters
+     */
+    static MovingAverageKernel of(SymmetricFilter filter, IEndPointsProcessor endPoints) {
+        if (filter == null || !(endPoints instanceof AsymmetricEndPoints)) {
+            return null;
+        }
+        int m = filter.getUpperBound();
+        double[] w = new double[m + 1];
+        for (int i = 0; i <= m; ++i) {
+            w[i] = filter.getWeight(i);
+        }
+        return new MovingAverageKernel(w, (AsymmetricEndPoints) endPoints);
+    }
+
+    // w[i] is the weight of the lags -i and +i
+    private final double[] w;
+    private final AsymmetricEndPoints endPoints;
+
+    private MovingAverageKernel(double[] w, AsymmetricEndPoints endPoints) {
+        this.w = w;
+        this.endPoints = endPoints;
+    }
+
+    /**
+     * Filters the series s on the domain. Each period of the year is filtered
+     * separately if seasonal is true.
+     *
+     * @param s
+     * @param domain
+     * @param seasonal
+     * @return null if the domain is not covered by the series or if it is too
+     * short for the end points
+     */
+    TsData process(TsData s, TsDomain domain, boolean seasonal) {
+        if (domain.getFrequency() != s.getFrequency()) {
+            return null;
+        }
+        int del = domain.getStart().minus(s.getStart());
+        int len = domain.getLength();
+        if (del < 0 || del + len > s.getLength()) {
+            return null;
+        }
+        int inc = seasonal ? domain.getFrequency().intValue() : 1;
+        if (len / inc < endPoints.getEndPointsCount()) {
+            return null;
+        }
+        double[] in = s.internalStorage();
+        TsData out = new TsData(domain);
+        double[] pout = out.internalStorage();
+        for (int p = 0; p < inc; ++p) {
+            filter(in, del + p, pout, p, inc, (len - p + inc - 1) / inc);
+        }
+        return out;
+    }
+
+    /**
+     * Filters the items in[istart + i*inc], i in [0, n[, and puts the results
+     * in out[ostart + i*inc].
+     */
+    private void filter(double[] in, int istart, double[] out, int ostart, int inc, int n) {
+        int m = w.length - 1;
+        if (n > 2 * m) {
+            double w0 = w[0];
+            int i = istart + m * inc, o = ostart + m * inc;
+            for (int j = m; j < n - m; ++j, i += inc, o += inc) {
+                double s = in[i] * w0;
+                for (int k = 1, l = inc; k <= m; ++k, l += inc) {
+                    s += w[k] * (in[i - l] + in[i + l]);
+                }
+                out[o] = s;
+            }
+        }
+        endPoints.process(in, istart, out, ostart, inc, n);
+    }
+}
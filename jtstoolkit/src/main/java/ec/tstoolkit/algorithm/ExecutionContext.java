@@ -0,0 +1,301 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.algorithm;
+
+import ec.tstoolkit.design.Development;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution context of the parallel parts of a processing.
+ * A context wraps an executor, which is never created per call: by default,
+ * all the processings share a single work-stealing pool whose size is the
+ * number of available processors. Tasks launched from a thread that is
+ * already executing a task of a context are run inline (nesting detection),
+ * so that nested parallel nodes don't oversubscribe the cores.
+ * The context also accumulates the timings of the executed nodes.
+ */
+@Development(status = Development.Status.Alpha)
+public final class ExecutionContext {
+
+    /**
+     * Cumulated timing of a node
+     */
+    public static final class Timing {
+
+        private final String name;
+        private final long count, totalNanos, maxNanos;
+
+        private Timing(String name, long count, long totalNanos, long maxNanos) {
+            this.name = name;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of executions of the node
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getAverageNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + count + " run(s), " + totalNanos / 1000000 + " ms";
+        }
+    }
+
+    private static final class Timer {
+
+        final LongAdder count = new LongAdder(), total = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            total.add(nanos);
+            long cur = max.get();
+            while (nanos > cur && !max.compareAndSet(cur, nanos)) {
+                cur = max.get();
+            }
+        }
+    }
+
+    private static final ThreadLocal<ExecutionContext> WORKER = new ThreadLocal<>();
+    private static final ExecutionContext SEQUENTIAL = new ExecutionContext(null);
+    private static volatile ExecutionContext shared_;
+
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private ExecutionContext(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Context that runs all the tasks in the calling thread
+     *
+     * @return
+     */
+    public static ExecutionContext sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Process-wide context, based on a work-stealing pool of daemon threads.
+     * The pool is created on the first call.
+     *
+     * @return
+     */
+    public static ExecutionContext shared() {
+        ExecutionContext ctx = shared_;
+        if (ctx == null) {
+            synchronized (ExecutionContext.class) {
+                ctx = shared_;
+                if (ctx == null) {
+                    ctx = new ExecutionContext(new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                            WorkerThreadFactory.INSTANCE, null, false));
+                    shared_ = ctx;
+                }
+            }
+        }
+        return ctx;
+    }
+
+    /**
+     * Context based on an executor supplied by the caller. The executor is not
+     * shut down by the context.
+     *
+     * @param executor
+     * @return
+     */
+    public static ExecutionContext of(ExecutorService executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor");
+        }
+        return new ExecutionContext(executor);
+    }
+
+    /**
+     * Checks that the current thread is executing a task launched through an
+     * execution context
+     *
+     * @return
+     */
+    public static boolean isWorkerThread() {
+        return WORKER.get() != null;
+    }
+
+    public boolean isSequential() {
+        return executor == null;
+    }
+
+    /**
+     * Executes the given tasks and waits for their completion. The tasks are
+     * run in the calling thread when the context is sequential or when the
+     * calling thread is already a worker.
+     *
+     * @param <T>
+     * @param tasks
+     * @return The futures of the tasks, in the same order. They are all done.
+     * @throws InterruptedException
+     */
+    public <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException {
+        if (executor == null || isWorkerThread() || tasks.size() < 2) {
+            List<Future<T>> result = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                FutureTask<T> ftask = new FutureTask<>(task);
+                ftask.run();
+                result.add(ftask);
+            }
+            return result;
+        } else {
+            List<Callable<T>> wtasks = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                wtasks.add(wrap(task));
+            }
+            return executor.invokeAll(wtasks);
+        }
+    }
+
+    /**
+     * Submits a task. The task is run immediately in the calling thread when
+     * the context is sequential or when the calling thread is already a
+     * worker.
+     *
+     * @param <T>
+     * @param task
+     * @return
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (executor == null || isWorkerThread()) {
+            FutureTask<T> ftask = new FutureTask<>(task);
+            ftask.run();
+            return ftask;
+        } else {
+            return executor.submit(wrap(task));
+        }
+    }
+
+    private <T> Callable<T> wrap(final Callable<T> task) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                ExecutionContext old = WORKER.get();
+                WORKER.set(ExecutionContext.this);
+                try {
+                    return task.call();
+                } finally {
+                    if (old == null) {
+                        WORKER.remove();
+                    } else {
+                        WORKER.set(old);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the execution time of a node
+     *
+     * @param node The name of the node
+     * @param nanos The execution time, in nanoseconds
+     */
+    public void record(String node, long nanos) {
+        Timer timer = timers.get(node);
+        if (timer == null) {
+            Timer ntimer = new Timer();
+            timer = timers.putIfAbsent(node, ntimer);
+            if (timer == null) {
+                timer = ntimer;
+            }
+        }
+        timer.add(nanos);
+    }
+
+    /**
+     * @return A snapshot of the cumulated timings, by node name
+     */
+    public List<Timing> getTimings() {
+        List<Timing> result = new ArrayList<>();
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            Timer timer = entry.getValue();
+            result.add(new Timing(entry.getKey(), timer.count.sum(), timer.total.sum(), timer.max.get()));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public void resetTimings() {
+        timers.clear();
+    }
+
+    @Override
+    public String toString() {
+        if (executor == null) {
+            return "sequential";
+        } else {
+            return this == shared_ ? "shared" : executor.toString();
+        }
+    }
+
+    private enum WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        INSTANCE;
+        //
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix = "pool-" + ExecutionContext.class.getSimpleName() + "-thread-";
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread t = new ForkJoinWorkerThread(pool) {
+            };
+            t.setName(namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }
+    }
+}
@@ -17,27 +17,40 @@
 package ec.tstoolkit.algorithm;
 
 import ec.tstoolkit.algorithm.IProcessing.Status;
-import ec.tstoolkit.information.InformationSet;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Node that executes its sub-nodes concurrently. The sub-nodes are run in the
+ * execution context given at construction or, by default, in the execution
+ * context of the active processing context. When the node is itself executed
+ * by a worker thread, its sub-nodes are run inline.
  *
  * @author Jean Palate
  */
 public class ParallelProcessingNode<I> implements IProcessingNode<I> {
 
-    private final int NBR_EXECUTORS = Runtime.getRuntime().availableProcessors();
     private final String name, prefix;
+    private final ExecutionContext context;
 
     public ParallelProcessingNode(final String name, final String prefix) {
+        this(name, prefix, null);
+    }
+
+    /**
+     *
+     * @param name
+     * @param prefix
+     * @param context The execution context. If null, the execution context of
+     * the active processing context is used
+     */
+    public ParallelProcessingNode(final String name, final String prefix, final ExecutionContext context) {
         this.name = name;
         this.prefix = prefix;
+        this.context = context;
     }
     private ArrayList<IProcessingNode<I>> nodes_ = new ArrayList<>();
 
@@ -45,17 +58,20 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
         nodes_.add(node);
     }
 
-    private List<Callable<IProcessing.Status>> createTasks(final I input, final Map<String, IProcResults> map, final Map<String, String> errors) {
+    private List<Callable<IProcessing.Status>> createTasks(final ExecutionContext ctx, final I input, final Map<String, IProcResults> map, final Map<String, String> errors) {
         ArrayList<Callable<IProcessing.Status>> result = new ArrayList<>();
         for (final IProcessingNode<I> o : nodes_) {
             result.add(new Callable<IProcessing.Status>() {
                 @Override
                 public IProcessing.Status call() throws Exception {
+                    long t0 = System.nanoTime();
                     try {
                         return o.process(input, map);
                     } catch (Exception err) {
-                        errors.put(o.getName(), err.getMessage());
+                        errors.put(o.getName(), String.valueOf(err.getMessage()));
                         return IProcessing.Status.Invalid;
+                    } finally {
+                        ctx.record(o.getName(), System.nanoTime() - t0);
                     }
                 }
             });
@@ -74,22 +90,26 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
         return prefix;
     }
 
+    public ExecutionContext getExecutionContext() {
+        return context != null ? context : ProcessingContext.getActiveContext().getExecutionContext();
+    }
+
     @Override
     public Status process(I input, Map<String, IProcResults> results) {
+        long t0 = System.nanoTime();
+        ExecutionContext ctx = getExecutionContext();
         CompositeResults cresults = new CompositeResults();
         final ConcurrentHashMap<String, IProcResults> map = new ConcurrentHashMap<>();
-        ExecutorService executorService = Executors.newFixedThreadPool(NBR_EXECUTORS, CustomThreadFactory.INSTANCE);
 
-        Map<String, String> errors=new ConcurrentHashMap<>();
-        List<Callable<IProcessing.Status>> tasks = createTasks(input, map, errors);
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        List<Callable<IProcessing.Status>> tasks = createTasks(ctx, input, map, errors);
         try {
-            executorService.invokeAll(tasks);
+            ctx.invokeAll(tasks);
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             return Status.Invalid;
         }
 
-        executorService.shutdown();
         for (IProcessingNode<I> cur : nodes_) {
 
             String cname = cur.getName();
@@ -102,29 +122,7 @@ public class ParallelProcessingNode<I> implements IProcessingNode<I> {
             }
         }
         results.put(name, cresults);
+        ctx.record(name, System.nanoTime() - t0);
         return Status.Valid;
     }
-
-    private enum CustomThreadFactory implements ThreadFactory {
-
-        INSTANCE;
-        //
-        final ThreadGroup group;
-        final AtomicInteger threadNumber = new AtomicInteger(1);
-        final String namePrefix;
-
-        private CustomThreadFactory() {
-            SecurityManager s = System.getSecurityManager();
-            group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
-            namePrefix = "pool-" + CustomThreadFactory.class.getSimpleName() + "-thread-";
-        }
-
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-            t.setDaemon(true);
-            t.setPriority(Thread.MIN_PRIORITY);
-            return t;
-        }
-    }
 }
@@ -41,6 +41,7 @@ public class ProcessingContext implements IModifiable {
 
     private final HashMap<Class, NameManager> map_ = new HashMap<>();
     private final static ProcessingContext[] def_ = new ProcessingContext[]{new ProcessingContext()};
+    private volatile ExecutionContext executionContext_;
 
     public ProcessingContext() {
         map_.put(TsVariables.class, new NameManager(TsVariables.class, "Variables_", new DefaultNameValidator(".")));
@@ -51,6 +52,26 @@ public class ProcessingContext implements IModifiable {
         return (GregorianCalendarManager) map_.get(IGregorianCalendarProvider.class);
     }
 
+    /**
+     * Gets the execution context used by the parallel parts of the processing.
+     * By default, the shared execution context is used.
+     *
+     * @return
+     */
+    public ExecutionContext getExecutionContext() {
+        ExecutionContext ctx = executionContext_;
+        return ctx != null ? ctx : ExecutionContext.shared();
+    }
+
+    /**
+     * Sets the execution context used by the parallel parts of the processing.
+     *
+     * @param ctx The new context. Null to use the shared execution context.
+     */
+    public void setExecutionContext(ExecutionContext ctx) {
+        executionContext_ = ctx;
+    }
+
     public NameManager<TsVariables> getTsVariableManagers() {
         return map_.get(TsVariables.class);
     }
@@ -19,7 +19,6 @@ package ec.tstoolkit.arima.estimation;
 import ec.tstoolkit.BaseException;
 import ec.tstoolkit.arima.IArimaModel;
 import ec.tstoolkit.data.DataBlock;
-import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.eco.ConcentratedLikelihood;
 import ec.tstoolkit.eco.RegModel;
@@ -117,7 +116,6 @@ public class ConcentratedLikelihoodEstimation {
 
     private boolean process(RegModel model, int nl, int nd, int[] missings) {
         fnCalls.incrementAndGet();
-        m_ll = new ConcentratedLikelihood();
         DataBlock y = model.getY().deepClone();
         int n = y.getLength();
         double[] factors = null;
@@ -133,7 +131,7 @@ public class ConcentratedLikelihoodEstimation {
         m_filter.filter(y, yl);
         Matrix x = model.variables();
         int nx = x == null ? 0 : x.getColumnsCount();
-        Matrix xl;
+        Matrix xl = null;
         if (nx > 0) {
             if (m_scaling) {
                 factors = new double[nx];
@@ -150,24 +148,40 @@ public class ConcentratedLikelihoodEstimation {
                 }
             }
             xl = new Matrix(nl, x.getColumnsCount());
-            DataBlockIterator xcols = x.columns();
-            DataBlockIterator xlcols = xl.columns();
-            DataBlock xcol = xcols.getData(), xlcol = xlcols.getData();
-
-            do {
-                m_filter.filter(xcol, xlcol);
-            } while (xcols.next() && xlcols.next());
+            m_filter.filter(x, xl);
+        }
+        return compute(yl, xl, m_filter.getLogDeterminant(), n, missings, model.isMeanCorrection(), yfactor, factors);
+    }
 
+    /**
+     * Computes the concentrated likelihood from the filtered data
+     *
+     * @param yl The filtered observations (scaled by yfactor)
+     * @param xl The filtered regression variables (scaled by factors). May be
+     * null
+     * @param ldet The log-determinant of the covariance matrix
+     * @param n The number of observations
+     * @param missings The missing values (may be null)
+     * @param mean True if the first regression variable is the mean
+     * @param yfactor The scaling factor of the observations
+     * @param factors The scaling factors of the regression variables (null if
+     * the data are not scaled)
+     * @return
+     */
+    boolean compute(DataBlock yl, Matrix xl, double ldet, int n, int[] missings, boolean mean, double yfactor, double[] factors) {
+        m_ll = new ConcentratedLikelihood();
+        int nl = yl.getLength();
+        int nx = xl == null ? 0 : xl.getColumnsCount();
+        if (nx > 0) {
             Householder qr = new Householder(true);
             qr.setEpsilon(1e-12);
             qr.decompose(xl);
             if (qr.getRank() == 0) {
                 double ssqerr = yl.ssq();
-                double ldet = m_filter.getLogDeterminant();
                 m_ll.set(ssqerr, ldet, n);
                 m_ll.setRes(yl.getData());
                 m_ll.setB(new double[nx], new Matrix(nx, nx), 0);
-                if (m_scaling) {
+                if (factors != null) {
                     m_ll.rescale(yfactor);
                 }
                 m_el = m_ll.getResiduals();
@@ -179,7 +193,6 @@ public class ConcentratedLikelihoodEstimation {
                 Matrix R = qr.getR();
                 double ssqerr = res.ssq();
                 int nm = missings == null ? 0 : missings.length;
-                double ldet = m_filter.getLogDeterminant();
                 if (nm > 0) {
 //                    // compute correction of the likelihood...
 //                    // exclude from the correction missing values in the initial data (nuisance terms)
@@ -199,10 +212,10 @@ public class ConcentratedLikelihoodEstimation {
                     // See also Francke, Koopman and de Vos, "Likelihood functions for State Space
                     // models with Diffuse Initial conditions" (2010) or McElroy, Model estimation... (2012).
                     // The transformation of the data can't depend on a parameter to be maximized.
-                    int mstart=model.isMeanCorrection() ? 1 : 0;
+                    int mstart=mean ? 1 : 0;
                     DataBlock rdiag = qr.getRDiagonal().extract(mstart, nm);
                     double corr=rdiag.sumLog().value;
-                    if (m_scaling)
+                    if (factors != null)
                         for (int i=0; i<nm; ++i)
                               corr-=Math.log(factors[mstart+i]);
                     ldet += 2 *corr;
@@ -247,7 +260,7 @@ public class ConcentratedLikelihoodEstimation {
                 for (int i = 0; i < nx; ++i) {
                     el.addAY(-b.get(i), xl.column(i));
                 }
-                if (m_scaling) {
+                if (factors != null) {
                     m_ll.rescale(yfactor, factors);
                     el.div(yfactor);
                 }
@@ -262,10 +275,9 @@ public class ConcentratedLikelihoodEstimation {
             }
         } else {
             double ssqerr = yl.ssq();
-            double ldet = m_filter.getLogDeterminant();
             m_ll.set(ssqerr, ldet, n);
             m_ll.setRes(yl.getData());
-            if (m_scaling) {
+            if (yfactor != 1) {
                 m_ll.rescale(yfactor);
             }
             m_el = m_ll.getResiduals();
@@ -20,9 +20,11 @@ package ec.tstoolkit.arima.estimation;
 
 import ec.tstoolkit.arima.*;
 import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.design.AlgorithmDefinition;
 import ec.tstoolkit.design.Development;
+import ec.tstoolkit.maths.matrices.Matrix;
 
 /**
  * This interface defines methods used to compute the likelihood of data generated
@@ -49,6 +51,24 @@ public interface IArmaFilter {
      */
     void filter(IReadDataBlock inrc, DataBlock outrc);
 
+    /**
+     * Computes Z=AY for all the columns of Y. The default implementation
+     * filters the columns one by one; implementations may share the
+     * computations that don't depend on the data.
+     * @param in Y (n x k)
+     * @param out Z (m x k)
+     */
+    default void filter(Matrix in, Matrix out) {
+        if (in.getColumnsCount() == 0) {
+            return;
+        }
+        DataBlockIterator cols = in.columns(), fcols = out.columns();
+        DataBlock col = cols.getData(), fcol = fcols.getData();
+        do {
+            filter(col, fcol);
+        } while (cols.next() && fcols.next());
+    }
+
     /**
      * Computes the log of the determinant of the covariance matrix
      * @return
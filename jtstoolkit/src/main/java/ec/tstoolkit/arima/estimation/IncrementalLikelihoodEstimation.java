@@ -0,0 +1,319 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.arima.estimation;
+
+import ec.tstoolkit.BaseException;
+import ec.tstoolkit.arima.ArimaException;
+import ec.tstoolkit.arima.IArimaModel;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.eco.Determinant;
+import ec.tstoolkit.eco.RegModel;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.polynomials.Polynomial;
+import java.util.Arrays;
+
+/**
+ * Concentrated likelihood estimation that can be updated when new observations
+ * are appended to the model. The state of the Kalman filter (covariances,
+ * gains, states of the observations and of the regression variables) and the
+ * filtered data are kept between two calls. When the new model has the same
+ * ARMA model and the same regression variables and when it only extends the
+ * previous data, only the new observations are filtered. Otherwise, the
+ * complete data are filtered (the state is rebuilt).
+ *
+ * The regression coefficients are always re-computed (QR decomposition of
+ * the filtered regression variables), exactly as in
+ * ConcentratedLikelihoodEstimation. Models with missing values are handled by
+ * the default (non incremental) routine.
+ */
+@Development(status = Development.Status.Alpha)
+public class IncrementalLikelihoodEstimation extends ConcentratedLikelihoodEstimation {
+
+    // model
+    private Polynomial ar_, ma_;
+    private double var_;
+    private int dim_, nx_;
+    private boolean mean_;
+    // filter (Cp_ contains the previous gains)
+    private double[] C_, Cp_, L_, a_;
+    private double h_;
+    private boolean steady_;
+    private final Determinant det_ = new Determinant();
+    // data (raw and filtered). Column 0 corresponds to the observations
+    private double[][] z_, zl_;
+    private double[] ssq_;
+    private int n_;
+    // last call
+    private boolean incremental_;
+    private int updated_;
+
+    public IncrementalLikelihoodEstimation() {
+    }
+
+    /**
+     * Indicates whether the last estimation has re-used the state of the
+     * previous one
+     *
+     * @return
+     */
+    public boolean isIncremental() {
+        return incremental_;
+    }
+
+    /**
+     * @return The number of observations filtered during the last estimation
+     */
+    public int getFilteredCount() {
+        return updated_;
+    }
+
+    /**
+     * @return The number of observations in the current state
+     */
+    public int getObsCount() {
+        return n_;
+    }
+
+    /**
+     * Clears the current state. The next estimation will filter all the data
+     */
+    public void reset() {
+        n_ = 0;
+        z_ = null;
+        zl_ = null;
+        a_ = null;
+        C_ = null;
+        Cp_ = null;
+        L_ = null;
+        ar_ = null;
+        ma_ = null;
+    }
+
+    @Override
+    public boolean estimate(RegModel dmodel, int d, int[] missings, IArimaModel arma) {
+        incremental_ = false;
+        updated_ = 0;
+        if (missings != null && missings.length > 0) {
+            reset();
+            return super.estimate(dmodel, d, missings, arma);
+        }
+        DataBlock y = dmodel.getY();
+        Matrix x = dmodel.variables();
+        int n = y.getLength();
+        int nx = x == null ? 0 : x.getColumnsCount();
+        try {
+            int n0 = 0;
+            if (canExtend(y, x, nx, dmodel.isMeanCorrection(), arma)) {
+                n0 = n_;
+            } else {
+                initialize(arma, nx, dmodel.isMeanCorrection(), n);
+            }
+            ensureCapacity(n);
+            for (int i = n0; i < n; ++i) {
+                z_[0][i] = y.get(i);
+                for (int j = 0; j < nx; ++j) {
+                    z_[j + 1][i] = x.get(i, j);
+                }
+                next(i);
+            }
+            n_ = n;
+            incremental_ = n0 > 0;
+            updated_ = n - n0;
+            return compute();
+        } catch (BaseException ex) {
+            reset();
+            return false;
+        }
+    }
+
+    private boolean compute() {
+        int n = n_;
+        double yfactor = 1;
+        double[] factors = null;
+        if (isScaling()) {
+            if (ssq_[0] != 0) {
+                yfactor = n / Math.sqrt(ssq_[0]);
+            }
+            if (nx_ > 0) {
+                factors = new double[nx_];
+                for (int j = 0; j < nx_; ++j) {
+                    factors[j] = ssq_[j + 1] != 0 ? n / Math.sqrt(ssq_[j + 1]) : 1;
+                }
+            }
+        }
+        DataBlock yl = new DataBlock(Arrays.copyOf(zl_[0], n));
+        if (yfactor != 1) {
+            yl.mul(yfactor);
+        }
+        Matrix xl = null;
+        if (nx_ > 0) {
+            xl = new Matrix(n, nx_);
+            double[] px = xl.internalStorage();
+            for (int j = 0, k = 0; j < nx_; ++j) {
+                double[] cur = zl_[j + 1];
+                double w = factors == null ? 1 : factors[j];
+                for (int i = 0; i < n; ++i, ++k) {
+                    px[k] = cur[i] * w;
+                }
+            }
+        }
+        return compute(yl, xl, det_.getLogDeterminant(), n, null, mean_, yfactor, factors);
+    }
+
+    private boolean canExtend(DataBlock y, Matrix x, int nx, boolean mean, IArimaModel arma) {
+        if (n_ == 0 || nx != nx_ || mean != mean_ || y.getLength() < n_) {
+            return false;
+        }
+        if (arma.getInnovationVariance() != var_ || !same(ar_, arma.getAR().getPolynomial())
+                || !same(ma_, arma.getMA().getPolynomial())) {
+            return false;
+        }
+        double[] cur = z_[0];
+        for (int i = 0; i < n_; ++i) {
+            if (cur[i] != y.get(i)) {
+                return false;
+            }
+        }
+        for (int j = 0; j < nx; ++j) {
+            cur = z_[j + 1];
+            for (int i = 0; i < n_; ++i) {
+                if (cur[i] != x.get(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean same(Polynomial p, Polynomial q) {
+        int deg = p.getDegree();
+        if (deg != q.getDegree()) {
+            return false;
+        }
+        for (int i = 0; i <= deg; ++i) {
+            if (p.get(i) != q.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void initialize(IArimaModel arma, int nx, boolean mean, int n) {
+        var_ = arma.getInnovationVariance();
+        ar_ = arma.getAR().getPolynomial();
+        ma_ = arma.getMA().getPolynomial();
+        dim_ = Math.max(ar_.getDegree(), ma_.getDegree() + 1);
+        nx_ = nx;
+        mean_ = mean;
+        double[] c0 = arma.getAutoCovarianceFunction().values(dim_);
+        h_ = c0[0];
+        // C0 = T*c0
+        double last = tlast(c0);
+        for (int i = 1; i < dim_; ++i) {
+            c0[i - 1] = c0[i];
+        }
+        c0[dim_ - 1] = last;
+        C_ = c0;
+        Cp_ = new double[dim_];
+        L_ = c0.clone();
+        a_ = new double[dim_ * (nx + 1)];
+        steady_ = false;
+        det_.clear();
+        z_ = new double[nx + 1][n];
+        zl_ = new double[nx + 1][n];
+        ssq_ = new double[nx + 1];
+        n_ = 0;
+    }
+
+    private void ensureCapacity(int n) {
+        if (z_[0].length >= n) {
+            return;
+        }
+        int cap = Math.max(n, z_[0].length + (z_[0].length >> 1));
+        for (int j = 0; j < z_.length; ++j) {
+            z_[j] = Arrays.copyOf(z_[j], cap);
+            zl_[j] = Arrays.copyOf(zl_[j], cap);
+        }
+    }
+
+    /**
+     * Filters the observation at position pos (for the observations and for
+     * the regression variables). Same recursions as KalmanFilter.
+     *
+     * @param pos
+     */
+    private void next(int pos) {
+        if (Double.isNaN(h_) || h_ < 0) {
+            throw new ArimaException(ArimaException.InvalidModel);
+        }
+        int ilast = dim_ - 1;
+        if (pos > 0 && !steady_) {
+            System.arraycopy(C_, 0, Cp_, 0, dim_);
+            double hp = h_;
+            double zl = L_[0];
+            double zlv = zl / h_;
+            double llast = tlast(L_), clast = C_[ilast];
+            for (int i = 0; i < ilast; ++i) {
+                double li = L_[i + 1];
+                if (zlv != 0) {
+                    L_[i] = li - C_[i] * zlv;
+                    C_[i] -= zlv * li;
+                } else {
+                    L_[i] = li;
+                }
+            }
+            L_[ilast] = llast - zlv * clast;
+            C_[ilast] -= zlv * llast;
+            h_ -= zl * zlv;
+            if (h_ < var_) {
+                h_ = var_;
+            }
+            // same criterion as KalmanFilter: the gains don't change anymore
+            if (Math.sqrt(h_) == Math.sqrt(hp) && Arrays.equals(C_, Cp_)) {
+                steady_ = true;
+            }
+        }
+        det_.add(h_);
+        double s = Math.sqrt(h_);
+        int nc = nx_ + 1;
+        for (int j = 0; j < nc; ++j) {
+            double z = z_[j][pos];
+            ssq_[j] += z * z;
+            int a0 = j * dim_;
+            double e = (z - a_[a0]) / s;
+            zl_[j][pos] = e;
+            double v = e / s;
+            double la = 0;
+            for (int i = 1; i <= ar_.getDegree(); ++i) {
+                la -= ar_.get(i) * a_[a0 + dim_ - i];
+            }
+            for (int i = 0; i < ilast; ++i) {
+                a_[a0 + i] = a_[a0 + i + 1] + C_[i] * v;
+            }
+            a_[a0 + ilast] = la + C_[ilast] * v;
+        }
+    }
+
+    private double tlast(final double[] x) {
+        double last = 0;
+        for (int i = 1; i <= ar_.getDegree(); ++i) {
+            last -= ar_.get(i) * x[dim_ - i];
+        }
+        return last;
+    }
+}
@@ -22,6 +22,7 @@ import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.IReadDataBlock;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.eco.Determinant;
+import ec.tstoolkit.maths.matrices.Matrix;
 import ec.tstoolkit.maths.polynomials.Polynomial;
 
 /**
@@ -44,6 +45,9 @@ public class KalmanFilter implements IArmaFilter {
 
     private int m_n;
 
+    // number of distinct steps in m_C/m_s (the following ones are steady)
+    private int m_np;
+
     private double m_ldet = Double.NaN;
 
     private double m_h0;
@@ -74,62 +78,82 @@ public class KalmanFilter implements IArmaFilter {
 
 	Determinant det = new Determinant();
 	double[] L = m_C0.clone();
-	m_C = new double[m_dim * m_n];
+	double[] C = new double[m_dim * m_n];
 	for (int i = 0; i < m_dim; ++i) {
-	    m_C[i] = L[i];
+	    C[i] = L[i];
 	}
-	m_s = new double[m_n];
+	double[] s = new double[m_n];
 	double h = m_h0;
 
 	det.add(h);
-	m_s[0] = Math.sqrt(h);
+	s[0] = Math.sqrt(h);
 	// iteration
-	int pos = 0, cpos = 0, ilast = m_dim - 1;
-	boolean bfast = false;
-	while (++pos < m_n) {
+	int pos = 0, cpos = 0, ilast = m_dim - 1, np = m_n;
+	while (++pos < np) {
 	    if (Double.isNaN(h) || h < 0) {
 		throw new ec.tstoolkit.arima.ArimaException(
 			ec.tstoolkit.arima.ArimaException.InvalidModel);
 	    }
-	    if (!bfast) {
-		double zl = L[0];
-		double zlv = zl / h;
-		double llast = tlast(L);
-
-		// C, L
-		for (int i = 0; i < ilast; ++i, ++cpos) {
-		    double li = L[i + 1];
-		    double ci = m_C[cpos];
-		    if (zlv != 0) {
-			L[i] = li - ci * zlv;
-			m_C[cpos + m_dim] = ci - zlv * li;
-		    } else {
-			L[i] = li;
-			m_C[cpos + m_dim] = ci;
-		    }
+	    double zl = L[0];
+	    double zlv = zl / h;
+	    double llast = tlast(L);
+
+	    // C, L
+	    for (int i = 0; i < ilast; ++i, ++cpos) {
+		double li = L[i + 1];
+		double ci = C[cpos];
+		if (zlv != 0) {
+		    L[i] = li - ci * zlv;
+		    C[cpos + m_dim] = ci - zlv * li;
+		} else {
+		    L[i] = li;
+		    C[cpos + m_dim] = ci;
 		}
+	    }
 
-		double clast = m_C[cpos];
+	    double clast = C[cpos];
 
-		L[ilast] = llast - zlv * clast;
-		m_C[cpos + m_dim] = clast - zlv * llast;
-		++cpos;
+	    L[ilast] = llast - zlv * clast;
+	    C[cpos + m_dim] = clast - zlv * llast;
+	    ++cpos;
 
-		h -= zl * zlv;
-		if (h < m_var) {
-		    h = m_var;
-		}
-		if (h - m_var <= m_eps) {
-		    bfast = true;
-		}
+	    h -= zl * zlv;
+	    if (h < m_var) {
+		h = m_var;
 	    }
 	    det.add(h);
-	    m_s[pos] = Math.sqrt(h);
+	    s[pos] = Math.sqrt(h);
+	    if (s[pos] == s[pos - 1] && isSteady(C, cpos)) {
+		// steady state: the gains don't change anymore
+		np = pos + 1;
+	    }
+	}
+	for (int i = np; i < m_n; ++i) {
+	    det.add(h);
+	}
+	m_np = np;
+	if (np < m_n) {
+	    m_C = new double[m_dim * np];
+	    System.arraycopy(C, 0, m_C, 0, m_C.length);
+	    m_s = new double[np];
+	    System.arraycopy(s, 0, m_s, 0, np);
+	} else {
+	    m_C = C;
+	    m_s = s;
 	}
-
 	m_ldet = det.getLogDeterminant();
     }
 
+    // the gains stored at cpos are identical to the previous ones
+    private boolean isSteady(double[] C, int cpos) {
+	for (int i = cpos, j = cpos - m_dim; j < cpos; ++i, ++j) {
+	    if (C[i] != C[j]) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
     private void calcdet() {
 	Determinant det = new Determinant();
 	double[] C = m_C0.clone();
@@ -196,6 +220,69 @@ public class KalmanFilter implements IArmaFilter {
 	}
     }
 
+    /**
+     * Filters simultaneously the columns of a matrix (typically the
+     * regression variables of a model or a panel of series that follow the
+     * same model). The covariances and the gains of the filter are computed
+     * only once (they don't depend on the data) and the recursions are then
+     * applied to all the columns. The path of the gains is stored till the
+     * filter reaches its steady state.
+     *
+     * @param y The data. The number of rows should be equal to the length of
+     * the filter
+     * @param yf The filtered data. Same dimensions as y
+     */
+    @Override
+    public void filter(Matrix y, Matrix yf) {
+	int nc = y.getColumnsCount();
+	if (nc == 0) {
+	    return;
+	}
+	if (m_C == null) {
+	    calcC();
+	}
+	double[] py = y.internalStorage(), pyf = yf.internalStorage();
+	int ny = y.getRowsCount(), nyf = yf.getRowsCount();
+	int ilast = m_dim - 1, deg = m_phi.getDegree(), last = m_np - 1;
+	// states, stored by rows (a[i*nc+j] is the i-th state of the j-th column)
+	double[] a = new double[m_dim * nc];
+	double[] v = new double[nc], la = new double[nc];
+	int pos = 0;
+	do {
+	    int k = pos < last ? pos : last;
+	    double s = m_s[k];
+	    for (int j = 0, iy = pos, iyf = pos; j < nc; ++j, iy += ny, iyf += nyf) {
+		double e = (py[iy] - a[j]) / s;
+		pyf[iyf] = e;
+		v[j] = e / s;
+	    }
+	    if (pos == m_n - 1) {
+		break;
+	    }
+	    // la = last state of T*a
+	    for (int j = 0; j < nc; ++j) {
+		la[j] = 0;
+	    }
+	    for (int i = 1; i <= deg; ++i) {
+		double phi = m_phi.get(i);
+		for (int j = 0, l = (m_dim - i) * nc; j < nc; ++j, ++l) {
+		    la[j] -= phi * a[l];
+		}
+	    }
+	    int cpos = k * m_dim;
+	    for (int i = 0, r = 0; i < ilast; ++i) {
+		double c = m_C[cpos++];
+		for (int j = 0; j < nc; ++j, ++r) {
+		    a[r] = a[r + nc] + c * v[j];
+		}
+	    }
+	    double c = m_C[cpos];
+	    for (int j = 0, r = ilast * nc; j < nc; ++j, ++r) {
+		a[r] = la[j] + c * v[j];
+	    }
+	} while (++pos < m_n);
+    }
+
     @Override
     public double getLogDeterminant() {
 	if (Double.isNaN(m_ldet)) {
@@ -213,6 +300,8 @@ public class KalmanFilter implements IArmaFilter {
 	m_C0 = model.getAutoCovarianceFunction().values(m_dim);
 	m_h0 = m_C0[0];
 	m_n = length;
+	m_C = null;
+	m_s = null;
 	tx(m_C0);
 
 	if (m_multiuse) {
@@ -226,7 +315,7 @@ public class KalmanFilter implements IArmaFilter {
 	double[] a = new double[m_dim];
 	// iteration
 
-	int pos = 0, cpos = 0, ilast = m_dim - 1;
+	int pos = 0, cpos = 0, ilast = m_dim - 1, last = m_np - 1;
 	double s = m_s[pos];
 	double e = y.get(pos) / s;
 	yf.set(pos, e);
@@ -234,12 +323,16 @@ public class KalmanFilter implements IArmaFilter {
 	    // filter y
 	    double la = tlast(a);
 	    double v = e / s;
+	    if (pos > last) {
+		// steady state
+		cpos = last * m_dim;
+	    }
 	    for (int i = 0; i < ilast; ++i) {
 		a[i] = a[i + 1] + m_C[cpos++] * v;
 	    }
 	    a[ilast] = la + m_C[cpos++] * v;
 	    // filter x if any
-	    s = m_s[pos];
+	    s = m_s[pos < last ? pos : last];
 	    e = (y.get(pos) - a[0]) / s;
 	    yf.set(pos, e);
 	}
@@ -17,6 +17,7 @@
 package ec.tstoolkit.data;
 
 import ec.tstoolkit.arima.Spectrum;
+import ec.tstoolkit.maths.FftEngine;
 import ec.tstoolkit.maths.linearfilters.BackFilter;
 import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
 import ec.tstoolkit.maths.matrices.Householder;
@@ -142,7 +143,42 @@ public class AutoRegressiveSpectrum {
             c2 += ar[j] * Math.cos(dj);
             s2 += ar[j] * Math.sin(dj);
         }
-        double p = sig / (c2 * c2 + s2 * s2);
+        return db(sig / (c2 * c2 + s2 * s2));
+    }
+
+    /**
+     * Computes the spectrum on a regular grid of frequencies, by means of a
+     * fast Fourier transformation of the auto-regressive polynomial.
+     *
+     * @param npoints The number of intervals in [0, pi]
+     * @return The values of the spectrum at the frequencies pi*k/npoints,
+     * k in [0, npoints]
+     */
+    public double[] values(int npoints) {
+        if (npoints < 1) {
+            throw new IllegalArgumentException();
+        }
+        double[] s = new double[npoints + 1];
+        int n = 2 * npoints;
+        if (n <= ar.length) {
+            double step = Math.PI / npoints;
+            for (int i = 0; i <= npoints; ++i) {
+                s[i] = value(step * i);
+            }
+            return s;
+        }
+        double[] g = new double[n];
+        g[0] = 1;
+        System.arraycopy(ar, 0, g, 1, ar.length);
+        double[] re = new double[npoints + 1], im = new double[npoints + 1];
+        new FftEngine(n).transformReal(g, re, im);
+        for (int i = 0; i <= npoints; ++i) {
+            s[i] = db(sig / (re[i] * re[i] + im[i] * im[i]));
+        }
+        return s;
+    }
+
+    private static double db(double p) {
         if (p <= 0) {
             return 0;
         }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.data;
+
+import ec.tstoolkit.design.Development;
+import java.nio.DoubleBuffer;
+
+/**
+ * Read-only view on a part of a DoubleBuffer (for instance a direct or a
+ * memory-mapped buffer). The data are not copied: the view only uses absolute
+ * accesses, so that it doesn't modify the state (position, limit) of the
+ * buffer and it can be shared between threads.
+ */
+@Development(status = Development.Status.Alpha)
+public class ReadDataBuffer implements IReadDataBlock {
+
+    private final DoubleBuffer m_data;
+    private final int m_start, m_end;
+
+    /**
+     * Creates a view on the remaining elements of the buffer
+     *
+     * @param data The buffer
+     */
+    public ReadDataBuffer(final DoubleBuffer data) {
+        this(data, data.position(), data.remaining());
+    }
+
+    /**
+     *
+     * @param data The buffer
+     * @param start The absolute position of the first element
+     * @param length The number of elements
+     */
+    public ReadDataBuffer(final DoubleBuffer data, int start, int length) {
+        if (start < 0 || length < 0 || start + length > data.capacity()) {
+            throw new IndexOutOfBoundsException();
+        }
+        m_data = data;
+        m_start = start;
+        m_end = start + length;
+    }
+
+    @Override
+    public void copyTo(double[] buffer, int start) {
+        DoubleBuffer tmp = m_data.duplicate();
+        tmp.limit(m_end);
+        tmp.position(m_start);
+        tmp.get(buffer, start, m_end - m_start);
+    }
+
+    @Override
+    public double get(final int idx) {
+        return m_data.get(m_start + idx);
+    }
+
+    @Override
+    public int getLength() {
+        return m_end - m_start;
+    }
+
+    @Override
+    public IReadDataBlock rextract(int start, int length) {
+        return new ReadDataBuffer(m_data, m_start + start, length);
+    }
+
+    @Override
+    public String toString() {
+        return ReadDataBlock.toString(this);
+    }
+}
@@ -17,29 +17,19 @@
 package ec.tstoolkit.maths;
 
 import ec.tstoolkit.design.Development;
-import ec.tstoolkit.utilities.Arrays2;
 
 /**
- * Fast Fourier transformation
+ * Fast Fourier transformation of arrays of complex numbers.
+ * The computation is delegated to FftEngine, which works on primitive arrays
+ * and supports any length. Performance-sensitive code should use FftEngine
+ * directly.
  * @author Frank Osaer
  */
 @Development(status = Development.Status.Alpha)
 public class Fft {
 
-    private static final double[] CosArray;
-    private static final double[] SinArray;
-
-    static {
-	CosArray = new double[16];
-	SinArray = new double[16];
-	final double twopi = Math.PI * 2;
-	double n = 2;
-	for (int i = 0; i < 16; ++i) {
-	    CosArray[i] = Math.cos(twopi / n);
-	    SinArray[i] = Math.sin(twopi / n);
-	    n *= 2;
-	}
-    }
+    private FftEngine engine;
+    private double[] re, im;
 
     /**
      * 
@@ -60,43 +50,23 @@ public class Fft {
 
     private void transform(final Complex[] data, final boolean back) {
 	final int n = data.length;
-	for (int i = 0, j = 0; i < n; ++i) {
-	    if (j > i)
-		Arrays2.swap(data, i, j);
-	    int q = n >> 1;
-	    while (q >= 1 && j >= q) {
-		j -= q;
-		q >>= 1;
-	    }
-	    j += q;
-	}
-	// Danielson-Lanzcos routine
-	int m = 1, s = 0;
-	// external loop
-	while (m < n) {
-	    int tm = m << 1;
-	    Complex wm = Complex.cart(CosArray[s], back ? -SinArray[s]
-		    : SinArray[s]);
-	    Complex w = Complex.ONE;
-	    // internal loops
-	    for (int j = 0; j < m; ++j) {
-		for (int k = j; k < n; k += tm) {
-		    int l = k + m;
-		    Complex t = w.times(data[l]);
-		    Complex u = data[k];
-		    data[k] = u.plus(t);
-		    data[l] = u.minus(t);
-		}
-		w = w.times(wm);
-	    }
-	    m = tm;
-	    ++s;
+	if (n == 0)
+	    return;
+	if (engine == null || engine.getLength() != n) {
+	    engine = new FftEngine(n);
+	    re = new double[n];
+	    im = new double[n];
 	}
-	if (back) {
-	    final double v = 1.0 / n;
-	    for (int i = 0; i < n; ++i)
-		data[i] = data[i].times(v);
+	for (int i = 0; i < n; ++i) {
+	    re[i] = data[i].getRe();
+	    im[i] = data[i].getIm();
 	}
+	if (back)
+	    engine.backTransform(re, im);
+	else
+	    engine.transform(re, im);
+	for (int i = 0; i < n; ++i)
+	    data[i] = Complex.cart(re[i], im[i]);
     }
 
 }
@@ -0,0 +1,300 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+*/
+package ec.tstoolkit.maths;
+
+import ec.tstoolkit.design.Development;
+
+/**
+ * Fast Fourier transformation on split real/imaginary arrays.
+ * The transformations are done in place and don't allocate any object.
+ * Lengths that are powers of two are handled by a radix-2 algorithm, other
+ * lengths by the chirp-z (Bluestein) algorithm.
+ *
+ * The sign convention is the same as in Fft: the forward transformation
+ * computes X(k) = sum(x(j)*e(2*pi*i*j*k/n)) and the backward transformation
+ * is scaled by 1/n.
+ *
+ * An engine is bound to a given length and owns its working buffers. It must
+ * not be shared between threads.
+ */
+@Development(status = Development.Status.Alpha)
+public class FftEngine {
+
+    private final int n;
+    // radix-2
+    private final int[] rev;
+    private final double[] cos, sin;
+    // Bluestein
+    private final FftEngine conv;
+    private final double[] wre, wim, bre, bim, are, aim;
+    // real input (lazily created)
+    private FftEngine half;
+    private double[] rcos, rsin, hre, him;
+
+    /**
+     * Creates an engine for sequences of a given length
+     *
+     * @param n The length of the sequences. Should be strictly positive
+     */
+    public FftEngine(final int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Invalid FFT length");
+        }
+        this.n = n;
+        if (isPowerOfTwo(n)) {
+            rev = new int[n];
+            for (int i = 0, j = 0; i < n; ++i) {
+                rev[i] = j;
+                int q = n >> 1;
+                while (q >= 1 && j >= q) {
+                    j -= q;
+                    q >>= 1;
+                }
+                j += q;
+            }
+            int h = n >> 1;
+            cos = new double[h];
+            sin = new double[h];
+            for (int i = 0; i < h; ++i) {
+                double a = 2 * Math.PI * i / n;
+                cos[i] = Math.cos(a);
+                sin[i] = Math.sin(a);
+            }
+            conv = null;
+            wre = null;
+            wim = null;
+            bre = null;
+            bim = null;
+            are = null;
+            aim = null;
+        } else {
+            rev = null;
+            cos = null;
+            sin = null;
+            int m = 1;
+            while (m < 2 * n - 1) {
+                m <<= 1;
+            }
+            conv = new FftEngine(m);
+            // chirp: w(k) = e(i*pi*k*k/n)
+            wre = new double[n];
+            wim = new double[n];
+            long n2 = 2L * n;
+            for (int k = 0; k < n; ++k) {
+                long k2 = ((long) k * k) % n2;
+                double a = Math.PI * k2 / n;
+                wre[k] = Math.cos(a);
+                wim[k] = Math.sin(a);
+            }
+            // transformed filter: conj(w), circularly embedded
+            bre = new double[m];
+            bim = new double[m];
+            bre[0] = wre[0];
+            bim[0] = -wim[0];
+            for (int k = 1; k < n; ++k) {
+                bre[k] = bre[m - k] = wre[k];
+                bim[k] = bim[m - k] = -wim[k];
+            }
+            conv.forward(bre, bim);
+            are = new double[m];
+            aim = new double[m];
+        }
+    }
+
+    /**
+     * Checks that a given integer is a power of two
+     *
+     * @param n The checked integer
+     * @return True if n is a (strictly positive) power of two
+     */
+    public static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * @return The length of the transformed sequences
+     */
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Forward transformation, in place.
+     *
+     * @param re The real parts. Only the first n elements are used
+     * @param im The imaginary parts. Only the first n elements are used
+     */
+    public void transform(final double[] re, final double[] im) {
+        check(re, n);
+        check(im, n);
+        forward(re, im);
+    }
+
+    /**
+     * Backward transformation (scaled by 1/n), in place.
+     *
+     * @param re The real parts. Only the first n elements are used
+     * @param im The imaginary parts. Only the first n elements are used
+     */
+    public void backTransform(final double[] re, final double[] im) {
+        check(re, n);
+        check(im, n);
+        // backward(x) = conj(forward(conj(x)))/n
+        for (int i = 0; i < n; ++i) {
+            im[i] = -im[i];
+        }
+        forward(re, im);
+        final double v = 1.0 / n;
+        for (int i = 0; i < n; ++i) {
+            re[i] *= v;
+            im[i] *= -v;
+        }
+    }
+
+    /**
+     * Forward transformation of a real sequence. As the transformation of
+     * real data is hermitian, only the first n/2+1 coefficients are computed.
+     * When n is even, the computation is done through a complex transformation
+     * of length n/2.
+     *
+     * @param x The real data (n elements). Not modified, except if it is also
+     * used as output
+     * @param re The real parts of the coefficients (at least n/2+1 elements)
+     * @param im The imaginary parts of the coefficients (at least n/2+1
+     * elements)
+     */
+    public void transformReal(final double[] x, final double[] re, final double[] im) {
+        check(x, n);
+        int h = n / 2;
+        check(re, h + 1);
+        check(im, h + 1);
+        if (n % 2 != 0) {
+            if (hre == null) {
+                hre = new double[n];
+                him = new double[n];
+            }
+            System.arraycopy(x, 0, hre, 0, n);
+            for (int i = 0; i < n; ++i) {
+                him[i] = 0;
+            }
+            forward(hre, him);
+            System.arraycopy(hre, 0, re, 0, h + 1);
+            System.arraycopy(him, 0, im, 0, h + 1);
+            return;
+        }
+        if (half == null) {
+            half = new FftEngine(h);
+            hre = new double[h];
+            him = new double[h];
+            rcos = new double[h + 1];
+            rsin = new double[h + 1];
+            for (int k = 0; k <= h; ++k) {
+                double a = 2 * Math.PI * k / n;
+                rcos[k] = Math.cos(a);
+                rsin[k] = Math.sin(a);
+            }
+        }
+        // z(j) = x(2j) + i*x(2j+1)
+        for (int j = 0, k = 0; j < h; ++j, k += 2) {
+            hre[j] = x[k];
+            him[j] = x[k + 1];
+        }
+        half.forward(hre, him);
+        // E(k) = (Z(k) + conj(Z(h-k)))/2, O(k) = (Z(k) - conj(Z(h-k)))/(2i)
+        // X(k) = E(k) + e(2*pi*i*k/n) * O(k)
+        for (int k = 0; k <= h; ++k) {
+            int k1 = k == h ? 0 : k, k2 = k == 0 ? 0 : h - k;
+            double zr = hre[k1], zi = him[k1];
+            double cr = hre[k2], ci = -him[k2];
+            double er = .5 * (zr + cr), ei = .5 * (zi + ci);
+            double or = .5 * (zi - ci), oi = -.5 * (zr - cr);
+            double c = rcos[k], s = rsin[k];
+            re[k] = er + c * or - s * oi;
+            im[k] = ei + c * oi + s * or;
+        }
+    }
+
+    private void forward(final double[] re, final double[] im) {
+        if (conv == null) {
+            radix2(re, im);
+        } else {
+            bluestein(re, im);
+        }
+    }
+
+    private void radix2(final double[] re, final double[] im) {
+        for (int i = 0; i < n; ++i) {
+            int j = rev[i];
+            if (j > i) {
+                double tmp = re[i];
+                re[i] = re[j];
+                re[j] = tmp;
+                tmp = im[i];
+                im[i] = im[j];
+                im[j] = tmp;
+            }
+        }
+        // Danielson-Lanczos
+        for (int m = 1, step = n >> 1; m < n; m <<= 1, step >>= 1) {
+            int tm = m << 1;
+            for (int j = 0, t = 0; j < m; ++j, t += step) {
+                double wr = cos[t], wi = sin[t];
+                for (int k = j; k < n; k += tm) {
+                    int l = k + m;
+                    double tr = wr * re[l] - wi * im[l];
+                    double ti = wr * im[l] + wi * re[l];
+                    re[l] = re[k] - tr;
+                    im[l] = im[k] - ti;
+                    re[k] += tr;
+                    im[k] += ti;
+                }
+            }
+        }
+    }
+
+    private void bluestein(final double[] re, final double[] im) {
+        // X(k) = w(k) * sum(x(j)*w(j)*conj(w(k-j)))
+        int m = are.length;
+        for (int j = 0; j < n; ++j) {
+            double xr = re[j], xi = im[j];
+            are[j] = xr * wre[j] - xi * wim[j];
+            aim[j] = xr * wim[j] + xi * wre[j];
+        }
+        for (int j = n; j < m; ++j) {
+            are[j] = 0;
+            aim[j] = 0;
+        }
+        conv.forward(are, aim);
+        for (int j = 0; j < m; ++j) {
+            double ar = are[j], ai = aim[j];
+            are[j] = ar * bre[j] - ai * bim[j];
+            aim[j] = ar * bim[j] + ai * bre[j];
+        }
+        conv.backTransform(are, aim);
+        for (int k = 0; k < n; ++k) {
+            double ar = are[k], ai = aim[k];
+            re[k] = ar * wre[k] - ai * wim[k];
+            im[k] = ar * wim[k] + ai * wre[k];
+        }
+    }
+
+    private static void check(final double[] data, final int len) {
+        if (data.length < len) {
+            throw new IllegalArgumentException("Invalid buffer length");
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths.matrices;
+
+import ec.tstoolkit.design.Development;
+
+/**
+ * LU decomposition with partial pivoting of a square band matrix, with kl
+ * sub-diagonals and ku super-diagonals. This class is a translation of the
+ * Lapack routines dgbtf2 / dgbtrs.
+ * <br>
+ * The matrix is stored by columns in a (2*kl+ku+1) x n array; the kl first
+ * rows of that array receive the fill-in generated by the row interchanges.
+ * The decomposition needs O(n*kl*(kl+ku)) operations and O(n*(2*kl+ku))
+ * memory, instead of O(n^3) and O(n^2) for a dense matrix.
+ */
+@Development(status = Development.Status.Alpha)
+public final class BandLuDecomposition {
+
+    private final int n, kl, ku, ld;
+    private final double[] ab;
+    private final int[] piv;
+    private boolean decomposed;
+
+    /**
+     * Creates a new (zero) band matrix
+     *
+     * @param n The dimension of the matrix
+     * @param kl The number of sub-diagonals
+     * @param ku The number of super-diagonals
+     */
+    public BandLuDecomposition(int n, int kl, int ku) {
+        if (n < 0 || kl < 0 || ku < 0) {
+            throw new MatrixException(MatrixException.IncompatibleDimensions);
+        }
+        this.n = n;
+        this.kl = kl;
+        this.ku = ku;
+        this.ld = 2 * kl + ku + 1;
+        this.ab = new double[ld * n];
+        this.piv = new int[n];
+    }
+
+    public int getDimension() {
+        return n;
+    }
+
+    public int getLowerBandwidth() {
+        return kl;
+    }
+
+    public int getUpperBandwidth() {
+        return ku;
+    }
+
+    /**
+     * Gets the element (i, j) of the matrix (or of its decomposition, when it
+     * has been computed)
+     *
+     * @param i The row index
+     * @param j The column index
+     * @return
+     */
+    public double get(int i, int j) {
+        if (i - j > kl || j - i > ku + (decomposed ? kl : 0)) {
+            return 0;
+        }
+        return ab[idx(i, j)];
+    }
+
+    /**
+     * Sets the element (i, j) of the matrix. The element must be in the band.
+     *
+     * @param i The row index
+     * @param j The column index
+     * @param value The new value
+     */
+    public void set(int i, int j, double value) {
+        check(i, j);
+        ab[idx(i, j)] = value;
+    }
+
+    /**
+     * Adds a value to the element (i, j) of the matrix. The element must be in
+     * the band.
+     *
+     * @param i The row index
+     * @param j The column index
+     * @param value The added value
+     */
+    public void add(int i, int j, double value) {
+        check(i, j);
+        ab[idx(i, j)] += value;
+    }
+
+    /**
+     * Computes the decomposition P*A = L*U.
+     *
+     * @throws MatrixException when the matrix is singular
+     */
+    public void decompose() {
+        if (decomposed) {
+            return;
+        }
+        int kv = ku + kl;
+        // index of the last column affected by the current stage
+        int ju = 0;
+        for (int j = 0; j < n; ++j) {
+            int km = Math.min(kl, n - 1 - j);
+            // pivot
+            int cj = j * ld + kv;
+            int jp = 0;
+            double amax = Math.abs(ab[cj]);
+            for (int r = 1; r <= km; ++r) {
+                double cur = Math.abs(ab[cj + r]);
+                if (cur > amax) {
+                    amax = cur;
+                    jp = r;
+                }
+            }
+            piv[j] = j + jp;
+            if (amax == 0) {
+                throw new MatrixException(MatrixException.Singular);
+            }
+            ju = Math.max(ju, Math.min(j + ku + jp, n - 1));
+            if (jp != 0) {
+                for (int c = j; c <= ju; ++c) {
+                    int k0 = idx(j, c), k1 = k0 + jp;
+                    double tmp = ab[k0];
+                    ab[k0] = ab[k1];
+                    ab[k1] = tmp;
+                }
+            }
+            if (km > 0) {
+                double pivot = 1 / ab[cj];
+                for (int r = 1; r <= km; ++r) {
+                    ab[cj + r] *= pivot;
+                }
+                for (int c = j + 1; c <= ju; ++c) {
+                    int k = idx(j, c);
+                    double a = ab[k];
+                    if (a != 0) {
+                        for (int r = 1; r <= km; ++r) {
+                            ab[k + r] -= ab[cj + r] * a;
+                        }
+                    }
+                }
+            }
+        }
+        decomposed = true;
+    }
+
+    /**
+     * Solves in place the system A*x = b. The matrix is decomposed if need be.
+     *
+     * @param b On entry, the right-hand side; on exit, the solution
+     * @throws MatrixException when the matrix is singular
+     */
+    public void solve(double[] b) {
+        if (b.length != n) {
+            throw new MatrixException(MatrixException.IncompatibleDimensions);
+        }
+        decompose();
+        int kv = ku + kl;
+        // L
+        for (int j = 0; j < n - 1; ++j) {
+            int lm = Math.min(kl, n - 1 - j);
+            int l = piv[j];
+            if (l != j) {
+                double tmp = b[l];
+                b[l] = b[j];
+                b[j] = tmp;
+            }
+            double bj = b[j];
+            if (bj != 0) {
+                int cj = j * ld + kv;
+                for (int r = 1; r <= lm; ++r) {
+                    b[j + r] -= ab[cj + r] * bj;
+                }
+            }
+        }
+        // U, which has kl+ku super-diagonals
+        for (int j = n - 1; j >= 0; --j) {
+            int cj = j * ld + kv;
+            double bj = b[j] / ab[cj];
+            b[j] = bj;
+            if (bj != 0) {
+                int imin = Math.max(0, j - kv);
+                for (int i = imin; i < j; ++i) {
+                    b[i] -= ab[cj + i - j] * bj;
+                }
+            }
+        }
+    }
+
+    private int idx(int i, int j) {
+        return j * ld + ku + kl + i - j;
+    }
+
+    private void check(int i, int j) {
+        if (decomposed || i < 0 || j < 0 || i >= n || j >= n || i - j > kl || j - i > ku) {
+            throw new MatrixException(MatrixException.IncompatibleDimensions);
+        }
+    }
+}
@@ -133,6 +133,10 @@ public class Householder extends AbstractLinearSystemSolver implements
     }
 
     private void householder() {
+        if (m_n > MatrixKernels.NB && (long) m_m * m_n >= MatrixKernels.FACTORIZATION_THRESHOLD) {
+            blockedHouseholder();
+            return;
+        }
         int[] unused = new int[m_norig];
         int nunused = 0, nrdiag = 0;
         // Main loop.
@@ -193,6 +197,57 @@ public class Householder extends AbstractLinearSystemSolver implements
         }
     }
 
+    /**
+     * Blocked version of the decomposition. The columns are processed by
+     * panels of NB reflections: the reflections of the current panel are only
+     * applied to a column when it becomes the current column, and to the
+     * remaining columns at the end of the panel. Each column undergoes the
+     * same transformations as in the unblocked version.
+     */
+    private void blockedHouseholder() {
+        int[] unused = new int[m_norig];
+        int nunused = 0, nrdiag = 0;
+        double eps = getEpsilon();
+        int len = m_qr.length;
+        int l = 0, k = 0;
+        while (k < m_n) {
+            int l0 = l;
+            for (; k < m_n && l - l0 < MatrixKernels.NB; ++k) {
+                int km = l * m_m;
+                // delayed reflections of the current panel
+                for (int q = l0, qm = l0 * m_m; q < l; ++q, qm += m_m) {
+                    MatrixKernels.applyHouseholder(m_qr, m_m, q, qm, km);
+                }
+                DataBlock col = new DataBlock(m_qr, km + l, km + m_m, 1);
+                double nrm = col.nrm2();
+                if (nrm > eps) {
+                    if (m_qr[l + km] < -eps) {
+                        nrm = -nrm;
+                    }
+                    for (int i = l; i < m_m; ++i) {
+                        m_qr[i + km] /= nrm;
+                    }
+                    m_qr[l + km] += 1.0;
+                    m_rdiag[nrdiag++] = -nrm;
+                    ++l;
+                } else {
+                    unused[nunused++] = k;
+                    len -= m_m;
+                    System.arraycopy(m_qr, km + m_m, m_qr, km, len - km);
+                }
+            }
+            // remaining columns
+            MatrixKernels.applyHouseholder(m_qr, m_m, l0, l, l, len / m_m);
+        }
+        if (nunused > 0) {
+            m_unused = new int[nunused];
+            System.arraycopy(unused, 0, m_unused, 0, nunused);
+            m_n -= nunused;
+        } else {
+            m_unused = null;
+        }
+    }
+
     private void init(Matrix m) {
         m_m = m.getRowsCount();
         m_norig = m_n = m.getColumnsCount();
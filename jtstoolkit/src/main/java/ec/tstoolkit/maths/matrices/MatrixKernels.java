@@ -0,0 +1,478 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths.matrices;
+
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.design.Development;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Blocked (cache-aware) dense kernels used by Matrix, SymmetricMatrix and
+ * Householder for large problems. The kernels work directly on the
+ * column-major storage of the matrices.
+ * <br>
+ * The blocking only changes the order in which the cells are processed:
+ * each cell is computed with the same sequence of floating point operations
+ * as in the simple loops, so that the results are identical.
+ * Large problems are split in independent blocks that are executed by the
+ * execution context of the kernels (the shared context by default).
+ */
+@Development(status = Development.Status.Alpha)
+public final class MatrixKernels {
+
+    /**
+     * Minimal number of multiplications for using the blocked kernels
+     */
+    public static final long BLOCKED_THRESHOLD = 1L << 15;
+    /**
+     * Minimal number of multiplications for splitting a kernel in parallel
+     * tasks
+     */
+    public static final long PARALLEL_THRESHOLD = 1L << 22;
+    // minimal number of cells of a matrix for using the blocked factorizations
+    // (smaller matrices stay in the cache)
+    static final long FACTORIZATION_THRESHOLD = 1L << 17;
+    // number of columns of a panel (cholesky, QR)
+    static final int NB = 32;
+    // number of rows of a tile (cholesky)
+    private static final int RB = 256;
+    // maximal size (doubles) of the columns of the right operand handled together
+    private static final int TILE = 1 << 15;
+
+    private static volatile ExecutionContext context = ExecutionContext.shared();
+
+    private MatrixKernels() {
+    }
+
+    public static ExecutionContext getExecutionContext() {
+        return context;
+    }
+
+    /**
+     * Sets the context used for the parallel execution of the kernels
+     *
+     * @param ctx The context. ExecutionContext.sequential() disables the
+     * parallel execution. Null is equivalent to sequential.
+     */
+    public static void setExecutionContext(ExecutionContext ctx) {
+        context = ctx == null ? ExecutionContext.sequential() : ctx;
+    }
+
+    static boolean isBlocked(long nmul) {
+        return nmul >= BLOCKED_THRESHOLD;
+    }
+
+    /**
+     * Z = X * Y. Z must be zero on entry
+     *
+     * @param x nr x nk matrix
+     * @param y nk x nc matrix
+     * @param z nr x nc matrix
+     */
+    static void gemm(final Matrix x, final Matrix y, final Matrix z) {
+        final int nr = x.nrows_, nk = x.ncols_, nc = y.ncols_;
+        if (nr == 0 || nc == 0 || nk == 0) {
+            return;
+        }
+        // rows of x, stored contiguously
+        final double[] xt = x.transpose().data_;
+        final int cb = Math.max(2, (TILE / nk) & ~1);
+        run((long) nr * nc * nk, nc, cb, (c0, c1) -> gemm(xt, y.data_, z.data_, nr, nk, c0, c1));
+    }
+
+    // computes the columns [c0, c1[ of z, by blocks of 4 rows x 2 columns
+    private static void gemm(double[] xt, double[] y, double[] z, int nr, int nk, int c0, int c1) {
+        int cmax = c0 + ((c1 - c0) & ~1);
+        int rmax = nr & ~3;
+        for (int r = 0; r < rmax; r += 4) {
+            int x0 = r * nk, x1 = x0 + nk, x2 = x1 + nk, x3 = x2 + nk;
+            for (int c = c0; c < cmax; c += 2) {
+                int y0 = c * nk, y1 = y0 + nk;
+                double s00 = 0, s10 = 0, s20 = 0, s30 = 0, s01 = 0, s11 = 0, s21 = 0, s31 = 0;
+                for (int k = 0; k < nk; ++k) {
+                    double a = y[y0 + k], b = y[y1 + k];
+                    double u0 = xt[x0 + k], u1 = xt[x1 + k], u2 = xt[x2 + k], u3 = xt[x3 + k];
+                    s00 += a * u0;
+                    s10 += a * u1;
+                    s20 += a * u2;
+                    s30 += a * u3;
+                    s01 += b * u0;
+                    s11 += b * u1;
+                    s21 += b * u2;
+                    s31 += b * u3;
+                }
+                int z0 = c * nr + r, z1 = z0 + nr;
+                z[z0] = s00;
+                z[z0 + 1] = s10;
+                z[z0 + 2] = s20;
+                z[z0 + 3] = s30;
+                z[z1] = s01;
+                z[z1 + 1] = s11;
+                z[z1 + 2] = s21;
+                z[z1 + 3] = s31;
+            }
+            if (cmax < c1) {
+                int y0 = cmax * nk;
+                double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int k = 0; k < nk; ++k) {
+                    double a = y[y0 + k];
+                    s0 += a * xt[x0 + k];
+                    s1 += a * xt[x1 + k];
+                    s2 += a * xt[x2 + k];
+                    s3 += a * xt[x3 + k];
+                }
+                int z0 = cmax * nr + r;
+                z[z0] = s0;
+                z[z0 + 1] = s1;
+                z[z0 + 2] = s2;
+                z[z0 + 3] = s3;
+            }
+        }
+        for (int r = rmax; r < nr; ++r) {
+            int x0 = r * nk;
+            for (int c = c0; c < c1; ++c) {
+                int y0 = c * nk;
+                double s = 0;
+                for (int k = 0; k < nk; ++k) {
+                    s += y[y0 + k] * xt[x0 + k];
+                }
+                z[c * nr + r] = s;
+            }
+        }
+    }
+
+    /**
+     * Lower part of X'X. The upper part of o is not modified
+     *
+     * @param x nr x nc matrix
+     * @param o nc x nc matrix
+     */
+    static void XtX(final Matrix x, final Matrix o) {
+        final int nr = x.nrows_, nc = x.ncols_;
+        if (nr == 0 || nc == 0) {
+            return;
+        }
+        run((long) nr * nc * nc / 2, nc, 2, (c0, c1) -> XtX(x.data_, o.data_, nr, nc, c0, c1));
+    }
+
+    // columns [c0, c1[ of the lower part of x'x, by blocks of 4 rows x 2 columns
+    private static void XtX(double[] x, double[] o, int nr, int nc, int c0, int c1) {
+        for (int c = c0; c < c1; c += 2) {
+            boolean pair = c + 1 < c1;
+            int y0 = c * nr, y1 = y0 + nr;
+            int r = c;
+            for (; r + 3 < nc; r += 4) {
+                int x0 = r * nr, x1 = x0 + nr, x2 = x1 + nr, x3 = x2 + nr;
+                if (pair) {
+                    double s00 = 0, s10 = 0, s20 = 0, s30 = 0, s01 = 0, s11 = 0, s21 = 0, s31 = 0;
+                    for (int k = 0; k < nr; ++k) {
+                        double a = x[y0 + k], b = x[y1 + k];
+                        double u0 = x[x0 + k], u1 = x[x1 + k], u2 = x[x2 + k], u3 = x[x3 + k];
+                        s00 += u0 * a;
+                        s10 += u1 * a;
+                        s20 += u2 * a;
+                        s30 += u3 * a;
+                        s01 += u0 * b;
+                        s11 += u1 * b;
+                        s21 += u2 * b;
+                        s31 += u3 * b;
+                    }
+                    int z0 = c * nc + r, z1 = z0 + nc;
+                    o[z0] = s00;
+                    o[z0 + 1] = s10;
+                    o[z0 + 2] = s20;
+                    o[z0 + 3] = s30;
+                    // the cell (c, c+1) belongs to the upper part
+                    if (r > c) {
+                        o[z1] = s01;
+                    }
+                    o[z1 + 1] = s11;
+                    o[z1 + 2] = s21;
+                    o[z1 + 3] = s31;
+                } else {
+                    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                    for (int k = 0; k < nr; ++k) {
+                        double a = x[y0 + k];
+                        s0 += x[x0 + k] * a;
+                        s1 += x[x1 + k] * a;
+                        s2 += x[x2 + k] * a;
+                        s3 += x[x3 + k] * a;
+                    }
+                    int z0 = c * nc + r;
+                    o[z0] = s0;
+                    o[z0 + 1] = s1;
+                    o[z0 + 2] = s2;
+                    o[z0 + 3] = s3;
+                }
+            }
+            for (; r < nc; ++r) {
+                int x0 = r * nr;
+                double s0 = 0, s1 = 0;
+                for (int k = 0; k < nr; ++k) {
+                    double u = x[x0 + k];
+                    s0 += u * x[y0 + k];
+                    if (pair) {
+                        s1 += u * x[y1 + k];
+                    }
+                }
+                o[c * nc + r] = s0;
+                if (pair && r > c) {
+                    o[(c + 1) * nc + r] = s1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower part of XX'. The upper part of o is not modified. o must be zero
+     * on entry
+     *
+     * @param x nr x nc matrix
+     * @param o nr x nr matrix
+     */
+    static void XXt(final Matrix x, final Matrix o) {
+        final int nr = x.nrows_, nc = x.ncols_;
+        if (nr == 0 || nc == 0) {
+            return;
+        }
+        // the columns of o are updated by rank-1 updates (one by column of x),
+        // so that the tiles of o stay in the cache
+        final int cb = Math.max(1, TILE / nr);
+        run((long) nr * nr * nc / 2, nr, cb, (c0, c1) -> {
+            double[] px = x.data_, po = o.data_;
+            for (int k = 0, xk = 0; k < nc; ++k, xk += nr) {
+                for (int c = c0, oc = c0 * nr; c < c1; ++c, oc += nr) {
+                    double a = px[xk + c];
+                    for (int r = c; r < nr; ++r) {
+                        po[oc + r] += px[xk + r] * a;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Blocked lower Cholesky decomposition (in place). Only the lower part of
+     * the matrix is used and modified
+     *
+     * @param m
+     */
+    static void lcholesky(final Matrix m) {
+        final double[] data = m.data_;
+        final int n = m.nrows_;
+        for (int i0 = 0; i0 < n; i0 += NB) {
+            final int b0 = i0, b1 = Math.min(n, i0 + NB);
+            // update of the panel [b0, b1[ by the previous columns, by tiles of rows
+            if (b0 > 0) {
+                int nrows = n - b0;
+                run((long) nrows * b0 * (b1 - b0), nrows, RB, (r0, r1) -> update(data, n, b0, b1, b0 + r0, b0 + r1));
+            }
+            // factorization of the panel
+            for (int i = b0, idiag = b0 * (n + 1); i < b1; ++i, idiag += n + 1) {
+                double aii = data[idiag];
+                for (int j = b0 * n + i; j < idiag; j += n) {
+                    double x = data[j];
+                    aii -= x * x;
+                }
+                if (aii <= 0) {
+                    throw new MatrixException(MatrixException.CholeskyFailed);
+                }
+                aii = Math.sqrt(aii);
+                data[idiag] = aii;
+                int ymax = (i + 1) * n;
+                for (int jx = b0 * n + i; jx < idiag; jx += n) {
+                    double temp = data[jx];
+                    if (temp != 0) {
+                        for (int ia = jx + 1, iy = idiag + 1; iy < ymax; ++ia, ++iy) {
+                            data[iy] -= temp * data[ia];
+                        }
+                    }
+                }
+                for (int iy = idiag + 1; iy < ymax; ++iy) {
+                    data[iy] /= aii;
+                }
+            }
+        }
+    }
+
+    // a(r, i) -= l(i, j) * l(r, j), for j in [0, b0[, i in [b0, b1[, r in [max(i, r0), r1[
+    // the columns j are handled by groups of 4 (same order of the subtractions)
+    private static void update(double[] data, int n, int b0, int b1, int r0, int r1) {
+        int j = 0;
+        for (int jn = 0; j + 3 < b0; j += 4, jn += 4 * n) {
+            int jn1 = jn + n, jn2 = jn1 + n, jn3 = jn2 + n;
+            for (int i = b0, in = b0 * n; i < b1; ++i, in += n) {
+                double t0 = data[jn + i], t1 = data[jn1 + i], t2 = data[jn2 + i], t3 = data[jn3 + i];
+                int rstart = Math.max(i, r0);
+                if (t0 != 0 && t1 != 0 && t2 != 0 && t3 != 0) {
+                    for (int r = rstart; r < r1; ++r) {
+                        data[in + r] = data[in + r] - t0 * data[jn + r] - t1 * data[jn1 + r]
+                                - t2 * data[jn2 + r] - t3 * data[jn3 + r];
+                    }
+                } else {
+                    update(data, t0, in, jn, rstart, r1);
+                    update(data, t1, in, jn1, rstart, r1);
+                    update(data, t2, in, jn2, rstart, r1);
+                    update(data, t3, in, jn3, rstart, r1);
+                }
+            }
+        }
+        for (int jn = j * n; j < b0; ++j, jn += n) {
+            for (int i = b0, in = b0 * n; i < b1; ++i, in += n) {
+                update(data, data[jn + i], in, jn, Math.max(i, r0), r1);
+            }
+        }
+    }
+
+    private static void update(double[] data, double temp, int in, int jn, int r0, int r1) {
+        if (temp != 0) {
+            for (int r = r0; r < r1; ++r) {
+                data[in + r] -= temp * data[jn + r];
+            }
+        }
+    }
+
+    /**
+     * Applies the Householder reflections [q0, q1[ (stored in the columns of
+     * qr, as in Householder) to the columns [c0, c1[
+     *
+     * @param qr
+     * @param m Number of rows
+     * @param q0
+     * @param q1
+     * @param c0
+     * @param c1
+     */
+    static void applyHouseholder(final double[] qr, final int m, final int q0, final int q1, int c0, int c1) {
+        final int nc = c1 - c0;
+        if (nc <= 0 || q1 <= q0) {
+            return;
+        }
+        final int start = c0;
+        run(2L * m * (q1 - q0) * nc, nc, 4, (j0, j1) -> reflect(qr, m, q0, q1, start + j0, start + j1));
+    }
+
+    // sequential version (columns by groups of 4)
+    private static void reflect(double[] qr, int m, int q0, int q1, int c0, int c1) {
+        int c = c0;
+        for (; c + 3 < c1; c += 4) {
+            int j0 = c * m, j1 = j0 + m, j2 = j1 + m, j3 = j2 + m;
+            for (int q = q0, qm = q0 * m; q < q1; ++q, qm += m) {
+                double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int i = q; i < m; ++i) {
+                    double v = qr[i + qm];
+                    s0 += v * qr[i + j0];
+                    s1 += v * qr[i + j1];
+                    s2 += v * qr[i + j2];
+                    s3 += v * qr[i + j3];
+                }
+                double d = -qr[q + qm];
+                s0 /= d;
+                s1 /= d;
+                s2 /= d;
+                s3 /= d;
+                for (int i = q; i < m; ++i) {
+                    double v = qr[i + qm];
+                    qr[i + j0] += s0 * v;
+                    qr[i + j1] += s1 * v;
+                    qr[i + j2] += s2 * v;
+                    qr[i + j3] += s3 * v;
+                }
+            }
+        }
+        for (; c < c1; ++c) {
+            int jm = c * m;
+            for (int q = q0, qm = q0 * m; q < q1; ++q, qm += m) {
+                applyHouseholder(qr, m, q, qm, jm);
+            }
+        }
+    }
+
+    /**
+     * Applies the Householder reflection q to the column starting at jm
+     *
+     * @param qr
+     * @param m
+     * @param q
+     * @param qm Start of the reflection (q * m)
+     * @param jm Start of the column
+     */
+    static void applyHouseholder(double[] qr, int m, int q, int qm, int jm) {
+        double s = 0.0;
+        for (int i = q; i < m; ++i) {
+            s += qr[i + qm] * qr[i + jm];
+        }
+        s /= -qr[q + qm];
+        for (int i = q; i < m; ++i) {
+            qr[i + jm] += s * qr[i + qm];
+        }
+    }
+
+    @FunctionalInterface
+    private static interface IBlock {
+
+        void apply(int start, int end);
+    }
+
+    /**
+     * Executes fn on [0, n[, split in blocks when the problem is large enough
+     *
+     * @param nmul Number of multiplications of the problem
+     * @param n
+     * @param step The size of the blocks is a multiple of step
+     * @param fn
+     */
+    private static void run(long nmul, int n, int step, IBlock fn) {
+        ExecutionContext ctx = context;
+        int nthreads = Runtime.getRuntime().availableProcessors();
+        if (nmul < PARALLEL_THRESHOLD || nthreads < 2 || ctx.isSequential()
+                || ExecutionContext.isWorkerThread() || n < 2 * step) {
+            fn.apply(0, n);
+            return;
+        }
+        // more blocks than threads, for load balancing (triangular kernels)
+        int nsteps = (n + step - 1) / step;
+        int nb = Math.min(nsteps, 4 * nthreads);
+        List<Callable<Void>> tasks = new ArrayList<>(nb);
+        for (int i = 0; i < nb; ++i) {
+            int start = Math.min(n, (int) ((long) nsteps * i / nb) * step),
+                    end = Math.min(n, (int) ((long) nsteps * (i + 1) / nb) * step);
+            tasks.add(() -> {
+                fn.apply(start, end);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : ctx.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MatrixException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new MatrixException(cause == null ? ex.getMessage() : cause.getMessage());
+        }
+    }
+}
@@ -201,6 +201,11 @@ public final class SymmetricMatrix {
         int n = m.nrows_;
         // if (n != m.ncols_)
         // throw new MatrixException(MatrixException.SquareOnly);
+        if ((long) n * n >= MatrixKernels.FACTORIZATION_THRESHOLD) {
+            MatrixKernels.lcholesky(m);
+            m.toLower();
+            return;
+        }
 
         for (int i = 0, idiag = 0; i < n; ++i, idiag += n + 1) {
             // compute aii;
@@ -878,6 +883,12 @@ public final class SymmetricMatrix {
      */
     public static Matrix XtX(final Matrix x) throws MatrixException {
         int n = x.getColumnsCount();
+        if (MatrixKernels.isBlocked((long) x.getRowsCount() * n * n / 2)) {
+            Matrix o = new Matrix(n, n);
+            MatrixKernels.XtX(x, o);
+            fromLower(o);
+            return o;
+        }
         DataBlockIterator rows = x.columns(), cols = x.columns();
         Matrix o = new Matrix(n, n);
         int idx = 0, c = 0;
@@ -926,6 +937,12 @@ public final class SymmetricMatrix {
      */
     public static Matrix XXt(final Matrix x) throws MatrixException {
         int n = x.getRowsCount();
+        if (MatrixKernels.isBlocked((long) x.getColumnsCount() * n * n / 2)) {
+            Matrix o = new Matrix(n, n);
+            MatrixKernels.XXt(x, o);
+            fromLower(o);
+            return o;
+        }
         DataBlockIterator rows = x.rows(), cols = x.rows();
         Matrix o = new Matrix(n, n);
         int idx = 0, c = 0;
@@ -18,8 +18,7 @@ package ec.tstoolkit.maths.matrices;
 
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.design.Development;
-import ec.tstoolkit.maths.Complex;
-import ec.tstoolkit.maths.Fft;
+import ec.tstoolkit.maths.FftEngine;
 import ec.tstoolkit.utilities.Arrays2;
 
 /**
@@ -169,28 +168,25 @@ public final class Toeplitz
 	    x.mul(0, m_r[0]);
 	else {
 	    // By FFT.
-	    // circulant matrix
+	    // circulant matrix. Its length is used as DFT length
 	    int nc = 2 * n - 2;
-	    // DFT length:
-	    int q = 2;
-	    while (q < nc)
-		q <<= 1;
-	    Complex[] fx = new Complex[q];
-	    Complex[] fr = new Complex[q];
-	    for (int i = 0; i < n; ++i) {
-		fx[i] = Complex.cart(x.get(i));
-		fr[i] = Complex.cart(m_r[i]);
-	    }
+	    double[] xre = new double[nc], xim = new double[nc];
+	    double[] rre = new double[nc], rim = new double[nc];
+	    x.copyTo(xre, 0);
+	    System.arraycopy(m_r, 0, rre, 0, n);
 	    for (int i = n - 2, j = n; i > 0; --i, ++j)
-		fr[j] = Complex.cart(m_r[i]);
-	    Fft fft = new Fft();
-	    fft.transform(fx);
-	    fft.transform(fr);
-	    for (int i = 0; i < q; ++i)
-		fx[i] = fx[i].times(fr[i]);
-	    fft.backTransform(fx);
+		rre[j] = m_r[i];
+	    FftEngine fft = new FftEngine(nc);
+	    fft.transform(xre, xim);
+	    fft.transform(rre, rim);
+	    for (int i = 0; i < nc; ++i) {
+		double re = xre[i] * rre[i] - xim[i] * rim[i];
+		xim[i] = xre[i] * rim[i] + xim[i] * rre[i];
+		xre[i] = re;
+	    }
+	    fft.backTransform(xre, xim);
 	    for (int i = 0; i < n; ++i)
-		x.set(i, fx[i].getRe());
+		x.set(i, xre[i]);
 	}
 
     }
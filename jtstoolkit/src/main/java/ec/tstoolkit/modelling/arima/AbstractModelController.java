@@ -17,6 +17,8 @@
 
 package ec.tstoolkit.modelling.arima;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
+
 /**
  *
  * @author Jean Palate
@@ -25,6 +27,7 @@ public abstract class AbstractModelController implements IModelController {
 
     private IModelEstimator estimator_;
     private PreprocessingModel refmodel_;
+    private ExecutionContext context_ = ExecutionContext.sequential();
 
     @Override
     public PreprocessingModel getReferenceModel() {
@@ -46,6 +49,18 @@ public abstract class AbstractModelController implements IModelController {
         estimator_ = estimator;
     }
 
+    /**
+     * @return The execution context used by the controller for its
+     * parallelizable computations (sequential by default)
+     */
+    public ExecutionContext getExecutionContext() {
+        return context_;
+    }
+
+    public void setExecutionContext(ExecutionContext context) {
+        context_ = context == null ? ExecutionContext.sequential() : context;
+    }
+
     /**
      * 
      * @param context
@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.modelling.arima;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.arima.IArimaModel;
 import ec.tstoolkit.arima.estimation.RegArimaModel;
 import ec.tstoolkit.data.TableOfBoolean;
@@ -29,6 +30,10 @@ import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.DoubleList;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -38,7 +43,31 @@ import java.util.Iterator;
 @Development(status = Development.Status.Beta)
 public abstract class AbstractSingleOutlierDetector<T extends IArimaModel> {
 
+    /**
+     * Computation of the statistics of an outlier type on a block of
+     * positions. The scans of different blocks may be executed concurrently;
+     * they should only modify the statistics of their own block (setT,
+     * setCoefficient, exclude).
+     */
+    @FunctionalInterface
+    protected static interface IScanner {
+
+        /**
+         *
+         * @param outlier The index of the outlier factory
+         * @param start The first position (included)
+         * @param end The last position (excluded)
+         */
+        void scan(int outlier, int start, int end);
+    }
+
+    /**
+     * Minimal number of positions in a block of a parallel scan
+     */
+    public static final int MIN_BLOCK = 64;
+
     protected final IRobustStandardDeviationComputer sdevComputer;
+    private ExecutionContext m_context = ExecutionContext.sequential();
     private final ArrayList<IOutlierFactory> m_o = new ArrayList<>();
     private final DoubleList m_ow = new DoubleList();
     private RegArimaModel<T> m_model;
@@ -79,6 +108,26 @@ public abstract class AbstractSingleOutlierDetector<T extends IArimaModel> {
         clear(true);
     }
 
+    /**
+     * @return The execution context used by the scans
+     */
+    public ExecutionContext getExecutionContext() {
+        return m_context;
+    }
+
+    /**
+     * Sets the execution context used to scan the positions and the outlier
+     * types in parallel. The statistics don't depend on the context. The
+     * scans are sequential by default: the detectors are usually executed by
+     * the (already parallel) processing of many series.
+     *
+     * @param context The context. ExecutionContext.sequential() (default)
+     * disables the parallel scans.
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        m_context = context == null ? ExecutionContext.sequential() : context;
+    }
+
     /**
      * @return the sdevComputer
      */
@@ -424,6 +473,53 @@ public abstract class AbstractSingleOutlierDetector<T extends IArimaModel> {
         return calc();
     }
 
+    /**
+     * Scans all the outlier factories on [lbound, ubound[. The positions are
+     * split in blocks (of at least MIN_BLOCK positions) that are processed by
+     * the execution context.
+     *
+     * @param scanner
+     * @return false if a scan failed
+     */
+    protected boolean scan(final IScanner scanner) {
+        int nf = m_o.size();
+        int len = m_ubound - m_lbound;
+        if (nf == 0 || len <= 0) {
+            return true;
+        }
+        // nested scans are executed in the calling thread (see ExecutionContext)
+        boolean parallel = !m_context.isSequential() && !ExecutionContext.isWorkerThread();
+        int nb = parallel ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), len / MIN_BLOCK)) : 1;
+        if (!parallel || nf * nb < 2) {
+            for (int i = 0; i < nf; ++i) {
+                scanner.scan(i, m_lbound, m_ubound);
+            }
+            return true;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(nf * nb);
+        for (int i = 0; i < nf; ++i) {
+            final int outlier = i;
+            for (int j = 0; j < nb; ++j) {
+                final int start = m_lbound + (int) ((long) len * j / nb), end = m_lbound + (int) ((long) len * (j + 1) / nb);
+                tasks.add(() -> {
+                    scanner.scan(outlier, start, end);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (Future<Void> future : m_context.invokeAll(tasks)) {
+                future.get();
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            return false;
+        }
+    }
+
     private void searchMax() {
         if (m_T == null) {
             return;
@@ -54,6 +54,8 @@ public class DefaultArimaSpec implements Cloneable, InformationSetSerializable {
     private Parameter mu;
     private int d_, bd_;
     private Parameter[] phi_, theta_, bphi_, btheta_;
+    // transient, not part of the specification
+    private boolean warmStart_;
 
     @Override
     public DefaultArimaSpec clone() {
@@ -73,6 +75,23 @@ public class DefaultArimaSpec implements Cloneable, InformationSetSerializable {
         return mu != null;
     }
 
+    /**
+     * Checks that the initial parameters have been set from a neighbouring
+     * estimation (for instance the previous vintage of a revision analysis).
+     * They are then only used as the starting point of a complete estimation;
+     * otherwise, the usual rules for initial parameters apply. The flag is
+     * not serialized and is not used in the comparison of specifications.
+     *
+     * @return
+     */
+    public boolean isWarmStart() {
+        return warmStart_;
+    }
+
+    public void setWarmStart(boolean warmStart) {
+        warmStart_ = warmStart;
+    }
+
     public void setMean(boolean mean) {
         mu = mean ? new Parameter() : null;
     }
@@ -20,6 +20,7 @@ import ec.tstoolkit.arima.IArimaModel;
 import ec.tstoolkit.arima.estimation.AnsleyFilter;
 import ec.tstoolkit.arima.estimation.IArmaFilter;
 import ec.tstoolkit.arima.estimation.ModifiedLjungBoxFilter;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.DataBlockIterator;
 import ec.tstoolkit.design.Development;
@@ -27,6 +28,7 @@ import ec.tstoolkit.eco.RegModel;
 import ec.tstoolkit.maths.matrices.Householder;
 import ec.tstoolkit.maths.matrices.LowerTriangularMatrix;
 import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.polynomials.Polynomial;
 import ec.tstoolkit.modelling.IRobustStandardDeviationComputer;
 import ec.tstoolkit.timeseries.regression.IOutlierVariable;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
@@ -38,11 +40,25 @@ import ec.tstoolkit.timeseries.simplets.TsPeriod;
 @Development(status = Development.Status.Preliminary)
 public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractSingleOutlierDetector<T> {
 
+    /**
+     * Maximal size (number of doubles) of the cache of the filtered outliers
+     */
+    public static final int MAX_CACHE_SIZE = 1 << 22;
+    // number of outliers filtered together
+    private static final int BATCH = 32;
+
     private IArmaFilter m_filter;
     private final IResidualsComputer resComputer;
     private Matrix m_L, m_X;
     private double[] m_yl, m_b, m_w;
     private int m_n;
+    // filtered outliers (by factory and by position), valid for a given
+    // arima model, differencing filter and domain
+    private boolean m_caching;
+    private double[][][] m_cache;
+    private Polynomial m_car, m_cma, m_cur;
+    private double m_cvar;
+    private TsPeriod m_cstart;
 
     public ExactSingleOutlierDetector() {
         this(IRobustStandardDeviationComputer.mad());
@@ -89,15 +105,55 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
             if (!initialize(dmodel)) {
                 return false;
             }
-            for (int i = 0; i < getOutlierFactoriesCount(); ++i) {
-                processOutlier(i);
-            }
-            return true;
+            prepareCache();
+            return scan(this::processOutlier);
         } catch (Exception err) {
             return false;
         }
     }
 
+    public boolean isCaching() {
+        return m_caching;
+    }
+
+    /**
+     * Keeps the filtered outliers between successive calls to process, as long
+     * as the ARIMA model (and the domain) doesn't change. The cache is not
+     * used when its size would exceed MAX_CACHE_SIZE. Disabled by default.
+     *
+     * @param caching
+     */
+    public void setCaching(boolean caching) {
+        m_caching = caching;
+        if (!caching) {
+            m_cache = null;
+        }
+    }
+
+    private void prepareCache() {
+        RegArimaModel<T> model = getModel();
+        int n = model.getY().getLength(), nf = getOutlierFactoriesCount();
+        if (!m_caching || nf == 0 || (long) n * m_n * nf > MAX_CACHE_SIZE) {
+            m_cache = null;
+            return;
+        }
+        T arma = model.getArma();
+        Polynomial ar = arma.getAR().getPolynomial(), ma = arma.getMA().getPolynomial(),
+                ur = model.getDifferencingFilter().getPolynomial();
+        double var = arma.getInnovationVariance();
+        TsPeriod start = getDomain().getStart();
+        if (m_cache == null || m_cache.length != nf || m_cache[0].length != n
+                || var != m_cvar || !start.equals(m_cstart) || !ar.equals(m_car, 0)
+                || !ma.equals(m_cma, 0) || !ur.equals(m_cur, 0)) {
+            m_cache = new double[nf][n][];
+            m_car = ar;
+            m_cma = ma;
+            m_cur = ur;
+            m_cvar = var;
+            m_cstart = start;
+        }
+    }
+
     /**
      *
      * @param model
@@ -188,6 +244,73 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
      * @param idx
      */
     protected void processOutlier(int idx) {
+        processOutlier(idx, getLBound(), getUBound());
+    }
+
+    /**
+     * Computes the statistics of an outlier type on a block of positions. The
+     * outliers that are not in the cache are filtered by batches, by means of
+     * a new filter (blocks may be processed concurrently).
+     *
+     * @param idx
+     * @param start
+     * @param end
+     */
+    protected void processOutlier(int idx, int start, int end) {
+        int n = getModel().getY().getLength();
+        int d = getModel().getDifferencingFilter().getDegree();
+        double[][] cache = m_cache == null ? null : m_cache[idx];
+        double[] od = null;
+        IArmaFilter filter = null;
+        double[][] ublock = new double[Math.min(BATCH, end - start)][];
+        int[] pblock = new int[ublock.length];
+        for (int i0 = start; i0 < end;) {
+            // next batch of defined positions
+            int nb = 0, nl = 0;
+            int i = i0;
+            for (; i < end && nb < ublock.length; ++i) {
+                if (isDefined(i, idx)) {
+                    pblock[nb] = i;
+                    ublock[nb] = cache == null ? null : cache[i];
+                    if (ublock[nb] == null) {
+                        ++nl;
+                    }
+                    ++nb;
+                }
+            }
+            i0 = i;
+            if (nl > 0) {
+                if (od == null) {
+                    od = differencedOutlier(idx);
+                    filter = m_filter.exemplar();
+                    filter.initialize(getModel().getArma(), n - d);
+                }
+                // OL(i) = od[n-i, 2n-d-i[
+                Matrix OL = new Matrix(n - d, nl), U = new Matrix(m_n, nl);
+                for (int j = 0, k = 0; j < nb; ++j) {
+                    if (ublock[j] == null) {
+                        OL.column(k++).copyFrom(od, n - pblock[j]);
+                    }
+                }
+                filter.filter(OL, U);
+                for (int j = 0, k = 0; j < nb; ++j) {
+                    if (ublock[j] == null) {
+                        double[] u = new double[m_n];
+                        U.column(k++).copyTo(u, 0);
+                        ublock[j] = u;
+                        if (cache != null) {
+                            cache[pblock[j]] = u;
+                        }
+                    }
+                }
+            }
+            for (int j = 0; j < nb; ++j) {
+                process(idx, pblock[j], ublock[j]);
+            }
+        }
+    }
+
+    private double[] differencedOutlier(int idx) {
         int n = getModel().getY().getLength();
         int d = getModel().getDifferencingFilter().getDegree();
         double[] o = new double[2 * n];
@@ -198,52 +321,44 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
         double[] od = new double[o.length - d];
         DataBlock OD = new DataBlock(od);
         getModel().getDifferencingFilter().filter(O, OD);
+        return od;
+    }
 
-        DataBlock OL = new DataBlock(od, n, 2 * n - d, 1);
-        for (int i = 0; i < n; ++i) {
-            if (isDefined(i, idx)) {
-//                double[] ol = new double[n - d];
-//                DataBlock OL = new DataBlock(ol);
-//                System.arraycopy(od, n - i , ol, 0, ol.length);
-                double[] u = new double[m_n];
-                DataBlock U = new DataBlock(u);
-                m_filter.filter(OL, U);
-                double xx = 0, xy = 0;
-                for (int j = 0; j < u.length; ++j) {
-                    xx += u[j] * u[j];
-                    xy += u[j] * m_yl[j];
-                }
+    private void process(int idx, int i, double[] u) {
+        double xx = 0, xy = 0;
+        for (int j = 0; j < u.length; ++j) {
+            xx += u[j] * u[j];
+            xy += u[j] * m_yl[j];
+        }
 
-                if (m_L != null) {
-                    double[] l = new double[m_b.length];
-                    DataBlockIterator xcols = m_X.columns();
-                    DataBlock xcol = xcols.getData();
-                    do {
-                        l[xcols.getPosition()] = xcol.dot(U);
-                    } while (xcols.next());
-                    DataBlock L = new DataBlock(l);
-                    // K=A^-1*L
-                    // lA * lA' * K = L
-                    // l'AA^-1l = |l' * lA'^-1|
-                    LowerTriangularMatrix.rsolve(m_L, l);
-                    // q = l'A^-1l
-                    double q = L.dot(L);
-                    //
-                    double c = xx - q;
-                    if (c <= 0) {
-                        exclude(i, idx);
-                    } else {
-                        LowerTriangularMatrix.lsolve(m_L, l);
-                        setT(i, idx, (xy - new DataBlock(m_w).dot(L))
-                                / (Math.sqrt(c)) / getMAD());
-                    }
-                } else if (xx <= 0) {
-                    exclude(i, idx);
-                } else {
-                    setT(i, idx, (xy / (Math.sqrt(xx)) / getMAD()));
-                }
+        if (m_L != null) {
+            DataBlock U = new DataBlock(u);
+            double[] l = new double[m_b.length];
+            DataBlockIterator xcols = m_X.columns();
+            DataBlock xcol = xcols.getData();
+            do {
+                l[xcols.getPosition()] = xcol.dot(U);
+            } while (xcols.next());
+            DataBlock L = new DataBlock(l);
+            // K=A^-1*L
+            // lA * lA' * K = L
+            // l'AA^-1l = |l' * lA'^-1|
+            LowerTriangularMatrix.rsolve(m_L, l);
+            // q = l'A^-1l
+            double q = L.dot(L);
+            //
+            double c = xx - q;
+            if (c <= 0) {
+                exclude(i, idx);
+            } else {
+                LowerTriangularMatrix.lsolve(m_L, l);
+                setT(i, idx, (xy - new DataBlock(m_w).dot(L))
+                        / (Math.sqrt(c)) / getMAD());
             }
-            OL.move(-1);
+        } else if (xx <= 0) {
+            exclude(i, idx);
+        } else {
+            setT(i, idx, (xy / (Math.sqrt(xx)) / getMAD()));
         }
     }
 
@@ -258,5 +373,8 @@ public class ExactSingleOutlierDetector<T extends IArimaModel> extends AbstractS
         m_X = null;
         m_b = null;
         m_w = null;
+        if (all) {
+            m_cache = null;
+        }
     }
 }
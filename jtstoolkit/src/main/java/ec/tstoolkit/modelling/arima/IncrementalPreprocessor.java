@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima;
+
+import ec.tstoolkit.arima.estimation.IncrementalLikelihoodEstimation;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.eco.ConcentratedLikelihood;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.modelling.Variable;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-processor that updates the previous model when new observations are
+ * appended to the series.
+ *
+ * When the previous model is fully specified (transformation, regression
+ * variables and ARIMA parameters are fixed, which corresponds to the
+ * FixedParameters/Fixed refresh policies), when the new series only extends
+ * the previous one and when it doesn't contain missing values, the model is
+ * re-used on the new series: the regression coefficients are re-estimated by
+ * means of an IncrementalLikelihoodEstimation, which only filters the new
+ * observations. The complete pre-processing is used in the other cases, or
+ * when one of the new (standardized) residuals is larger than the critical
+ * value.
+ *
+ * An instance should be used for successive versions of the same series.
+ * The SA processings don't use it by themselves: it must be set up explicitly
+ * by the caller. The models obtained with a refresh policy that re-identifies
+ * the last outliers (LastOutliers) are not fully specified; they are always
+ * completely re-processed.
+ */
+@Development(status = Development.Status.Alpha)
+public class IncrementalPreprocessor implements IPreprocessor {
+
+    /**
+     * Type of the last update
+     */
+    public static enum Update {
+
+        /**
+         * No processing yet
+         */
+        None,
+        /**
+         * The previous model and the state of its estimation have been re-used
+         */
+        Incremental,
+        /**
+         * The previous model has been re-used, but all the data have been
+         * filtered
+         */
+        Recomputed,
+        /**
+         * Complete pre-processing
+         */
+        Complete
+    }
+
+    public static final double DEF_CVAL = 4;
+
+    private final IPreprocessor preprocessor;
+    private final IncrementalLikelihoodEstimation estimation = new IncrementalLikelihoodEstimation();
+    private PreprocessingModel model;
+    private TsData series;
+    private Update update = Update.None;
+    private double cval = DEF_CVAL;
+
+    /**
+     *
+     * @param preprocessor The complete pre-processing
+     */
+    public IncrementalPreprocessor(IPreprocessor preprocessor) {
+        this.preprocessor = preprocessor;
+    }
+
+    /**
+     * @return The way the last model has been computed
+     */
+    public Update getLastUpdate() {
+        return update;
+    }
+
+    public PreprocessingModel getLastModel() {
+        return model;
+    }
+
+    public double getCriticalValue() {
+        return cval;
+    }
+
+    /**
+     * Sets the critical value for the standardized residuals of the new
+     * observations. A larger residual triggers a complete pre-processing
+     *
+     * @param value
+     */
+    public void setCriticalValue(double value) {
+        cval = value;
+    }
+
+    /**
+     * Forgets the previous model
+     */
+    public void reset() {
+        model = null;
+        series = null;
+        update = Update.None;
+        estimation.reset();
+    }
+
+    @Override
+    public PreprocessingModel process(TsData originalTs, ModellingContext context) {
+        PreprocessingModel nmodel = null;
+        if ((context == null || context.description == null) && canUpdate(originalTs)) {
+            nmodel = update(originalTs);
+        }
+        if (nmodel == null) {
+            nmodel = preprocessor.process(originalTs, context);
+            update = Update.Complete;
+            if (nmodel != null && isFixed(nmodel.description)) {
+                // initializes the state used by the next update
+                if (!estimation.estimate(nmodel.estimation.getRegArima())) {
+                    estimation.reset();
+                }
+            } else {
+                estimation.reset();
+            }
+        }
+        model = nmodel;
+        series = nmodel == null ? null : originalTs.clone();
+        return nmodel;
+    }
+
+    private static boolean isFixed(ModelDescription desc) {
+        return desc.isFullySpecified()
+                && desc.getTransformation() != DefaultTransformationType.Auto
+                && desc.getArimaComponent().getFreeParametersCount() == 0
+                && desc.getMissingValues() == null
+                && desc.getUnits() == 1
+                && desc.getEstimationDomain().equals(desc.getSeriesDomain());
+    }
+
+    private boolean canUpdate(TsData s) {
+        if (model == null || series == null || !isFixed(model.description)) {
+            return false;
+        }
+        int n = series.getLength();
+        if (s.getFrequency() != series.getFrequency() || !s.getStart().equals(series.getStart())
+                || s.getLength() <= n || s.hasMissingValues()) {
+            return false;
+        }
+        for (int i = 0; i < n; ++i) {
+            if (s.get(i) != series.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PreprocessingModel update(TsData s) {
+        ModelDescription prev = model.description;
+        ModelDescription desc = new ModelDescription(s, null);
+        desc.setTransformation(prev.getTransformation(), prev.getPreadjustmentType());
+        desc.setPreadjustments(prev.preadjustmentVariables().collect(Collectors.toList()));
+        desc.setVariables(prev.variables().map(Variable::clone).collect(Collectors.toList()));
+        desc.setArimaComponent(prev.getArimaComponent().clone());
+        RegArimaModel<SarimaModel> regarima = desc.buildRegArima();
+        ModelEstimation nestimation = new ModelEstimation(regarima, desc.getLikelihoodCorrection());
+        if (!nestimation.computeLikelihood(estimation, 0)) {
+            return null;
+        }
+        // diagnostics on the new observations
+        ConcentratedLikelihood ll = nestimation.getLikelihood();
+        double ser = Math.sqrt(ll.getSsqErr() / ll.getN());
+        double[] e = estimation.getResiduals();
+        for (int i = e.length - (s.getLength() - series.getLength()); i < e.length; ++i) {
+            if (Math.abs(e[i]) > cval * ser) {
+                return null;
+            }
+        }
+        update = estimation.isIncremental() ? Update.Incremental : Update.Recomputed;
+        return new PreprocessingModel(desc, nestimation);
+    }
+}
@@ -134,7 +134,18 @@ public class ModelEstimation implements IProcResults {
     }
 
     public boolean computeLikelihood(int nhp) {
-        ConcentratedLikelihoodEstimation estimation = new ConcentratedLikelihoodEstimation();
+        return computeLikelihood(new ConcentratedLikelihoodEstimation(), nhp);
+    }
+
+    /**
+     * Computes the likelihood with a given estimation routine (which may keep
+     * a state between successive calls, see IncrementalLikelihoodEstimation)
+     *
+     * @param estimation
+     * @param nhp
+     * @return
+     */
+    public boolean computeLikelihood(ConcentratedLikelihoodEstimation estimation, int nhp) {
         if (estimation.estimate(model_)) {
             likelihood_ = estimation.getLikelihood();
             statistics_ = new RegArimaEstimation<>(model_, likelihood_).statistics(nhp, logtransform_);
@@ -16,6 +16,7 @@
  */
 package ec.tstoolkit.modelling.arima.tramo;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.arima.estimation.ArmaKF;
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.data.IReadDataBlock;
@@ -27,7 +28,12 @@ import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.sarima.SarimaSpecification;
 import ec.tstoolkit.sarima.SarmaSpecification;
 import ec.tstoolkit.sarima.estimation.HannanRissanen;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -160,6 +166,7 @@ public class ArmaModule implements IPreprocessingModule {
     private final int m_nmod;
     private static final int NMOD = 5;
     private boolean acceptwn = false;
+    private ExecutionContext context_ = ExecutionContext.sequential();
 
     @Override
     public ProcessingResult process(ModellingContext context) {
@@ -276,6 +283,26 @@ public class ArmaModule implements IPreprocessingModule {
         return this.acceptwn;
     }
 
+    /**
+     * @return The execution context used to evaluate the candidate models
+     */
+    public ExecutionContext getExecutionContext() {
+        return context_;
+    }
+
+    /**
+     * Sets the execution context used to evaluate the candidate models
+     * (Hannan-Rissanen estimation and BIC) of each step. The candidates are
+     * evaluated sequentially by default. The selected model doesn't depend on
+     * the context: the candidates are always ranked in the same order.
+     *
+     * @param context The context. Null or ExecutionContext.sequential()
+     * disables the parallel evaluation.
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        context_ = context == null ? ExecutionContext.sequential() : context;
+    }
+
     /**
      *
      * @return
@@ -460,14 +487,9 @@ public class ArmaModule implements IPreprocessingModule {
         m_hrs = null;
         HRBic[] hrs = new HRBic[specs.length];
         int n = 0;
-        for (int i = 0; i < specs.length; ++i) {
-            HannanRissanen hr = new HannanRissanen();
-            if (hr.process(data, specs[i])) {
-                SarimaModel m = hr.getModel();
-                if (!m.adjustSpecification() && m.isStable(true)) {
-                    HRBic hrbic = new HRBic(hr);
-                    hrs[n++] = hrbic;
-                }
+        for (HRBic hrbic : evaluate(data, specs)) {
+            if (hrbic != null) {
+                hrs[n++] = hrbic;
             }
         }
         if (n == 0) {
@@ -482,6 +504,57 @@ public class ArmaModule implements IPreprocessingModule {
         return n;
     }
 
+    private static HRBic evaluate(final IReadDataBlock data, final SarmaSpecification spec) {
+        HannanRissanen hr = new HannanRissanen();
+        if (hr.process(data, spec)) {
+            SarimaModel m = hr.getModel();
+            if (!m.adjustSpecification() && m.isStable(true)) {
+                return new HRBic(hr);
+            }
+        }
+        return null;
+    }
+
+    // evaluates the candidates (in the order of the specifications); null
+    // for the rejected candidates
+    private HRBic[] evaluate(final IReadDataBlock data, final SarmaSpecification[] specs) {
+        HRBic[] rslt = new HRBic[specs.length];
+        if (context_.isSequential() || specs.length < 2) {
+            for (int i = 0; i < specs.length; ++i) {
+                rslt[i] = evaluate(data, specs[i]);
+            }
+            return rslt;
+        }
+        List<Callable<HRBic>> tasks = new ArrayList<>(specs.length);
+        for (SarmaSpecification spec : specs) {
+            tasks.add(() -> evaluate(data, spec));
+        }
+        try {
+            List<Future<HRBic>> futures = context_.invokeAll(tasks);
+            for (int i = 0; i < rslt.length; ++i) {
+                rslt[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TramoException("Arma identification interrupted");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TramoException(String.valueOf(cause));
+        }
+        return rslt;
+    }
+
+    private ArmaModule newStep() {
+        ArmaModule step = new ArmaModule();
+        step.context_ = context_;
+        return step;
+    }
+
     private SarmaSpecification getPreferredSpecification() {
         if (m_hrs.length == 1) {
             return m_hrs[0].m_hr.getSpec().clone();
@@ -530,7 +603,7 @@ public class ArmaModule implements IPreprocessingModule {
                 }
             }
 
-            ArmaModule step0 = new ArmaModule();
+            ArmaModule step0 = newStep();
             nmax = step0.sort(data, specs);
             if (0 == nmax) {
                 for (int i = 0; i < specs.length; ++i) {
@@ -559,7 +632,7 @@ public class ArmaModule implements IPreprocessingModule {
             }
         }
 
-        ArmaModule step1 = new ArmaModule();
+        ArmaModule step1 = newStep();
         nmax = step1.sort(data, specs);
         if (0 == nmax) {
             return null;
@@ -580,7 +653,7 @@ public class ArmaModule implements IPreprocessingModule {
                 }
             }
 
-            step2 = new ArmaModule();
+            step2 = newStep();
             if (0 == step2.sort(data, specs)) {
                 return null;
             }
@@ -17,6 +17,7 @@
 
 package ec.tstoolkit.modelling.arima.tramo;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.modelling.arima.IPreprocessingModule;
 import ec.tstoolkit.modelling.arima.ModelEstimation;
@@ -43,6 +44,18 @@ public class AutomaticModelIdentification extends AbstractTramoModule implements
         arma_ = arma;
     }
 
+    /**
+     * Sets the execution context used to evaluate the candidate ARMA models
+     * (see ArmaModule). The differencing step is always sequential.
+     *
+     * @param context
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        if (arma_ instanceof ArmaModule) {
+            ((ArmaModule) arma_).setExecutionContext(context);
+        }
+    }
+
     @Override
     public ProcessingResult process(ModellingContext context) {
         if (context.estimation == null){
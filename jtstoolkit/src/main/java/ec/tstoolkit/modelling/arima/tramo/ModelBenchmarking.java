@@ -60,7 +60,7 @@ public class ModelBenchmarking extends AbstractModelController {
 
 
         PreprocessingModel smodel = scontext.tmpModel();
-        int cmp = new ModelComparator().compare(current, smodel);
+        int cmp = new ModelComparator(ModelComparator.Preference.BIC, getExecutionContext()).compare(current, smodel);
         if (cmp < 1) {
 //            setReferenceModel(current);
             return ProcessingResult.Unchanged;
@@ -16,10 +16,13 @@
  */
 package ec.tstoolkit.modelling.arima.tramo;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.modelling.arima.ModelStatistics;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.modelling.arima.PreprocessingModel;
 import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * @author Jean Palate
@@ -42,6 +45,7 @@ public class ModelComparator implements Comparator<PreprocessingModel> {
     private double ksk_ = 1.25;
 
     private boolean acceptableQ_, acceptableOut_, acceptableSk_, acceptableQS_, acceptableStab_;
+    private ExecutionContext context_ = ExecutionContext.sequential();
 
     public ModelComparator() {
         preference_ = Preference.BIC;
@@ -51,6 +55,11 @@ public class ModelComparator implements Comparator<PreprocessingModel> {
         preference_ = pref;
     }
 
+    public ModelComparator(Preference pref, ExecutionContext context) {
+        preference_ = pref;
+        setExecutionContext(context);
+    }
+
     /**
      * @return the significance
      */
@@ -65,6 +74,26 @@ public class ModelComparator implements Comparator<PreprocessingModel> {
         this.significance_ = significance;
     }
 
+    /**
+     * @return The execution context used to compute the statistics of the
+     * compared models
+     */
+    public ExecutionContext getExecutionContext() {
+        return context_;
+    }
+
+    /**
+     * Sets the execution context used to compute the statistics of the two
+     * compared models concurrently (sequentially by default). The result of
+     * the comparison doesn't depend on the context.
+     *
+     * @param context The context. Null or ExecutionContext.sequential()
+     * disables the concurrent computation.
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        context_ = context == null ? ExecutionContext.sequential() : context;
+    }
+
     @Override
     public int compare(PreprocessingModel m1, PreprocessingModel m2) {
 
@@ -72,8 +101,28 @@ public class ModelComparator implements Comparator<PreprocessingModel> {
             return 0;
         }
 
-        ModelStatistics s1 = new ModelStatistics(m1);
-        ModelStatistics s2 = new ModelStatistics(m2);
+        ModelStatistics s1, s2;
+        if (context_.isSequential()) {
+            s1 = new ModelStatistics(m1);
+            s2 = new ModelStatistics(m2);
+        } else {
+            Future<ModelStatistics> f2 = context_.submit(() -> new ModelStatistics(m2));
+            s1 = new ModelStatistics(m1);
+            try {
+                s2 = f2.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new TramoException("Models comparison interrupted");
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new TramoException(String.valueOf(cause));
+            }
+        }
 
         if ((preference_ == Preference.BIC && s2.bic < s1.bic) || preference_ == Preference.Second) {
             if (!preferSecondModel(s2, s1)) {
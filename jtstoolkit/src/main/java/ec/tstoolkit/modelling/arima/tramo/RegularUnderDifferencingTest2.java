@@ -48,7 +48,7 @@ public class RegularUnderDifferencingTest2 extends AbstractModelController {
         if (nmodel == null) {
             return ProcessingResult.Failed;
         }
-        if (new ModelComparator().compare(nmodel, context.tmpModel()) < 0) {
+        if (new ModelComparator(ModelComparator.Preference.BIC, getExecutionContext()).compare(nmodel, context.tmpModel()) < 0) {
 //            setReferenceModel(smodel);
             transferInformation(ncontext, context);
             return ProcessingResult.Changed;
@@ -46,7 +46,7 @@ public class SeasonalUnderDifferencingTest extends AbstractModelController {
         if (smodel == null) {
             return ProcessingResult.Failed;
         }
-        if (new ModelComparator().compare(smodel, context.tmpModel()) < 0) {
+        if (new ModelComparator(ModelComparator.Preference.BIC, getExecutionContext()).compare(smodel, context.tmpModel()) < 0) {
 //            setReferenceModel(smodel);
             transferInformation(scontext, context);
             return ProcessingResult.Changed;
@@ -165,7 +165,7 @@ public class SeasonalityController extends AbstractModelController {
                     break;
             }
         }
-        ModelComparator cmp = new ModelComparator(pref);
+        ModelComparator cmp = new ModelComparator(pref, getExecutionContext());
         PreprocessingModel cur = context.current(false);
         int icmp = cmp.compare(cur, refmodel);
         if (icmp < 0) {
@@ -72,7 +72,7 @@ public class TDController extends AbstractModelController {
         }
         PreprocessingModel current = context.tmpModel();
         PreprocessingModel ncurrent = ncontext.tmpModel();
-        int cmp = new ModelComparator().compare(current, ncurrent);
+        int cmp = new ModelComparator(ModelComparator.Preference.BIC, getExecutionContext()).compare(current, ncurrent);
         if (cmp < 1) {
 //            setReferenceModel(current);
             return ProcessingResult.Unchanged;
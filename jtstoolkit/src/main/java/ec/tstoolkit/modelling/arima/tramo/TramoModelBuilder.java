@@ -66,6 +66,7 @@ public class TramoModelBuilder implements IModelBuilder {
             ArimaSpec arima = spec_.getArima();
             SarimaComponent cmp = new SarimaComponent(model.getFrequency());
             cmp.setMu(arima.getMu());
+            cmp.setWarmStart(arima.isWarmStart());
             cmp.setPhi(arima.getPhi());
             cmp.setTheta(arima.getTheta());
             cmp.setD(arima.getD());
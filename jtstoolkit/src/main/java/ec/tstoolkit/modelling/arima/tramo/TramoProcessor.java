@@ -17,6 +17,7 @@
 package ec.tstoolkit.modelling.arima.tramo;
 
 import ec.tstoolkit.Parameter;
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.arima.estimation.RegArimaEstimation;
 import ec.tstoolkit.arima.estimation.RegArimaModel;
 import ec.tstoolkit.data.IReadDataBlock;
@@ -24,6 +25,7 @@ import ec.tstoolkit.data.ReadDataBlock;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.maths.realfunctions.IParametricMapping;
 import ec.tstoolkit.modelling.Variable;
+import ec.tstoolkit.modelling.arima.AbstractModelController;
 import ec.tstoolkit.modelling.arima.IModelBuilder;
 import ec.tstoolkit.modelling.arima.IModelController;
 import ec.tstoolkit.modelling.arima.IModelEstimator;
@@ -80,6 +82,7 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
     private ModelStatistics refstats_;
     private boolean needOutliers_;
     private boolean needAutoModelling_;
+    private ExecutionContext context_;
     //private int refsens_;
 
     public TramoProcessor() {
@@ -116,7 +119,9 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
                 return null;
             }
 
-            if (context.description.isFullySpecified() && outliers == null) {
+            // warm-started parameters are only the starting point of the estimation
+            if (context.description.isFullySpecified() && outliers == null
+                    && !context.description.getArimaComponent().isWarmStart()) {
                 // nothing to do
                 IParametricMapping<SarimaModel> mapping = context.description.defaultMapping();
                 ModelDescription model = context.description;
@@ -404,6 +409,7 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
     @Override
     public PreprocessingModel process(TsData originalTs, ModellingContext context) {
         clear();
+        applyExecutionContext();
         if (context == null) {
             context = new ModellingContext();
         }
@@ -417,6 +423,28 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
         return rslt;
     }
 
+    private void applyExecutionContext() {
+        if (context_ == null) {
+            return;
+        }
+        if (autoModelling instanceof ArmaModule) {
+            ((ArmaModule) autoModelling).setExecutionContext(context_);
+        } else if (autoModelling instanceof AutomaticModelIdentification) {
+            ((AutomaticModelIdentification) autoModelling).setExecutionContext(context_);
+        }
+        applyExecutionContext(seasonalityController);
+        applyExecutionContext(benchmarking);
+        for (IModelController controller : controllers) {
+            applyExecutionContext(controller);
+        }
+    }
+
+    private void applyExecutionContext(IModelController controller) {
+        if (controller instanceof AbstractModelController) {
+            ((AbstractModelController) controller).setExecutionContext(context_);
+        }
+    }
+
     private void restore(ModellingContext context) {
         context.description = reference_.description.clone();
         context.estimation = reference_.estimation;
@@ -1011,6 +1039,32 @@ public class TramoProcessor extends AbstractTramoModule implements IPreprocessor
         this.tsig_ = tsig_;
     }
 
+    /**
+     * @return The execution context of the automatic model identification, or
+     * null if the modules use their own contexts
+     */
+    public ExecutionContext getExecutionContext() {
+        return context_;
+    }
+
+    /**
+     * Sets the execution context used inside the processing of a series:
+     * the candidate ARMA models and the statistics of the compared models are
+     * then evaluated in parallel. The context is passed to the automodelling
+     * module and to the controllers at the start of each processing. The
+     * identified model doesn't depend on the context.
+     * <br>
+     * This intra-series parallelism is meant for a few long series; batches of
+     * series should rather be processed in parallel (the nested tasks are then
+     * executed inline).
+     *
+     * @param context The context. Null (default) to leave the contexts of the
+     * modules unchanged (sequential by default).
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        context_ = context;
+    }
+
     /**
      * This function is different from the CHECKSEAS routine of TRAMO.
      *
@@ -17,6 +17,7 @@
 
 package ec.tstoolkit.modelling.arima.tramo.spectrum;
 
+import ec.tstoolkit.maths.FftEngine;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
 import java.util.Arrays;
@@ -105,15 +106,19 @@ public class TPeaks {
         double[] Cxx = new double[Win_Size + 1];
         Peaks.crosco(ser, ser, Cxx);
         Arrays.fill(spect, 0.0);
+        // spect[i] = a[0] + 2 * sum(a[j]*cos(2*pi*i*j/Win_Size)), a[j] = Cxx[j]*window[j]
+        // computed by means of a (real) fft
+        double[] a = new double[Win_Size];
         for (int i = 0; i < Win_Size; i++) {
-            spect[0] += Cxx[i] * window[i];
+            a[i] = Cxx[i] * window[i];
+            spect[0] += a[i];
         }
-        for (int i = 1; i <= Win_Size / 2 + 1; i++) {
-            spect[i] = Cxx[0] * window[0];
-            for (int j = 1; j < Win_Size; j++) {
-                spect[i] += 2.0 * Cxx[j] * window[j] * Math.cos((Math.PI * 2.0 * j * i / Win_Size));
-            }
-
+        int h = Win_Size / 2;
+        double[] re = new double[h + 1], im = new double[h + 1];
+        new FftEngine(Win_Size).transformReal(a, re, im);
+        for (int i = 1; i <= h + 1; i++) {
+            int k = i <= h ? i : Win_Size - i;
+            spect[i] = 2.0 * re[k] - a[0];
         }
     }
 
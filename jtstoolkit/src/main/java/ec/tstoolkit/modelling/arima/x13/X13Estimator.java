@@ -49,7 +49,12 @@ public class X13Estimator implements IModelEstimator {
         ModelEstimation estimation = new ModelEstimation(context.description.buildRegArima(),
                 context.description.getLikelihoodCorrection());
         try {
-            estimation.compute(monitor, mapping.getDim());
+            // warm-started parameters are used as starting point
+            if (context.description.getArimaComponent().isWarmStart()) {
+                estimation.improve(monitor, mapping.getDim());
+            } else {
+                estimation.compute(monitor, mapping.getDim());
+            }
             estimation.updateParametersCovariance(monitor.getParametersCovariance());
             if (mapping.getDim() > 0) {
                 context.information.subSet(RegArimaEstimator.OPTIMIZATION).set(RegArimaEstimator.SCORE, monitor.getScore());
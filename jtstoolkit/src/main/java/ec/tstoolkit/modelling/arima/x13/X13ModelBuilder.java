@@ -67,6 +67,7 @@ public class X13ModelBuilder implements IModelBuilder {
             SarimaComponent cmp = new SarimaComponent();
             cmp.setFrequency(model.getFrequency());
             cmp.setMu(arima.getMu());
+            cmp.setWarmStart(arima.isWarmStart());
             cmp.setPhi(arima.getPhi());
             cmp.setTheta(arima.getTheta());
             cmp.setD(arima.getD());
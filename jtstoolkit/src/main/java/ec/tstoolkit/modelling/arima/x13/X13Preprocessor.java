@@ -110,7 +110,9 @@ public class X13Preprocessor implements IPreprocessor {
                     return null;
                 }
             }
-            if (context.description.isFullySpecified() && outliers == null) {
+            // warm-started parameters are only the starting point of the estimation
+            if (context.description.isFullySpecified() && outliers == null
+                    && !context.description.getArimaComponent().isWarmStart()) {
                 // nothing to do
                 IParametricMapping<SarimaModel> mapping = context.description.defaultMapping();
                 ModelDescription model = context.description;
@@ -37,6 +37,7 @@ public class SarimaComponent extends AbstractArimaComponent implements Cloneable
 
     private int m_D, m_BD, m_S;
     private Parameter[] m_phi, m_theta, m_bphi, m_btheta;
+    private boolean m_warmStart;
 
     public SarimaComponent() {
     }
@@ -422,6 +423,20 @@ public class SarimaComponent extends AbstractArimaComponent implements Cloneable
         return n;
     }
 
+    /**
+     * Checks that the initial parameters come from a neighbouring estimation
+     * (see DefaultArimaSpec.isWarmStart): they are then only the starting
+     * point of a complete estimation
+     * @return
+     */
+    public boolean isWarmStart() {
+        return m_warmStart;
+    }
+
+    public void setWarmStart(boolean value) {
+        m_warmStart = value;
+    }
+
     public int getFixedParametersCount() {
         int n = Parameter.countFixedParameters(m_phi);
         n += Parameter.countFixedParameters(m_bphi);
@@ -36,4 +36,28 @@ public interface ITsProcessing<I extends IProcResults >{
      * @return
      */
     I process(TsDomain domain);
+
+    /**
+     * Processes a domain, knowing the results of a neighbouring domain (for
+     * instance the previous vintage of a revision analysis). Implementations
+     * may use the neighbour as starting point of their estimation. By default,
+     * the neighbour is ignored.
+     *
+     * @param domain
+     * @param neighbour The results of a neighbouring domain. May be null
+     * @return
+     */
+    default I process(TsDomain domain, I neighbour) {
+        return process(domain);
+    }
+
+    /**
+     * Indicates that several domains can be processed concurrently by this
+     * object. By default, a processing is considered as not thread-safe.
+     *
+     * @return
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -16,16 +16,20 @@
  */
 package ec.tstoolkit.timeseries.analysis;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDataFunction;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -34,14 +38,31 @@ import java.util.List;
  */
 @Development(status = Development.Status.Preliminary)
 public class RevisionHistory<T extends IProcResults> {
-    
+
+    /**
+     * Default maximum number of estimations kept in the cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 128;
 
     private final ITsProcessing<T> m_processing;
 
-    private final HashMap<TsDomain, T> m_cache = new HashMap<>();
+    // least recently used estimations (access order). The estimations are
+    // softly referenced, so that they can be reclaimed under memory pressure
+    private final LinkedHashMap<TsDomain, SoftReference<T>> m_cache = new LinkedHashMap<TsDomain, SoftReference<T>>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TsDomain, SoftReference<T>> eldest) {
+            return size() > m_cacheSize;
+        }
+    };
 
     private final TsDomain m_domainT;
 
+    private final T m_reference;
+
+    private int m_cacheSize = DEFAULT_CACHE_SIZE;
+
+    private ExecutionContext m_context;
+
     /**
      *
      * @param processing
@@ -51,7 +72,8 @@ public class RevisionHistory<T extends IProcResults> {
             TsDomain domain) {
         m_processing = processing;
         m_domainT = domain;
-        m_cache.put(m_domainT, processing.process(m_domainT));
+        m_reference = processing.process(m_domainT);
+        m_context = defaultContext(processing);
     }
 
     /**
@@ -75,7 +97,61 @@ public class RevisionHistory<T extends IProcResults> {
      * @return
      */
     public T getReferenceInfo() {
-        return tsInfo(m_domainT);
+        return m_reference;
+    }
+
+    /**
+     * The maximum number of estimations kept in the cache. The estimation
+     * of the reference domain is always kept; the other ones may also be
+     * reclaimed by the garbage collector when the memory is low.
+     *
+     * @return
+     */
+    public int getCacheSize() {
+        return m_cacheSize;
+    }
+
+    /**
+     *
+     * @param value The new size of the cache (0 to disable the cache)
+     */
+    public void setCacheSize(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (m_cache) {
+            m_cacheSize = value;
+            // evicts the least recently used estimations
+            Iterator<SoftReference<T>> iter = m_cache.values().iterator();
+            for (int n = m_cache.size(); n > value; --n) {
+                iter.next();
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * The execution context used for the estimation of several domains. By
+     * default, they are estimated by the shared (bounded) context when the
+     * processing is thread-safe, sequentially otherwise. A concurrent context
+     * should only be used with a thread-safe processing.
+     *
+     * @return
+     */
+    public ExecutionContext getExecutionContext() {
+        return m_context;
+    }
+
+    /**
+     *
+     * @param context The execution context. Null for the default context
+     */
+    public void setExecutionContext(ExecutionContext context) {
+        m_context = context == null ? defaultContext(m_processing) : context;
+    }
+
+    static ExecutionContext defaultContext(ITsProcessing<?> processing) {
+        return processing.isThreadSafe() ? ExecutionContext.shared() : ExecutionContext.sequential();
     }
 
     // / <summary>
@@ -102,12 +178,13 @@ public class RevisionHistory<T extends IProcResults> {
             int lag, int count, DiagnosticInfo mode, DiagnosticTarget target) {
         TsPeriod start = m_domainT.getStart();
         TsDomain domain = new TsDomain(start, period.minus(start) + 1);
-        IProcResults[] ilag = new IProcResults[count];
+        ArrayList<TsDomain> ldomains = new ArrayList<>(count);
         TsDomain ldomain = domain;
         for (int i = 0; i < count; ++i) {
             ldomain = ldomain.extend(0, lag);
-            ilag[i] = tsInfo(ldomain);
+            ldomains.add(ldomain);
         }
+        IProcResults[] ilag = tsInfo(ldomains).toArray(new IProcResults[count]);
         double[] rslt = new double[count];
         if (target == DiagnosticTarget.Final) {
             T iT = tsInfo(m_domainT);
@@ -186,10 +263,9 @@ public class RevisionHistory<T extends IProcResults> {
     public TsData revision(String item, TsPeriod start) {
         TsPeriod p0 = m_domainT.getStart();
         TsData rslt = new TsData(start, m_domainT.getEnd().minus(start));
-        int len = start.minus(p0) + 1;
-        for (int i = 0; i < rslt.getLength(); ++i, ++len) {
-            TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
+        List<T> outputs = expandingInfos(start.minus(p0) + 1, rslt.getLength());
+        for (int i = 0; i < rslt.getLength(); ++i) {
+            T output = outputs.get(i);
             if (output != null) {
                 Double d = output.getData(item, double.class);
                 if (d != null) {
@@ -235,19 +311,21 @@ public class RevisionHistory<T extends IProcResults> {
         int n = pend.minus(pbeg);
         if (n >= 0) {
             int len = pbeg.minus(start) + 1;
+            ArrayList<TsDomain> domains = new ArrayList<>(n + 1);
             for (int i = 0; i <= n; ++i) {
                 try {
-                    TsDomain dom = new TsDomain(start, len++);
-                    T output = tsInfo(dom);
-                    if (output != null) {
-                        TsData q = output.getData(item, TsData.class);
-                        if (q != null) {
-                            s.add(q);
-                        }
-                    }
+                    domains.add(new TsDomain(start, len++));
                 } catch (Exception err) {
                 }
             }
+            for (T output : tsInfo(domains)) {
+                if (output != null) {
+                    TsData q = output.getData(item, TsData.class);
+                    if (q != null) {
+                        s.add(q);
+                    }
+                }
+            }
         }
         return s;
     }
@@ -310,14 +388,85 @@ public class RevisionHistory<T extends IProcResults> {
      * @return
      */
     public T tsInfo(TsDomain domain) {
-        T info = m_cache.get(domain);
+        if (domain.equals(m_domainT)) {
+            return m_reference;
+        }
+        T info;
+        synchronized (m_cache) {
+            info = cached(domain);
+        }
         if (info == null) {
-            info = m_processing.process(domain);
-            m_cache.put(domain, info);
+            info = m_processing.process(domain, m_reference);
+            cache(domain, info);
         }
         return info;
     }
 
+    /**
+     * Estimations on several domains. The domains that are not in the cache
+     * are processed by the execution context of this object; each chain of
+     * consecutive domains starts from the reference estimation.
+     *
+     * @param domains The domains. Neighbouring domains should be consecutive
+     * @return The estimations, in the order of the domains (null for the
+     * domains that could not be processed)
+     */
+    public List<T> tsInfo(List<TsDomain> domains) {
+        ArrayList<T> rslts = new ArrayList<>(domains.size());
+        ArrayList<TsDomain> missing = new ArrayList<>();
+        synchronized (m_cache) {
+            for (TsDomain domain : domains) {
+                T info = domain.equals(m_domainT) ? m_reference : cached(domain);
+                if (info == null) {
+                    missing.add(domain);
+                }
+                rslts.add(info);
+            }
+        }
+        if (missing.isEmpty()) {
+            return rslts;
+        }
+        List<T> infos = TsProcessingChains.process(m_processing, missing, m_reference, m_context, false);
+        for (int i = 0, j = 0; i < rslts.size(); ++i) {
+            if (rslts.get(i) == null) {
+                T info = infos.get(j++);
+                rslts.set(i, info);
+                cache(domains.get(i), info);
+            }
+        }
+        return rslts;
+    }
+
+    private void cache(TsDomain domain, T info) {
+        if (info != null) {
+            synchronized (m_cache) {
+                m_cache.put(domain, new SoftReference<>(info));
+            }
+        }
+    }
+
+    // should be called under the lock of the cache
+    private T cached(TsDomain domain) {
+        SoftReference<T> ref = m_cache.get(domain);
+        if (ref == null) {
+            return null;
+        }
+        T info = ref.get();
+        if (info == null) {
+            m_cache.remove(domain);
+        }
+        return info;
+    }
+
+    private List<T> expandingInfos(int len, int count) {
+        TsPeriod p0 = m_domainT.getStart();
+        ArrayList<TsDomain> domains = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            domains.add(new TsDomain(p0, len + i));
+        }
+        return tsInfo(domains);
+    }
+
     // / <summary>
     // / Returns the value of the time series identified by "item" at a given
     // point ("period"),
@@ -341,10 +490,9 @@ public class RevisionHistory<T extends IProcResults> {
         TsPeriod p0 = m_domainT.getStart();
         int pos = period.minus(p0);
         TsData rslt = new TsData(start, m_domainT.getEnd().minus(start));
-        int len = start.minus(p0) + 1;
-        for (int i = 0; i < rslt.getLength(); ++i, ++len) {
-            TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
+        List<T> outputs = expandingInfos(start.minus(p0) + 1, rslt.getLength());
+        for (int i = 0; i < rslt.getLength(); ++i) {
+            T output = outputs.get(i);
             if (output != null) {
                 TsData t = output.getData(item, TsData.class);
                 if (t != null) {
@@ -361,10 +509,9 @@ public class RevisionHistory<T extends IProcResults> {
         TsPeriod p0 = m_domainT.getStart();
         int pos = period.minus(p0);
         TsData rslt = new TsData(start, m_domainT.getEnd().minus(start));
-        int len = start.minus(p0) + 1;
-        for (int i = 0; i < rslt.getLength(); ++i, ++len) {
-            TsDomain rdom = new TsDomain(p0, len);
-            T output = tsInfo(rdom);
+        List<T> outputs = expandingInfos(start.minus(p0) + 1, rslt.getLength());
+        for (int i = 0; i < rslt.getLength(); ++i) {
+            T output = outputs.get(i);
             if (output != null) {
                 TsData t = output.getData(item, TsData.class);
                 if (t != null) {
@@ -17,6 +17,7 @@
 
 package ec.tstoolkit.timeseries.analysis;
 
+import ec.tstoolkit.algorithm.ExecutionContext;
 import ec.tstoolkit.algorithm.IProcResults;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.timeseries.simplets.TsData;
@@ -25,6 +26,7 @@ import ec.tstoolkit.timeseries.simplets.TsPeriod;
 import ec.tstoolkit.utilities.Jdk6;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 
 /**
@@ -82,6 +84,8 @@ public class SlidingSpans<I extends IProcResults> {
 
     private int m_spanMin = 2;
 
+    private ExecutionContext m_context;
+
     /**
      * 
      * @param processing
@@ -92,6 +96,7 @@ public class SlidingSpans<I extends IProcResults> {
 	m_processing = processing;
 	m_domainT = domain;
 	m_reference = processing.process(m_domainT);
+	m_context = RevisionHistory.defaultContext(processing);
     }
 
     private void addDel(int p,
@@ -179,6 +184,28 @@ public class SlidingSpans<I extends IProcResults> {
         return m_domainT;
     }
 
+    /**
+     * The execution context used for the estimation of the spans. By default,
+     * the spans are estimated by the shared (bounded) context when the
+     * processing is thread-safe, sequentially otherwise. A concurrent context
+     * should only be used with a thread-safe processing.
+     *
+     * @return
+     */
+    public ExecutionContext getExecutionContext()
+    {
+	return m_context;
+    }
+
+    /**
+     * 
+     * @param context The execution context. Null for the default context
+     */
+    public void setExecutionContext(ExecutionContext context)
+    {
+	m_context = context == null ? RevisionHistory.defaultContext(m_processing) : context;
+    }
+
     /**
      * 
      * @return
@@ -237,7 +264,6 @@ public class SlidingSpans<I extends IProcResults> {
     public boolean process() {
 	if (m_estimation != null)
 	    return true;
-	ArrayList<Node<I>> rslts = new ArrayList<>();
 	int freq = m_domainT.getFrequency().intValue();
 	int length = m_spanLength * freq;
 	TsPeriod start = m_domainT.getLast().minus(length - 1);
@@ -245,24 +271,25 @@ public class SlidingSpans<I extends IProcResults> {
 	    length += start.getPosition();
 	    start.move(-start.getPosition());
 	}
-	int idx = 0;
-	while (idx < m_spanCount && start.isNotBefore(m_domainT.getStart()))
-	    try {
-		++idx;
-		TsDomain cur = new TsDomain(start, length);
-		I info = m_processing.process(cur);
-		if (info == null)
-		    break;
-		else{
-                    Node<I> node=new Node<>();
-                    node.estimation=info;
-                    node.domain=cur;
-		    rslts.add(node);
-                }
-		start.move(-m_spanDistance * freq);
-	    } catch (Exception err) {
+	ArrayList<TsDomain> domains = new ArrayList<>();
+	while (domains.size() < m_spanCount && start.isNotBefore(m_domainT.getStart())) {
+	    domains.add(new TsDomain(start, length));
+	    start.move(-m_spanDistance * freq);
+	}
+	// each span is estimated starting from the estimation of the next (more
+	// recent) span
+	// the spans that follow a failed span are useless
+	List<I> infos = TsProcessingChains.process(m_processing, domains, m_reference, m_context, true);
+	ArrayList<Node<I>> rslts = new ArrayList<>();
+	for (int i = 0; i < infos.size(); ++i) {
+	    I info = infos.get(i);
+	    if (info == null)
 		break;
-	    }
+	    Node<I> node = new Node<>();
+	    node.estimation = info;
+	    node.domain = domains.get(i);
+	    rslts.add(node);
+	}
 
 	if (rslts.size() < m_spanMin)
 	    return false;
@@ -79,9 +79,10 @@ public class SpectralDiagnostic {
                 }
             }
              if ( ars.process(ts, nar_)) {
-                // build freqs
+                // build freqs. The regular grid is computed by fft
+                double[] grid = ars.values(npoints_);
                 for (int i = 0; i < freqs_.length; ++i)
-                    svals_[i] = ars.value(freqs_[i]);
+                    svals_[i] = freqs_[i] == fstep * i ? grid[i] : ars.value(freqs_[i]);
 
                 DescriptiveStatistics stats = new DescriptiveStatistics(new DataBlock(svals_).drop(1, 1));
                 median_ = stats.getMedian();
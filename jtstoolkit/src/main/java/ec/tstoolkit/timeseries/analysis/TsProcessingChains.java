@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processing of a sequence of (neighbouring) domains. The sequence is split in
+ * contiguous chains, which are executed concurrently by an execution context.
+ * Inside a chain, each domain is processed knowing the results of the
+ * previous one (see ITsProcessing.process(domain, neighbour)).
+ */
+final class TsProcessingChains {
+
+    private TsProcessingChains() {
+    }
+
+    /**
+     *
+     * @param <I>
+     * @param processing The processing
+     * @param domains The domains. Neighbouring domains should be consecutive
+     * @param seed The neighbour of the first domain of each chain. May be null
+     * @param context The execution context
+     * @param stopAtFailure True if the domains that follow a failed domain
+     * should not be processed
+     * @return The results, in the order of the domains. A domain that could
+     * not be processed (null result or exception) gives a null item, as the
+     * domains skipped after a failure
+     */
+    @SuppressWarnings("unchecked")
+    static <I extends IProcResults> List<I> process(final ITsProcessing<I> processing, final List<TsDomain> domains,
+            final I seed, ExecutionContext context, boolean stopAtFailure) {
+        final int n = domains.size();
+        final Object[] rslts = new Object[n];
+        // position of the first failed domain (n if none or if the failures
+        // are ignored)
+        final AtomicInteger failed = stopAtFailure ? new AtomicInteger(n) : null;
+        int nchains = context.isSequential() || ExecutionContext.isWorkerThread() ? 1
+                : Math.min(n, Runtime.getRuntime().availableProcessors());
+        if (nchains <= 1) {
+            chain(processing, domains, 0, n, seed, rslts, failed);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(nchains);
+            for (int i = 0; i < nchains; ++i) {
+                final int start = (int) ((long) n * i / nchains), end = (int) ((long) n * (i + 1) / nchains);
+                tasks.add(() -> {
+                    chain(processing, domains, start, end, seed, rslts, failed);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : context.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                // the errors are handled by chain
+            }
+        }
+        return (List<I>) (List<?>) Arrays.asList(rslts);
+    }
+
+    private static <I extends IProcResults> void chain(ITsProcessing<I> processing, List<TsDomain> domains,
+            int start, int end, I seed, Object[] rslts, AtomicInteger failed) {
+        I prev = seed;
+        for (int i = start; i < end; ++i) {
+            if (failed != null && i > failed.get()) {
+                return;
+            }
+            I cur;
+            try {
+                cur = processing.process(domains.get(i), prev);
+            } catch (RuntimeException err) {
+                cur = null;
+            }
+            rslts[i] = cur;
+            if (cur != null) {
+                prev = cur;
+            } else if (failed != null) {
+                failed.accumulateAndGet(i, Math::min);
+                return;
+            }
+        }
+    }
+}
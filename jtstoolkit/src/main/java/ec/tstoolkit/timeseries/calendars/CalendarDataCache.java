@@ -0,0 +1,265 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.calendars;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.IReadDataBlock;
+import ec.tstoolkit.data.ReadDataBlock;
+import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide cache of calendar regressors (trading days, Easter...). The
+ * regressors are identified by their owner (a calendar provider, compared by
+ * identity), by their type and by their domain. They are computed once and
+ * then shared: the cached blocks are never modified. Only the regressors that
+ * are expensive to compute should be cached; simple ones (length of period,
+ * leap year) are faster to compute than to look up.
+ * <br>
+ * The lookups don't lock (concurrent map). The cache is bounded by the total
+ * number of stored values; when it is exceeded, the least recently used
+ * regressors are removed first. The owners whose regressors may change
+ * (mutable calendars) must call invalidate after each modification.
+ */
+@Development(status = Development.Status.Alpha)
+public final class CalendarDataCache {
+
+    /**
+     * Default capacity (number of doubles)
+     */
+    public static final long DEFAULT_CAPACITY = 1 << 22;
+
+    private static final CalendarDataCache instance = new CalendarDataCache(DEFAULT_CAPACITY);
+
+    public static CalendarDataCache getDefault() {
+        return instance;
+    }
+
+    private final ConcurrentHashMap<Key, Entry> map = new ConcurrentHashMap<>();
+    // logical clock of the accesses (LRU order)
+    private final AtomicLong clock = new AtomicLong(), size = new AtomicLong();
+    private volatile long capacity;
+
+    /**
+     * Creates a new cache
+     *
+     * @param capacity The maximum number of cached values
+     */
+    public CalendarDataCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the capacity of the cache. A capacity of 0 disables the cache.
+     *
+     * @param capacity The maximum number of cached values
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+        trim();
+    }
+
+    /**
+     * Gets the number of values currently in the cache
+     *
+     * @return
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    public int getCount() {
+        return map.size();
+    }
+
+    /**
+     * Removes all the regressors
+     */
+    public void clear() {
+        map.forEach(this::remove);
+    }
+
+    /**
+     * Removes all the regressors of a given owner
+     *
+     * @param owner The owner (compared by identity)
+     */
+    public void invalidate(Object owner) {
+        map.forEach((key, entry) -> {
+            if (key.owner == owner) {
+                remove(key, entry);
+            }
+        });
+    }
+
+    /**
+     * Gets (and computes if need be) a regressor
+     *
+     * @param owner The owner of the regressor (compared by identity)
+     * @param type The type of the regressor (compared by equals)
+     * @param domain The domain of the regressor
+     * @param count The number of variables of the regressor
+     * @param fn The function that computes the regressor. It receives count
+     * new (zero) blocks of the length of the domain.
+     * @return The (immutable) variables of the regressor
+     */
+    public List<IReadDataBlock> get(Object owner, Object type, TsDomain domain, int count, Consumer<List<DataBlock>> fn) {
+        double[][] data = data(owner, type, domain, count, fn);
+        List<IReadDataBlock> rslt = new ArrayList<>(data.length);
+        for (double[] cur : data) {
+            rslt.add(new ReadDataBlock(cur));
+        }
+        return Collections.unmodifiableList(rslt);
+    }
+
+    /**
+     * Copies a regressor (computed if need be) in the given buffer
+     *
+     * @param owner The owner of the regressor (compared by identity)
+     * @param type The type of the regressor (compared by equals)
+     * @param domain The domain of the regressor
+     * @param buffer The buffer that receives the variables of the regressor.
+     * Its size defines the number of variables.
+     * @param fn The function that computes the regressor. It receives
+     * buffer.size() new (zero) blocks of the length of the domain.
+     */
+    public void copy(Object owner, Object type, TsDomain domain, List<DataBlock> buffer, Consumer<List<DataBlock>> fn) {
+        double[][] data = data(owner, type, domain, buffer.size(), fn);
+        for (int i = 0; i < data.length; ++i) {
+            buffer.get(i).copyFrom(data[i], 0);
+        }
+    }
+
+    private double[][] data(Object owner, Object type, TsDomain domain, int count, Consumer<List<DataBlock>> fn) {
+        Key key = new Key(owner, type, domain, count);
+        Entry entry = map.get(key);
+        if (entry != null) {
+            entry.stamp = clock.incrementAndGet();
+            return entry.data;
+        }
+        // computed outside of any lock; concurrent requests for the same
+        // regressor give identical results
+        int n = domain.getLength();
+        double[][] data = new double[count][n];
+        List<DataBlock> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            blocks.add(new DataBlock(data[i]));
+        }
+        fn.accept(blocks);
+        long len = (long) count * n;
+        if (len <= capacity) {
+            entry = new Entry(data, clock.incrementAndGet());
+            Entry cur = map.putIfAbsent(key, entry);
+            if (cur != null) {
+                return cur.data;
+            }
+            if (size.addAndGet(len) > capacity) {
+                trim();
+            }
+        }
+        return data;
+    }
+
+    private void remove(Key key, Entry entry) {
+        if (map.remove(key, entry)) {
+            size.addAndGet(-length(entry.data));
+        }
+    }
+
+    // removes the least recently used regressors (one thread at a time)
+    private synchronized void trim() {
+        if (size.get() <= capacity) {
+            return;
+        }
+        // the stamps are unique
+        TreeMap<Long, Key> lru = new TreeMap<>();
+        map.forEach((key, entry) -> lru.put(entry.stamp, key));
+        for (Key key : lru.values()) {
+            if (size.get() <= capacity) {
+                break;
+            }
+            Entry entry = map.get(key);
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+    }
+
+    private static long length(double[][] data) {
+        return data.length == 0 ? 0 : (long) data.length * data[0].length;
+    }
+
+    private static final class Entry {
+
+        final double[][] data;
+        volatile long stamp;
+
+        Entry(double[][] data, long stamp) {
+            this.data = data;
+            this.stamp = stamp;
+        }
+    }
+
+    private static final class Key {
+
+        final Object owner, type;
+        final TsDomain domain;
+        final int count;
+        final int hash;
+
+        Key(Object owner, Object type, TsDomain domain, int count) {
+            this.owner = owner;
+            this.type = type;
+            this.domain = domain;
+            this.count = count;
+            int h = System.identityHashCode(owner);
+            h = 31 * h + (type == null ? 0 : type.hashCode());
+            h = 31 * h + domain.hashCode();
+            this.hash = 31 * h + count;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return owner == other.owner && count == other.count
+                    && (type == null ? other.type == null : type.equals(other.type))
+                    && domain.equals(other.domain);
+        }
+    }
+}
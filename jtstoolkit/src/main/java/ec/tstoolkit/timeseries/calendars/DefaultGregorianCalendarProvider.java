@@ -49,6 +49,8 @@ public class DefaultGregorianCalendarProvider implements IGregorianCalendarProvi
         calendarData(dtype, domain, buffer.subList(start, start+count(dtype)));
     }
     /**
+     * The regressors are computed once for each domain and then served by the
+     * shared CalendarDataCache
      *
      * @param dtype
      * @param domain
@@ -58,15 +60,14 @@ public class DefaultGregorianCalendarProvider implements IGregorianCalendarProvi
     public void calendarData(TradingDaysType dtype,
             TsDomain domain, List<DataBlock> buffer) {
         // see tramo
-        int nreg = 0;
         switch (dtype) {
             case TradingDays:
-                nreg = 6;
-                tradingDays(domain, buffer);
+                CalendarDataCache.getDefault().copy(this, dtype, domain, buffer.subList(0, 6),
+                        cols -> tradingDays(domain, cols));
                 break;
             case WorkingDays:
-                nreg = 1;
-                workingDays(domain, buffer.get(0));
+                CalendarDataCache.getDefault().copy(this, dtype, domain, buffer.subList(0, 1),
+                        cols -> workingDays(domain, cols.get(0)));
                 break;
         }
     }
@@ -21,7 +21,9 @@ import ec.tstoolkit.algorithm.ProcessingContext;
 import ec.tstoolkit.utilities.DefinitionMap;
 import ec.tstoolkit.utilities.NameManager;
 import ec.tstoolkit.utilities.WeightedItem;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 
 /**
@@ -52,6 +54,34 @@ public class GregorianCalendarManager extends NameManager<IGregorianCalendarProv
         return getCount() <= 1;
     }
 
+    // The cached regressors of the calendars that are no longer defined are released
+    @Override
+    public boolean remove(String name) {
+        IGregorianCalendarProvider provider = get(name);
+        if (!super.remove(name)) {
+            return false;
+        }
+        CalendarDataCache.getDefault().invalidate(provider);
+        return true;
+    }
+
+    @Override
+    public boolean remove(IGregorianCalendarProvider obj) {
+        String name = get(obj);
+        return name != null && remove(name);
+    }
+
+    @Override
+    public void clear() {
+        List<IGregorianCalendarProvider> providers = new ArrayList<>(variables());
+        super.clear();
+        for (IGregorianCalendarProvider provider : providers) {
+            if (!contains(provider)) {
+                CalendarDataCache.getDefault().invalidate(provider);
+            }
+        }
+    }
+
     public static DefinitionMap defaultDefinitionMap(String code, HashMap<IGregorianCalendarProvider, String> dic) {
         return ProcessingContext.getActiveContext().getGregorianCalendars().buildDefinitionMap(code, dic);
     }
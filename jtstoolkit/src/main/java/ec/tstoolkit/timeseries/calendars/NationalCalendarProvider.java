@@ -314,7 +314,9 @@ public class NationalCalendarProvider extends DefaultGregorianCalendarProvider {
 
     public boolean add(ISpecialDay day) {
         if (!m_locked) {
-            return ncal.add(day);
+            boolean rslt = ncal.add(day);
+            CalendarDataCache.getDefault().invalidate(this);
+            return rslt;
         } else {
             return false;
         }
@@ -322,7 +324,9 @@ public class NationalCalendarProvider extends DefaultGregorianCalendarProvider {
 
     public boolean add(SpecialDayEvent evday) {
         if (!m_locked) {
-            return ncal.add(evday);
+            boolean rslt = ncal.add(evday);
+            CalendarDataCache.getDefault().invalidate(this);
+            return rslt;
         } else {
             return false;
         }
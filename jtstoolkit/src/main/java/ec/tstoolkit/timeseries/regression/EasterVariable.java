@@ -19,10 +19,13 @@ package ec.tstoolkit.timeseries.regression;
 
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.design.Development;
+import ec.tstoolkit.timeseries.calendars.CalendarDataCache;
 import ec.tstoolkit.timeseries.calendars.Utilities;
 import ec.tstoolkit.timeseries.simplets.TsDomain;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 
 /**
@@ -108,11 +111,19 @@ public class EasterVariable extends AbstractSingleTsVariable implements IEasterV
 
     @Override
     public void data(TsPeriod start, DataBlock data) {
-        data.set(0);
         int freq = start.getFrequency().intValue();
         if ((freq != 12 && freq != 4) || dur_ < 1 || dur_ > 25) {
+            data.set(0);
             return;
         }
+        // the regressors are shared by all the variables with the same parameters
+        CalendarDataCache.getDefault().copy(EasterVariable.class, Arrays.asList(dur_, type_, m_e, m_m),
+                new TsDomain(start, data.getLength()), Collections.singletonList(data),
+                cols -> compute(start, cols.get(0)));
+    }
+
+    private void compute(TsPeriod start, DataBlock data) {
+        int freq = start.getFrequency().intValue();
         int n = data.getLength();
         int c = 12 / freq;
         int y0 = start.getYear();
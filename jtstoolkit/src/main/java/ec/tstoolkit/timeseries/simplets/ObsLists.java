@@ -19,9 +19,7 @@ package ec.tstoolkit.timeseries.simplets;
 import ec.tstoolkit.design.Internal;
 import ec.tstoolkit.design.VisibleForTesting;
 import ec.tstoolkit.utilities.ObjLongToIntFunction;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * Package private supporting class for {@link ObsList}.
@@ -39,13 +37,22 @@ final class ObsLists {
     static final class SortableLongObsList implements ObsList.LongObsList {
 
         private final ObjLongToIntFunction<TsFrequency> tsPeriodIdFunc;
-        private final List<LongObs> list = new ArrayList<>();
+        private long[] periods;
+        private double[] values;
+        private int size;
         private boolean sorted = true;
         private long latestPeriod = Long.MIN_VALUE;
 
         @VisibleForTesting
         SortableLongObsList(ObjLongToIntFunction<TsFrequency> tsPeriodIdFunc) {
+            this(tsPeriodIdFunc, 32);
+        }
+
+        SortableLongObsList(ObjLongToIntFunction<TsFrequency> tsPeriodIdFunc, int initialCapacity) {
             this.tsPeriodIdFunc = tsPeriodIdFunc;
+            this.periods = new long[Math.max(initialCapacity, 1)];
+            this.values = new double[periods.length];
+            this.size = 0;
         }
 
         @VisibleForTesting
@@ -55,50 +62,99 @@ final class ObsLists {
 
         @Override
         public void clear() {
-            list.clear();
+            size = 0;
             sorted = true;
             latestPeriod = Long.MIN_VALUE;
         }
 
         @Override
         public void add(long period, double value) {
-            list.add(new LongObs(period, value));
+            if (size == periods.length) {
+                int newCapacity = size * 2;
+                periods = Arrays.copyOf(periods, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+            periods[size] = period;
+            values[size] = value;
+            size++;
             sorted = sorted && latestPeriod <= period;
             latestPeriod = period;
         }
 
         @Override
         public int size() {
-            return list.size();
+            return size;
         }
 
         @Override
         public double getValue(int index) {
-            return list.get(index).value;
+            checkIndex(index, size);
+            return values[index];
         }
 
         @Override
         public int getPeriodId(TsFrequency frequency, int index) {
-            return tsPeriodIdFunc.applyAsInt(frequency, list.get(index).period);
+            checkIndex(index, size);
+            return tsPeriodIdFunc.applyAsInt(frequency, periods[index]);
         }
 
         @Override
         public void sortByPeriod() {
             if (!sorted) {
-                list.sort((l, r) -> Long.compare(l.period, r.period));
+                long[] tmpPeriods = Arrays.copyOf(periods, size);
+                double[] tmpValues = Arrays.copyOf(values, size);
+                mergeSort(tmpPeriods, tmpValues, periods, values, 0, size);
                 sorted = true;
-                latestPeriod = list.get(list.size() - 1).period;
+                latestPeriod = periods[size - 1];
             }
         }
 
-        private static final class LongObs {
+        @Override
+        public double[] getValues() {
+            return Arrays.copyOf(values, size);
+        }
+    }
 
-            final long period;
-            final double value;
+    private static void checkIndex(int index, int size) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
 
-            private LongObs(long period, double value) {
-                this.period = period;
-                this.value = value;
+    /**
+     * Stable sort of parallel arrays by period. On entry, src and dst hold the
+     * same observations; on exit, dst is sorted between lo and hi.
+     */
+    private static void mergeSort(long[] srcPeriods, double[] srcValues, long[] dstPeriods, double[] dstValues, int lo, int hi) {
+        if (hi - lo < 8) {
+            for (int i = lo + 1; i < hi; i++) {
+                long period = dstPeriods[i];
+                double value = dstValues[i];
+                int j = i;
+                for (; j > lo && dstPeriods[j - 1] > period; j--) {
+                    dstPeriods[j] = dstPeriods[j - 1];
+                    dstValues[j] = dstValues[j - 1];
+                }
+                dstPeriods[j] = period;
+                dstValues[j] = value;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(dstPeriods, dstValues, srcPeriods, srcValues, lo, mid);
+        mergeSort(dstPeriods, dstValues, srcPeriods, srcValues, mid, hi);
+        if (srcPeriods[mid - 1] <= srcPeriods[mid]) {
+            System.arraycopy(srcPeriods, lo, dstPeriods, lo, hi - lo);
+            System.arraycopy(srcValues, lo, dstValues, lo, hi - lo);
+            return;
+        }
+        for (int i = lo, p = lo, q = mid; i < hi; i++) {
+            if (q >= hi || (p < mid && srcPeriods[p] <= srcPeriods[q])) {
+                dstPeriods[i] = srcPeriods[p];
+                dstValues[i] = srcValues[p++];
+            } else {
+                dstPeriods[i] = srcPeriods[q];
+                dstValues[i] = srcValues[q++];
             }
         }
     }
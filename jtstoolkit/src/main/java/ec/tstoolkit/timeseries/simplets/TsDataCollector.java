@@ -23,7 +23,9 @@ import ec.tstoolkit.design.NewObject;
 import ec.tstoolkit.design.Development;
 import ec.tstoolkit.design.Internal;
 import ec.tstoolkit.timeseries.simplets.ObsList.LongObsList;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.TimeZone;
 import java.util.function.IntToDoubleFunction;
 
 /**
@@ -31,21 +33,30 @@ import java.util.function.IntToDoubleFunction;
  * date-double) to create simple time series. Time series can be created
  * following different aggregation mode or in an automatic way. See the "make"
  * method for further information
+ * <p>
+ * Observations are stored as local times in primitive arrays and their periods
+ * are computed without any calendar object, so that a collector doesn't
+ * depend on the thread that created it. A collector is not thread-safe.
  *
  * @author Jean Palate. National Bank of Belgium
  */
 @Development(status = Development.Status.Alpha)
 public class TsDataCollector {
 
+    private static final long MILLIS_PER_DAY = 86400000L;
+
     private final LongObsList m_obs;
+    private final TimeZone zone;
     private double missing;
 
     /**
-     * Creates a new TSData Collector.
+     * Creates a new TSData Collector. Dates are interpreted in the default
+     * time zone at creation.
      */
     public TsDataCollector() {
         this.missing = -99999;
-        this.m_obs = ObsList.newLongObsList(false, TsPeriod.CalendarUtil.getInstance()::calcTsPeriodId);
+        this.zone = TimeZone.getDefault();
+        this.m_obs = ObsList.newLongObsList(false, TsDataCollector::calcTsPeriodId);
     }
 
     /**
@@ -57,7 +68,17 @@ public class TsDataCollector {
      *
      */
     public void addMissingValue(Date date) {
-        m_obs.add(date.getTime(), Double.NaN);
+        m_obs.add(toLocalTime(date.getTime()), Double.NaN);
+    }
+
+    /**
+     * Adds a missing value.
+     *
+     * @param date Day that corresponds to the observation
+     * @see #addMissingValue(Date)
+     */
+    public void addMissingValue(LocalDate date) {
+        m_obs.add(date.toEpochDay() * MILLIS_PER_DAY, Double.NaN);
     }
 
     /**
@@ -69,13 +90,58 @@ public class TsDataCollector {
      * @param value Value of the observation
      */
     public void addObservation(Date date, double value) {
-        if (Double.isNaN(value) || value == missing) {
-            m_obs.add(date.getTime(), Double.NaN);
-        } else {
-            m_obs.add(date.getTime(), value);
+        addObservation(date.getTime(), value);
+    }
+
+    /**
+     * Adds an observation
+     *
+     * @param time Milliseconds since 1/1/70 UTC (see Date.getTime()) of a
+     * moment that belongs to the considered period
+     * @param value Value of the observation
+     */
+    public void addObservation(long time, double value) {
+        m_obs.add(toLocalTime(time), checkMissing(value));
+    }
+
+    /**
+     * Adds an observation
+     *
+     * @param date Day that belongs to the considered period
+     * @param value Value of the observation
+     */
+    public void addObservation(LocalDate date, double value) {
+        m_obs.add(date.toEpochDay() * MILLIS_PER_DAY, checkMissing(value));
+    }
+
+    /**
+     * Adds a block of observations.
+     *
+     * @param times Milliseconds since 1/1/70 UTC of the observations
+     * @param values Values of the observations
+     * @throws IllegalArgumentException if both arrays have different lengths
+     */
+    public void addObservations(long[] times, double[] values) {
+        if (times.length != values.length) {
+            throw new IllegalArgumentException("Times and values must have the same length");
+        }
+        for (int i = 0; i < times.length; ++i) {
+            m_obs.add(toLocalTime(times[i]), checkMissing(values[i]));
         }
     }
 
+    private double checkMissing(double value) {
+        return Double.isNaN(value) || value == missing ? Double.NaN : value;
+    }
+
+    private long toLocalTime(long time) {
+        return time + zone.getOffset(time);
+    }
+
+    private static int calcTsPeriodId(TsFrequency freq, long localTime) {
+        return TsPeriod.calcIdFromEpochDay(freq.intValue(), Math.floorDiv(localTime, MILLIS_PER_DAY));
+    }
+
     /**
      * Removes all observations.
      */
@@ -370,6 +370,29 @@ public class TsPeriod implements Serializable, Cloneable, IPeriod,
         return (year - 1970) * freq + placeinyear;
     }
 
+    /**
+     * Computes the id of the period that contains a given day, without any
+     * calendar object. Days are counted in the proleptic Gregorian calendar
+     * (as in java.time), so that dates before 1582 may differ from the ones
+     * given by GregorianCalendar.
+     *
+     * @param freq The frequency of the period
+     * @param epochDay The number of days since 1/1/70
+     * @return The id of the period
+     */
+    static int calcIdFromEpochDay(final int freq, final long epochDay) {
+        // civil date from day count, shifted to eras starting on 1/3/0000
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int month = (int) (mp < 10 ? mp + 2 : mp - 10);
+        int year = (int) (yoe + era * 400 + (month < 2 ? 1 : 0));
+        return calcId(freq, year, month / (12 / freq));
+    }
+
     /**
      * Checks that the period is after a given date.
      * 
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.benchmarking.cholette;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CholetteMethodTest {
+
+    public CholetteMethodTest() {
+    }
+
+    // uses the default (quadratic) product
+    private static IVariance dense(IVariance var) {
+        return var::var;
+    }
+
+    @Test
+    public void testProduct() {
+        double[] x = new double[50];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = Math.cos(i) + 0.1 * i;
+        }
+        for (IVariance var : new IVariance[]{new Ar1Variance(0.9), new Ar1Variance(-0.5), new RwVariance()}) {
+            double[] expected = new double[x.length], found = new double[x.length];
+            dense(var).product(x, expected);
+            var.product(x, found);
+            assertArrayEquals(expected, found, 1e-9);
+            Matrix bab = new Summation(x.length, 4).BAB(var);
+            assertTrue(bab.minus(new Summation(x.length, 4).BAB(dense(var))).nrm2() < 1e-9 * bab.nrm2());
+        }
+    }
+
+    @Test
+    public void testProcess() {
+        TsData m = data.Data.X;
+        TsData y = m.changeFrequency(TsFrequency.Yearly, TsAggregationType.Sum, true);
+        y.apply(o -> o * 1.01);
+        DataBlock z = new DataBlock(m.internalStorage());
+        DataBlock yb = new DataBlock(y.internalStorage());
+        for (IVariance var : new IVariance[]{new Ar1Variance(0.9), new RwVariance()}) {
+            Summation sum = new Summation(m.getLength(), 12);
+            CholetteMethod cholette = new CholetteMethod(var, sum);
+            assertTrue(cholette.process(yb, z));
+            CholetteMethod ref = new CholetteMethod(dense(var), sum);
+            assertTrue(ref.process(yb, z));
+            assertArrayEquals(ref.getResult(), cholette.getResult(), 1e-6);
+            MultiplicativeCholetteMethod mcholette = new MultiplicativeCholetteMethod(var, sum);
+            assertTrue(mcholette.process(yb, z));
+            assertArrayEquals(ref.getResult(), mcholette.getResult(), 1e-6);
+        }
+    }
+}
@@ -17,6 +17,12 @@
 package ec.benchmarking.denton;
 
 import ec.benchmarking.simplets.TsDenton;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.maths.matrices.Householder;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.maths.matrices.SymmetricMatrix;
+import ec.tstoolkit.maths.polynomials.Polynomial;
+import ec.tstoolkit.maths.polynomials.UnitRoots;
 import ec.tstoolkit.timeseries.TsAggregationType;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsDataTable;
@@ -78,4 +84,100 @@ public class DentonMethodTest {
 //        System.out.println(table);
     }
 
+    // solution of the dense system [D'D J'; J 0] [q ; l] = [D'D x ; y]
+    private static double[] dense(DentonMethod denton, double[] x, double[] y) {
+        int n = x.length, ny = y.length, conv = denton.getConversionFactor();
+        Polynomial pd = UnitRoots.D(1, denton.getDifferencingOrder());
+        int d = pd.getDegree();
+        int n0 = denton.isModifiedDenton() ? d : 0;
+        Matrix D = new Matrix(n - n0, n);
+        for (int t = n0; t < n; ++t) {
+            for (int i = 0; i <= Math.min(d, t); ++i) {
+                D.set(t - n0, t - i, denton.isMultiplicative() ? pd.get(i) / x[t - i] : pd.get(i));
+            }
+        }
+        Matrix A = new Matrix(n + ny, n + ny);
+        SymmetricMatrix.XtX(D.subMatrix(), A.subMatrix(0, n, 0, n));
+        DataBlock z = new DataBlock(n + ny);
+        z.range(0, n).product(A.subMatrix(0, n, 0, n).rows(), new DataBlock(x));
+        for (int k = 0; k < ny; ++k) {
+            int j = denton.getOffset() + k * conv;
+            switch (denton.getAggregationType()) {
+                case First:
+                    A.set(n + k, j, 1);
+                    break;
+                case Last:
+                    A.set(n + k, j + conv - 1, 1);
+                    break;
+                default:
+                    A.subMatrix(n + k, n + k + 1, j, j + conv).set(1);
+            }
+            z.set(n + k, y[k]);
+        }
+        SymmetricMatrix.fromLower(A);
+        Householder qr = new Householder(true);
+        qr.decompose(A);
+        DataBlock q = new DataBlock(n + ny);
+        qr.solve(z, q);
+        return q.range(0, n).getData();
+    }
+
+    @Test
+    public void testBandedSolver() {
+        int n = m.getLength();
+        for (TsAggregationType type : new TsAggregationType[]{TsAggregationType.Sum, TsAggregationType.First, TsAggregationType.Last}) {
+            for (int offset = 0; offset < 12; offset += 5) {
+                int ny = (n - offset) / 12;
+                double[] x = new double[n], yc = new double[ny];
+                double xm = m.sum() / n;
+                for (int i = 0; i < n; ++i) {
+                    x[i] = m.get(i) / xm;
+                }
+                for (int k = 0; k < ny; ++k) {
+                    yc[k] = y.get(k % y.getLength()) / xm;
+                    if (type != TsAggregationType.Sum) {
+                        yc[k] /= 12;
+                    }
+                }
+                for (int d = 1; d <= 3; ++d) {
+                    for (boolean mul : new boolean[]{true, false}) {
+                        for (boolean mod : new boolean[]{true, false}) {
+                            DentonMethod denton = new DentonMethod();
+                            denton.setAggregationType(type);
+                            denton.setOffset(offset);
+                            denton.setDifferencingOrder(d);
+                            denton.setMultiplicative(mul);
+                            denton.setModifiedDenton(mod);
+                            double[] expected = dense(denton, x, yc);
+                            double[] found = denton.process(new DataBlock(x), new DataBlock(yc));
+                            for (int i = 0; i < n; ++i) {
+                                assertEquals(expected[i], found[i], 1e-7 * Math.abs(found[i]));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongSeries() {
+        // daily-like series, which can't be handled by a dense system
+        int conv = 365, ny = 40, n = conv * ny;
+        DentonMethod denton = new DentonMethod();
+        denton.setConversionFactor(conv);
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = 100 + 10 * Math.sin(i * 2 * Math.PI / 7) + 0.01 * i;
+        }
+        double[] yc = new double[ny];
+        for (int k = 0; k < ny; ++k) {
+            yc[k] = conv * (110 + k);
+        }
+        double[] q = denton.process(new DataBlock(x), new DataBlock(yc));
+        for (int k = 0; k < ny; ++k) {
+            assertEquals(yc[k], new DataBlock(q).range(k * conv, (k + 1) * conv).sum(), 1e-6 * yc[k]);
+        }
+    }
+
 }
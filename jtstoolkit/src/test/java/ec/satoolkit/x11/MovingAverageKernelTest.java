@@ -0,0 +1,102 @@
+/*
+* Copyright 2013 National Bank of Belgium
+*
+* Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+* by the European Commission - subsequent versions of the EUPL (the "Licence");
+* You may not use this work except in compliance with the Licence.
+* You may obtain a copy of the Licence at:
+*
+* http://ec.europa.eu/idabc/eupl
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the Licence is distributed on an "AS IS" basis,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the Licence for the specific language governing permissions and
+* limitations under the Licence.
+*/
+package ec.satoolkit.x11;
+
+import data.Data;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.maths.linearfilters.SymmetricFilter;
+import ec.tstoolkit.timeseries.simplets.PeriodIterator;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDataBlock;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MovingAverageKernelTest {
+
+    public MovingAverageKernelTest() {
+    }
+
+    // the filtering as done with data blocks
+    private static TsData seasonal(SymmetricFilter filter, AsymmetricEndPoints endPoints, TsData s, TsDomain domain) {
+        TsData out = new TsData(domain);
+        PeriodIterator pin = new PeriodIterator(s, domain);
+        PeriodIterator pout = new PeriodIterator(out);
+        int nf = filter.getUpperBound();
+        while (pin.hasMoreElements()) {
+            DataBlock bin = pin.nextElement().data;
+            DataBlock bout = pout.nextElement().data;
+            if (2 * nf < bin.getLength()) {
+                filter.filter(bin, bout.drop(nf, nf));
+            }
+            endPoints.process(bin, bout);
+        }
+        return out;
+    }
+
+    private static TsData trend(SymmetricFilter filter, AsymmetricEndPoints endPoints, TsData s, TsDomain domain) {
+        DataBlock out = new DataBlock(domain.getLength());
+        int nf = filter.getUpperBound();
+        DataBlock in = TsDataBlock.select(s, domain).data;
+        filter.filter(in, out.drop(nf, nf));
+        endPoints.process(in, out);
+        return new TsData(domain.getStart(), out.getData(), false);
+    }
+
+    @Test
+    public void testSeasonal() {
+        TsData s = Data.P;
+        for (SeasonalFilterOption option : new SeasonalFilterOption[]{SeasonalFilterOption.S3X1, SeasonalFilterOption.S3X3,
+            SeasonalFilterOption.S3X5, SeasonalFilterOption.S3X9, SeasonalFilterOption.S3X15}) {
+            DefaultSeasonalFilteringStrategy strategy = SeasonalFilterFactory.getDefaultFilteringStrategy(option);
+            MovingAverageKernel kernel = MovingAverageKernel.of(strategy.filter, strategy.endPointsProcessor);
+            assertNotNull(kernel);
+            for (int nbeg = 0; nbeg < 13; nbeg += 5) {
+                for (int nend = 0; nend < 13; nend += 3) {
+                    TsDomain domain = s.getDomain().drop(nbeg, nend);
+                    TsData expected = seasonal(strategy.filter, (AsymmetricEndPoints) strategy.endPointsProcessor, s, domain);
+                    assertEquals(expected, kernel.process(s, domain, true));
+                    assertEquals(expected, strategy.process(s, domain));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTrend() {
+        TsData s = Data.X;
+        for (int len : new int[]{5, 9, 13, 23}) {
+            SymmetricFilter filter = TrendCycleFilterFactory.makeHendersonFilter(len);
+            AsymmetricEndPoints endPoints = new AsymmetricEndPoints(MusgraveFilterFactory.makeFiltersForHenderson(len, 12));
+            MovingAverageKernel kernel = MovingAverageKernel.of(filter, endPoints);
+            for (int n = len / 2; n <= 3 * len; ++n) {
+                TsDomain domain = s.getDomain().drop(7, s.getLength() - 7 - n);
+                assertEquals(trend(filter, endPoints, s, domain), kernel.process(s, domain, false));
+            }
+            // too short or outside of the series
+            assertNull(kernel.process(s, s.getDomain().drop(0, s.getLength() - len / 2 + 1), false));
+            assertNull(kernel.process(s, s.getDomain().extend(1, 0), false));
+        }
+    }
+
+    @Test
+    public void testNoKernel() {
+        SymmetricFilter f7 = FilterFactory.makeSymmetricFilter(7);
+        assertNull(MovingAverageKernel.of(f7, null));
+        assertNull(MovingAverageKernel.of(f7, new FilteredMeanEndPoints(f7)));
+    }
+}
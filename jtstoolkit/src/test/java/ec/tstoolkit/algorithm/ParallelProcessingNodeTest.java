@@ -21,7 +21,15 @@ import ec.tstoolkit.algorithm.IProcessing.Status;
 import ec.tstoolkit.information.InformationSet;
 import ec.tstoolkit.information.ProxyResults;
 import ec.tstoolkit.maths.matrices.Matrix;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.AfterClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -99,6 +107,91 @@ public class ParallelProcessingNodeTest {
 
     }
 
+    @Test
+    public void testExecutionContext() {
+        Matrix M = new Matrix(100, 10);
+        M.randomize();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (ExecutionContext ctx : new ExecutionContext[]{ExecutionContext.sequential(), ExecutionContext.of(executor)}) {
+            ParallelProcessingNode<Matrix> node = new ParallelProcessingNode<>("sum", null, ctx);
+            for (int i = 0; i < M.getColumnsCount(); ++i) {
+                node.add(createNode(i));
+            }
+            Map<String, IProcResults> results = new HashMap<>();
+            assertEquals(Status.Valid, node.process(M, results));
+            CompositeResults process = (CompositeResults) results.get("sum");
+            for (int i = 0; i < M.getColumnsCount(); ++i) {
+                assertTrue(Math.abs(M.column(i).ssq() - process.getData("column" + i + ".value", Double.class)) < 1e-9);
+            }
+            List<ExecutionContext.Timing> timings = ctx.getTimings();
+            assertTrue(timings.size() >= M.getColumnsCount() + 1);
+            ctx.resetTimings();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testNested() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        final ExecutionContext ctx = ExecutionContext.of(executor);
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        // the failures of the nodes are swallowed: the checks are done after the processing
+        final List<Boolean> workers = Collections.synchronizedList(new ArrayList<Boolean>());
+        ParallelProcessingNode<Matrix> outer = new ParallelProcessingNode<>("outer", null, ctx);
+        for (int i = 0; i < 4; ++i) {
+            final int pos = i;
+            outer.add(new IProcessingNode<Matrix>() {
+                @Override
+                public String getName() {
+                    return "inner" + pos;
+                }
+
+                @Override
+                public String getPrefix() {
+                    return getName();
+                }
+
+                @Override
+                public Status process(Matrix input, Map<String, IProcResults> results) {
+                    workers.add(ExecutionContext.isWorkerThread());
+                    final String current = Thread.currentThread().getName();
+                    ParallelProcessingNode<Matrix> inner = new ParallelProcessingNode<>(getName(), null, ctx);
+                    for (int j = 0; j < 4; ++j) {
+                        inner.add(new IProcessingNode<Matrix>() {
+                            @Override
+                            public String getName() {
+                                return "leaf";
+                            }
+
+                            @Override
+                            public String getPrefix() {
+                                return null;
+                            }
+
+                            @Override
+                            public Status process(Matrix input, Map<String, IProcResults> results) {
+                                // nested nodes are run inline
+                                threads.add(current + "/" + Thread.currentThread().getName());
+                                return Status.Valid;
+                            }
+                        });
+                    }
+                    return inner.process(input, results);
+                }
+            });
+        }
+        assertFalse(ExecutionContext.isWorkerThread());
+        assertEquals(Status.Valid, outer.process(new Matrix(2, 2), new HashMap<String, IProcResults>()));
+        assertEquals(4, workers.size());
+        assertFalse(workers.contains(Boolean.FALSE));
+        assertFalse(threads.isEmpty());
+        for (String s : threads) {
+            String[] t = s.split("/");
+            assertEquals(t[0], t[1]);
+        }
+        executor.shutdown();
+    }
+
     private static IProcessingNode<Matrix> createNode(final int pos) {
         return new IProcessingNode<Matrix>() {
 
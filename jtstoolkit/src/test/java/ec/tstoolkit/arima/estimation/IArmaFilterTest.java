@@ -19,6 +19,7 @@ package ec.tstoolkit.arima.estimation;
 
 import ec.tstoolkit.data.DataBlock;
 import ec.tstoolkit.eco.Likelihood;
+import ec.tstoolkit.maths.matrices.Matrix;
 import ec.tstoolkit.sarima.SarimaModel;
 import ec.tstoolkit.sarima.SarmaSpecification;
 import java.util.Random;
@@ -182,4 +183,37 @@ public class IArmaFilterTest {
             }
         }
     }
+
+    @Test
+    public void testBatchFilter() {
+        Random rn = new Random(0);
+        Matrix Y = new Matrix(360, 7);
+        Y.randomize(1);
+        for (int i = 0; i < 100; ++i) {
+            arma3111.setPhi(1, 2 * rn.nextDouble() - 1);
+            arma3111.setPhi(2, 2 * rn.nextDouble() - 1);
+            arma3111.setPhi(3, 2 * rn.nextDouble() - 1);
+            arma3111.setBPhi(1, 2 * rn.nextDouble() - 1);
+            arma3111.setTheta(1, 2 * rn.nextDouble() - 1);
+            arma3111.setBTheta(1, 2 * rn.nextDouble() - 1);
+            if (!arma3111.isValid(true)) {
+                continue;
+            }
+            KalmanFilter bkf = new KalmanFilter(), mkf = new KalmanFilter(true);
+            int n = bkf.initialize(arma3111, Y.getRowsCount());
+            mkf.initialize(arma3111, Y.getRowsCount());
+            Matrix E = new Matrix(n, Y.getColumnsCount());
+            bkf.filter(Y, E);
+            for (int j = 0; j < Y.getColumnsCount(); ++j) {
+                kf.initialize(arma3111, Y.getRowsCount());
+                DataBlock kE = new DataBlock(n), mE = new DataBlock(n);
+                kf.filter(Y.column(j), kE);
+                mkf.filter(Y.column(j), mE);
+                DataBlock bE = E.column(j);
+                assertTrue(kE.distance(bE) <= EPS * (1 + kE.nrm2()));
+                assertTrue(mE.distance(bE) <= EPS * (1 + kE.nrm2()));
+                assertEquals(kf.getLogDeterminant(), bkf.getLogDeterminant(), EPS * (1 + Math.abs(kf.getLogDeterminant())));
+            }
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class FftEngineTest {
+
+    public FftEngineTest() {
+    }
+
+    private static void dft(double[] re, double[] im, double[] dre, double[] dim) {
+        int n = re.length;
+        for (int k = 0; k < n; ++k) {
+            double sr = 0, si = 0;
+            for (int j = 0; j < n; ++j) {
+                double t = 2 * Math.PI * (((long) j * k) % n) / n;
+                double c = Math.cos(t), s = Math.sin(t);
+                sr += re[j] * c - im[j] * s;
+                si += re[j] * s + im[j] * c;
+            }
+            dre[k] = sr;
+            dim[k] = si;
+        }
+    }
+
+    @Test
+    public void testTransform() {
+        Random rnd = new Random(0);
+        for (int n = 1; n <= 100; ++n) {
+            double[] re = new double[n], im = new double[n];
+            for (int i = 0; i < n; ++i) {
+                re[i] = rnd.nextGaussian();
+                im[i] = rnd.nextGaussian();
+            }
+            double[] dre = new double[n], dim = new double[n];
+            dft(re, im, dre, dim);
+            double[] fre = re.clone(), fim = im.clone();
+            FftEngine fft = new FftEngine(n);
+            fft.transform(fre, fim);
+            for (int i = 0; i < n; ++i) {
+                assertEquals(dre[i], fre[i], 1e-9);
+                assertEquals(dim[i], fim[i], 1e-9);
+            }
+            fft.backTransform(fre, fim);
+            for (int i = 0; i < n; ++i) {
+                assertEquals(re[i], fre[i], 1e-9);
+                assertEquals(im[i], fim[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testTransformReal() {
+        Random rnd = new Random(0);
+        for (int n = 1; n <= 100; ++n) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; ++i) {
+                x[i] = rnd.nextGaussian();
+            }
+            double[] dre = new double[n], dim = new double[n];
+            dft(x, new double[n], dre, dim);
+            double[] re = new double[n / 2 + 1], im = new double[n / 2 + 1];
+            new FftEngine(n).transformReal(x, re, im);
+            for (int i = 0; i <= n / 2; ++i) {
+                assertEquals(dre[i], re[i], 1e-9);
+                assertEquals(dim[i], im[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testLegacy() {
+        Complex[] c = new Complex[12];
+        double[] re = new double[12], im = new double[12];
+        for (int i = 0; i < c.length; ++i) {
+            re[i] = i;
+            im[i] = 1 - i;
+            c[i] = Complex.cart(re[i], im[i]);
+        }
+        new Fft().transform(c);
+        new FftEngine(12).transform(re, im);
+        for (int i = 0; i < c.length; ++i) {
+            assertEquals(re[i], c[i].getRe(), 1e-12);
+            assertEquals(im[i], c[i].getIm(), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.maths.matrices;
+
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.data.DataBlock;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MatrixKernelsTest {
+
+    public MatrixKernelsTest() {
+    }
+
+    // simple loops, with the same order of operations as the kernels
+    private static Matrix product(Matrix X, Matrix Y) {
+        Matrix Z = new Matrix(X.getRowsCount(), Y.getColumnsCount());
+        for (int i = 0; i < Z.getRowsCount(); ++i) {
+            for (int j = 0; j < Z.getColumnsCount(); ++j) {
+                double s = 0;
+                for (int k = 0; k < X.getColumnsCount(); ++k) {
+                    s += Y.get(k, j) * X.get(i, k);
+                }
+                Z.set(i, j, s);
+            }
+        }
+        return Z;
+    }
+
+    @Test
+    public void testProduct() {
+        Matrix X = new Matrix(103, 67), Y = new Matrix(67, 41);
+        X.randomize(0);
+        Y.randomize(1);
+        Matrix Z = X.times(Y);
+        assertTrue(Z.equals(product(X, Y)));
+        Matrix W = new Matrix(103, 41);
+        W.subMatrix().product(X.subMatrix(), Y.subMatrix());
+        assertTrue(Z.equals(W, 1e-12));
+    }
+
+    @Test
+    public void testSymmetricProducts() {
+        Matrix X = new Matrix(301, 45);
+        X.randomize(2);
+        Matrix Xt = X.transpose();
+        assertTrue(SymmetricMatrix.XtX(X).equals(product(Xt, X)));
+        assertTrue(SymmetricMatrix.XXt(Xt).equals(product(Xt, X)));
+        assertTrue(SymmetricMatrix.isSymmetric(SymmetricMatrix.XXt(X), 0));
+    }
+
+    @Test
+    public void testCholesky() {
+        Matrix X = new Matrix(500, 400);
+        X.randomize(3);
+        Matrix S = SymmetricMatrix.XtX(X);
+        Matrix L = S.clone();
+        SymmetricMatrix.lcholesky(L);
+        assertTrue(SymmetricMatrix.LLt(L).distance(S) < 1e-9 * S.nrm2());
+        for (int i = 0; i < L.getRowsCount(); ++i) {
+            for (int j = i + 1; j < L.getColumnsCount(); ++j) {
+                assertEquals(0, L.get(i, j), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testHouseholder() {
+        Matrix X = new Matrix(2000, 80);
+        X.randomize(4);
+        // empty regressors
+        X.column(45).set(0);
+        X.column(70).set(0);
+        Householder qr = new Householder(true);
+        qr.decompose(X);
+        assertArrayEquals(new int[]{45, 70}, qr.getUnused());
+        Matrix R = qr.getR();
+        Matrix Xc = Matrix.selectColumns(X.subMatrix(), new int[]{
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
+            20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39,
+            40, 41, 42, 43, 44, 46, 47, 48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 58, 59,
+            60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 71, 72, 73, 74, 75, 76, 77, 78, 79});
+        Matrix S = SymmetricMatrix.XtX(Xc);
+        assertTrue(SymmetricMatrix.UtU(R).distance(S) < 1e-9 * S.nrm2());
+
+        DataBlock y = new DataBlock(2000), b = new DataBlock(78);
+        y.randomize(5);
+        qr.leastSquares(y, b, null);
+        DataBlock e = y.deepClone();
+        for (int i = 0; i < b.getLength(); ++i) {
+            e.addAY(-b.get(i), Xc.column(i));
+        }
+        // the residuals are orthogonal to the regressors
+        for (int i = 0; i < b.getLength(); ++i) {
+            assertEquals(0, e.dot(Xc.column(i)), 1e-9);
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        ExecutionContext old = MatrixKernels.getExecutionContext();
+        try {
+            Matrix X = new Matrix(800, 400);
+            X.randomize(6);
+            MatrixKernels.setExecutionContext(ExecutionContext.sequential());
+            Matrix S0 = SymmetricMatrix.XtX(X), P0 = X.times(S0);
+            Matrix L0 = S0.clone();
+            SymmetricMatrix.lcholesky(L0);
+            Householder qr0 = new Householder(true);
+            qr0.decompose(X);
+            MatrixKernels.setExecutionContext(ExecutionContext.shared());
+            Matrix S1 = SymmetricMatrix.XtX(X), P1 = X.times(S1);
+            Matrix L1 = S1.clone();
+            SymmetricMatrix.lcholesky(L1);
+            Householder qr1 = new Householder(true);
+            qr1.decompose(X);
+            assertTrue(S0.equals(S1));
+            assertTrue(P0.equals(P1));
+            assertTrue(L0.equals(L1));
+            assertTrue(qr0.getR().equals(qr1.getR()));
+        } finally {
+            MatrixKernels.setExecutionContext(old);
+        }
+    }
+}
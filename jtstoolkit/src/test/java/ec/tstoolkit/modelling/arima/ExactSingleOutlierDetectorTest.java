@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.arima.estimation.AnsleyFilter;
+import ec.tstoolkit.arima.estimation.RegArimaModel;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.modelling.IRobustStandardDeviationComputer;
+import ec.tstoolkit.modelling.RegStatus;
+import ec.tstoolkit.modelling.Variable;
+import ec.tstoolkit.sarima.SarimaModel;
+import ec.tstoolkit.sarima.estimation.GlsSarimaMonitor;
+import ec.tstoolkit.timeseries.calendars.TradingDaysType;
+import ec.tstoolkit.timeseries.regression.AdditiveOutlierFactory;
+import ec.tstoolkit.timeseries.regression.GregorianCalendarVariables;
+import ec.tstoolkit.timeseries.regression.LevelShiftFactory;
+import ec.tstoolkit.timeseries.regression.SeasonalOutlierFactory;
+import ec.tstoolkit.timeseries.regression.TransitoryChangeFactory;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ExactSingleOutlierDetectorTest {
+
+    public ExactSingleOutlierDetectorTest() {
+    }
+
+    private static ExactSingleOutlierDetector<SarimaModel> detector(ModelDescription desc) {
+        ExactSingleOutlierDetector<SarimaModel> sod = new ExactSingleOutlierDetector<>(IRobustStandardDeviationComputer.mad(false),
+                IResidualsComputer.mlComputer(), new AnsleyFilter());
+        sod.addOutlierFactory(new AdditiveOutlierFactory());
+        LevelShiftFactory lfac = new LevelShiftFactory();
+        lfac.setZeroEnded(true);
+        sod.addOutlierFactory(lfac);
+        TransitoryChangeFactory tfac = new TransitoryChangeFactory();
+        tfac.setMonthlyCoefficient(true);
+        sod.addOutlierFactory(tfac);
+        SeasonalOutlierFactory sfac = new SeasonalOutlierFactory();
+        sfac.setZeroEnded(true);
+        sod.addOutlierFactory(sfac);
+        sod.prepare(desc.getEstimationDomain(), null);
+        return sod;
+    }
+
+    private static void compare(AbstractSingleOutlierDetector<SarimaModel> s0, AbstractSingleOutlierDetector<SarimaModel> s1) {
+        int n = s0.getDomain().getLength();
+        for (int j = 0; j < s0.getOutlierFactoriesCount(); ++j) {
+            for (int i = 0; i < n; ++i) {
+                assertEquals(s0.isDefined(i, j), s1.isDefined(i, j));
+                assertEquals(s0.T(i, j), s1.T(i, j), 1e-9);
+            }
+        }
+        assertEquals(s0.getMaxPosition(), s1.getMaxPosition());
+        assertEquals(s0.getMaxOutlierType(), s1.getMaxOutlierType());
+    }
+
+    @Test
+    public void testParallelScan() {
+        ModelDescription desc = new ModelDescription(Data.P, null);
+        desc.setTransformation(DefaultTransformationType.Log, PreadjustmentType.None);
+        desc.setAirline(true);
+        desc.addVariable(Variable.calendarVariable(GregorianCalendarVariables.getDefault(TradingDaysType.TradingDays), RegStatus.Prespecified));
+        RegArimaModel<SarimaModel> regarima = new GlsSarimaMonitor().process(desc.buildRegArima()).model;
+
+        // sequential and without cache by default
+        ExactSingleOutlierDetector<SarimaModel> s0 = detector(desc);
+        assertTrue(s0.getExecutionContext().isSequential());
+        assertFalse(s0.isCaching());
+        assertTrue(s0.process(regarima));
+
+        ExactSingleOutlierDetector<SarimaModel> s1 = detector(desc);
+        s1.setExecutionContext(ExecutionContext.shared());
+        s1.setCaching(true);
+        assertTrue(s1.process(regarima));
+        compare(s0, s1);
+
+        // second pass with the same arima model (cached outliers)
+        s0.exclude(s0.getMaxPosition());
+        s1.exclude(s1.getMaxPosition());
+        assertTrue(s0.process(regarima));
+        assertTrue(s1.process(regarima));
+        compare(s0, s1);
+    }
+}
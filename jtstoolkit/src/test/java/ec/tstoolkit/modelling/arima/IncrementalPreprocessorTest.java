@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima;
+
+import data.Data;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
+import ec.tstoolkit.arima.estimation.IncrementalLikelihoodEstimation;
+import ec.tstoolkit.eco.ConcentratedLikelihood;
+import ec.tstoolkit.modelling.DefaultTransformationType;
+import ec.tstoolkit.modelling.RegStatus;
+import ec.tstoolkit.modelling.Variable;
+import ec.tstoolkit.modelling.arima.x13.RegArimaSpecification;
+import ec.tstoolkit.sarima.SarimaComponent;
+import ec.tstoolkit.timeseries.calendars.TradingDaysType;
+import ec.tstoolkit.timeseries.regression.GregorianCalendarVariables;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalPreprocessorTest {
+
+    // fully specified model: log airline with fixed parameters and trading days
+    private static final IPreprocessor FIXED = (s, context) -> {
+        ModelDescription desc = new ModelDescription(s, null);
+        desc.setTransformation(DefaultTransformationType.Log, PreadjustmentType.None);
+        desc.setAirline(true);
+        SarimaComponent arima = desc.getArimaComponent();
+        arima.setTheta(new Parameter[]{new Parameter(-.6, ParameterType.Fixed)});
+        arima.setBTheta(new Parameter[]{new Parameter(-.8, ParameterType.Fixed)});
+        desc.addVariable(Variable.calendarVariable(GregorianCalendarVariables.getDefault(TradingDaysType.TradingDays), RegStatus.Prespecified));
+        ModelEstimation estimation = new ModelEstimation(desc.buildRegArima(), desc.getLikelihoodCorrection());
+        estimation.computeLikelihood(0);
+        return new PreprocessingModel(desc, estimation);
+    };
+
+    public IncrementalPreprocessorTest() {
+    }
+
+    private static void compare(ConcentratedLikelihood l0, ConcentratedLikelihood l1) {
+        assertEquals(l0.getLogLikelihood(), l1.getLogLikelihood(), 1e-12 * Math.abs(l0.getLogLikelihood()));
+        assertEquals(l0.getSsqErr(), l1.getSsqErr(), 1e-12 * l0.getSsqErr());
+        double[] b0 = l0.getB(), b1 = l1.getB();
+        assertEquals(b0.length, b1.length);
+        for (int i = 0; i < b0.length; ++i) {
+            assertEquals(b0[i], b1[i], 1e-12 * (1 + Math.abs(b0[i])));
+            assertEquals(l0.getBVar().get(i, i), l1.getBVar().get(i, i), 1e-12 * l0.getBVar().get(i, i));
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        TsData s = Data.P;
+        int n = s.getLength();
+        IncrementalPreprocessor processor = new IncrementalPreprocessor(FIXED);
+        PreprocessingModel model = processor.process(s.drop(0, 24), null);
+        assertEquals(IncrementalPreprocessor.Update.Complete, processor.getLastUpdate());
+        for (int i = 23; i >= 0; --i) {
+            TsData cur = s.drop(0, i);
+            model = processor.process(cur, null);
+            assertEquals(IncrementalPreprocessor.Update.Incremental, processor.getLastUpdate());
+            assertEquals(n - i, model.description.getEstimationDomain().getLength());
+            PreprocessingModel full = FIXED.process(cur, null);
+            compare(full.estimation.getLikelihood(), model.estimation.getLikelihood());
+        }
+    }
+
+    @Test
+    public void testFallback() {
+        TsData s = Data.P;
+        IncrementalPreprocessor processor = new IncrementalPreprocessor(FIXED);
+        processor.process(s.drop(0, 12), null);
+        // revised data
+        TsData rev = s.clone();
+        rev.set(10, rev.get(10) * 1.01);
+        processor.process(rev, null);
+        assertEquals(IncrementalPreprocessor.Update.Complete, processor.getLastUpdate());
+        // outlying new observation
+        TsData out = rev.extend(0, 1);
+        out.set(out.getLength() - 1, rev.get(rev.getLength() - 1) * 2);
+        processor.process(out, null);
+        assertEquals(IncrementalPreprocessor.Update.Complete, processor.getLastUpdate());
+        // regular new observation
+        processor.process(rev, null);
+        int n = rev.getLength();
+        TsData next = rev.extend(0, 1);
+        next.set(n, rev.get(n - 12) * rev.get(n - 1) / rev.get(n - 13));
+        processor.process(next, null);
+        assertEquals(IncrementalPreprocessor.Update.Incremental, processor.getLastUpdate());
+        // not fully specified model
+        processor = new IncrementalPreprocessor(RegArimaSpecification.RG5.build());
+        processor.process(s.drop(0, 12), null);
+        processor.process(s, null);
+        assertEquals(IncrementalPreprocessor.Update.Complete, processor.getLastUpdate());
+    }
+
+    @Test
+    public void testLikelihoodEstimation() {
+        IncrementalLikelihoodEstimation estimation = new IncrementalLikelihoodEstimation();
+        PreprocessingModel model = FIXED.process(Data.P.drop(0, 6), null);
+        assertTrue(estimation.estimate(model.estimation.getRegArima()));
+        assertFalse(estimation.isIncremental());
+        compare(model.estimation.getLikelihood(), estimation.getLikelihood());
+        model = FIXED.process(Data.P, null);
+        assertTrue(estimation.estimate(model.estimation.getRegArima()));
+        assertTrue(estimation.isIncremental());
+        assertEquals(6, estimation.getFilteredCount());
+        compare(model.estimation.getLikelihood(), estimation.getLikelihood());
+        assertArrayEquals(model.estimation.getLikelihood().getResiduals(), estimation.getLikelihood().getResiduals(), 1e-12);
+    }
+}
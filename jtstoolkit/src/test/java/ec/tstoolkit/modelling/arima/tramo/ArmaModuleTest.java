@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.modelling.arima.tramo;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.modelling.arima.PreprocessingModel;
+import ec.tstoolkit.sarima.SarimaComponent;
+import ec.tstoolkit.sarima.SarmaSpecification;
+import ec.tstoolkit.sarima.estimation.HannanRissanen;
+import ec.tstoolkit.timeseries.regression.IOutlierVariable;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ArmaModuleTest {
+
+    private static ExecutorService executor;
+
+    public ArmaModuleTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testParallelSelection() {
+        PreprocessingModel model = TramoSpecification.TRfull.build().process(Data.P, null);
+        SarimaComponent arima = model.description.getArimaComponent();
+        DataBlock res = model.estimation.getLinearizedData();
+        DataBlock dres = new DataBlock(res.getLength() - arima.getDifferencingOrder());
+        arima.getDifferencingFilter().filter(res, dres);
+        SarmaSpecification maxspec = new SarmaSpecification(model.description.getFrequency());
+        maxspec.setP(3);
+        maxspec.setQ(3);
+        maxspec.setBP(1);
+        maxspec.setBQ(1);
+
+        ArmaModule seq = new ArmaModule();
+        HannanRissanen hseq = seq.tramo(dres, maxspec, arima.getD(), arima.getBD(), true);
+        ArmaModule par = new ArmaModule();
+        par.setExecutionContext(ExecutionContext.of(executor));
+        HannanRissanen hpar = par.tramo(dres, maxspec, arima.getD(), arima.getBD(), true);
+        assertEquals(hseq.getSpec(), hpar.getSpec());
+        assertEquals(seq.getCount(), par.getCount());
+        for (int i = 0; i < seq.getCount(); ++i) {
+            if (seq.getPreferedModels()[i] == null) {
+                assertNull(par.getPreferedModels()[i]);
+            } else {
+                assertEquals(seq.HR(i).getSpec(), par.HR(i).getSpec());
+                assertEquals(seq.getPreferedModels()[i].getBIC(), par.getPreferedModels()[i].getBIC(), 0);
+            }
+        }
+
+        assertEquals(seq.sort(dres, maxspec), par.sort(dres, maxspec));
+        for (int i = 0; i < seq.getCount(); ++i) {
+            assertEquals(seq.HR(i).getSpec(), par.HR(i).getSpec());
+        }
+    }
+
+    @Test
+    public void testParallelProcessor() {
+        for (TsData s : new TsData[]{Data.P, Data.X, Data.M1, Data.UNEMPLOY}) {
+            PreprocessingModel seq = TramoSpecification.TRfull.build().process(s, null);
+            TramoProcessor processor = (TramoProcessor) TramoSpecification.TRfull.build();
+            processor.setExecutionContext(ExecutionContext.of(executor));
+            PreprocessingModel par = processor.process(s, null);
+            assertEquals(seq.description.getSpecification(), par.description.getSpecification());
+            List<IOutlierVariable> oseq = seq.description.getOutliers(), opar = par.description.getOutliers();
+            assertEquals(oseq.size(), opar.size());
+            for (int i = 0; i < oseq.size(); ++i) {
+                assertEquals(oseq.get(i).getCode(), opar.get(i).getCode());
+                assertEquals(oseq.get(i).getPosition(), opar.get(i).getPosition());
+            }
+            assertEquals(seq.estimation.getLikelihood().getLogLikelihood(), par.estimation.getLikelihood().getLogLikelihood(), 0);
+        }
+    }
+}
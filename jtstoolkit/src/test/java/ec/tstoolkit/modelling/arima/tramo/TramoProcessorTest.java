@@ -18,6 +18,8 @@
 package ec.tstoolkit.modelling.arima.tramo;
 
 import data.Data;
+import ec.tstoolkit.Parameter;
+import ec.tstoolkit.ParameterType;
 import ec.tstoolkit.modelling.arima.IPreprocessor;
 import ec.tstoolkit.modelling.arima.PreprocessingModel;
 import ec.tstoolkit.timeseries.regression.IOutlierVariable;
@@ -28,6 +30,7 @@ import ec.tstoolkit.timeseries.regression.TsVariableSelection.Item;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static org.junit.Assert.*;
 
 /**
  *
@@ -46,6 +49,28 @@ public class TramoProcessorTest {
     public static void tearDownClass() throws Exception {
     }
 
+    private static TramoSpecification initialSpec(boolean warmStart) {
+        TramoSpecification spec = new TramoSpecification();
+        ArimaSpec arima = spec.getArima();
+        arima.setTheta(new Parameter[]{new Parameter(-.1, ParameterType.Initial)});
+        arima.setBTheta(new Parameter[]{new Parameter(-.1, ParameterType.Initial)});
+        arima.setWarmStart(warmStart);
+        return spec;
+    }
+
+    @Test
+    public void testInitialParameters() {
+        PreprocessingModel free = new TramoSpecification().build().process(Data.P, null);
+        PreprocessingModel initial = initialSpec(false).build().process(Data.P, null);
+        PreprocessingModel warm = initialSpec(true).build().process(Data.P, null);
+        double[] p = free.description.getArimaComponent().getParameters();
+        // user-defined initial parameters: unchanged processing (single iteration from the initial values)
+        assertFalse(initial.description.getArimaComponent().isWarmStart());
+        assertTrue(Math.abs(p[0] - initial.description.getArimaComponent().getParameters()[0]) > 1e-3);
+        // warm start: complete estimation
+        assertArrayEquals(p, warm.description.getArimaComponent().getParameters(), 1e-3);
+    }
+
 //    @Test
     public void demoOutliers() {
         TramoSpecification mySpec = TramoSpecification.TR4.clone();
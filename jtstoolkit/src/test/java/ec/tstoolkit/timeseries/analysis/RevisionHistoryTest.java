@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.analysis;
+
+import data.Data;
+import ec.tstoolkit.algorithm.ExecutionContext;
+import ec.tstoolkit.algorithm.IProcResults;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class RevisionHistoryTest {
+
+    public RevisionHistoryTest() {
+    }
+
+    // centred series; the neighbour is only recorded
+    private static class Centred implements IProcResults {
+
+        final TsData data;
+        final TsDomain neighbour;
+
+        Centred(TsData data, TsDomain neighbour) {
+            this.data = data;
+            this.neighbour = neighbour;
+        }
+
+        @Override
+        public boolean contains(String id) {
+            return "c".equals(id);
+        }
+
+        @Override
+        public Map<String, Class> getDictionary() {
+            return Collections.singletonMap("c", TsData.class);
+        }
+
+        @Override
+        public <T> T getData(String id, Class<T> tclass) {
+            return contains(id) && tclass == TsData.class ? (T) data : null;
+        }
+    }
+
+    private static class Centring implements ITsProcessing<Centred> {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Centred process(TsDomain domain) {
+            return process(domain, null);
+        }
+
+        @Override
+        public Centred process(TsDomain domain, Centred neighbour) {
+            count.incrementAndGet();
+            TsData s = Data.P.fittoDomain(domain);
+            return new Centred(s.minus(s.average()), neighbour == null ? null : neighbour.data.getDomain());
+        }
+    }
+
+    @Test
+    public void testRevisions() {
+        TsDomain domain = Data.P.getDomain();
+        TsPeriod start = domain.getLast().minus(48);
+        RevisionHistory<Centred> h0 = new RevisionHistory<>(new Centring(), domain);
+        assertTrue(h0.getExecutionContext().isSequential());
+        // Centring is thread-safe
+        RevisionHistory<Centred> h1 = new RevisionHistory<>(new Centring(), domain);
+        h1.setExecutionContext(ExecutionContext.shared());
+        TsData r0 = h0.tsRevision("c", start, start), r1 = h1.tsRevision("c", start, start);
+        assertTrue(r0.equals(r1));
+        assertEquals(49, r1.getLength());
+
+        // cached estimations
+        Centring processing = (Centring) h1.getProcessing();
+        int n = processing.count.get();
+        h1.revision("c", start);
+        h1.select("c", start.middle(), domain.getLast().middle());
+        assertEquals(n, processing.count.get());
+        // the neighbour of each estimation (except the reference) is the
+        // reference or the previous vintage
+        for (int i = 0; i < r1.getLength() - 1; ++i) {
+            TsDomain cur = new TsDomain(domain.getStart(), start.minus(domain.getStart()) + 1 + i);
+            TsDomain nb = h1.tsInfo(cur).neighbour;
+            assertTrue(nb.equals(domain) || nb.getLength() == cur.getLength() - 1);
+        }
+    }
+
+    @Test
+    public void testCacheSize() {
+        TsDomain domain = Data.P.getDomain();
+        TsPeriod start = domain.getLast().minus(48);
+        RevisionHistory<Centred> h = new RevisionHistory<>(new Centring(), domain);
+        h.setCacheSize(10);
+        Centring processing = (Centring) h.getProcessing();
+        h.tsRevision("c", start, start);
+        int n = processing.count.get();
+        // the last estimations are still in the cache
+        h.tsRevision("c", start, domain.getLast().minus(9));
+        assertEquals(n, processing.count.get());
+        // the first ones have been evicted
+        h.tsRevision("c", start, start);
+        assertEquals(n + 38, processing.count.get());
+        assertNotNull(h.getReferenceInfo());
+
+        // a smaller cache keeps the most recent estimations
+        h.setCacheSize(20);
+        h.tsRevision("c", start, domain.getLast().minus(9));
+        n = processing.count.get();
+        h.setCacheSize(5);
+        h.tsRevision("c", start, domain.getLast().minus(4));
+        assertEquals(n, processing.count.get());
+        // 9 estimations (+ the reference), 5 of them in the cache
+        h.tsRevision("c", start, domain.getLast().minus(9));
+        assertEquals(n + 4, processing.count.get());
+    }
+
+    @Test
+    public void testSlidingSpans() {
+        TsDomain domain = Data.P.getDomain();
+        SlidingSpans<Centred> s0 = new SlidingSpans<>(new Centring(), domain);
+        assertTrue(s0.getExecutionContext().isSequential());
+        SlidingSpans<Centred> s1 = new SlidingSpans<>(new Centring(), domain);
+        s1.setExecutionContext(ExecutionContext.shared());
+        assertEquals(4, s1.getSpanCount());
+        assertEquals(s0.getSpanCount(), s1.getSpanCount());
+        for (int i = 0; i < s1.getSpanCount(); ++i) {
+            assertEquals(s0.getDomain(i), s1.getDomain(i));
+            assertTrue(s0.info(i).data.equals(s1.info(i).data));
+        }
+        assertTrue(s0.Statistics("c", DiagnosticInfo.AbsoluteDifference)
+                .equals(s1.Statistics("c", DiagnosticInfo.AbsoluteDifference)));
+    }
+
+    @Test
+    public void testSlidingSpansFailure() {
+        // the reference and the first span succeed, the second span fails
+        Centring processing = new Centring() {
+            @Override
+            public Centred process(TsDomain domain, Centred neighbour) {
+                if (count.get() == 2) {
+                    count.incrementAndGet();
+                    throw new IllegalStateException();
+                }
+                return super.process(domain, neighbour);
+            }
+        };
+        SlidingSpans<Centred> s = new SlidingSpans<>(processing, Data.P.getDomain());
+        assertFalse(s.process());
+        // the last spans haven't been estimated
+        assertEquals(3, processing.count.get());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tstoolkit.timeseries.calendars;
+
+import ec.tstoolkit.data.DataBlock;
+import ec.tstoolkit.data.IReadDataBlock;
+import ec.tstoolkit.maths.matrices.Matrix;
+import ec.tstoolkit.timeseries.Month;
+import ec.tstoolkit.timeseries.regression.EasterVariable;
+import ec.tstoolkit.timeseries.regression.LeapYearVariable;
+import ec.tstoolkit.timeseries.simplets.TsDomain;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CalendarDataCacheTest {
+
+    public CalendarDataCacheTest() {
+    }
+
+    // computes the regressors without the shared cache
+    private static Matrix direct(IGregorianCalendarProvider provider, TradingDaysType type, TsDomain domain) {
+        CalendarDataCache cache = CalendarDataCache.getDefault();
+        long capacity = cache.getCapacity();
+        try {
+            cache.setCapacity(0);
+            return cached(provider, type, domain);
+        } finally {
+            cache.setCapacity(capacity);
+        }
+    }
+
+    private static Matrix cached(IGregorianCalendarProvider provider, TradingDaysType type, TsDomain domain) {
+        Matrix m = new Matrix(domain.getLength(), type.getVariablesCount());
+        provider.calendarData(type, domain, m.columnList());
+        return m;
+    }
+
+    private static NationalCalendarProvider national() {
+        NationalCalendar ncal = new NationalCalendar();
+        ncal.add(new FixedDay(1, Month.May));
+        ncal.add(new FixedDay(25, Month.December));
+        ncal.add(EasterRelatedDay.EasterMonday);
+        return new NationalCalendarProvider(ncal);
+    }
+
+    @Test
+    public void testTradingDays() {
+        NationalCalendarProvider provider = national();
+        TsDomain domain = new TsDomain(TsFrequency.Monthly, 1990, 3, 300);
+        for (TradingDaysType type : new TradingDaysType[]{TradingDaysType.TradingDays, TradingDaysType.WorkingDays}) {
+            Matrix m = direct(provider, type, domain);
+            assertEquals(0, m.distance(cached(provider, type, domain)), 0);
+            assertEquals(0, m.distance(cached(provider, type, domain)), 0);
+            m = direct(DefaultGregorianCalendarProvider.instance, type, domain);
+            assertEquals(0, m.distance(cached(DefaultGregorianCalendarProvider.instance, type, domain)), 0);
+            assertEquals(0, m.distance(cached(DefaultGregorianCalendarProvider.instance, type, domain)), 0);
+        }
+    }
+
+    @Test
+    public void testInvalidation() {
+        NationalCalendarProvider provider = national();
+        TsDomain domain = new TsDomain(TsFrequency.Quarterly, 1995, 0, 80);
+        Matrix m0 = cached(provider, TradingDaysType.TradingDays, domain);
+        provider.add(new FixedDay(11, Month.November));
+        Matrix m1 = cached(provider, TradingDaysType.TradingDays, domain);
+        assertTrue(m0.distance(m1) > 0);
+        assertEquals(0, m1.distance(direct(provider, TradingDaysType.TradingDays, domain)), 0);
+
+        // the regressors of the removed calendars are released
+        CalendarDataCache cache = CalendarDataCache.getDefault();
+        GregorianCalendarManager manager = new GregorianCalendarManager();
+        manager.set("national", provider);
+        cached(provider, TradingDaysType.TradingDays, domain);
+        long size = cache.getSize();
+        manager.remove("national");
+        assertEquals(size - 6 * domain.getLength(), cache.getSize());
+    }
+
+    @Test
+    public void testCapacity() {
+        CalendarDataCache cache = new CalendarDataCache(250);
+        TsDomain d1 = new TsDomain(TsFrequency.Monthly, 2000, 0, 100);
+        TsDomain d2 = new TsDomain(TsFrequency.Monthly, 2001, 0, 100);
+        TsDomain d3 = new TsDomain(TsFrequency.Monthly, 2002, 0, 100);
+        int[] calls = new int[1];
+        List<IReadDataBlock> r1 = cache.get(this, "x", d1, 1, cols -> {
+            ++calls[0];
+            cols.get(0).set(1);
+        });
+        List<IReadDataBlock> r2 = cache.get(this, "x", d1, 1, cols -> ++calls[0]);
+        assertEquals(1, calls[0]);
+        assertEquals(1, r1.get(0).get(99), 0);
+        assertEquals(1, r2.get(0).get(99), 0);
+        cache.get(this, "x", d2, 1, cols -> ++calls[0]);
+        // d1 is the most recently used
+        cache.get(this, "x", d1, 1, cols -> ++calls[0]);
+        cache.get(this, "x", d3, 1, cols -> ++calls[0]);
+        assertEquals(3, calls[0]);
+        assertEquals(200, cache.getSize());
+        cache.get(this, "x", d1, 1, cols -> ++calls[0]);
+        assertEquals(3, calls[0]);
+        cache.get(this, "x", d2, 1, cols -> ++calls[0]);
+        assertEquals(4, calls[0]);
+        // too large
+        cache.get(this, "y", d1, 3, cols -> ++calls[0]);
+        assertEquals(200, cache.getSize());
+        cache.setCapacity(0);
+        assertEquals(0, cache.getCount());
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        // room for 10 regressors of 100 values
+        CalendarDataCache cache = new CalendarDataCache(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; ++i) {
+                        int k = i % 25;
+                        TsDomain domain = new TsDomain(TsFrequency.Monthly, 1980 + k, 0, 100);
+                        List<IReadDataBlock> rslt = cache.get(cache, "x", domain, 1, cols -> cols.get(0).set(k));
+                        assertEquals(k, rslt.get(0).get(50), 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.getCount() <= 10);
+        assertEquals(100L * cache.getCount(), cache.getSize());
+        cache.invalidate(cache);
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testVariables() {
+        TsDomain domain = new TsDomain(TsFrequency.Monthly, 1980, 1, 480);
+        EasterVariable easter = new EasterVariable();
+        easter.setDuration(8);
+        easter.includeEaster(true);
+        CalendarDataCache cache = CalendarDataCache.getDefault();
+        long capacity = cache.getCapacity();
+        DataBlock e0 = new DataBlock(domain.getLength());
+        try {
+            cache.setCapacity(0);
+            easter.data(domain.getStart(), e0);
+        } finally {
+            cache.setCapacity(capacity);
+        }
+        for (int i = 0; i < 2; ++i) {
+            DataBlock e1 = new DataBlock(domain.getLength());
+            easter.data(domain.getStart(), e1);
+            assertEquals(0, e0.distance(e1), 0);
+        }
+        // the length of period is not cached
+        int count = cache.getCount();
+        new LeapYearVariable(LengthOfPeriodType.LengthOfPeriod).data(domain.getStart(), new DataBlock(domain.getLength()));
+        new LeapYearVariable(LengthOfPeriodType.LeapYear).data(domain.getStart(), new DataBlock(domain.getLength()));
+        assertEquals(count, cache.getCount());
+        // other parameters
+        easter.setDuration(10);
+        DataBlock e2 = new DataBlock(domain.getLength());
+        easter.data(domain.getStart(), e2);
+        assertTrue(e0.distance(e2) > 0);
+    }
+}
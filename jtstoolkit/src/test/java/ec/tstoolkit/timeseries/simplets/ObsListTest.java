@@ -21,6 +21,7 @@ import ec.tstoolkit.timeseries.simplets.ObsLists.SortableLongObsList;
 import static ec.tstoolkit.timeseries.simplets.TsFrequency.Monthly;
 import org.junit.Test;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  *
@@ -63,6 +64,23 @@ public class ObsListTest {
         assertThat(obs.getValue(0)).isEqualTo(10);
         assertThat(obs.getPeriodId(Monthly, 1)).isEqualTo(201004);
         assertThat(obs.getValue(1)).isEqualTo(40);
+
+        // stable sort of many observations
+        obs.clear();
+        for (int i = 0; i < 1000; i++) {
+            obs.add(201000 + (i * 7) % 100, i);
+        }
+        assertThat(obs.isSorted()).isFalse();
+        obs.sortByPeriod();
+        assertThat(obs.isSorted()).isTrue();
+        assertThat(obs.size()).isEqualTo(1000);
+        for (int i = 1; i < obs.size(); i++) {
+            assertThat(obs.getPeriodId(Monthly, i)).isGreaterThanOrEqualTo(obs.getPeriodId(Monthly, i - 1));
+            if (obs.getPeriodId(Monthly, i) == obs.getPeriodId(Monthly, i - 1)) {
+                assertThat(obs.getValue(i)).isGreaterThan(obs.getValue(i - 1));
+            }
+        }
+        assertThatThrownBy(() -> obs.getValue(1000)).isInstanceOf(IndexOutOfBoundsException.class);
     }
 
     @Test
@@ -169,6 +169,46 @@ public class TsDataCollectorTest {
                 .forEach(o -> assertThat(dc.make(o, None)));
     }
 
+    @Test
+    public void testPrimitiveAndLocalDate() {
+        TsDataCollector dates = new TsDataCollector();
+        TsDataCollector days = new TsDataCollector();
+        TsDataCollector times = new TsDataCollector();
+        int n = 1000;
+        long[] t = new long[n];
+        double[] v = new double[n];
+        Random rnd = new Random(0);
+        LocalDate day = LocalDate.of(1969, 12, 1);
+        for (int i = 0; i < n; ++i) {
+            // unordered days, possibly duplicated
+            LocalDate cur = day.plusDays(rnd.nextInt(2000));
+            dates.addObservation(asDate(cur), i);
+            days.addObservation(cur, i);
+            t[i] = asDate(cur).getTime();
+            v[i] = i;
+        }
+        times.addObservations(t, v);
+        for (TsFrequency freq : complementOf(of(Undefined))) {
+            for (TsAggregationType agg : complementOf(of(None))) {
+                TsData expected = dates.make(freq, agg);
+                assertThat(days.make(freq, agg)).isEqualTo(expected);
+                assertThat(times.make(freq, agg)).isEqualTo(expected);
+            }
+        }
+        assertThat(days.data()).containsExactly(dates.data());
+        assertThatThrownBy(() -> times.addObservations(new long[1], new double[2])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPeriodIdFromEpochDay() {
+        for (LocalDate day = LocalDate.of(1600, 1, 1); day.getYear() < 2400; day = day.plusDays(13)) {
+            for (TsFrequency freq : complementOf(of(Undefined))) {
+                int expected = TsPeriod.calcId(freq.intValue(), day.getYear(), (day.getMonthValue() - 1) / (12 / freq.intValue()));
+                assertThat(TsPeriod.calcIdFromEpochDay(freq.intValue(), day.toEpochDay())).isEqualTo(expected);
+            }
+        }
+    }
+
 //    @Test
     public void demoCreation1() {
 
@@ -22,7 +22,6 @@ import ec.tss.tsproviders.DataSource;
 import ec.tss.tsproviders.IFileLoader;
 import ec.tss.tsproviders.db.DbAccessor;
 import ec.tss.tsproviders.jdbc.ConnectionSupplier.DriverBasedSupplier;
-import ec.tss.tsproviders.jdbc.JdbcAccessor;
 import ec.tss.tsproviders.jdbc.JdbcBean;
 import ec.tss.tsproviders.jdbc.JdbcProvider;
 import ec.tss.tsproviders.utils.OptionalTsData;
@@ -80,7 +79,7 @@ public class OdbcProvider extends JdbcProvider<OdbcBean> implements IFileLoader
 
     @Override
     protected DbAccessor<OdbcBean> loadFromBean(OdbcBean bean) throws Exception {
-        return new JdbcAccessor(logger, bean, connectionSupplier).memoize();
+        return newAccessor(bean, connectionSupplier).memoize();
     }
 
     @Override
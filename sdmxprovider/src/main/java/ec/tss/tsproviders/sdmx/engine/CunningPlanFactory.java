@@ -20,8 +20,6 @@ import com.google.common.base.Strings;
 import ec.tss.tsproviders.sdmx.model.SdmxSource;
 import java.io.File;
 import java.io.IOException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import org.w3c.dom.Document;
 
 /**
@@ -38,14 +36,19 @@ public class CunningPlanFactory implements ISdmxSourceFactory {
         return NAME;
     }
 
+    /**
+     * Reads the file with a streaming parser instead of loading a DOM. The
+     * strategies are applied the same way as in {@link #find(Document)}.
+     *
+     * @param file
+     * @return
+     * @throws Exception
+     */
     @Override
     public SdmxSource create(File file) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(file);
-        doc.getDocumentElement().normalize();
-        return find(doc).create(doc);
+        try (SdmxCursor cursor = SdmxCursor.open(file)) {
+            return cursor.toSource();
+        }
     }
 
     public AbstractDocumentFactory find(Document doc) throws IOException {
@@ -0,0 +1,578 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.sdmx.engine;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.sdmx.model.SdmxGroup;
+import ec.tss.tsproviders.sdmx.model.SdmxItem;
+import ec.tss.tsproviders.sdmx.model.SdmxSeries;
+import ec.tss.tsproviders.sdmx.model.SdmxSource;
+import ec.tss.tsproviders.utils.DataFormat;
+import ec.tss.tsproviders.utils.IParser;
+import ec.tss.tsproviders.utils.ObsGathering;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Streaming reader of SDMX generic and compact data messages (2.0 and 2.1).
+ * The file is read with StAX and the series are built one at a time, so that
+ * the memory needed doesn't depend on the size of the file.
+ * <p>
+ * Only the first DataSet of the message is read. The format is guessed as in
+ * {@link CunningPlanFactory}: a DataSet that contains a KeyFamilyRef (or that
+ * belongs to a GenericData message) is a generic one; other DataSets are read
+ * as compact ones.
+ */
+public final class SdmxCursor implements TsCursor<String> {
+
+    @NonNull
+    public static SdmxCursor open(@NonNull File file) throws IOException {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(file.toPath()));
+        try {
+            return new SdmxCursor(XML_FACTORY.createXMLStreamReader(file.toURI().toString(), stream), stream);
+        } catch (XMLStreamException ex) {
+            closeQuietly(stream, ex);
+            throw new IOException(ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(stream, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates a cursor on a stream. The stream is not closed by the cursor.
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    @NonNull
+    public static SdmxCursor of(@NonNull InputStream stream) throws IOException {
+        try {
+            return new SdmxCursor(XML_FACTORY.createXMLStreamReader(stream), () -> {
+            });
+        } catch (XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable, Exception cause) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    private final XMLStreamReader reader;
+    private final Closeable onClose;
+    private final Calendar cal;
+    private final IParser<Number> toValue;
+    private final Map<TimeFormat, IParser<Date>> toPeriods;
+    private boolean closed;
+    private boolean genericMessage;
+    private boolean keyFamilyRef;
+    private boolean dataSetFound;
+    private boolean done;
+    private int depth;
+    private SdmxSource.Type type;
+    private Group group;
+    private SdmxSeries series;
+    private Group seriesGroup;
+
+    private SdmxCursor(XMLStreamReader reader, Closeable onClose) {
+        this.reader = reader;
+        this.onClose = onClose;
+        this.cal = new GregorianCalendar();
+        this.toValue = DEFAULT_DATA_FORMAT.numberParser();
+        this.toPeriods = new EnumMap<>(TimeFormat.class);
+    }
+
+    /**
+     * Gets the format of the DataSet; null as long as it is unknown.
+     *
+     * @return
+     */
+    public SdmxSource.Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the current series.
+     *
+     * @return
+     * @throws IllegalStateException
+     */
+    @NonNull
+    public SdmxSeries getSeries() throws IllegalStateException {
+        checkSeriesState();
+        return series;
+    }
+
+    /**
+     * Gets the key of the group that contains the current series, if any.
+     *
+     * @return The key of the group or null if the series doesn't belong to a
+     * group
+     * @throws IllegalStateException
+     */
+    public ImmutableList<Map.Entry<String, String>> getSeriesGroupKey() throws IllegalStateException {
+        checkSeriesState();
+        return seriesGroup != null ? seriesGroup.key() : null;
+    }
+
+    /**
+     * Reads all the remaining series.
+     *
+     * @return
+     * @throws IOException
+     */
+    @NonNull
+    public SdmxSource toSource() throws IOException {
+        ImmutableList.Builder<SdmxItem> items = ImmutableList.builder();
+        Group current = null;
+        ImmutableList.Builder<SdmxSeries> groupSeries = null;
+        while (nextSeries()) {
+            if (seriesGroup != current) {
+                if (current != null) {
+                    items.add(new SdmxGroup(current.key(), current.attributes(), groupSeries.build()));
+                }
+                current = seriesGroup;
+                groupSeries = current != null ? ImmutableList.builder() : null;
+            }
+            if (current != null) {
+                groupSeries.add(series);
+            } else {
+                items.add(series);
+            }
+        }
+        if (current != null) {
+            items.add(new SdmxGroup(current.key(), current.attributes(), groupSeries.build()));
+        }
+        if (!dataSetFound) {
+            throw new IOException("Cannot find a suitable SDMX strategy for '" + Strings.nullToEmpty(reader.getLocation().getSystemId()) + "'");
+        }
+        return new SdmxSource(type, items.build());
+    }
+
+    @Override
+    public boolean isClosed() throws IOException {
+        return closed;
+    }
+
+    @Override
+    public Map<String, String> getMetaData() throws IOException, IllegalStateException {
+        checkState();
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean nextSeries() throws IOException, IllegalStateException {
+        checkState();
+        series = null;
+        seriesGroup = null;
+        try {
+            while (!done) {
+                int event = reader.next();
+                if (event == START_ELEMENT) {
+                    depth++;
+                    if (onStartElement()) {
+                        return true;
+                    }
+                } else if (event == END_ELEMENT) {
+                    onEndElement();
+                    depth--;
+                } else if (event == END_DOCUMENT) {
+                    done = true;
+                }
+            }
+            return false;
+        } catch (XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public String getSeriesId() throws IOException, IllegalStateException {
+        checkSeriesState();
+        return series.id;
+    }
+
+    @Override
+    public String getSeriesLabel() throws IOException, IllegalStateException {
+        checkSeriesState();
+        return series.id;
+    }
+
+    @Override
+    public Map<String, String> getSeriesMetaData() throws IOException, IllegalStateException {
+        checkSeriesState();
+        Map<String, String> result = new LinkedHashMap<>();
+        series.attributes.forEach(o -> result.put(o.getKey(), o.getValue()));
+        return result;
+    }
+
+    @Override
+    public OptionalTsData getSeriesData() throws IOException, IllegalStateException {
+        checkSeriesState();
+        return series.data;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                reader.close();
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            } finally {
+                onClose.close();
+            }
+        }
+    }
+
+    private void checkState() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("Cursor closed");
+        }
+    }
+
+    private void checkSeriesState() throws IllegalStateException {
+        checkState();
+        if (series == null) {
+            throw new IllegalStateException("No current series");
+        }
+    }
+
+    // returns true if a series has been read
+    private boolean onStartElement() throws XMLStreamException {
+        String name = reader.getLocalName();
+        if (depth == 1) {
+            genericMessage = "GenericData".equals(name);
+        } else if (depth == 2) {
+            if (dataSetFound || !"DataSet".equals(name)) {
+                skipElement();
+            } else {
+                dataSetFound = true;
+            }
+        } else if (depth == 3) {
+            switch (name) {
+                case "KeyFamilyRef":
+                    keyFamilyRef = true;
+                    skipElement();
+                    break;
+                case "Group":
+                    if (guessType() == SdmxSource.Type.GENERIC) {
+                        group = new Group();
+                    } else {
+                        skipElement();
+                    }
+                    break;
+                case "Series":
+                    readSeries(null);
+                    return true;
+                default:
+                    skipElement();
+                    break;
+            }
+        } else if (depth == 4 && group != null) {
+            switch (name) {
+                case "GroupKey":
+                    readConcepts(group.key);
+                    depth--;
+                    break;
+                case "Attributes":
+                    readConcepts(group.attributes);
+                    depth--;
+                    break;
+                case "Series":
+                    readSeries(group);
+                    return true;
+                default:
+                    skipElement();
+                    break;
+            }
+        } else {
+            skipElement();
+        }
+        return false;
+    }
+
+    private void onEndElement() {
+        if (depth == 3) {
+            group = null;
+        } else if (depth == 2) {
+            guessType();
+            done = true;
+        }
+    }
+
+    private SdmxSource.Type guessType() {
+        if (type == null) {
+            type = genericMessage || keyFamilyRef ? SdmxSource.Type.GENERIC : SdmxSource.Type.COMPACT;
+        }
+        return type;
+    }
+
+    // the reader is positioned on the start of an element that is consumed,
+    // up to its end
+    private void skipElement() throws XMLStreamException {
+        for (int level = 1; level > 0;) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                level++;
+            } else if (event == END_ELEMENT) {
+                level--;
+            }
+        }
+        depth--;
+    }
+
+    private void readSeries(Group parent) throws XMLStreamException {
+        series = guessType() == SdmxSource.Type.GENERIC ? readGenericSeries(parent) : readCompactSeries();
+        seriesGroup = parent;
+        depth--;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Generic">
+    private SdmxSeries readGenericSeries(Group parent) throws XMLStreamException {
+        List<Map.Entry<String, String>> key = new ArrayList<>();
+        List<Map.Entry<String, String>> attributes = new ArrayList<>();
+        TimeFormat timeFormat = null;
+        OptionalTsData.Builder2<Date> data = null;
+        while (nextChild()) {
+            switch (reader.getLocalName()) {
+                case "SeriesKey":
+                    readConcepts(key);
+                    break;
+                case "Attributes":
+                    readConcepts(attributes);
+                    break;
+                case "Obs":
+                    if (data == null) {
+                        timeFormat = getTimeFormat(key, attributes);
+                        data = newBuilder(timeFormat);
+                    }
+                    readGenericObs(data, getPeriodParser(timeFormat));
+                    break;
+                default:
+                    skipChild();
+                    break;
+            }
+        }
+        if (data == null) {
+            timeFormat = getTimeFormat(key, attributes);
+            data = newBuilder(timeFormat);
+        }
+        if (parent != null) {
+            key.removeAll(parent.key);
+            attributes.removeAll(parent.key);
+        }
+        return new SdmxSeries(ImmutableList.copyOf(key), ImmutableList.copyOf(attributes), timeFormat, data.build());
+    }
+
+    private void readGenericObs(OptionalTsData.Builder2<Date> data, IParser<Date> toPeriod) throws XMLStreamException {
+        String period = null;
+        String value = null;
+        while (nextChild()) {
+            switch (reader.getLocalName()) {
+                case "Time":
+                    period = reader.getElementText();
+                    break;
+                case "ObsDimension":
+                    period = reader.getAttributeValue(null, VALUE_ATTRIBUTE);
+                    skipChild();
+                    break;
+                case "ObsValue":
+                    value = reader.getAttributeValue(null, VALUE_ATTRIBUTE);
+                    skipChild();
+                    break;
+                default:
+                    skipChild();
+                    break;
+            }
+        }
+        addObs(data, toPeriod, period, value);
+    }
+
+    private void readConcepts(List<Map.Entry<String, String>> result) throws XMLStreamException {
+        while (nextChild()) {
+            if ("Value".equals(reader.getLocalName())) {
+                String concept = reader.getAttributeValue(null, CONCEPT_ATTRIBUTE);
+                if (concept == null) {
+                    concept = reader.getAttributeValue(null, ID_ATTRIBUTE);
+                }
+                result.add(Maps.immutableEntry(concept, reader.getAttributeValue(null, VALUE_ATTRIBUTE)));
+            }
+            skipChild();
+        }
+    }
+
+    private static TimeFormat getTimeFormat(List<Map.Entry<String, String>> key, List<Map.Entry<String, String>> attributes) {
+        String timeFormat = null;
+        String freq = null;
+        List<Map.Entry<String, String>> all = new ArrayList<>(key);
+        all.addAll(attributes);
+        for (Map.Entry<String, String> o : all) {
+            if (TIME_FORMAT_ATTRIBUTE.equals(o.getKey())) {
+                timeFormat = o.getValue();
+            } else if (FREQ_ATTRIBUTE.equals(o.getKey())) {
+                freq = o.getValue();
+            }
+        }
+        return getTimeFormat(timeFormat, freq);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Compact">
+    private SdmxSeries readCompactSeries() throws XMLStreamException {
+        // same order as the attributes of a DOM node
+        Map<String, String> attributes = new TreeMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            attributes.put(prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName, reader.getAttributeValue(i));
+        }
+        TimeFormat timeFormat = getTimeFormat(attributes.remove(TIME_FORMAT_ATTRIBUTE), attributes.get(FREQ_ATTRIBUTE));
+        IParser<Date> toPeriod = getPeriodParser(timeFormat);
+        OptionalTsData.Builder2<Date> data = newBuilder(timeFormat);
+        while (nextChild()) {
+            if ("Obs".equals(reader.getLocalName())) {
+                addObs(data, toPeriod, reader.getAttributeValue(null, TIME_PERIOD_ATTRIBUTE), reader.getAttributeValue(null, OBS_VALUE_ATTRIBUTE));
+            }
+            skipChild();
+        }
+        ImmutableList.Builder<Map.Entry<String, String>> key = ImmutableList.builder();
+        attributes.forEach((k, v) -> key.add(Maps.immutableEntry(k, v)));
+        return new SdmxSeries(key.build(), ImmutableList.of(), timeFormat, data.build());
+    }
+    //</editor-fold>
+
+    // moves to the next child of the current element; returns false at the end
+    // of the current element
+    private boolean nextChild() throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                return true;
+            }
+            if (event == END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    private void skipChild() throws XMLStreamException {
+        if (reader.getEventType() != START_ELEMENT) {
+            return;
+        }
+        for (int level = 1; level > 0;) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                level++;
+            } else if (event == END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private OptionalTsData.Builder2<Date> newBuilder(TimeFormat timeFormat) {
+        ObsGathering gathering = ObsGathering.includingMissingValues(timeFormat.getFrequency(), timeFormat.getAggregationType());
+        return OptionalTsData.builderByDate(cal, gathering);
+    }
+
+    private IParser<Date> getPeriodParser(TimeFormat timeFormat) {
+        return toPeriods.computeIfAbsent(timeFormat, TimeFormat::getParser);
+    }
+
+    private void addObs(OptionalTsData.Builder2<Date> data, IParser<Date> toPeriod, String period, String value) {
+        Date date = period != null ? toPeriod.parse(period) : null;
+        data.add(date, date != null && value != null ? toValue.parse(value) : null);
+    }
+
+    private static TimeFormat getTimeFormat(String timeFormat, String freq) {
+        if (timeFormat != null) {
+            return TimeFormat.parseByTimeFormat(timeFormat);
+        }
+        if (freq != null) {
+            return TimeFormat.parseByFrequencyCodeId(freq);
+        }
+        return TimeFormat.UNDEFINED;
+    }
+
+    private static final class Group {
+
+        private final List<Map.Entry<String, String>> key = new ArrayList<>();
+        private final List<Map.Entry<String, String>> attributes = new ArrayList<>();
+
+        ImmutableList<Map.Entry<String, String>> key() {
+            return ImmutableList.copyOf(key);
+        }
+
+        ImmutableList<Map.Entry<String, String>> attributes() {
+            return ImmutableList.copyOf(attributes);
+        }
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Resources">
+    private static final String CONCEPT_ATTRIBUTE = "concept";
+    private static final String ID_ATTRIBUTE = "id";
+    private static final String VALUE_ATTRIBUTE = "value";
+    private static final String TIME_FORMAT_ATTRIBUTE = "TIME_FORMAT";
+    private static final String FREQ_ATTRIBUTE = "FREQ";
+    private static final String TIME_PERIOD_ATTRIBUTE = "TIME_PERIOD";
+    private static final String OBS_VALUE_ATTRIBUTE = "OBS_VALUE";
+
+    private static final DataFormat DEFAULT_DATA_FORMAT = DataFormat.ROOT;
+
+    private static final XMLInputFactory XML_FACTORY;
+
+    static {
+        XML_FACTORY = XMLInputFactory.newInstance();
+        XML_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or – as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package ec.tss.tsproviders.sdmx.engine;
+
+import static ec.tss.tsproviders.sdmx.engine.Utils.load;
+import ec.tss.tsproviders.sdmx.model.SdmxGroup;
+import ec.tss.tsproviders.sdmx.model.SdmxItem;
+import ec.tss.tsproviders.sdmx.model.SdmxSeries;
+import ec.tss.tsproviders.sdmx.model.SdmxSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SdmxCursorTest {
+
+    private static SdmxSource read(String name) throws IOException {
+        try (InputStream stream = SdmxCursorTest.class.getResourceAsStream(name)) {
+            try (SdmxCursor cursor = SdmxCursor.of(stream)) {
+                return cursor.toSource();
+            }
+        }
+    }
+
+    private static List<String> toList(List<? extends Map.Entry<String, String>> entries) {
+        return entries.stream().map(o -> o.getKey() + "=" + o.getValue()).collect(Collectors.toList());
+    }
+
+    private static void assertSameSeries(SdmxSeries expected, SdmxSeries found) {
+        assertEquals(expected.id, found.id);
+        assertEquals(toList(expected.key), toList(found.key));
+        assertEquals(toList(expected.attributes), toList(found.attributes));
+        assertEquals(expected.timeFormat, found.timeFormat);
+        assertEquals(expected.data, found.data);
+    }
+
+    private static void assertSameSource(SdmxSource expected, SdmxSource found) {
+        assertEquals(expected.type, found.type);
+        assertEquals(expected.items.size(), found.items.size());
+        for (int i = 0; i < expected.items.size(); ++i) {
+            SdmxItem e = expected.items.get(i), f = found.items.get(i);
+            assertEquals(e.getClass(), f.getClass());
+            if (e instanceof SdmxGroup) {
+                SdmxGroup eg = (SdmxGroup) e, fg = (SdmxGroup) f;
+                assertEquals(eg.id, fg.id);
+                assertEquals(toList(eg.attributes), toList(fg.attributes));
+                assertEquals(eg.series.size(), fg.series.size());
+                for (int j = 0; j < eg.series.size(); ++j) {
+                    assertSameSeries(eg.series.get(j), fg.series.get(j));
+                }
+            } else {
+                assertSameSeries((SdmxSeries) e, (SdmxSeries) f);
+            }
+        }
+    }
+
+    @Test
+    public void testGeneric() throws Exception {
+        assertSameSource(new GenericDocFactory().create(load("/sdmx-generic-sample.xml")), read("/sdmx-generic-sample.xml"));
+        assertSameSource(new GenericDocFactory().create(load("generic-P1Y.xml")), read("generic-P1Y.xml"));
+        assertSameSource(new GenericDocFactory().create(load("generic-P1M.xml")), read("generic-P1M.xml"));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        assertSameSource(new GuessingCompactFactory().create(load("/sdmx-compact-sample.xml")), read("/sdmx-compact-sample.xml"));
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        try (SdmxCursor cursor = SdmxCursor.of(SdmxCursorTest.class.getResourceAsStream("/sdmx-generic-sample.xml"))) {
+            assertTrue(cursor.nextSeries());
+            assertEquals(SdmxSource.Type.GENERIC, cursor.getType());
+            assertEquals("FREQ=M", cursor.getSeriesId());
+            assertEquals("JD_TYPE=P, JD_CATEGORY=A, VIS_CTY=MX", new SdmxGroup(cursor.getSeriesGroupKey(), null, null).id);
+            assertEquals(12, cursor.getSeriesData().get().getObsCount());
+            assertTrue(cursor.nextSeries());
+            assertEquals("FREQ=A", cursor.getSeriesId());
+            assertFalse(cursor.nextSeries());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoDataSet() throws Exception {
+        byte[] xml = "<?xml version=\"1.0\"?><GenericData><Header/></GenericData>".getBytes(StandardCharsets.UTF_8);
+        try (SdmxCursor cursor = SdmxCursor.of(new ByteArrayInputStream(xml))) {
+            cursor.toSource();
+        }
+    }
+}